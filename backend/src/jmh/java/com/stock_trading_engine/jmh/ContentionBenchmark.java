@@ -0,0 +1,89 @@
+package com.stock_trading_engine.jmh;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.loadtest.OrderFlow;
+import com.stock_trading_engine.orderbook.OrderBookManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Several submitters driving OrderBookManager with the mixed Poisson flow,
+ * all on one symbol versus one symbol each, in LOCK and SEQUENCER mode.
+ * Change the thread count with -t.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class ContentionBenchmark {
+
+    @Param({"LOCK", "SEQUENCER"})
+    EngineProperties.Mode mode;
+
+    private OrderBookManager manager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        EngineProperties properties = new EngineProperties();
+        properties.setMode(mode);
+        manager = new OrderBookManager(properties);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        manager.shutdown();
+    }
+
+    @State(Scope.Thread)
+    public static class Submitter {
+
+        OrderFlow hot;
+
+        OrderFlow own;
+
+        @Setup(Level.Trial)
+        public void setUp(ThreadParams thread) {
+            hot = new OrderFlow(thread.getThreadIndex(), "HOT", 10_000);
+            own = new OrderFlow(thread.getThreadIndex(), "SYM" + thread.getThreadIndex(), 10_000);
+        }
+
+    }
+
+    @Benchmark
+    public Object oneSymbol(Submitter submitter) {
+        return next(submitter.hot);
+    }
+
+    @Benchmark
+    public Object manySymbols(Submitter submitter) {
+        return next(submitter.own);
+    }
+
+    private Object next(OrderFlow flow) {
+        OrderFlow.Event event = flow.nextEvent();
+        String cancel = event == OrderFlow.Event.CANCEL ? flow.cancelTarget() : null;
+        if (cancel != null) {
+            return manager.cancelOrder(flow.getSymbol(), cancel);
+        }
+        return manager.addOrder(event == OrderFlow.Event.MARKETABLE ? flow.marketable() : flow.passive());
+    }
+
+}
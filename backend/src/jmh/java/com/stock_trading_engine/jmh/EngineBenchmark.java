@@ -0,0 +1,97 @@
+package com.stock_trading_engine.jmh;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.loadtest.OrderFlow;
+import com.stock_trading_engine.marketdata.CandleAggregator;
+import com.stock_trading_engine.marketdata.MarketDataPublisher;
+import com.stock_trading_engine.marketdata.RecentTradeCache;
+import com.stock_trading_engine.marketdata.SlowConsumerGuard;
+import com.stock_trading_engine.model.Trade;
+import com.stock_trading_engine.orderbook.OrderBookManager;
+import com.stock_trading_engine.persistence.TradePersistencePipeline;
+import com.stock_trading_engine.repo.TradeBatchWriter;
+import com.stock_trading_engine.service.MatchingEngineService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * MatchingEngineService.processOrder with the mixed Poisson flow: price
+ * conversion, matching, fill copy and hand-off to the trade writer, whose
+ * thread also feeds the recent-trades cache, candles and the market-data
+ * publisher. The database write and the broker are stubbed out, so this is
+ * the engine's own cost per order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class EngineBenchmark {
+
+    @Param({"LOCK", "SEQUENCER"})
+    EngineProperties.Mode mode;
+
+    private OrderBookManager manager;
+
+    private MarketDataPublisher publisher;
+
+    private TradePersistencePipeline pipeline;
+
+    private MatchingEngineService engine;
+
+    private OrderFlow flow;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        EngineProperties properties = new EngineProperties();
+        properties.setMode(mode);
+        manager = new OrderBookManager(properties);
+        publisher = new MarketDataPublisher(new SimpMessagingTemplate((message, timeout) -> true),
+                new SlowConsumerGuard(properties), properties);
+        TradeBatchWriter writer = new TradeBatchWriter(null, null) {
+            @Override
+            public void write(List<Trade> trades) {
+            }
+        };
+        pipeline = new TradePersistencePipeline(writer, publisher, new RecentTradeCache(properties),
+                new CandleAggregator(publisher, null), properties);
+        publisher.start();
+        pipeline.start();
+        engine = new MatchingEngineService(manager, pipeline);
+        flow = new OrderFlow(42, "BENCH", 10_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pipeline.stop();
+        publisher.stop();
+        manager.shutdown();
+    }
+
+    @Benchmark
+    public Object processOrder() {
+        OrderFlow.Event event = flow.nextEvent();
+        String cancel = event == OrderFlow.Event.CANCEL ? flow.cancelTarget() : null;
+        if (cancel != null) {
+            return engine.cancelOrder("BENCH", cancel);
+        }
+        return engine.processOrder(event == OrderFlow.Event.MARKETABLE ? flow.marketable() : flow.passive());
+    }
+
+}
@@ -0,0 +1,225 @@
+package com.stock_trading_engine.jmh;
+
+import com.stock_trading_engine.loadtest.OrderFlow;
+import com.stock_trading_engine.metrics.StageMetrics;
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.orderbook.CommandLog;
+import com.stock_trading_engine.orderbook.DepthListener;
+import com.stock_trading_engine.orderbook.FillBuffer;
+import com.stock_trading_engine.orderbook.OrderBook;
+import com.stock_trading_engine.orderbook.TickSize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Single-threaded OrderBook operations. Throughput plus a latency
+ * histogram (SampleTime reports p50/p90/p99/p99.9/p99.99).
+ *
+ * Books are rebuilt before every iteration and iterations are short, so
+ * each benchmark measures one kind of operation only: passive adds let the
+ * book grow for the iteration, crossing adds trade against resting orders
+ * too large to run out, and cancels work through a pre-built list.
+ * addNonCrossingMetered is addNonCrossing with stage metrics recording;
+ * the difference is the per-order instrumentation cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class OrderBookBenchmark {
+
+    private static final long MID = 10_000;
+
+    private static final int RESTING = 10_000;
+
+    private static final int CANCELLABLE = 1_000_000;
+
+    private final FillBuffer fills = new FillBuffer(FillBuffer.DEFAULT_CAPACITY);
+
+    private OrderFlow flow;
+
+    // Grows once to the largest sweep, then reused
+    private final FillBuffer sweepFills = new FillBuffer(FillBuffer.DEFAULT_CAPACITY);
+
+    private OrderBook book;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        flow = new OrderFlow(42, "BENCH", MID);
+        book = new OrderBook("BENCH", TickSize.of("0.01"));
+        for (int i = 0; i < RESTING; i++) {
+            book.addOrder(flow.passive(), fills);
+        }
+    }
+
+    /*
+     * Non-crossing limit order joining (or opening) a level near the mid
+     */
+    @Benchmark
+    public int addNonCrossing() {
+        return book.addOrder(flow.passive(), fills);
+    }
+
+    @Benchmark
+    public int addNonCrossingMetered(MeteredBook metered) {
+        return metered.book.addOrder(flow.passive(), fills);
+    }
+
+    /*
+     * Marketable order filled by the first resting order at the touch
+     */
+    @Benchmark
+    public int addCrossing(CrossingBook crossing) {
+        return crossing.book.addOrder(flow.marketable(OrderType.BUY, flow.quantity()), fills);
+    }
+
+    // Short iterations so one never runs out of live orders to cancel
+    @Benchmark
+    @Warmup(iterations = 5, time = 50, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 20, time = 50, timeUnit = TimeUnit.MILLISECONDS)
+    public boolean cancelOrder(CancelBook cancel) {
+        if (cancel.next == cancel.ids.size()) {
+            cancel.next = 0;
+        }
+        return cancel.book.cancelOrder(cancel.ids.get(cancel.next++));
+    }
+
+    /*
+     * The same starting book as setUp(), recording into StageMetrics
+     */
+    @State(Scope.Thread)
+    public static class MeteredBook {
+
+        OrderBook book;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            OrderFlow flow = new OrderFlow(42, "BENCH", MID);
+            book = new OrderBook("BENCH", TickSize.of("0.01"), false, CommandLog.NONE, DepthListener.NONE,
+                    new StageMetrics());
+            FillBuffer fills = new FillBuffer(1);
+            for (int i = 0; i < RESTING; i++) {
+                book.addOrder(flow.passive(), fills);
+            }
+        }
+
+    }
+
+    /*
+     * Asks with effectively unlimited size, so crossing buys never deplete the book
+     */
+    @State(Scope.Thread)
+    public static class CrossingBook {
+
+        OrderBook book;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            OrderFlow flow = new OrderFlow(7, "BENCH", MID);
+            book = new OrderBook("BENCH", TickSize.of("0.01"));
+            for (int i = 0; i < RESTING; i++) {
+                Order ask = flow.passive(OrderType.SELL);
+                // Large but still summable into the side total without overflow
+                ask.setQuantity(1L << 40);
+                ask.setRemainingQuantity(1L << 40);
+                book.addOrder(ask, new FillBuffer(1));
+            }
+        }
+
+    }
+
+    /*
+     * A million resting orders, half of them already cancelled in random
+     * order so levels are full of holes; the benchmark cancels the rest in
+     * random order
+     */
+    @State(Scope.Thread)
+    public static class CancelBook {
+
+        OrderBook book;
+
+        List<String> ids;
+
+        int next;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            OrderFlow flow = new OrderFlow(11, "BENCH", MID);
+            book = new OrderBook("BENCH", TickSize.of("0.01"));
+            FillBuffer fills = new FillBuffer(1);
+            List<String> all = new ArrayList<>(CANCELLABLE);
+            for (int i = 0; i < CANCELLABLE; i++) {
+                Order order = flow.passive();
+                book.addOrder(order, fills);
+                all.add(order.getId());
+            }
+            Collections.shuffle(all, new Random(11));
+            for (String id : all.subList(0, CANCELLABLE / 2)) {
+                book.cancelOrder(id);
+            }
+            ids = new ArrayList<>(all.subList(CANCELLABLE / 2, CANCELLABLE));
+            next = 0;
+        }
+
+    }
+
+    /*
+     * One aggressive order sweeping every resting ask across levels
+     */
+    @State(Scope.Thread)
+    public static class Sweep {
+
+        @Param({"10", "100", "1000"})
+        int levels;
+
+        @Param({"1", "10"})
+        int ordersPerLevel;
+
+        OrderBook book;
+
+        long quantity;
+
+        final OrderFlow flow = new OrderFlow(3, "BENCH", MID);
+
+        // Setup per invocation is affordable here: a sweep takes microseconds
+        @Setup(Level.Invocation)
+        public void setUp() {
+            book = new OrderBook("BENCH", TickSize.of("0.01"));
+            FillBuffer fills = new FillBuffer(1);
+            quantity = 0;
+            for (int level = 1; level <= levels; level++) {
+                for (int i = 0; i < ordersPerLevel; i++) {
+                    book.addOrder(flow.order(OrderType.SELL, MID + level, 10), fills);
+                    quantity += 10;
+                }
+            }
+        }
+
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public int deepSweep(Sweep sweep) {
+        return sweep.book.addOrder(flow.order(OrderType.BUY, MID + sweep.levels, sweep.quantity), sweepFills);
+    }
+
+}
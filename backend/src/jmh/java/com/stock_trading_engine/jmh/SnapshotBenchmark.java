@@ -0,0 +1,59 @@
+package com.stock_trading_engine.jmh;
+
+import com.stock_trading_engine.loadtest.OrderFlow;
+import com.stock_trading_engine.orderbook.FillBuffer;
+import com.stock_trading_engine.orderbook.OrderBook;
+import com.stock_trading_engine.orderbook.TickSize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Full per-order snapshot vs top-10 aggregated depth, by number of resting
+ * orders (prices clustered near the mid, as in OrderFlow).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms3g", "-Xmx3g"})
+public class SnapshotBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int restingOrders;
+
+    private OrderBook book;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        OrderFlow flow = new OrderFlow(42, "BENCH", 10_000);
+        book = new OrderBook("BENCH", TickSize.of("0.01"));
+        FillBuffer fills = new FillBuffer(1);
+        for (int i = 0; i < restingOrders; i++) {
+            book.addOrder(flow.passive(), fills);
+        }
+    }
+
+    @Benchmark
+    public OrderBook.OrderBookSnapshot getSnapshot() {
+        return book.getSnapshot();
+    }
+
+    @Benchmark
+    public OrderBook.DepthSnapshot getDepthTop10() {
+        return book.getDepth(10);
+    }
+
+}
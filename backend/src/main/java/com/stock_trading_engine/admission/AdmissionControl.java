@@ -0,0 +1,215 @@
+package com.stock_trading_engine.admission;
+
+import com.stock_trading_engine.config.EngineProperties;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/*
+ * Admission control in front of the books, on the caller's thread, so an
+ * order that cannot be served soon is refused before it queues, matches
+ * or is journaled.
+ *
+ * Intake: a new order or amend holds one of its symbol's symbolQueue
+ * places from admit until leave, i.e. while it waits for the book's lock
+ * (LOCK mode) or sits in its shard's ring (SEQUENCER mode) and while it
+ * matches. When they are all taken the order gets OVERLOADED at once
+ * instead of joining an ever longer queue. Cancels never take a place
+ * and are never rate limited, so however busy a symbol is, at most
+ * symbolQueue new orders are ahead of a cancel.
+ *
+ * Rate limit: a token bucket per user of userBurst tokens refilled at
+ * userRate per second, kept as one timestamp (GCRA): the time the bucket
+ * is full again. Each order moves it one interval later, and is refused
+ * if that would put it more than a full bucket ahead of now. One CAS per
+ * order, no lock. Full buckets are dropped when many users are tracked,
+ * since a new bucket starts full anyway.
+ */
+@Component
+@Slf4j
+public class AdmissionControl {
+
+    // Admits everything
+    public static final AdmissionControl NONE = new AdmissionControl(disabled(), System::nanoTime);
+
+    // Idle users tracked before a sweep drops full buckets
+    private static final int SWEEP_USERS = 100_000;
+
+    private static final long OVERLOADED_RETRY_MILLIS = 1_000;
+
+    private final boolean enabled;
+
+    private final int symbolQueue;
+
+    // Nanos per token, and per full bucket; 0 = no user limit
+    private final long intervalNanos;
+
+    private final long burstNanos;
+
+    private final LongSupplier clock;
+
+    private final Map<String, AtomicInteger> intake = new ConcurrentHashMap<>();
+
+    // User -> time its bucket is full again
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    private volatile int sweepAt = SWEEP_USERS;
+
+    private final LongAdder admitted = new LongAdder();
+
+    private final LongAdder rateLimited = new LongAdder();
+
+    private final LongAdder overloaded = new LongAdder();
+
+    @Autowired
+    public AdmissionControl(EngineProperties properties) {
+        this(properties.getAdmission(), System::nanoTime);
+        EngineProperties.Admission config = properties.getAdmission();
+        if (enabled) {
+            log.info("Admission control: {} orders in flight per symbol, {} orders/sec per user (burst {})",
+                    config.getSymbolQueue(), config.getUserRate() > 0 ? config.getUserRate() : "unlimited",
+                    config.getUserBurst());
+        }
+    }
+
+    AdmissionControl(EngineProperties.Admission config, LongSupplier clock) {
+        this.enabled = config.isEnabled();
+        this.symbolQueue = config.getSymbolQueue();
+        this.intervalNanos = config.getUserRate() > 0 ? (long) (1e9 / config.getUserRate()) : 0;
+        this.burstNanos = intervalNanos * Math.max(1, config.getUserBurst());
+        this.clock = clock;
+    }
+
+    private static EngineProperties.Admission disabled() {
+        EngineProperties.Admission config = new EngineProperties.Admission();
+        config.setEnabled(false);
+        return config;
+    }
+
+    /*
+     * Admit a new order: take a token from the user's bucket, then a place
+     * in the symbol's intake, which the caller must give back with leave
+     * once the book has answered. Throws AdmissionRejectedException if
+     * either is exhausted.
+     */
+    public void admit(String symbol, String userId) {
+        if (!enabled) {
+            return;
+        }
+        takeToken(userId);
+        enter(symbol);
+    }
+
+    /*
+     * Take a place in the symbol's intake (amends, batches), without the rate limit
+     */
+    public void enter(String symbol) {
+        if (!enabled) {
+            return;
+        }
+        AtomicInteger inFlight = intake.get(symbol);
+        if (inFlight == null) {
+            inFlight = intake.computeIfAbsent(symbol, s -> new AtomicInteger());
+        }
+        int n;
+        do {
+            n = inFlight.get();
+            if (n >= symbolQueue) {
+                overloaded.increment();
+                throw new AdmissionRejectedException(AdmissionRejectedException.Reason.OVERLOADED,
+                        symbol + " is overloaded, retry shortly", OVERLOADED_RETRY_MILLIS);
+            }
+        } while (!inFlight.compareAndSet(n, n + 1));
+        admitted.increment();
+    }
+
+    public void leave(String symbol) {
+        if (!enabled) {
+            return;
+        }
+        AtomicInteger inFlight = intake.get(symbol);
+        if (inFlight != null) {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /*
+     * Take one token from the user's bucket (a null user shares one
+     * anonymous bucket), or throw RATE_LIMITED
+     */
+    public void takeToken(String userId) {
+        if (!enabled || intervalNanos == 0) {
+            return;
+        }
+        long now = clock.getAsLong();
+        String user = userId != null ? userId : "";
+        AtomicLong bucket = buckets.get(user);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(user, u -> new AtomicLong(now));
+            if (buckets.size() > sweepAt) {
+                sweep(now);
+            }
+        }
+        while (true) {
+            long full = bucket.get();
+            long next = (full - now > 0 ? full : now) + intervalNanos;
+            long ahead = next - now;
+            if (ahead > burstNanos) {
+                rateLimited.increment();
+                throw new AdmissionRejectedException(AdmissionRejectedException.Reason.RATE_LIMITED,
+                        "Rate limit exceeded for " + userId,
+                        Math.max(1, TimeUnit.NANOSECONDS.toMillis(ahead - burstNanos)));
+            }
+            if (bucket.compareAndSet(full, next)) {
+                return;
+            }
+        }
+    }
+
+    /*
+     * Orders of a symbol currently admitted and not yet answered
+     */
+    public int inFlight(String symbol) {
+        AtomicInteger inFlight = intake.get(symbol);
+        return inFlight == null ? 0 : inFlight.get();
+    }
+
+    public Stats getStats() {
+        return new Stats(enabled, admitted.sum(), rateLimited.sum(), overloaded.sum(), buckets.size());
+    }
+
+    // Drop the buckets that are full again; one sweeper at a time
+    private void sweep(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+            sweepAt = Math.max(SWEEP_USERS, buckets.size() * 2);
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    @Value
+    public static class Stats {
+        boolean enabled;
+        long admitted;
+        long rateLimited;
+        long overloaded;
+        int trackedUsers;
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.stock_trading_engine.admission;
+
+import lombok.Getter;
+
+/*
+ * An order refused before it reached its book: nothing was matched,
+ * journaled or persisted, so the client can simply retry after
+ * retryAfterMillis. No stack trace: these are thrown under overload.
+ */
+@Getter
+public class AdmissionRejectedException extends RuntimeException {
+
+    public enum Reason {
+        // The user's token bucket is empty (HTTP 429)
+        RATE_LIMITED,
+        // The symbol's intake is full (HTTP 503)
+        OVERLOADED
+    }
+
+    private final Reason reason;
+
+    private final long retryAfterMillis;
+
+    public AdmissionRejectedException(Reason reason, String message, long retryAfterMillis) {
+        super(message, null, false, false);
+        this.reason = reason;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.stock_trading_engine.checkpoint;
+
+import com.stock_trading_engine.orderbook.BookState;
+import lombok.Value;
+
+import java.util.List;
+
+/*
+ * Captured state of every book.
+ * journalSequence is the journal position read before the first book was
+ * captured: every record at or below it is already reflected in the books,
+ * and each book's own logSequence marks exactly where its replay resumes.
+ */
+@Value
+public class Checkpoint {
+
+    long journalSequence;
+
+    long createdAtMillis;
+
+    List<BookState> books;
+
+}
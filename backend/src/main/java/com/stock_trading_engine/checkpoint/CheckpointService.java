@@ -0,0 +1,122 @@
+package com.stock_trading_engine.checkpoint;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.journal.Journal;
+import com.stock_trading_engine.orderbook.BookState;
+import com.stock_trading_engine.orderbook.OrderBookManager;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.*;
+
+/*
+ * Takes checkpoints on a schedule or on demand.
+ * Books are captured under their own lock / on their shard thread (a flat
+ * copy), then serialized and written on the checkpoint thread so matching
+ * only pauses for the copy.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CheckpointService {
+
+    private final OrderBookManager orderBookManager;
+    private final CheckpointStore checkpointStore;
+    private final Journal journal;
+    private final EngineProperties properties;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "checkpoint-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        long interval = properties.getCheckpoint().getIntervalSeconds();
+        if (!checkpointStore.isEnabled() || interval <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "checkpoint-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint();
+            } catch (Exception e) {
+                log.error("Scheduled checkpoint failed", e);
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+        log.info("Checkpoints scheduled every {} s", interval);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        writer.shutdown();
+    }
+
+    /*
+     * Capture every book, write the checkpoint and purge the journal segments
+     * covered by every retained checkpoint
+     */
+    public Result checkpoint() {
+        if (!checkpointStore.isEnabled()) {
+            throw new IllegalStateException("Checkpoints are disabled (engine.checkpoint.enabled)");
+        }
+        long start = System.nanoTime();
+        Checkpoint checkpoint = orderBookManager.capture();
+        long captured = System.nanoTime();
+
+        Future<Long> written = writer.submit(() -> checkpointStore.write(checkpoint));
+        long bytes;
+        try {
+            bytes = written.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing checkpoint", e);
+        } catch (ExecutionException e) {
+            throw new UncheckedIOException("Checkpoint write failed",
+                    e.getCause() instanceof IOException io ? io : new IOException(e.getCause()));
+        }
+        long done = System.nanoTime();
+
+        if (properties.getCheckpoint().isPurgeJournal()) {
+            // Up to the oldest retained checkpoint, which recovery falls back to if the newest is unreadable
+            try {
+                journal.purge(checkpointStore.oldestRetainedSequence());
+            } catch (IOException e) {
+                log.warn("Journal not purged: cannot list checkpoints: {}", e.getMessage());
+            }
+        }
+
+        long orders = checkpoint.getBooks().stream().mapToLong(BookState::getSize).sum();
+        Result result = new Result(checkpoint.getJournalSequence(), checkpoint.getBooks().size(), orders, bytes,
+                (captured - start) / 1_000_000, (done - captured) / 1_000_000);
+        log.info("Checkpoint written: {}", result);
+        return result;
+    }
+
+    @Value
+    public static class Result {
+        long journalSequence;
+        int books;
+        long orders;
+        long bytes;
+        long captureMillis;
+        long writeMillis;
+    }
+
+}
@@ -0,0 +1,266 @@
+package com.stock_trading_engine.checkpoint;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.model.OrderStatus;
+import com.stock_trading_engine.model.TimeInForce;
+import com.stock_trading_engine.orderbook.BookState;
+import com.stock_trading_engine.orderbook.TickSize;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/*
+ * Reads and writes checkpoint files.
+ *
+ * Layout: [int magic][int version][long journalSequence][long createdAt]
+ * [int books] then per book [utf symbol][long unscaledTick][byte scale]
+ * [long sequence][long logSequence][int orders] and per order
+ * [utf id][utf userId][bool buy][long priceTicks][long qty][long remaining]
+ * [byte status][long sequence][long epochSecond][int nano][byte timeInForce]
+ * [long expiry epoch millis, 0 = none] (version 1 files, which predate the
+ * last two, are still read as all GTC);
+ * trailer [long crc32 of everything before it].
+ *
+ * Files are written to a temp name, forced, then atomically renamed, so a
+ * crash mid-write never leaves a half checkpoint under the real name.
+ */
+@Component
+@Slf4j
+public class CheckpointStore {
+
+    private static final int MAGIC = 0x43484B50; // "CHKP"
+
+    private static final int VERSION = 2;
+
+    private static final String PREFIX = "checkpoint-";
+
+    private static final String SUFFIX = ".bin";
+
+    private final EngineProperties.Checkpoint config;
+
+    private final Path directory;
+
+    public CheckpointStore(EngineProperties properties) {
+        this.config = properties.getCheckpoint();
+        this.directory = Paths.get(config.getDirectory());
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /*
+     * Write a checkpoint and prune old ones. Returns the file size in bytes.
+     */
+    public long write(Checkpoint checkpoint) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(String.format("%s%020d%s", PREFIX, checkpoint.getJournalSequence(), SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+
+        try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(checkpoint.getJournalSequence());
+            out.writeLong(checkpoint.getCreatedAtMillis());
+            out.writeInt(checkpoint.getBooks().size());
+            for (BookState book : checkpoint.getBooks()) {
+                writeBook(out, book);
+            }
+            out.flush();
+            long crc = checked.getChecksum().getValue();
+            out.writeLong(crc);
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        prune();
+        return Files.size(target);
+    }
+
+    /*
+     * One book in the checkpoint book layout, for moving it between engines
+     */
+    public static byte[] encode(BookState book) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + book.getSize() * 96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeBook(out, book);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static BookState decode(byte[] encoded) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            return readBook(in, VERSION);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed book state: " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeBook(DataOutputStream out, BookState book) throws IOException {
+        out.writeUTF(book.getSymbol());
+        out.writeLong(book.getTickSize().getUnscaledTick());
+        out.writeByte(book.getTickSize().getScale());
+        out.writeLong(book.getSequence());
+        out.writeLong(book.getLogSequence());
+        out.writeInt(book.getSize());
+        for (int i = 0; i < book.getSize(); i++) {
+            out.writeUTF(book.id(i));
+            writeNullable(out, book.userId(i));
+            out.writeBoolean(book.isBuy(i));
+            out.writeLong(book.priceTicks(i));
+            out.writeLong(book.quantity(i));
+            out.writeLong(book.remainingQuantity(i));
+            out.writeByte(book.status(i).ordinal());
+            out.writeLong(book.orderSequence(i));
+            out.writeLong(book.epochSecond(i));
+            out.writeInt(book.nano(i));
+            out.writeByte(book.timeInForce(i).ordinal());
+            out.writeLong(book.expiry(i));
+        }
+    }
+
+    /*
+     * Newest readable checkpoint, or null if there is none. An unreadable
+     * one falls back to the previous; if none can be read while the journal
+     * is purged, recovery fails rather than replay a journal with a hole.
+     */
+    public Checkpoint loadLatest() {
+        if (!isEnabled() || !Files.isDirectory(directory)) {
+            return null;
+        }
+        List<Path> files;
+        try {
+            files = checkpoints();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list checkpoints in " + directory, e);
+        }
+        for (int i = files.size() - 1; i >= 0; i--) {
+            try {
+                Checkpoint checkpoint = read(files.get(i));
+                log.info("Loaded checkpoint {} ({} books)", files.get(i).getFileName(), checkpoint.getBooks().size());
+                return checkpoint;
+            } catch (IOException e) {
+                log.warn("Skipping unreadable checkpoint {}: {}", files.get(i), e.getMessage());
+            }
+        }
+        if (!files.isEmpty() && config.isPurgeJournal()) {
+            throw new IllegalStateException("None of the " + files.size() + " checkpoints in " + directory
+                    + " is readable and the journal before them may be purged; refusing to recover");
+        }
+        return null;
+    }
+
+    /*
+     * Journal sequence of the oldest checkpoint kept: loadLatest may fall
+     * back as far as that one, so the journal is only purged up to it.
+     * -1 if there is none.
+     */
+    public long oldestRetainedSequence() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return -1;
+        }
+        List<Path> files = checkpoints();
+        if (files.isEmpty()) {
+            return -1;
+        }
+        String name = files.get(0).getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static Checkpoint read(Path file) throws IOException {
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            CheckedInputStream checked = new CheckedInputStream(raw, new CRC32());
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a checkpoint file");
+            }
+            int version = in.readInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported checkpoint version " + version);
+            }
+            long journalSequence = in.readLong();
+            long createdAt = in.readLong();
+            int count = in.readInt();
+            List<BookState> books = new ArrayList<>(count);
+            for (int b = 0; b < count; b++) {
+                books.add(readBook(in, version));
+            }
+            long expected = checked.getChecksum().getValue();
+            if (new DataInputStream(raw).readLong() != expected) {
+                throw new IOException("Checksum mismatch");
+            }
+            return new Checkpoint(journalSequence, createdAt, books);
+        }
+    }
+
+    private static BookState readBook(DataInputStream in, int version) throws IOException {
+        String symbol = in.readUTF();
+        TickSize tickSize = TickSize.of(in.readLong(), in.readByte());
+        long sequence = in.readLong();
+        long logSequence = in.readLong();
+        int size = in.readInt();
+        BookState book = new BookState(symbol, tickSize, sequence, logSequence, size);
+        OrderStatus[] statuses = OrderStatus.values();
+        TimeInForce[] timesInForce = TimeInForce.values();
+        for (int i = 0; i < size; i++) {
+            String id = in.readUTF();
+            String userId = readNullable(in);
+            boolean buy = in.readBoolean();
+            long priceTicks = in.readLong();
+            long quantity = in.readLong();
+            long remaining = in.readLong();
+            OrderStatus status = statuses[in.readByte()];
+            long orderSequence = in.readLong();
+            long epochSecond = in.readLong();
+            int nano = in.readInt();
+            TimeInForce timeInForce = version >= 2 ? timesInForce[in.readByte()] : TimeInForce.GTC;
+            long expiry = version >= 2 ? in.readLong() : 0;
+            book.add(id, userId, buy, priceTicks, quantity, remaining, status, orderSequence, epochSecond, nano,
+                    timeInForce, expiry);
+        }
+        return book;
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private List<Path> checkpoints() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> {
+                        String name = f.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted(Comparator.comparing(Path::getFileName))
+                    .toList();
+        }
+    }
+
+    private void prune() throws IOException {
+        List<Path> files = checkpoints();
+        for (int i = 0; i < files.size() - config.getRetain(); i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.stock_trading_engine.config;
+
+import com.stock_trading_engine.marketdata.BinaryMarketDataHandler;
+import com.stock_trading_engine.marketdata.SlowConsumerGuard;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/*
+ * Opt-in raw WebSocket endpoint for binary market data, next to the STOMP
+ * one. Not SockJS: the fallbacks are text-only.
+ */
+@Configuration
+@EnableWebSocket
+@ConditionalOnProperty(prefix = "engine.market-data", name = "binary", havingValue = "true")
+@RequiredArgsConstructor
+public class BinaryMarketDataConfig implements WebSocketConfigurer {
+
+    private final BinaryMarketDataHandler binaryMarketDataHandler;
+
+    private final SlowConsumerGuard slowConsumerGuard;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // Same bounded per-session queue as the STOMP endpoint
+        registry.addHandler(slowConsumerGuard.decorate(binaryMarketDataHandler), "/ws-binary")
+                .setAllowedOriginPatterns("*");
+    }
+
+}
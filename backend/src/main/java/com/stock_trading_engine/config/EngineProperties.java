@@ -0,0 +1,267 @@
+package com.stock_trading_engine.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Matching engine settings, bound from the "engine" prefix.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "engine")
+public class EngineProperties {
+
+    // LOCK: request threads match under a per-book lock
+    // SEQUENCER: commands are queued to single-threaded matching shards
+    private Mode mode = Mode.LOCK;
+
+    // Number of matching shards (threads) in SEQUENCER mode
+    private int shards = 4;
+
+    // Pre-allocated command slots per shard, must be a power of two
+    private int ringSize = 8192;
+
+    // 0-63, distinct per engine instance so engine-assigned order ids never collide
+    private int nodeId = 0;
+
+    // Tick size for any symbol not listed in tickSizes
+    private BigDecimal defaultTickSize = new BigDecimal("0.01");
+
+    // Per-symbol overrides, e.g. engine.tick-sizes.BRK=1
+    private Map<String, BigDecimal> tickSizes = new HashMap<>();
+
+    // Write-ahead journal of accepted commands
+    private Journal journal = new Journal();
+
+    // Periodic full-book snapshots that bound journal replay
+    private Checkpoint checkpoint = new Checkpoint();
+
+    // DAY / GTD order expiry
+    private Expiry expiry = new Expiry();
+
+    // Filled / cancelled / expired orders kept for order status queries
+    private OrderHistory orderHistory = new OrderHistory();
+
+    // Per-symbol intake bound and per-user rate limits in front of the books
+    private Admission admission = new Admission();
+
+    // WebSocket publishing stage
+    private MarketData marketData = new MarketData();
+
+    // Trade persistence stage
+    private Persistence persistence = new Persistence();
+
+    // Stage latency histograms and engine gauges
+    private Metrics metrics = new Metrics();
+
+    // Binary order-entry gateway (NIO TCP)
+    private Gateway gateway = new Gateway();
+
+    // Symbol router in front of several engine instances
+    private Router router = new Router();
+
+    public BigDecimal tickSizeFor(String symbol) {
+        return tickSizes.getOrDefault(symbol, defaultTickSize);
+    }
+
+    public enum Mode {
+        LOCK, SEQUENCER
+    }
+
+    @Data
+    public static class Journal {
+
+        private boolean enabled = false;
+
+        private String directory = "data/journal";
+
+        // Bytes per memory-mapped segment file
+        private int segmentSize = 64 * 1024 * 1024;
+
+        private FsyncPolicy fsyncPolicy = FsyncPolicy.GROUP_COMMIT;
+
+        // Flush interval for GROUP_COMMIT
+        private long groupCommitMicros = 1000;
+
+    }
+
+    @Data
+    public static class Checkpoint {
+
+        private boolean enabled = false;
+
+        private String directory = "data/checkpoints";
+
+        // 0 disables the schedule (on-demand only)
+        private long intervalSeconds = 300;
+
+        // Checkpoint files kept on disk
+        private int retain = 2;
+
+        // Delete journal segments fully covered by a written checkpoint
+        private boolean purgeJournal = true;
+
+    }
+
+    @Data
+    public static class Expiry {
+
+        // Off: DAY / GTD orders are still accepted but rest until cancelled
+        private boolean enabled = true;
+
+        // How often books are checked for due orders
+        private long intervalMillis = 100;
+
+        // DAY orders expire at the next session close (system time zone)
+        private LocalTime sessionClose = LocalTime.of(16, 0);
+
+    }
+
+    @Data
+    public static class OrderHistory {
+
+        // Terminal orders remembered per book (oldest dropped first); 0 keeps none
+        private int capacity = 10_000;
+
+        // Older terminal orders are no longer reported
+        private long ttlSeconds = 3600;
+
+    }
+
+    @Data
+    public static class Admission {
+
+        // Off: every order goes straight to its book
+        private boolean enabled = true;
+
+        // New orders and amends per symbol waiting for or inside the book; more are refused (503)
+        private int symbolQueue = 256;
+
+        // Orders per second per user once the burst is spent (429 beyond it); 0 = no user limit
+        private double userRate = 1000;
+
+        private int userBurst = 2000;
+
+    }
+
+    @Data
+    public static class MarketData {
+
+        // Book updates per symbol are merged and sent at most once per interval; 0 sends every delta
+        private long conflationMillis = 50;
+
+        // Events waiting for the publisher thread; beyond this they are dropped (clients re-sync)
+        private int queueCapacity = 65536;
+
+        // Outbound frames buffered per WebSocket session before the slow-consumer policy applies
+        private int subscriberQueue = 1024;
+
+        private SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.DROP_OLDEST;
+
+        // Newest trades kept in memory per symbol for GET /api/trades; 0 disables the cache
+        private int recentTrades = 1000;
+
+        // Also serve depth and trades as binary frames on the raw WebSocket endpoint /ws-binary
+        private boolean binary = false;
+
+    }
+
+    @Data
+    public static class Persistence {
+
+        // Orders-with-fills waiting to be written; submitters block when it is full
+        private int queueCapacity = 10_000;
+
+        // Trades per JDBC batch / transaction
+        private int batchSize = 500;
+
+        // Longest a trade waits for its batch to fill up
+        private long maxDelayMillis = 10;
+
+        // Retry backoff after a failed write, doubling up to the max
+        private long retryBackoffMillis = 100;
+
+        private long maxRetryBackoffMillis = 5_000;
+
+        // Batches still unwritten at shutdown are saved here and written on the next start
+        private String spillDirectory = "data/trade-spill";
+
+    }
+
+    @Data
+    public static class Metrics {
+
+        // Histogram window and rate sampling interval
+        private int sampleSeconds = 10;
+
+    }
+
+    @Data
+    public static class Gateway {
+
+        private boolean enabled = false;
+
+        // 0 binds an ephemeral port
+        private int port = 9001;
+
+        // Direct inbound and outbound buffer per connection; a client that lets
+        // the outbound buffer fill up is disconnected
+        private int bufferSize = 64 * 1024;
+
+        // Cancel a session's open orders when its connection drops
+        private boolean cancelOnDisconnect = true;
+
+    }
+
+    @Data
+    public static class Router {
+
+        // Run as the routing front-end: symbol calls are forwarded, not matched here
+        private boolean enabled = false;
+
+        // Engine base URLs, e.g. http://localhost:8081
+        private List<String> instances = new ArrayList<>();
+
+        // Points per instance on the consistent-hash ring
+        private int virtualNodes = 128;
+
+        // Symbols pinned to an instance regardless of the ring (e.g. after a move)
+        private Map<String, String> assignments = new HashMap<>();
+
+        private long connectTimeoutMillis = 2_000;
+
+        private long requestTimeoutMillis = 10_000;
+
+        // Largest market-data frame relayed from an engine
+        private int relayFrameBytes = 1024 * 1024;
+
+        // A released book is saved here until a new owner has adopted it
+        private String handoverDirectory = "data/handover";
+
+    }
+
+    public enum SlowConsumerPolicy {
+        // discard the oldest queued frame; depth clients see a sequence gap and re-sync
+        DROP_OLDEST,
+        // close the session; the client reconnects and loads a fresh snapshot
+        DISCONNECT
+    }
+
+    public enum FsyncPolicy {
+        // force() after every command
+        PER_COMMAND,
+        // a background thread forces dirty pages every groupCommitMicros
+        GROUP_COMMIT,
+        // leave write-back to the OS (forced only on roll and shutdown)
+        OS
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.stock_trading_engine.config;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+
+/*
+ * Opt-in virtual threads (spring.threads.virtual.enabled, Java 21+).
+ *
+ * With the property on, Spring Boot runs Tomcat request handling, the
+ * application task executor and the STOMP channels on virtual threads;
+ * the trade-writer and market-data-publisher stages take their thread from
+ * here. Matching shards, the gateway selector and the journal flusher stay
+ * on platform threads: they spin or own a core and gain nothing from
+ * unmounting. On an older runtime the property is ignored with a warning
+ * and everything runs on platform threads.
+ */
+@Component
+@Slf4j
+public class VirtualThreads {
+
+    public static final VirtualThreads PLATFORM = new VirtualThreads(false);
+
+    @Getter
+    private final boolean active;
+
+    private final ThreadFactory factory;
+
+    public VirtualThreads(@Value("${spring.threads.virtual.enabled:false}") boolean enabled) {
+        boolean supported = Runtime.version().feature() >= 21;
+        if (enabled && !supported) {
+            log.warn("spring.threads.virtual.enabled needs Java 21+, running on {}; using platform threads",
+                    Runtime.version());
+        }
+        this.active = enabled && supported;
+        this.factory = active ? new VirtualThreadTaskExecutor().getVirtualThreadFactory() : null;
+        if (active) {
+            log.info("Virtual threads enabled for request handling, trade persistence and publishing");
+        }
+    }
+
+    /*
+     * Unstarted stage thread: virtual when active, otherwise a platform daemon
+     */
+    public Thread newThread(String name, Runnable task) {
+        Thread thread;
+        if (active) {
+            thread = factory.newThread(task);
+            thread.setName(name);
+        } else {
+            thread = new Thread(task, name);
+            thread.setDaemon(true);
+        }
+        return thread;
+    }
+
+}
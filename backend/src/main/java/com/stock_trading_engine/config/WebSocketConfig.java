@@ -1,20 +1,28 @@
 package com.stock_trading_engine.config;
 
+import com.stock_trading_engine.marketdata.SlowConsumerGuard;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final SlowConsumerGuard slowConsumerGuard;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Enable simple in-memory broker with destination prefixes
         config.enableSimpleBroker("/topic");
         config.setApplicationDestinationPrefixes("/app");
+        // Depth deltas must reach each client in sequence order
+        config.setPreservePublishOrder(true);
     }
 
     @Override
@@ -25,4 +33,10 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .withSockJS();
     }
 
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Bounded per-session outbound queue with a slow-consumer policy
+        registration.addDecoratorFactory(slowConsumerGuard::decorate);
+    }
+
 }
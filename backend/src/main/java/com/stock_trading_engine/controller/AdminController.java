@@ -0,0 +1,81 @@
+package com.stock_trading_engine.controller;
+
+import com.stock_trading_engine.checkpoint.CheckpointService;
+import com.stock_trading_engine.checkpoint.CheckpointStore;
+import com.stock_trading_engine.orderbook.BookState;
+import com.stock_trading_engine.orderbook.OrderBookManager;
+import com.stock_trading_engine.persistence.TradePersistencePipeline;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminController {
+
+    private final CheckpointService checkpointService;
+    private final TradePersistencePipeline tradePersistencePipeline;
+    private final OrderBookManager orderBookManager;
+
+    /*
+     * Take a checkpoint now
+     * POST /api/admin/checkpoint
+     */
+    @PostMapping("/checkpoint")
+    public ResponseEntity<?> checkpoint() {
+        try {
+            return ResponseEntity.ok(checkpointService.checkpoint());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    /*
+     * Trade writer counters: persisted, batch size, queue depth, retries, backpressure
+     * GET /api/admin/persistence
+     */
+    @GetMapping("/persistence")
+    public ResponseEntity<TradePersistencePipeline.Stats> persistence() {
+        return ResponseEntity.ok(tradePersistencePipeline.getStats());
+    }
+
+    /*
+     * Hand a book to another engine (called by the router during a move):
+     * its resting orders are cancelled here and returned in the checkpoint
+     * book encoding
+     * POST /api/admin/books/{symbol}/release
+     */
+    @PostMapping(value = "/books/{symbol}/release", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> release(@PathVariable String symbol) {
+        BookState state = orderBookManager.release(symbol);
+        if (state == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(CheckpointStore.encode(state));
+    }
+
+    /*
+     * Take over a released book; its orders are journaled, so it survives
+     * a restart of this engine
+     * POST /api/admin/books/adopt
+     */
+    @PostMapping(value = "/books/adopt", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> adopt(@RequestBody byte[] body) {
+        BookState state;
+        try {
+            state = CheckpointStore.decode(body);
+            orderBookManager.adopt(state);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+        return ResponseEntity.ok(state.getSize());
+    }
+
+}
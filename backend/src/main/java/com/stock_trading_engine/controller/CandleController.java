@@ -0,0 +1,44 @@
+package com.stock_trading_engine.controller;
+
+import com.stock_trading_engine.marketdata.CandleAggregator;
+import com.stock_trading_engine.marketdata.CandleInterval;
+import com.stock_trading_engine.marketdata.Candles;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/candles")
+@ConditionalOnProperty(prefix = "engine.router", name = "enabled", havingValue = "false", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class CandleController {
+
+    private final CandleAggregator candleAggregator;
+
+    /*
+     * OHLCV bars (oldest first) and the rolling 24h ticker
+     * GET /api/candles/{symbol}?interval=1m&limit=100 (interval: 1s, 1m, 5m, 1h)
+     */
+    @GetMapping("/{symbol}")
+    public ResponseEntity<Candles> getCandles(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "1m") String interval,
+            @RequestParam(defaultValue = "100") int limit) {
+
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be > 0");
+        }
+        return ResponseEntity.ok(candleAggregator.getCandles(symbol, CandleInterval.fromLabel(interval), limit));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleInvalidRequest(IllegalArgumentException e) {
+        log.warn("Rejected request: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.stock_trading_engine.controller;
+
+import com.stock_trading_engine.marketdata.MarketDataPublisher;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/marketdata")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class MarketDataController {
+
+    private final MarketDataPublisher marketDataPublisher;
+
+    /*
+     * Publisher counters: conflation ratio, queue depth, drops
+     * GET /api/marketdata/stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<MarketDataPublisher.Stats> stats() {
+        return ResponseEntity.ok(marketDataPublisher.getStats());
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.stock_trading_engine.controller;
+
+import com.stock_trading_engine.metrics.EngineMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/metrics")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class MetricsController {
+
+    private final EngineMetrics engineMetrics;
+
+    /*
+     * Stage latencies (last window and since start, in µs), queue depths
+     * and per-symbol book size and order/trade rates
+     * GET /api/metrics/engine
+     */
+    @GetMapping("/engine")
+    public ResponseEntity<EngineMetrics.Snapshot> engine() {
+        return ResponseEntity.ok(engineMetrics.getSnapshot());
+    }
+
+}
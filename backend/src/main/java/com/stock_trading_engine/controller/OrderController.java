@@ -1,27 +1,38 @@
 package com.stock_trading_engine.controller;
 
+import com.stock_trading_engine.admission.AdmissionRejectedException;
 import com.stock_trading_engine.model.Order;
 import com.stock_trading_engine.model.OrderStatus;
 import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.model.TimeInForce;
 import com.stock_trading_engine.model.Trade;
+import com.stock_trading_engine.orderbook.FillBuffer;
 import com.stock_trading_engine.orderbook.OrderBook;
 import com.stock_trading_engine.service.MatchingEngineService;
 import com.stock_trading_engine.service.TradeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api")
+@ConditionalOnProperty(prefix = "engine.router", name = "enabled", havingValue = "false", matchIfMissing = true)
 @RequiredArgsConstructor
 @Slf4j
 @CrossOrigin(origins = "*")
 public class OrderController {
 
+    // Most orders accepted by one POST /api/orders/batch
+    private static final int MAX_BATCH = 1_000;
+
     private final MatchingEngineService matchingEngineService;
     private final TradeService tradeService;
 
@@ -36,27 +47,39 @@ public class OrderController {
                 request.getSymbol(), request.getPrice());
 
         // Create order
-        Order order = Order.createNew(
-                request.getSymbol(),
-                request.getType(),
-                request.getPrice(),
-                request.getQuantity(),
-                request.getUserId()
-        );
+        Order order = toOrder(request);
 
         // Process order through matching engine
-        List<Trade> trades = matchingEngineService.processOrder(order);
+        FillBuffer fills = matchingEngineService.processOrder(order);
 
         // Build response
-        OrderResponse response = OrderResponse.builder()
-                .orderId(order.getId())
-                .status(order.getStatus())
-                .remainingQuantity(order.getRemainingQuantity())
-                .executedTrades(trades.size())
-                .message("Order processed successfully")
-                .build();
+        return ResponseEntity.ok(toResponse(order, fills, "Order processed successfully"));
+    }
+
+    /*
+     * Submit up to MAX_BATCH orders in one request; each symbol's orders are
+     * applied in one book command. Per-order results, in request order;
+     * an invalid order is REJECTED without affecting the others.
+     * POST /api/orders/batch
+     */
+    @PostMapping("/orders/batch")
+    public ResponseEntity<List<OrderResponse>> submitOrders(@RequestBody List<OrderRequest> requests) {
+        if (requests.isEmpty() || requests.size() > MAX_BATCH) {
+            throw new IllegalArgumentException("A batch must have 1 to " + MAX_BATCH + " orders");
+        }
+        log.info("Received batch of {} orders", requests.size());
 
-        return ResponseEntity.ok(response);
+        List<Order> orders = new ArrayList<>(requests.size());
+        for (OrderRequest request : requests) {
+            orders.add(toOrder(request));
+        }
+
+        List<OrderResponse> responses = new ArrayList<>(orders.size());
+        for (MatchingEngineService.OrderResult result : matchingEngineService.processOrders(orders)) {
+            responses.add(toResponse(result.getOrder(), result.getFills(),
+                    result.getError() != null ? result.getError() : "Order processed successfully"));
+        }
+        return ResponseEntity.ok(responses);
     }
 
     /*
@@ -77,6 +100,76 @@ public class OrderController {
         }
     }
 
+    /*
+     * Cancel an order by id, without its symbol
+     * DELETE /api/orders/{orderId}
+     */
+    @DeleteMapping(value = "/orders/{orderId}", params = {"!userId", "!side"})
+    public ResponseEntity<String> cancelOrderById(@PathVariable String orderId) {
+        if (matchingEngineService.cancelOrder(orderId)) {
+            return ResponseEntity.ok("Order cancelled successfully");
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    /*
+     * One order: resting, or recently filled / cancelled / expired
+     * GET /api/orders/{orderId}
+     */
+    @GetMapping("/orders/{orderId}")
+    public ResponseEntity<Order> getOrder(@PathVariable String orderId) {
+        Order order = matchingEngineService.getOrder(orderId);
+        return order != null ? ResponseEntity.ok(order) : ResponseEntity.notFound().build();
+    }
+
+    /*
+     * A user's resting orders and recently terminal ones, per symbol newest first
+     * GET /api/orders?userId=u1
+     */
+    @GetMapping("/orders")
+    public ResponseEntity<List<Order>> getUserOrders(@RequestParam String userId) {
+        return ResponseEntity.ok(matchingEngineService.getUserOrders(userId));
+    }
+
+    /*
+     * Amend a resting order's price and/or total quantity. A smaller
+     * quantity at the same price keeps the order's place in the queue;
+     * any other change re-queues it at the back (and may match).
+     * PUT /api/orders/{symbol}/{orderId}
+     */
+    @PutMapping("/orders/{symbol}/{orderId}")
+    public ResponseEntity<OrderResponse> amendOrder(
+            @PathVariable String symbol,
+            @PathVariable String orderId,
+            @RequestBody AmendRequest request) {
+
+        OrderBook.Amendment amendment =
+                matchingEngineService.amendOrder(symbol, orderId, request.getPrice(), request.getQuantity());
+        if (amendment == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(toResponse(amendment.getOrder(), amendment.getFills(),
+                amendment.isRequeued() ? "Order re-queued" : "Order amended in place"));
+    }
+
+    /*
+     * Mass cancel a user's and/or one side's resting orders on a symbol
+     * (at least one filter is required)
+     * DELETE /api/orders/{symbol}?userId=u1&side=BUY
+     */
+    @DeleteMapping("/orders/{symbol}")
+    public ResponseEntity<MassCancelResponse> cancelOrders(
+            @PathVariable String symbol,
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) OrderType side) {
+
+        if (userId == null && side == null) {
+            throw new IllegalArgumentException("Mass cancel needs a userId and/or side");
+        }
+        List<String> cancelled = matchingEngineService.cancelOrders(symbol, userId, side);
+        return ResponseEntity.ok(new MassCancelResponse(symbol, cancelled.size(), cancelled));
+    }
+
     /*
      * Get order book snapshot
      * GET /api/orderbook/{symbol}
@@ -95,6 +188,27 @@ public class OrderController {
         }
     }
 
+    /*
+     * Get aggregated price levels, stamped with the sequence of the last depth delta
+     * GET /api/depth/{symbol}?levels=10 (levels omitted or 0 = every level)
+     */
+    @GetMapping("/depth/{symbol}")
+    public ResponseEntity<OrderBook.DepthSnapshot> getDepth(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "0") int levels) {
+
+        if (levels < 0) {
+            throw new IllegalArgumentException("levels must be >= 0");
+        }
+        OrderBook.DepthSnapshot depth =
+                matchingEngineService.getDepth(symbol, levels == 0 ? Integer.MAX_VALUE : levels);
+        if (depth != null) {
+            return ResponseEntity.ok(depth);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     /*
      * Get recent trades
      * GET /api/trades/{symbol}?limit=50
@@ -108,6 +222,53 @@ public class OrderController {
         return ResponseEntity.ok(trades);
     }
 
+    private static Order toOrder(OrderRequest request) {
+        Order order = Order.createNew(
+                request.getSymbol(),
+                request.getType(),
+                request.getPrice(),
+                request.getQuantity(),
+                request.getUserId()
+        );
+        if (request.getTimeInForce() != null) {
+            order.setTimeInForce(request.getTimeInForce());
+        }
+        order.setExpireTime(request.getExpireTime());
+        return order;
+    }
+
+    private static OrderResponse toResponse(Order order, FillBuffer fills, String message) {
+        return OrderResponse.builder()
+                .orderId(order.getId())
+                .status(order.getStatus())
+                .remainingQuantity(order.getRemainingQuantity())
+                .executedTrades(fills.size())
+                .message(message)
+                .build();
+    }
+
+    /*
+     * Refused by admission control before reaching the book: 429 when the
+     * user is over their rate limit, 503 when the symbol is overloaded
+     */
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<String> handleRejected(AdmissionRejectedException e) {
+        HttpStatus status = e.getReason() == AdmissionRejectedException.Reason.RATE_LIMITED
+                ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf((e.getRetryAfterMillis() + 999) / 1000))
+                .body(e.getMessage());
+    }
+
+    /*
+     * Invalid order input (e.g. price off the tick grid)
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleInvalidOrder(IllegalArgumentException e) {
+        log.warn("Rejected request: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
     // DTOs
     @lombok.Data
     public static class OrderRequest {
@@ -116,6 +277,15 @@ public class OrderController {
         private java.math.BigDecimal price;
         private long quantity;
         private String userId;
+        // GTC when omitted; GTD needs expireTime (local date-time, engine's time zone)
+        private TimeInForce timeInForce;
+        private java.time.LocalDateTime expireTime;
+    }
+
+    @lombok.Data
+    public static class AmendRequest {
+        private java.math.BigDecimal price;
+        private long quantity;
     }
 
     @lombok.Data
@@ -128,4 +298,11 @@ public class OrderController {
         private String message;
     }
 
+    @lombok.Value
+    public static class MassCancelResponse {
+        String symbol;
+        int cancelled;
+        List<String> orderIds;
+    }
+
 }
@@ -0,0 +1,39 @@
+package com.stock_trading_engine.gateway;
+
+import com.stock_trading_engine.model.OrderIds;
+import com.stock_trading_engine.model.OrderType;
+
+/*
+ * An open order entered through the gateway: the client's clOrdId, the
+ * engine's order id (and its internal form, which fills carry) and the
+ * quantity the client has not yet seen filled.
+ * Owned by the gateway thread.
+ */
+final class GatewayOrder {
+
+    final GatewaySession session;
+
+    final long clOrdId;
+
+    final String orderId;
+
+    final long orderKey;
+
+    final OrderType type;
+
+    final OrderGateway.GatewaySymbol symbol;
+
+    long leavesQuantity;
+
+    GatewayOrder(GatewaySession session, long clOrdId, String orderId, OrderType type,
+                 OrderGateway.GatewaySymbol symbol, long leavesQuantity) {
+        this.session = session;
+        this.clOrdId = clOrdId;
+        this.orderId = orderId;
+        this.orderKey = OrderIds.toInternal(orderId);
+        this.type = type;
+        this.symbol = symbol;
+        this.leavesQuantity = leavesQuantity;
+    }
+
+}
@@ -0,0 +1,204 @@
+package com.stock_trading_engine.gateway;
+
+import java.nio.ByteBuffer;
+
+/*
+ * Fixed-layout binary order-entry protocol.
+ *
+ * Every frame is [short length][byte type][body], length counting the
+ * whole frame. Numbers are big-endian; each type has one fixed length.
+ * Prices are fixed-point with PRICE_SCALE implied decimals (100.25 is
+ * 1002500) and must still be on the symbol's tick grid. Symbols and user
+ * ids are ASCII, padded with zero bytes.
+ *
+ * Client to gateway:
+ *   LOGON     [16 userId]
+ *   NEW       [long clOrdId][byte side][8 symbol][long price][long quantity]
+ *   CANCEL    [long clOrdId]
+ *   REPLACE   [long origClOrdId][long clOrdId][long price][long quantity]
+ *
+ * Gateway to client:
+ *   ACK       [long clOrdId][byte status][long leavesQuantity]
+ *   FILL      [long clOrdId][long price][long quantity][long leavesQuantity]
+ *   REJECT    [long clOrdId][byte reason]
+ *
+ * clOrdIds are chosen by the client and must be unique among its open
+ * orders. A cancel is acknowledged with status CANCELLED; a replace
+ * cancels the original and acknowledges the replacement under its new
+ * clOrdId (the replacement joins the back of its price level).
+ */
+public final class GatewayProtocol {
+
+    public static final int HEADER = 3;
+
+    public static final int PRICE_SCALE = 4;
+
+    public static final int SYMBOL_LENGTH = 8;
+
+    public static final int USER_LENGTH = 16;
+
+    public static final byte LOGON = 'L';
+
+    public static final byte NEW_ORDER = 'N';
+
+    public static final byte CANCEL = 'C';
+
+    public static final byte REPLACE = 'R';
+
+    public static final byte ACK = 'A';
+
+    public static final byte FILL = 'F';
+
+    public static final byte REJECT = 'J';
+
+    public static final int LOGON_LENGTH = HEADER + USER_LENGTH;
+
+    public static final int NEW_ORDER_LENGTH = HEADER + 8 + 1 + SYMBOL_LENGTH + 8 + 8;
+
+    public static final int CANCEL_LENGTH = HEADER + 8;
+
+    public static final int REPLACE_LENGTH = HEADER + 8 + 8 + 8 + 8;
+
+    public static final int ACK_LENGTH = HEADER + 8 + 1 + 8;
+
+    public static final int FILL_LENGTH = HEADER + 8 + 8 + 8 + 8;
+
+    public static final int REJECT_LENGTH = HEADER + 8 + 1;
+
+    public static final byte BUY = 0;
+
+    public static final byte SELL = 1;
+
+    // ACK status, same order as OrderStatus
+    public static final byte STATUS_OPEN = 1;
+
+    public static final byte STATUS_PARTIALLY_FILLED = 2;
+
+    public static final byte STATUS_FILLED = 3;
+
+    public static final byte STATUS_CANCELLED = 4;
+
+    // REJECT reasons
+    public static final byte NOT_LOGGED_IN = 1;
+
+    public static final byte UNKNOWN_ORDER = 2;
+
+    public static final byte DUPLICATE_ORDER = 3;
+
+    public static final byte INVALID_PRICE = 4;
+
+    public static final byte INVALID_QUANTITY = 5;
+
+    public static final byte INVALID_SYMBOL = 6;
+
+    public static final byte INVALID_SIDE = 7;
+
+    public static final byte ENGINE_ERROR = 8;
+
+    // Refused by admission control; nothing was matched, retry later
+    public static final byte RATE_LIMITED = 9;
+
+    public static final byte OVERLOADED = 10;
+
+    private GatewayProtocol() {
+    }
+
+    /*
+     * Frame length for a type, or -1 if the type is unknown
+     */
+    public static int lengthOf(byte type) {
+        return switch (type) {
+            case LOGON -> LOGON_LENGTH;
+            case NEW_ORDER -> NEW_ORDER_LENGTH;
+            case CANCEL -> CANCEL_LENGTH;
+            case REPLACE -> REPLACE_LENGTH;
+            case ACK -> ACK_LENGTH;
+            case FILL -> FILL_LENGTH;
+            case REJECT -> REJECT_LENGTH;
+            default -> -1;
+        };
+    }
+
+    public static void putLogon(ByteBuffer buf, String userId) {
+        header(buf, LOGON_LENGTH, LOGON);
+        putAscii(buf, userId, USER_LENGTH);
+    }
+
+    public static void putNewOrder(ByteBuffer buf, long clOrdId, byte side, String symbol, long price,
+                                   long quantity) {
+        header(buf, NEW_ORDER_LENGTH, NEW_ORDER);
+        buf.putLong(clOrdId);
+        buf.put(side);
+        putAscii(buf, symbol, SYMBOL_LENGTH);
+        buf.putLong(price);
+        buf.putLong(quantity);
+    }
+
+    public static void putCancel(ByteBuffer buf, long clOrdId) {
+        header(buf, CANCEL_LENGTH, CANCEL);
+        buf.putLong(clOrdId);
+    }
+
+    public static void putReplace(ByteBuffer buf, long origClOrdId, long clOrdId, long price, long quantity) {
+        header(buf, REPLACE_LENGTH, REPLACE);
+        buf.putLong(origClOrdId);
+        buf.putLong(clOrdId);
+        buf.putLong(price);
+        buf.putLong(quantity);
+    }
+
+    public static void putAck(ByteBuffer buf, long clOrdId, byte status, long leavesQuantity) {
+        header(buf, ACK_LENGTH, ACK);
+        buf.putLong(clOrdId);
+        buf.put(status);
+        buf.putLong(leavesQuantity);
+    }
+
+    public static void putFill(ByteBuffer buf, long clOrdId, long price, long quantity, long leavesQuantity) {
+        header(buf, FILL_LENGTH, FILL);
+        buf.putLong(clOrdId);
+        buf.putLong(price);
+        buf.putLong(quantity);
+        buf.putLong(leavesQuantity);
+    }
+
+    public static void putReject(ByteBuffer buf, long clOrdId, byte reason) {
+        header(buf, REJECT_LENGTH, REJECT);
+        buf.putLong(clOrdId);
+        buf.put(reason);
+    }
+
+    private static void header(ByteBuffer buf, int length, byte type) {
+        buf.putShort((short) length);
+        buf.put(type);
+    }
+
+    /*
+     * Write up to width ASCII characters, zero-padded
+     */
+    static void putAscii(ByteBuffer buf, String value, int width) {
+        int length = Math.min(value.length(), width);
+        for (int i = 0; i < length; i++) {
+            buf.put((byte) value.charAt(i));
+        }
+        for (int i = length; i < width; i++) {
+            buf.put((byte) 0);
+        }
+    }
+
+    /*
+     * Read a zero-padded ASCII field; allocates, so only for rare messages (logon)
+     */
+    static String getAscii(ByteBuffer buf, int offset, int width) {
+        StringBuilder value = new StringBuilder(width);
+        for (int i = 0; i < width; i++) {
+            byte b = buf.get(offset + i);
+            if (b == 0) {
+                break;
+            }
+            value.append((char) b);
+        }
+        return value.toString();
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.stock_trading_engine.gateway;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/*
+ * One client connection. Frames are decoded in place from the inbound
+ * buffer and reports are encoded straight into the outbound buffer; both
+ * are direct and allocated once per connection. Owned by the gateway thread.
+ */
+final class GatewaySession {
+
+    final SocketChannel channel;
+
+    final SelectionKey key;
+
+    // Read mode only while frames are decoded
+    final ByteBuffer in;
+
+    // Always in write mode between flushes
+    final ByteBuffer out;
+
+    // Open orders by clOrdId
+    final LongMap<GatewayOrder> orders = new LongMap<>(256);
+
+    // Set by LOGON; orders are rejected until then
+    String userId;
+
+    // Has unflushed reports
+    boolean dirty;
+
+    boolean closed;
+
+    GatewaySession(SocketChannel channel, SelectionKey key, int bufferSize) {
+        this.channel = channel;
+        this.key = key;
+        this.in = ByteBuffer.allocateDirect(bufferSize);
+        this.out = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /*
+     * Room for a report of the given length, flushing first if needed.
+     * False means the client is not reading and the session must go.
+     */
+    boolean reserve(int length) throws IOException {
+        if (out.remaining() >= length) {
+            return true;
+        }
+        flush();
+        return out.remaining() >= length;
+    }
+
+    /*
+     * Write whatever the socket takes; wait for OP_WRITE for the rest
+     */
+    void flush() throws IOException {
+        out.flip();
+        channel.write(out);
+        out.compact();
+        dirty = false;
+        int interest = out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        if (key.interestOps() != interest) {
+            key.interestOps(interest);
+        }
+    }
+
+    String describe() {
+        try {
+            return userId + "@" + channel.getRemoteAddress();
+        } catch (IOException e) {
+            return String.valueOf(userId);
+        }
+    }
+
+}
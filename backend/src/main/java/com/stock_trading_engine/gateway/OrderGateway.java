@@ -0,0 +1,605 @@
+package com.stock_trading_engine.gateway;
+
+import com.stock_trading_engine.admission.AdmissionRejectedException;
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.metrics.Stage;
+import com.stock_trading_engine.metrics.StageMetrics;
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderStatus;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.orderbook.OrderListener;
+import com.stock_trading_engine.orderbook.TickSize;
+import com.stock_trading_engine.service.MatchingEngineService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.stock_trading_engine.gateway.GatewayProtocol.*;
+
+/*
+ * Binary order-entry gateway over NIO TCP (protocol in GatewayProtocol).
+ *
+ * One "order-gateway" thread owns the selector, every session and every
+ * gateway order, so nothing here is locked. Frames are decoded in place
+ * from each session's direct buffer (symbols through a code -> symbol
+ * cache), passed to the same MatchingEngineService call as REST orders,
+ * and reports are encoded into the owning sessions' outbound buffers,
+ * flushed once per selector pass. Each message is timed as the GATEWAY stage.
+ *
+ * Fills and unfilled exits come from the books (see OrderListener), so a
+ * gateway order is reported whoever traded it: a gateway, REST, batch or
+ * amended order, and an expiry, mass cancel or release is reported as
+ * cancelled. The listener queues events for watched gateway orders and
+ * wakes the gateway thread; an order's own fills are drained as soon as
+ * the engine returns it.
+ */
+@Component
+@Slf4j
+public class OrderGateway {
+
+    // Symbols cached by wire code; unknown codes beyond this are decoded per message
+    private static final int MAX_SYMBOLS = 4096;
+
+    private final MatchingEngineService matchingEngineService;
+
+    private final EngineProperties properties;
+
+    private final EngineProperties.Gateway config;
+
+    private final StageMetrics stageMetrics;
+
+    private final LongMap<GatewaySymbol> symbols = new LongMap<>(64);
+
+    // Internal engine order id -> open gateway order, to report its fills and exits
+    private final LongMap<GatewayOrder> byOrderId = new LongMap<>(1024);
+
+    // Internal ids of open gateway orders, read by the listener on engine threads
+    private final Set<Long> watched = ConcurrentHashMap.newKeySet();
+
+    // Fills and exits of watched orders, for the gateway thread
+    private final Queue<OrderEvent> events = new ConcurrentLinkedQueue<>();
+
+    private final OrderListener orderEvents = new OrderListener() {
+        @Override
+        public void filled(long key, long priceTicks, long quantity, long remaining) {
+            if (watched.contains(key)) {
+                publish(new OrderEvent(key, priceTicks, quantity, remaining, null));
+            }
+        }
+
+        @Override
+        public void done(long key, OrderStatus status) {
+            if (watched.contains(key)) {
+                publish(new OrderEvent(key, 0, 0, 0, status));
+            }
+        }
+    };
+
+    // Sessions with reports written in this pass
+    private final List<GatewaySession> dirty = new ArrayList<>();
+
+    private final LongAdder messages = new LongAdder();
+
+    private final LongAdder rejects = new LongAdder();
+
+    private final LongAdder disconnects = new LongAdder();
+
+    private Selector selector;
+
+    private ServerSocketChannel server;
+
+    private volatile boolean running;
+
+    private Thread thread;
+
+    public OrderGateway(MatchingEngineService matchingEngineService, EngineProperties properties,
+                        StageMetrics stageMetrics) {
+        this.matchingEngineService = matchingEngineService;
+        this.properties = properties;
+        this.config = properties.getGateway();
+        this.stageMetrics = stageMetrics;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        try {
+            selector = Selector.open();
+            server = ServerSocketChannel.open();
+            server.bind(new InetSocketAddress(config.getPort()));
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Order gateway could not bind port " + config.getPort(), e);
+        }
+        running = true;
+        thread = new Thread(this::run, "order-gateway");
+        thread.setDaemon(true);
+        matchingEngineService.setOrderListener(orderEvents);
+        thread.start();
+        log.info("Order gateway listening on port {}", getPort());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        matchingEngineService.setOrderListener(null);
+        selector.wakeup();
+        try {
+            thread.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Order gateway stopped");
+    }
+
+    /*
+     * Bound port (differs from the configured one when that is 0), or -1 when not running
+     */
+    public int getPort() {
+        return server != null ? server.socket().getLocalPort() : -1;
+    }
+
+    public long getMessages() {
+        return messages.sum();
+    }
+
+    public long getRejects() {
+        return rejects.sum();
+    }
+
+    public long getDisconnects() {
+        return disconnects.sum();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        GatewaySession session = (GatewaySession) key.attachment();
+                        try {
+                            if (key.isWritable()) {
+                                session.flush();
+                            }
+                            if (key.isReadable()) {
+                                read(session);
+                            }
+                        } catch (IOException e) {
+                            log.debug("Gateway session {} failed", session.describe(), e);
+                            close(session);
+                        }
+                    }
+                }
+                drainEvents();
+                flushDirty();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Order gateway failed", e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof GatewaySession session) {
+                    close(session);
+                }
+            }
+            closeQuietly(server);
+            closeQuietly(selector);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        GatewaySession session = new GatewaySession(channel, key, config.getBufferSize());
+        key.attach(session);
+        log.info("Gateway connection from {}", channel.getRemoteAddress());
+    }
+
+    /*
+     * Decode every complete frame in the inbound buffer
+     */
+    private void read(GatewaySession session) throws IOException {
+        ByteBuffer in = session.in;
+        if (session.channel.read(in) < 0) {
+            close(session);
+            return;
+        }
+        in.flip();
+        while (in.remaining() >= HEADER && !session.closed) {
+            int pos = in.position();
+            int length = in.getShort(pos) & 0xFFFF;
+            byte type = in.get(pos + 2);
+            if (!isInbound(type) || length != lengthOf(type)) {
+                log.warn("Gateway session {} sent malformed frame (type {}, length {})",
+                        session.describe(), type, length);
+                close(session);
+                return;
+            }
+            if (in.remaining() < length) {
+                break;
+            }
+            long start = System.nanoTime();
+            handle(session, type, in, pos);
+            stageMetrics.record(Stage.GATEWAY, System.nanoTime() - start);
+            messages.increment();
+            in.position(pos + length);
+        }
+        in.compact();
+    }
+
+    private static boolean isInbound(byte type) {
+        return type == LOGON || type == NEW_ORDER || type == CANCEL || type == REPLACE;
+    }
+
+    private void handle(GatewaySession session, byte type, ByteBuffer in, int pos) throws IOException {
+        int body = pos + HEADER;
+        if (type == LOGON) {
+            session.userId = getAscii(in, body, USER_LENGTH);
+            log.info("Gateway logon {}", session.describe());
+            return;
+        }
+        long clOrdId = in.getLong(body);
+        if (session.userId == null) {
+            reject(session, clOrdId, NOT_LOGGED_IN);
+            return;
+        }
+        switch (type) {
+            case NEW_ORDER -> newOrder(session, clOrdId, in.get(body + 8), symbol(in, body + 9),
+                    in.getLong(body + 9 + SYMBOL_LENGTH), in.getLong(body + 17 + SYMBOL_LENGTH));
+            case CANCEL -> cancel(session, clOrdId);
+            case REPLACE -> replace(session, clOrdId, in.getLong(body + 8), in.getLong(body + 16),
+                    in.getLong(body + 24));
+            default -> throw new IllegalStateException("Unexpected frame type " + type);
+        }
+    }
+
+    private void newOrder(GatewaySession session, long clOrdId, byte side, GatewaySymbol symbol,
+                          long price, long quantity) throws IOException {
+        if (side != BUY && side != SELL) {
+            reject(session, clOrdId, INVALID_SIDE);
+        } else if (symbol == null) {
+            reject(session, clOrdId, INVALID_SYMBOL);
+        } else if (validate(session, clOrdId, true, symbol, price, quantity)) {
+            submit(session, clOrdId, side == BUY ? OrderType.BUY : OrderType.SELL, symbol,
+                    price / symbol.tickUnits, quantity);
+        }
+    }
+
+    private void cancel(GatewaySession session, long clOrdId) throws IOException {
+        // Report fills that got here first
+        drainEvents();
+        GatewayOrder order = session.orders.get(clOrdId);
+        if (order == null) {
+            reject(session, clOrdId, UNKNOWN_ORDER);
+            return;
+        }
+        if (cancelInEngine(order)) {
+            ack(session, clOrdId, STATUS_CANCELLED, 0);
+        } else {
+            reject(session, clOrdId, UNKNOWN_ORDER);
+        }
+    }
+
+    /*
+     * Cancel the original, then enter the replacement as a new order
+     */
+    private void replace(GatewaySession session, long origClOrdId, long clOrdId, long price, long quantity)
+            throws IOException {
+        drainEvents();
+        GatewayOrder original = session.orders.get(origClOrdId);
+        if (original == null) {
+            reject(session, clOrdId, UNKNOWN_ORDER);
+            return;
+        }
+        if (clOrdId != origClOrdId && session.orders.get(clOrdId) != null) {
+            reject(session, clOrdId, DUPLICATE_ORDER);
+            return;
+        }
+        // Reusing the original's clOrdId is allowed: it is free once the original is cancelled
+        if (!validate(session, clOrdId, clOrdId != origClOrdId, original.symbol, price, quantity)) {
+            return;
+        }
+        OrderType type = original.type;
+        if (!cancelInEngine(original)) {
+            // Filled (or cancelled) before the replace got here
+            reject(session, clOrdId, UNKNOWN_ORDER);
+            return;
+        }
+        submit(session, clOrdId, type, original.symbol, price / original.symbol.tickUnits, quantity);
+    }
+
+    /*
+     * checkDuplicate: reject a clOrdId the session already has live
+     */
+    private boolean validate(GatewaySession session, long clOrdId, boolean checkDuplicate, GatewaySymbol symbol,
+                             long price, long quantity) throws IOException {
+        byte reason = 0;
+        if (quantity <= 0) {
+            reason = INVALID_QUANTITY;
+        } else if (price <= 0 || price % symbol.tickUnits != 0) {
+            reason = INVALID_PRICE;
+        } else if (checkDuplicate && session.orders.get(clOrdId) != null) {
+            reason = DUPLICATE_ORDER;
+        }
+        if (reason != 0) {
+            reject(session, clOrdId, reason);
+            return false;
+        }
+        return true;
+    }
+
+    private void submit(GatewaySession session, long clOrdId, OrderType type, GatewaySymbol symbol,
+                        long priceTicks, long quantity) throws IOException {
+        Order order = Order.createNew(symbol.name, type, symbol.tickSize.toPrice(priceTicks), quantity,
+                session.userId);
+        GatewayOrder taker = new GatewayOrder(session, clOrdId, order.getId(), type, symbol, quantity);
+        // Watched before it can rest, so no fill or cancel from another caller is missed
+        watched.add(taker.orderKey);
+        try {
+            matchingEngineService.processOrder(order);
+        } catch (AdmissionRejectedException e) {
+            watched.remove(taker.orderKey);
+            reject(session, clOrdId,
+                    e.getReason() == AdmissionRejectedException.Reason.RATE_LIMITED ? RATE_LIMITED : OVERLOADED);
+            return;
+        } catch (RuntimeException e) {
+            watched.remove(taker.orderKey);
+            log.warn("Gateway order {} from {} failed: {}", clOrdId, session.describe(), e.getMessage());
+            reject(session, clOrdId, ENGINE_ERROR);
+            return;
+        }
+
+        session.orders.put(clOrdId, taker);
+        byOrderId.put(taker.orderKey, taker);
+        ack(session, clOrdId, STATUS_OPEN, quantity);
+        // Both sides of its fills are queued by now
+        drainEvents();
+    }
+
+    private void publish(OrderEvent event) {
+        events.add(event);
+        if (Thread.currentThread() != thread) {
+            selector.wakeup();
+        }
+    }
+
+    /*
+     * Report queued fills and exits; an order filled or gone is forgotten,
+     * freeing its clOrdId. Events of orders already forgotten (cancelled
+     * here, or their session closed) are dropped.
+     */
+    private void drainEvents() {
+        OrderEvent event;
+        while ((event = events.poll()) != null) {
+            GatewayOrder order = byOrderId.get(event.key);
+            if (order == null) {
+                continue;
+            }
+            try {
+                if (event.status == null) {
+                    order.leavesQuantity = event.remaining;
+                    fill(order, event.priceTicks * order.symbol.tickUnits, event.quantity);
+                    if (event.remaining == 0) {
+                        forget(order);
+                    }
+                } else {
+                    forget(order);
+                    ack(order.session, order.clOrdId, STATUS_CANCELLED, 0);
+                }
+            } catch (IOException e) {
+                log.debug("Gateway session {} failed", order.session.describe(), e);
+                close(order.session);
+            }
+        }
+    }
+
+    private boolean cancelInEngine(GatewayOrder order) {
+        forget(order);
+        try {
+            return matchingEngineService.cancelOrder(order.symbol.name, order.orderId);
+        } catch (RuntimeException e) {
+            log.warn("Gateway cancel of {} failed: {}", order.orderId, e.getMessage());
+            return false;
+        }
+    }
+
+    private void forget(GatewayOrder order) {
+        order.session.orders.remove(order.clOrdId);
+        byOrderId.remove(order.orderKey);
+        watched.remove(order.orderKey);
+    }
+
+    /*
+     * Symbol for the 8-byte code at offset, or null if it is not a valid symbol
+     */
+    private GatewaySymbol symbol(ByteBuffer in, int offset) {
+        long code = in.getLong(offset);
+        GatewaySymbol symbol = symbols.get(code);
+        if (symbol != null) {
+            return symbol;
+        }
+        String name = getAscii(in, offset, SYMBOL_LENGTH);
+        if (name.isEmpty() || !name.chars().allMatch(c -> c > ' ' && c < 127)) {
+            return null;
+        }
+        TickSize tickSize = TickSize.of(properties.tickSizeFor(name));
+        BigDecimal units = tickSize.getTick().movePointRight(PRICE_SCALE);
+        if (units.stripTrailingZeros().scale() > 0) {
+            // Tick finer than the wire price scale
+            return null;
+        }
+        symbol = new GatewaySymbol(name, tickSize, units.longValueExact());
+        if (symbols.size() < MAX_SYMBOLS) {
+            symbols.put(code, symbol);
+        }
+        return symbol;
+    }
+
+    private void ack(GatewaySession session, long clOrdId, byte status, long leavesQuantity) throws IOException {
+        if (reserve(session, ACK_LENGTH)) {
+            putAck(session.out, clOrdId, status, leavesQuantity);
+        }
+    }
+
+    private void fill(GatewayOrder order, long price, long quantity) throws IOException {
+        if (reserve(order.session, FILL_LENGTH)) {
+            putFill(order.session.out, order.clOrdId, price, quantity, order.leavesQuantity);
+        }
+    }
+
+    private void reject(GatewaySession session, long clOrdId, byte reason) throws IOException {
+        rejects.increment();
+        if (reserve(session, REJECT_LENGTH)) {
+            putReject(session.out, clOrdId, reason);
+        }
+    }
+
+    /*
+     * Make room for a report; a client that stopped reading is dropped
+     */
+    private boolean reserve(GatewaySession session, int length) throws IOException {
+        if (session.closed) {
+            return false;
+        }
+        if (!session.reserve(length)) {
+            log.warn("Gateway session {} is not reading its reports, disconnecting", session.describe());
+            close(session);
+            return false;
+        }
+        if (!session.dirty) {
+            session.dirty = true;
+            dirty.add(session);
+        }
+        return true;
+    }
+
+    private void flushDirty() {
+        for (int i = 0; i < dirty.size(); i++) {
+            GatewaySession session = dirty.get(i);
+            if (session.closed || !session.dirty) {
+                continue;
+            }
+            try {
+                session.flush();
+            } catch (IOException e) {
+                log.debug("Gateway session {} failed", session.describe(), e);
+                close(session);
+            }
+        }
+        dirty.clear();
+    }
+
+    private void close(GatewaySession session) {
+        if (session.closed) {
+            return;
+        }
+        session.closed = true;
+        disconnects.increment();
+        GatewayOrder[] open = session.orders.values(new GatewayOrder[0]);
+        for (GatewayOrder order : open) {
+            if (config.isCancelOnDisconnect()) {
+                cancelInEngine(order);
+            } else {
+                forget(order);
+            }
+        }
+        session.key.cancel();
+        closeQuietly(session.channel);
+        log.info("Gateway session {} closed ({} open orders {})", session.userId, open.length,
+                config.isCancelOnDisconnect() ? "cancelled" : "left resting");
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        } catch (Exception e) {
+            log.debug("Close failed", e);
+        }
+    }
+
+    /*
+     * A fill (status null) or an unfilled exit of a watched order
+     */
+    static final class OrderEvent {
+
+        final long key;
+
+        final long priceTicks;
+
+        final long quantity;
+
+        final long remaining;
+
+        final OrderStatus status;
+
+        OrderEvent(long key, long priceTicks, long quantity, long remaining, OrderStatus status) {
+            this.key = key;
+            this.priceTicks = priceTicks;
+            this.quantity = quantity;
+            this.remaining = remaining;
+            this.status = status;
+        }
+
+    }
+
+    /*
+     * A symbol as seen on the wire: name, tick size and the tick in wire price units
+     */
+    static final class GatewaySymbol {
+
+        final String name;
+
+        final TickSize tickSize;
+
+        final long tickUnits;
+
+        GatewaySymbol(String name, TickSize tickSize, long tickUnits) {
+            this.name = name;
+            this.tickSize = tickSize;
+            this.tickUnits = tickUnits;
+        }
+
+    }
+
+}
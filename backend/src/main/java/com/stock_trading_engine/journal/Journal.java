@@ -0,0 +1,647 @@
+package com.stock_trading_engine.journal;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderStatus;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.model.TimeInForce;
+import com.stock_trading_engine.orderbook.BookState;
+import com.stock_trading_engine.orderbook.CommandLog;
+import com.stock_trading_engine.orderbook.TickSize;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/*
+ * Append-only write-ahead journal of accepted order book commands,
+ * stored in fixed-size memory-mapped segment files.
+ *
+ * Record layout: [int length][int crc32][payload]; a zero length (the
+ * zero-filled tail of a segment) marks the end of the segment.
+ *
+ * Payload: [byte type][long sequence] followed by
+ *   NEW_ORDER:    [long epochSecond][int nano][byte side][long priceTicks]
+ *                 [long unscaledTick][byte tickScale][long quantity]
+ *                 [str symbol][str orderId][str userId]
+ *                 then for DAY / GTD orders only: [byte timeInForce]
+ *                 [long expireEpochSecond][int expireNano]
+ *   CANCEL_ORDER: [str symbol][str orderId]
+ *   AMEND_ORDER:  [long priceTicks][long quantity][str symbol][str orderId]
+ *   ADOPT_BOOK:   [long bookSequence][long unscaledTick][byte tickScale]
+ *                 [int orders][str symbol], followed by that many
+ *   RESTING_ORDER: [byte side][long priceTicks][long quantity][long remaining]
+ *                 [byte status][long orderSequence][long epochSecond][int nano]
+ *                 [byte timeInForce][long expiryMillis][str symbol][str orderId]
+ *                 [str userId]
+ * An adopted book is applied on replay only once all of its orders are read.
+ * Strings are a short byte length followed by modified UTF-8.
+ */
+@Component
+@Slf4j
+public class Journal implements CommandLog {
+
+    static final byte NEW_ORDER = 1;
+
+    static final byte CANCEL_ORDER = 2;
+
+    static final byte AMEND_ORDER = 3;
+
+    static final byte ADOPT_BOOK = 4;
+
+    static final byte RESTING_ORDER = 5;
+
+    private static final int HEADER = 8;
+
+    private static final int MAX_RECORD = 4096;
+
+    private static final String PREFIX = "journal-";
+
+    private static final String SUFFIX = ".log";
+
+    private final EngineProperties.Journal config;
+
+    private final Path directory;
+
+    // Records are encoded here first so the checksum can be computed without allocating
+    private final ByteBuffer scratch = ByteBuffer.allocate(MAX_RECORD);
+
+    private final CRC32 crc = new CRC32();
+
+    // Guards the segment and sequence; a lock rather than a monitor so a
+    // virtual thread waiting here (or on a PER_COMMAND force) does not pin its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private FileChannel channel;
+
+    private MappedByteBuffer segment;
+
+    private int segmentIndex;
+
+    private long lastSequence;
+
+    // False until recovery has finished, so replayed commands are not journaled again
+    private volatile boolean writing;
+
+    // Sequence of the record being replayed, reported back to the book instead of a new one
+    private volatile long replaySequence;
+
+    private volatile boolean dirty;
+
+    // Adopted book being read back during replay, and how many of its orders are still to come
+    private BookState adopting;
+
+    private int adoptingRemaining;
+
+    private Thread flusher;
+
+    public Journal(EngineProperties properties) {
+        this.config = properties.getJournal();
+        this.directory = Paths.get(config.getDirectory());
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    public long getLastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * Callbacks for replayed records, in journal order
+     */
+    public interface Handler {
+
+        // The order's priceTicks are in tickSize, the book's tick when it was journaled
+        void newOrder(long sequence, Order order, TickSize tickSize);
+
+        void cancelOrder(long sequence, String symbol, String orderId);
+
+        void amendOrder(long sequence, String symbol, String orderId, long priceTicks, long quantity);
+
+        // A book taken over from another engine, stamped with its last record's sequence
+        void adoptBook(long sequence, BookState state);
+
+    }
+
+    public long recover(Handler handler) {
+        return recover(handler, 0);
+    }
+
+    /*
+     * Replay every record after fromSequence through the handler, then open
+     * a fresh segment for new commands. Returns the number of records replayed.
+     */
+    public long recover(Handler handler, long fromSequence) {
+        if (!isEnabled()) {
+            return 0;
+        }
+        lock.lock();
+        try {
+            Files.createDirectories(directory);
+            // Covered segments may already be purged; never reuse their sequences
+            lastSequence = Math.max(lastSequence, fromSequence);
+            long records = 0;
+            for (Path file : segments()) {
+                segmentIndex = Math.max(segmentIndex, indexOf(file));
+                records += replaySegment(file, handler, fromSequence);
+            }
+            if (adopting != null) {
+                log.warn("Journal ends inside adopted book {} ({} orders missing); it is not restored",
+                        adopting.getSymbol(), adoptingRemaining);
+                adopting = null;
+            }
+            openSegment(segmentIndex + 1);
+            writing = true;
+            if (config.getFsyncPolicy() == EngineProperties.FsyncPolicy.GROUP_COMMIT) {
+                startFlusher();
+            }
+            log.info("Journal recovered {} records, last sequence {}", records, lastSequence);
+            return records;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Journal recovery failed in " + directory, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long newOrder(Order order, TickSize tickSize) {
+        if (!writing) {
+            return replaySequence;
+        }
+        lock.lock();
+        try {
+            ByteBuffer buf = begin(NEW_ORDER);
+            LocalDateTime time = order.getTimestamp();
+            buf.putLong(time != null ? time.toEpochSecond(ZoneOffset.UTC) : 0L);
+            buf.putInt(time != null ? time.getNano() : 0);
+            buf.put((byte) (order.getType() == OrderType.BUY ? 0 : 1));
+            buf.putLong(order.getPriceTicks());
+            buf.putLong(tickSize.getUnscaledTick());
+            buf.put((byte) tickSize.getScale());
+            buf.putLong(order.getQuantity());
+            putString(buf, order.getSymbol());
+            putString(buf, order.getId());
+            putString(buf, order.getUserId());
+            // Optional tail: records without it (and older journals) replay as GTC
+            TimeInForce timeInForce = order.getTimeInForce();
+            if (timeInForce != null && timeInForce != TimeInForce.GTC) {
+                LocalDateTime expireTime = order.getExpireTime();
+                buf.put((byte) timeInForce.ordinal());
+                buf.putLong(expireTime.toEpochSecond(ZoneOffset.UTC));
+                buf.putInt(expireTime.getNano());
+            }
+            return commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long cancelOrder(String symbol, String orderId) {
+        if (!writing) {
+            return replaySequence;
+        }
+        lock.lock();
+        try {
+            ByteBuffer buf = begin(CANCEL_ORDER);
+            putString(buf, symbol);
+            putString(buf, orderId);
+            return commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long amendOrder(String symbol, String orderId, long priceTicks, long quantity) {
+        if (!writing) {
+            return replaySequence;
+        }
+        lock.lock();
+        try {
+            ByteBuffer buf = begin(AMEND_ORDER);
+            buf.putLong(priceTicks);
+            buf.putLong(quantity);
+            putString(buf, symbol);
+            putString(buf, orderId);
+            return commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * Journal a book taken over from another engine: a header, then every
+     * resting order with its full state, written under one lock hold so no
+     * other record (and no checkpoint position) falls inside the group.
+     * Returns the sequence of the last record, which the book is stamped with.
+     */
+    public long adoptBook(BookState state) {
+        if (!writing) {
+            return replaySequence;
+        }
+        lock.lock();
+        try {
+            ByteBuffer buf = begin(ADOPT_BOOK);
+            buf.putLong(state.getSequence());
+            buf.putLong(state.getTickSize().getUnscaledTick());
+            buf.put((byte) state.getTickSize().getScale());
+            buf.putInt(state.getSize());
+            putString(buf, state.getSymbol());
+            long last = commit();
+            for (int i = 0; i < state.getSize(); i++) {
+                buf = begin(RESTING_ORDER);
+                buf.put((byte) (state.isBuy(i) ? 0 : 1));
+                buf.putLong(state.priceTicks(i));
+                buf.putLong(state.quantity(i));
+                buf.putLong(state.remainingQuantity(i));
+                buf.put((byte) state.status(i).ordinal());
+                buf.putLong(state.orderSequence(i));
+                buf.putLong(state.epochSecond(i));
+                buf.putInt(state.nano(i));
+                buf.put((byte) state.timeInForce(i).ordinal());
+                buf.putLong(state.expiry(i));
+                putString(buf, state.getSymbol());
+                putString(buf, state.id(i));
+                putString(buf, state.userId(i));
+                last = commit();
+            }
+            return last;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * Delete closed segments whose records are all at or below the given
+     * sequence (already covered by a checkpoint). Returns files deleted.
+     */
+    public int purge(long coveredSequence) {
+        int current;
+        lock.lock();
+        try {
+            if (!writing) {
+                return 0;
+            }
+            current = segmentIndex;
+        } finally {
+            lock.unlock();
+        }
+        int deleted = 0;
+        try {
+            for (Path file : segments()) {
+                if (indexOf(file) >= current) {
+                    continue;
+                }
+                if (lastSequenceIn(file) <= coveredSequence) {
+                    Files.delete(file);
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Journal purge failed", e);
+        }
+        if (deleted > 0) {
+            log.info("Purged {} journal segments covered up to sequence {}", deleted, coveredSequence);
+        }
+        return deleted;
+    }
+
+    @PreDestroy
+    public void close() {
+        writing = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join(1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        lock.lock();
+        try {
+            if (segment != null) {
+                segment.force();
+                closeChannel();
+                segment = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ---- writing ----
+
+    private ByteBuffer begin(byte type) {
+        if (segment == null) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        scratch.clear();
+        scratch.put(type);
+        scratch.putLong(lastSequence + 1);
+        return scratch;
+    }
+
+    private long commit() {
+        int length = scratch.position();
+        crc.reset();
+        crc.update(scratch.array(), 0, length);
+
+        if (segment.remaining() < HEADER + length) {
+            roll();
+        }
+        int start = segment.position();
+        segment.putInt(length);
+        segment.putInt((int) crc.getValue());
+        segment.put(scratch.array(), 0, length);
+        lastSequence++;
+
+        switch (config.getFsyncPolicy()) {
+            case PER_COMMAND -> segment.force(start, HEADER + length);
+            case GROUP_COMMIT -> dirty = true;
+            case OS -> { }
+        }
+        return lastSequence;
+    }
+
+    private void roll() {
+        segment.force();
+        closeChannel();
+        try {
+            openSegment(segmentIndex + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not roll journal segment", e);
+        }
+    }
+
+    private void openSegment(int index) throws IOException {
+        Path file = directory.resolve(String.format("%s%010d%s", PREFIX, index, SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, config.getSegmentSize());
+        segmentIndex = index;
+        log.info("Journal segment opened: {}", file);
+    }
+
+    private void closeChannel() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Error closing journal segment {}", segmentIndex, e);
+        }
+    }
+
+    private void startFlusher() {
+        long intervalNanos = config.getGroupCommitMicros() * 1_000;
+        flusher = new Thread(() -> {
+            while (writing && !Thread.currentThread().isInterrupted()) {
+                LockSupport.parkNanos(intervalNanos);
+                if (dirty) {
+                    dirty = false;
+                    MappedByteBuffer current;
+                    lock.lock();
+                    try {
+                        current = segment;
+                    } finally {
+                        lock.unlock();
+                    }
+                    if (current != null) {
+                        current.force();
+                    }
+                }
+            }
+        }, "journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    private static void putString(ByteBuffer buf, String value) {
+        if (value == null) {
+            buf.putShort((short) -1);
+            return;
+        }
+        int lengthAt = buf.position();
+        buf.putShort((short) 0);
+        try {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c != 0 && c < 0x80) {
+                    buf.put((byte) c);
+                } else if (c < 0x800) {
+                    buf.put((byte) (0xC0 | (c >> 6)));
+                    buf.put((byte) (0x80 | (c & 0x3F)));
+                } else {
+                    buf.put((byte) (0xE0 | (c >> 12)));
+                    buf.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                    buf.put((byte) (0x80 | (c & 0x3F)));
+                }
+            }
+        } catch (BufferOverflowException e) {
+            throw new IllegalArgumentException("Journal record too large");
+        }
+        buf.putShort(lengthAt, (short) (buf.position() - lengthAt - 2));
+    }
+
+    // ---- replay ----
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> {
+                        String name = f.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static int indexOf(Path file) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private long replaySegment(Path file, Handler handler, long fromSequence) throws IOException {
+        long records = 0;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            byte[] payload = new byte[MAX_RECORD];
+            while (buf.remaining() >= HEADER) {
+                int length = buf.getInt();
+                if (length == 0) {
+                    break;
+                }
+                int checksum = buf.getInt();
+                if (length < 0 || length > MAX_RECORD || length > buf.remaining()) {
+                    log.warn("Journal {} truncated at offset {}", file, buf.position() - HEADER);
+                    break;
+                }
+                // Payload starts with [byte type][long sequence]
+                if (buf.getLong(buf.position() + 1) <= fromSequence) {
+                    buf.position(buf.position() + length);
+                    continue;
+                }
+                buf.get(payload, 0, length);
+                crc.reset();
+                crc.update(payload, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("Journal {} has a torn record at offset {}", file, buf.position() - length - HEADER);
+                    break;
+                }
+                decode(ByteBuffer.wrap(payload, 0, length), handler);
+                records++;
+            }
+        }
+        return records;
+    }
+
+    private void decode(ByteBuffer buf, Handler handler) {
+        byte type = buf.get();
+        long sequence = buf.getLong();
+        lastSequence = sequence;
+        replaySequence = sequence;
+        switch (type) {
+            case NEW_ORDER -> {
+                long epochSecond = buf.getLong();
+                int nano = buf.getInt();
+                OrderType side = buf.get() == 0 ? OrderType.BUY : OrderType.SELL;
+                long priceTicks = buf.getLong();
+                TickSize tick = TickSize.of(buf.getLong(), buf.get());
+                long quantity = buf.getLong();
+                String symbol = getString(buf);
+                String orderId = getString(buf);
+                String userId = getString(buf);
+                TimeInForce timeInForce = TimeInForce.GTC;
+                LocalDateTime expireTime = null;
+                if (buf.hasRemaining()) {
+                    timeInForce = TimeInForce.values()[buf.get()];
+                    expireTime = LocalDateTime.ofEpochSecond(buf.getLong(), buf.getInt(), ZoneOffset.UTC);
+                }
+                Order order = Order.builder()
+                        .id(orderId)
+                        .symbol(symbol)
+                        .type(side)
+                        .price(tick.toPrice(priceTicks))
+                        .quantity(quantity)
+                        .remainingQuantity(quantity)
+                        .timestamp(LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC))
+                        .status(OrderStatus.PENDING)
+                        .userId(userId)
+                        .timeInForce(timeInForce)
+                        .expireTime(expireTime)
+                        .build();
+                order.setPriceTicks(priceTicks);
+                handler.newOrder(sequence, order, tick);
+            }
+            case CANCEL_ORDER -> handler.cancelOrder(sequence, getString(buf), getString(buf));
+            case AMEND_ORDER -> {
+                long priceTicks = buf.getLong();
+                long quantity = buf.getLong();
+                handler.amendOrder(sequence, getString(buf), getString(buf), priceTicks, quantity);
+            }
+            case ADOPT_BOOK -> {
+                long bookSequence = buf.getLong();
+                TickSize tick = TickSize.of(buf.getLong(), buf.get());
+                int orders = buf.getInt();
+                adopting = new BookState(getString(buf), tick, bookSequence, sequence, orders);
+                adoptingRemaining = orders;
+                if (orders == 0) {
+                    adopted(sequence, handler);
+                }
+            }
+            case RESTING_ORDER -> {
+                boolean buy = buf.get() == 0;
+                long priceTicks = buf.getLong();
+                long quantity = buf.getLong();
+                long remaining = buf.getLong();
+                OrderStatus status = OrderStatus.values()[buf.get()];
+                long orderSequence = buf.getLong();
+                long epochSecond = buf.getLong();
+                int nano = buf.getInt();
+                TimeInForce timeInForce = TimeInForce.values()[buf.get()];
+                long expiry = buf.getLong();
+                String symbol = getString(buf);
+                if (adopting == null || !adopting.getSymbol().equals(symbol)) {
+                    throw new IllegalStateException("Journal record " + sequence + " is an adopted " + symbol
+                            + " order outside its book");
+                }
+                adopting.add(getString(buf), getString(buf), buy, priceTicks, quantity, remaining, status,
+                        orderSequence, epochSecond, nano, timeInForce, expiry);
+                if (--adoptingRemaining == 0) {
+                    adopted(sequence, handler);
+                }
+            }
+            default -> throw new IllegalStateException("Unknown journal record type " + type);
+        }
+    }
+
+    private void adopted(long sequence, Handler handler) {
+        BookState state = adopting;
+        adopting = null;
+        handler.adoptBook(sequence, state.rebase(sequence));
+    }
+
+    /*
+     * Sequence of the last complete record in a segment (0 if empty)
+     */
+    private static long lastSequenceIn(Path file) throws IOException {
+        long last = 0;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            while (buf.remaining() >= HEADER) {
+                int length = buf.getInt();
+                if (length <= 0 || length > MAX_RECORD || length + 4 > buf.remaining()) {
+                    break;
+                }
+                last = buf.getLong(buf.position() + 5);
+                buf.position(buf.position() + 4 + length);
+            }
+        }
+        return last;
+    }
+
+    private static String getString(ByteBuffer buf) {
+        int length = buf.getShort();
+        if (length < 0) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(length);
+        int end = buf.position() + length;
+        while (buf.position() < end) {
+            int b = buf.get() & 0xFF;
+            if (b < 0x80) {
+                sb.append((char) b);
+            } else if (b < 0xE0) {
+                sb.append((char) (((b & 0x1F) << 6) | (buf.get() & 0x3F)));
+            } else {
+                sb.append((char) (((b & 0x0F) << 12) | ((buf.get() & 0x3F) << 6) | (buf.get() & 0x3F)));
+            }
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.stock_trading_engine.marketdata;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Raw WebSocket endpoint (no STOMP, no SockJS) carrying the depth and
+ * trade topics as MarketDataCodec frames in binary messages.
+ *
+ * A client sends text commands naming the same destinations as STOMP:
+ *   SUBSCRIBE /topic/depth/AAPL
+ *   UNSUBSCRIBE /topic/depth/AAPL
+ * The publisher encodes each update once, only if the topic has binary
+ * subscribers, and every session gets the same bytes. Sessions arrive
+ * wrapped by SlowConsumerGuard, so a slow client only fills its own queue.
+ */
+@Component
+@Slf4j
+public class BinaryMarketDataHandler extends TextWebSocketHandler {
+
+    private static final String SUBSCRIBE = "SUBSCRIBE ";
+
+    private static final String UNSUBSCRIBE = "UNSUBSCRIBE ";
+
+    // Session id -> bounded session given to afterConnectionEstablished
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+
+    // Destination -> subscribed sessions
+    private final Map<String, Set<WebSocketSession>> topics = new ConcurrentHashMap<>();
+
+    private final LongAdder framesOut = new LongAdder();
+
+    private final LongAdder bytesOut = new LongAdder();
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        sessions.put(session.getId(), session);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        WebSocketSession bounded = sessions.get(session.getId());
+        if (bounded == null) {
+            return;
+        }
+        String command = message.getPayload().trim();
+        if (command.startsWith(SUBSCRIBE)) {
+            String destination = command.substring(SUBSCRIBE.length()).trim();
+            if (destination.startsWith("/topic/depth/") || destination.startsWith("/topic/trades/")) {
+                topics.computeIfAbsent(destination, d -> ConcurrentHashMap.newKeySet()).add(bounded);
+            } else {
+                log.debug("Session {} asked for unsupported binary destination {}", session.getId(), destination);
+            }
+        } else if (command.startsWith(UNSUBSCRIBE)) {
+            Set<WebSocketSession> subscribers = topics.get(command.substring(UNSUBSCRIBE.length()).trim());
+            if (subscribers != null) {
+                subscribers.remove(bounded);
+            }
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        WebSocketSession bounded = sessions.remove(session.getId());
+        if (bounded != null) {
+            topics.values().forEach(subscribers -> subscribers.remove(bounded));
+        }
+    }
+
+    /*
+     * Whether anyone would receive a frame sent to the destination; checked
+     * before encoding so the JSON-only case costs one map lookup
+     */
+    public boolean hasSubscribers(String destination) {
+        Set<WebSocketSession> subscribers = topics.get(destination);
+        return subscribers != null && !subscribers.isEmpty();
+    }
+
+    /*
+     * Send one encoded frame to every subscriber. Each message wraps the
+     * same array; only the ByteBuffer view is per session, since writing
+     * one advances its position.
+     */
+    public void broadcast(String destination, byte[] frame) {
+        Set<WebSocketSession> subscribers = topics.get(destination);
+        if (subscribers == null) {
+            return;
+        }
+        for (WebSocketSession session : subscribers) {
+            try {
+                session.sendMessage(new BinaryMessage(frame));
+                framesOut.increment();
+                bytesOut.add(frame.length);
+            } catch (IOException | RuntimeException e) {
+                log.debug("Binary market data send to {} failed", session.getId(), e);
+            }
+        }
+    }
+
+    public int getSessions() {
+        return sessions.size();
+    }
+
+    public long getFramesOut() {
+        return framesOut.sum();
+    }
+
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+}
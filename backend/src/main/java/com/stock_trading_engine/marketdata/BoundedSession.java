@@ -0,0 +1,104 @@
+package com.stock_trading_engine.marketdata;
+
+import com.stock_trading_engine.config.EngineProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * WebSocket session with a bounded outbound queue.
+ * Senders only enqueue and, if no drain is running, hand one to the
+ * guard's writer executor; the blocking socket writes happen there, one
+ * drain per session at a time, so a client whose TCP buffer is full ties
+ * up a writer thread, never a broker thread or the market-data publisher.
+ * When the queue is full the slow-consumer policy decides: drop the oldest
+ * frame or close.
+ */
+@Slf4j
+class BoundedSession extends WebSocketSessionDecorator {
+
+    private final ArrayBlockingQueue<WebSocketMessage<?>> queue;
+
+    private final EngineProperties.SlowConsumerPolicy policy;
+
+    private final SlowConsumerGuard guard;
+
+    // A drain task is queued or running
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private volatile boolean closing;
+
+    BoundedSession(WebSocketSession delegate, int capacity, EngineProperties.SlowConsumerPolicy policy,
+                   SlowConsumerGuard guard) {
+        super(delegate);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.policy = policy;
+        this.guard = guard;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        if (closing) {
+            return;
+        }
+        while (!queue.offer(message)) {
+            if (policy == EngineProperties.SlowConsumerPolicy.DISCONNECT) {
+                disconnect();
+                return;
+            }
+            if (queue.poll() != null) {
+                guard.dropped();
+            }
+        }
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            guard.writer().execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            draining.set(false);
+        }
+    }
+
+    private void drain() {
+        try {
+            WebSocketMessage<?> next;
+            while (!closing && (next = queue.poll()) != null) {
+                getDelegate().sendMessage(next);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Write to WebSocket session {} failed", getId(), e);
+        } finally {
+            draining.set(false);
+        }
+        // A frame may have been queued after the last poll, before draining was cleared
+        if (!closing && !queue.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+    private void disconnect() {
+        closing = true;
+        queue.clear();
+        guard.disconnected();
+        log.warn("Closing slow WebSocket session {}", getId());
+        try {
+            getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException e) {
+            log.debug("Error closing session {}", getId(), e);
+        }
+    }
+
+}
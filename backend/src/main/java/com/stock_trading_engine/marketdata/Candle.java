@@ -0,0 +1,20 @@
+package com.stock_trading_engine.marketdata;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/*
+ * One OHLCV bar. openTime is the epoch-millis start of the interval.
+ */
+@Value
+public class Candle {
+    long openTime;
+    BigDecimal open;
+    BigDecimal high;
+    BigDecimal low;
+    BigDecimal close;
+    long volume;
+    long trades;
+    BigDecimal vwap;
+}
@@ -0,0 +1,297 @@
+package com.stock_trading_engine.marketdata;
+
+import com.stock_trading_engine.model.Trade;
+import com.stock_trading_engine.repo.TradeHistoryReader;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Incremental OHLCV bars and rolling 24h ticker per symbol.
+ *
+ * Fed by the trade writer with each batch of matched trades. Every interval
+ * keeps a direct-mapped ring of bars (slot = bucket % bars), so memory per
+ * symbol is fixed and a trade updates one slot per interval in O(1). A slot
+ * holding an older bucket is reset; a trade older than the slot's bucket has
+ * aged out and is ignored. Open/close are chosen by trade time, so trades
+ * arriving slightly out of order still produce the right bar.
+ *
+ * On startup the bars are rebuilt from the trades table in one streaming
+ * pass, before the trade writer starts feeding live trades.
+ */
+@Component
+@Slf4j
+public class CandleAggregator {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private static final long DAY_MILLIS = 24 * 3_600_000L;
+
+    private final MarketDataPublisher marketDataPublisher;
+
+    private final TradeHistoryReader tradeHistoryReader;
+
+    private final Map<String, SymbolCandles> symbols = new ConcurrentHashMap<>();
+
+    public CandleAggregator(MarketDataPublisher marketDataPublisher, TradeHistoryReader tradeHistoryReader) {
+        this.marketDataPublisher = marketDataPublisher;
+        this.tradeHistoryReader = tradeHistoryReader;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        long start = System.nanoTime();
+        LocalDateTime since = LocalDateTime.now(ZONE).minusNanos(CandleInterval.maxSpanMillis() * 1_000_000L);
+        try {
+            long trades = tradeHistoryReader.forEachSince(since, this::apply);
+            log.info("Rebuilt candles for {} symbols from {} trades in {} ms", symbols.size(), trades,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (DataAccessException e) {
+            // e.g. the trades table does not exist yet on a fresh database
+            log.warn("Could not rebuild candles from trade history: {}", e.getMessage());
+        }
+    }
+
+    /*
+     * Trade writer thread: fold in one batch and publish the changed bars
+     */
+    public void onTrades(List<Trade> trades) {
+        Set<SymbolCandles> touched = new LinkedHashSet<>();
+        for (Trade trade : trades) {
+            touched.add(apply(trade));
+        }
+        long now = System.currentTimeMillis();
+        for (SymbolCandles candles : touched) {
+            marketDataPublisher.publishCandles(candles.update(now));
+        }
+    }
+
+    private SymbolCandles apply(Trade trade) {
+        SymbolCandles candles = symbols.computeIfAbsent(trade.getSymbol(), SymbolCandles::new);
+        candles.add(trade.getTimestamp().atZone(ZONE).toInstant().toEpochMilli(), trade.getPrice(),
+                trade.getQuantity());
+        return candles;
+    }
+
+    /*
+     * Up to limit most recent bars, oldest first, with the 24h ticker
+     */
+    public Candles getCandles(String symbol, CandleInterval interval, int limit) {
+        SymbolCandles candles = symbols.get(symbol);
+        if (candles == null) {
+            return new Candles(symbol, interval.getLabel(), List.of(), null);
+        }
+        return candles.candles(interval, limit, System.currentTimeMillis());
+    }
+
+    private static final class SymbolCandles {
+
+        final String symbol;
+
+        // [interval ordinal][slot]
+        final Bar[][] rings;
+
+        BigDecimal lastPrice;
+
+        long lastTime = Long.MIN_VALUE;
+
+        // Read by request threads; a lock so waiting virtual threads do not pin
+        final ReentrantLock lock = new ReentrantLock();
+
+        SymbolCandles(String symbol) {
+            this.symbol = symbol;
+            this.rings = new Bar[CandleInterval.values().length][];
+            for (CandleInterval interval : CandleInterval.values()) {
+                rings[interval.ordinal()] = new Bar[interval.getBars()];
+            }
+        }
+
+        void add(long time, BigDecimal price, long quantity) {
+            lock.lock();
+            try {
+                BigDecimal turnover = price.multiply(BigDecimal.valueOf(quantity));
+                for (CandleInterval interval : CandleInterval.values()) {
+                    long openTime = Math.floorDiv(time, interval.getMillis()) * interval.getMillis();
+                    Bar[] ring = rings[interval.ordinal()];
+                    int slot = slot(interval, openTime);
+                    Bar bar = ring[slot];
+                    if (bar == null) {
+                        bar = ring[slot] = new Bar();
+                    }
+                    if (bar.trades == 0 || bar.openTime < openTime) {
+                        bar.reset(openTime);
+                    } else if (bar.openTime > openTime) {
+                        continue;
+                    }
+                    bar.add(time, price, quantity, turnover);
+                }
+                if (time >= lastTime) {
+                    lastTime = time;
+                    lastPrice = price;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Candles candles(CandleInterval interval, int limit, long now) {
+            lock.lock();
+            try {
+                List<Candle> bars = new ArrayList<>(Math.min(limit, interval.getBars()));
+                long newest = Math.floorDiv(lastTime, interval.getMillis()) * interval.getMillis();
+                for (int i = 0; i < interval.getBars() && bars.size() < limit; i++) {
+                    Bar bar = bar(interval, newest - i * interval.getMillis());
+                    if (bar != null) {
+                        bars.add(bar.toCandle());
+                    }
+                }
+                Collections.reverse(bars);
+                return new Candles(symbol, interval.getLabel(), bars, ticker(now));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        CandleUpdate update(long now) {
+            lock.lock();
+            try {
+                Map<String, Candle> current = new LinkedHashMap<>();
+                for (CandleInterval interval : CandleInterval.values()) {
+                    Bar bar = bar(interval, Math.floorDiv(lastTime, interval.getMillis()) * interval.getMillis());
+                    if (bar != null) {
+                        current.put(interval.getLabel(), bar.toCandle());
+                    }
+                }
+                return new CandleUpdate(symbol, current, ticker(now));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /*
+         * Sum of the one-minute bars in the 24h ending at now, oldest first
+         */
+        private Ticker ticker(long now) {
+            CandleInterval interval = CandleInterval.MINUTE_1;
+            long newest = Math.floorDiv(now, interval.getMillis()) * interval.getMillis();
+            long windowStart = newest - DAY_MILLIS + interval.getMillis();
+            Bar total = new Bar();
+            total.reset(windowStart);
+            for (long openTime = windowStart; openTime <= newest; openTime += interval.getMillis()) {
+                Bar bar = bar(interval, openTime);
+                if (bar != null) {
+                    total.merge(bar);
+                }
+            }
+            BigDecimal vwap = total.trades == 0 ? null : total.vwap();
+            return new Ticker(symbol, lastPrice, total.open, total.high, total.low, total.volume, total.trades,
+                    vwap, windowStart);
+        }
+
+        // The bar for exactly this bucket, if it has trades
+        private Bar bar(CandleInterval interval, long openTime) {
+            Bar bar = rings[interval.ordinal()][slot(interval, openTime)];
+            return bar != null && bar.trades > 0 && bar.openTime == openTime ? bar : null;
+        }
+
+        private static int slot(CandleInterval interval, long openTime) {
+            return (int) Math.floorMod(Math.floorDiv(openTime, interval.getMillis()), (long) interval.getBars());
+        }
+
+    }
+
+    private static final class Bar {
+
+        long openTime;
+
+        // Times of the trades that set open and close
+        long firstTime;
+
+        long lastTime;
+
+        BigDecimal open;
+
+        BigDecimal high;
+
+        BigDecimal low;
+
+        BigDecimal close;
+
+        long volume;
+
+        long trades;
+
+        BigDecimal turnover = BigDecimal.ZERO;
+
+        void reset(long openTime) {
+            this.openTime = openTime;
+            open = high = low = close = null;
+            volume = 0;
+            trades = 0;
+            turnover = BigDecimal.ZERO;
+        }
+
+        void add(long time, BigDecimal price, long quantity, BigDecimal value) {
+            if (trades == 0 || time < firstTime) {
+                firstTime = time;
+                open = price;
+            }
+            if (trades == 0 || time >= lastTime) {
+                lastTime = time;
+                close = price;
+            }
+            if (high == null || price.compareTo(high) > 0) {
+                high = price;
+            }
+            if (low == null || price.compareTo(low) < 0) {
+                low = price;
+            }
+            volume += quantity;
+            trades++;
+            turnover = turnover.add(value);
+        }
+
+        // Bars are merged in time order
+        void merge(Bar bar) {
+            if (trades == 0) {
+                firstTime = bar.firstTime;
+                open = bar.open;
+                high = bar.high;
+                low = bar.low;
+            } else {
+                high = high.max(bar.high);
+                low = low.min(bar.low);
+            }
+            lastTime = bar.lastTime;
+            close = bar.close;
+            volume += bar.volume;
+            trades += bar.trades;
+            turnover = turnover.add(bar.turnover);
+        }
+
+        BigDecimal vwap() {
+            return volume == 0 ? close : turnover.divide(BigDecimal.valueOf(volume), 4, RoundingMode.HALF_UP);
+        }
+
+        Candle toCandle() {
+            return new Candle(openTime, open, high, low, close, volume, trades, vwap());
+        }
+
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.stock_trading_engine.marketdata;
+
+import lombok.Getter;
+
+/*
+ * Bar intervals kept by the candle aggregator. Each interval retains a
+ * fixed number of bars per symbol; 1m covers a full day because the 24h
+ * ticker is summed from it.
+ */
+@Getter
+public enum CandleInterval {
+
+    SECOND_1("1s", 1_000L, 300),
+    MINUTE_1("1m", 60_000L, 1_440),
+    MINUTE_5("5m", 300_000L, 576),
+    HOUR_1("1h", 3_600_000L, 720);
+
+    private final String label;
+
+    private final long millis;
+
+    private final int bars;
+
+    CandleInterval(String label, long millis, int bars) {
+        this.label = label;
+        this.millis = millis;
+        this.bars = bars;
+    }
+
+    // Oldest trade any interval still has a bar for
+    public static long maxSpanMillis() {
+        long span = 0;
+        for (CandleInterval interval : values()) {
+            span = Math.max(span, interval.millis * interval.bars);
+        }
+        return span;
+    }
+
+    public static CandleInterval fromLabel(String label) {
+        for (CandleInterval interval : values()) {
+            if (interval.label.equals(label)) {
+                return interval;
+            }
+        }
+        throw new IllegalArgumentException("Unknown candle interval: " + label);
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.stock_trading_engine.marketdata;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/*
+ * /topic/candles/{symbol}: current bar per interval label plus the ticker
+ */
+@Value
+public class CandleUpdate {
+    String symbol;
+    Map<String, Candle> bars;
+    Ticker ticker;
+}
@@ -0,0 +1,16 @@
+package com.stock_trading_engine.marketdata;
+
+import lombok.Value;
+
+import java.util.List;
+
+/*
+ * GET /api/candles/{symbol} response: bars oldest first
+ */
+@Value
+public class Candles {
+    String symbol;
+    String interval;
+    List<Candle> bars;
+    Ticker ticker;
+}
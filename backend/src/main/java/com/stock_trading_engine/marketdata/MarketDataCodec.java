@@ -0,0 +1,243 @@
+package com.stock_trading_engine.marketdata;
+
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.model.Trade;
+import com.stock_trading_engine.orderbook.DepthLevel;
+import com.stock_trading_engine.orderbook.DepthUpdate;
+import com.stock_trading_engine.orderbook.TickSize;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/*
+ * Compact binary form of the depth and trade topics, for the opt-in raw
+ * WebSocket endpoint (see BinaryMarketDataHandler).
+ *
+ * Numbers are unsigned LEB128 varints; strings are varint (length + 1)
+ * then UTF-8, 0 meaning null. Every frame starts with a type byte and the
+ * symbol:
+ *
+ *   'D' depth   firstSequence, sequence - firstSequence, tick (unscaled,
+ *               scale byte), level count, then per level
+ *               priceTicks << 1 | side (0 = BUY, 1 = SELL), quantity, orders
+ *   'T' trades  trade count, then per trade id (16-byte UUID, zeros for
+ *               none), price (unscaled, scale byte), quantity, timestamp
+ *               (epoch millis), buyOrderId, sellOrderId, buyerId, sellerId
+ *
+ * A depth level costs 3-8 bytes instead of ~60 of JSON. One instance
+ * reuses its buffer, so it belongs to a single thread.
+ */
+public final class MarketDataCodec {
+
+    public static final byte DEPTH = 'D';
+
+    public static final byte TRADES = 'T';
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private byte[] buffer = new byte[256];
+
+    private int position;
+
+    /*
+     * Start a depth frame; follow with exactly levels calls to level, then finish
+     */
+    public MarketDataCodec beginDepth(String symbol, long firstSequence, long sequence, TickSize tickSize,
+                                      int levels) {
+        position = 0;
+        writeByte(DEPTH);
+        writeString(symbol);
+        writeVarint(firstSequence);
+        writeVarint(sequence - firstSequence);
+        writeVarint(tickSize.getUnscaledTick());
+        writeByte(tickSize.getScale());
+        writeVarint(levels);
+        return this;
+    }
+
+    public MarketDataCodec level(boolean buy, long priceTicks, long quantity, int orders) {
+        writeVarint(priceTicks << 1 | (buy ? 0 : 1));
+        writeVarint(quantity);
+        writeVarint(orders);
+        return this;
+    }
+
+    /*
+     * One frame for trades.subList(from, to), which must all be of one symbol
+     */
+    public byte[] trades(List<Trade> trades, int from, int to) {
+        position = 0;
+        writeByte(TRADES);
+        writeString(trades.get(from).getSymbol());
+        writeVarint(to - from);
+        for (int i = from; i < to; i++) {
+            Trade trade = trades.get(i);
+            writeUuid(trade.getId());
+            writeDecimal(trade.getPrice());
+            writeVarint(trade.getQuantity());
+            writeVarint(trade.getTimestamp() == null ? 0
+                    : trade.getTimestamp().atZone(ZONE).toInstant().toEpochMilli());
+            writeString(trade.getBuyOrderId());
+            writeString(trade.getSellOrderId());
+            writeString(trade.getBuyerId());
+            writeString(trade.getSellerId());
+        }
+        return finish();
+    }
+
+    public byte[] finish() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void writeByte(int value) {
+        ensure(1);
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeVarint(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeString(String value) {
+        if (value == null) {
+            writeVarint(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length + 1L);
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void writeDecimal(BigDecimal value) {
+        BigDecimal decimal = value.scale() < 0 ? value.setScale(0) : value;
+        writeVarint(decimal.unscaledValue().longValueExact());
+        writeByte(decimal.scale());
+    }
+
+    private void writeUuid(String id) {
+        long most = 0;
+        long least = 0;
+        if (id != null) {
+            UUID uuid = UUID.fromString(id);
+            most = uuid.getMostSignificantBits();
+            least = uuid.getLeastSignificantBits();
+        }
+        ensure(16);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (most >>> shift);
+        }
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (least >>> shift);
+        }
+    }
+
+    private void ensure(int bytes) {
+        if (position + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+        }
+    }
+
+    /*
+     * Decode a frame back into a DepthUpdate or a List<Trade>; the Java
+     * twin of the browser's decoder, for tests and tools
+     */
+    static Object decode(byte[] frame) {
+        Reader in = new Reader(frame);
+        byte type = frame[in.position++];
+        String symbol = in.readString();
+        if (type == DEPTH) {
+            long firstSequence = in.readVarint();
+            long sequence = firstSequence + in.readVarint();
+            TickSize tickSize = TickSize.of(in.readVarint(), frame[in.position++]);
+            int levels = (int) in.readVarint();
+            List<DepthLevel> changes = new ArrayList<>(levels);
+            for (int i = 0; i < levels; i++) {
+                long price = in.readVarint();
+                changes.add(new DepthLevel((price & 1) == 0 ? OrderType.BUY : OrderType.SELL,
+                        tickSize.toPrice(price >>> 1), in.readVarint(), (int) in.readVarint()));
+            }
+            return DepthUpdate.builder().symbol(symbol).firstSequence(firstSequence).sequence(sequence)
+                    .changes(changes).build();
+        }
+        if (type == TRADES) {
+            int count = (int) in.readVarint();
+            List<Trade> trades = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                trades.add(Trade.builder()
+                        .symbol(symbol)
+                        .id(in.readUuid())
+                        .price(new BigDecimal(BigInteger.valueOf(in.readVarint()), frame[in.position++]))
+                        .quantity(in.readVarint())
+                        .timestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(in.readVarint()), ZONE))
+                        .buyOrderId(in.readString())
+                        .sellOrderId(in.readString())
+                        .buyerId(in.readString())
+                        .sellerId(in.readString())
+                        .build());
+            }
+            return trades;
+        }
+        throw new IllegalArgumentException("Unknown market data frame type " + type);
+    }
+
+    private static final class Reader {
+
+        final byte[] frame;
+
+        int position;
+
+        Reader(byte[] frame) {
+            this.frame = frame;
+        }
+
+        long readVarint() {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = frame[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        String readString() {
+            int length = (int) readVarint() - 1;
+            if (length < 0) {
+                return null;
+            }
+            String value = new String(frame, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        String readUuid() {
+            long most = 0;
+            long least = 0;
+            for (int i = 0; i < 8; i++) {
+                most = most << 8 | frame[position++] & 0xFF;
+            }
+            for (int i = 0; i < 8; i++) {
+                least = least << 8 | frame[position++] & 0xFF;
+            }
+            return most == 0 && least == 0 ? null : new UUID(most, least).toString();
+        }
+
+    }
+
+}
@@ -0,0 +1,348 @@
+package com.stock_trading_engine.marketdata;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.config.VirtualThreads;
+import com.stock_trading_engine.metrics.Stage;
+import com.stock_trading_engine.metrics.StageMetrics;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.model.Trade;
+import com.stock_trading_engine.orderbook.DepthDelta;
+import com.stock_trading_engine.orderbook.DepthLevel;
+import com.stock_trading_engine.orderbook.DepthListener;
+import com.stock_trading_engine.orderbook.DepthUpdate;
+import com.stock_trading_engine.orderbook.TickSize;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Publishing stage between the engine and WebSocket clients.
+ *
+ * Book deltas and trades are queued without blocking and sent from a single
+ * "market-data-publisher" thread, so neither matching nor the persistence
+ * pool ever waits on the broker. Depth deltas are conflated per symbol: the
+ * latest state of each changed level is sent at most once per
+ * conflationMillis as /topic/depth/{symbol}; candle updates are conflated
+ * the same way (latest per symbol) to /topic/candles/{symbol}. Trades are
+ * never conflated.
+ * If the queue is full the event is dropped and counted; for depth this
+ * shows up at the client as a sequence gap, which triggers a re-sync.
+ * Depth and trades with subscribers on the binary endpoint are also
+ * encoded, once per message, as MarketDataCodec frames.
+ * Every broker send and binary broadcast is timed as the PUBLISH stage.
+ */
+@Component
+@Slf4j
+public class MarketDataPublisher implements DepthListener {
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final SlowConsumerGuard slowConsumerGuard;
+
+    private final StageMetrics stageMetrics;
+
+    private final VirtualThreads threads;
+
+    private final BinaryMarketDataHandler binary;
+
+    // Publisher thread only
+    private final MarketDataCodec codec = new MarketDataCodec();
+
+    private final long conflationNanos;
+
+    private final BlockingQueue<Object> queue;
+
+    // Publisher thread only
+    private final Map<String, PendingDepth> pending = new HashMap<>();
+
+    // Publisher thread only: latest candle update per symbol
+    private final Map<String, CandleUpdate> pendingCandles = new LinkedHashMap<>();
+
+    private final LongAdder depthIn = new LongAdder();
+
+    private final LongAdder depthOut = new LongAdder();
+
+    private final LongAdder tradesOut = new LongAdder();
+
+    private final LongAdder candlesOut = new LongAdder();
+
+    private final LongAdder queueDropped = new LongAdder();
+
+    private volatile boolean running;
+
+    private Thread thread;
+
+    public MarketDataPublisher(SimpMessagingTemplate messagingTemplate, SlowConsumerGuard slowConsumerGuard,
+                               EngineProperties properties) {
+        this(messagingTemplate, slowConsumerGuard, properties, new StageMetrics(), VirtualThreads.PLATFORM,
+                new BinaryMarketDataHandler());
+    }
+
+    @Autowired
+    public MarketDataPublisher(SimpMessagingTemplate messagingTemplate, SlowConsumerGuard slowConsumerGuard,
+                               EngineProperties properties, StageMetrics stageMetrics,
+                               VirtualThreads threads, BinaryMarketDataHandler binary) {
+        this.messagingTemplate = messagingTemplate;
+        this.slowConsumerGuard = slowConsumerGuard;
+        this.stageMetrics = stageMetrics;
+        this.threads = threads;
+        this.binary = binary;
+        this.conflationNanos = TimeUnit.MILLISECONDS.toNanos(properties.getMarketData().getConflationMillis());
+        this.queue = new ArrayBlockingQueue<>(properties.getMarketData().getQueueCapacity());
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        thread = threads.newThread("market-data-publisher", this::run);
+        thread.start();
+    }
+
+    /*
+     * Stop after sending whatever is already queued
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /*
+     * Called by the book under its lock / on its shard thread: copy and queue only
+     */
+    @Override
+    public void onDepthChange(DepthDelta delta) {
+        offer(delta.copy());
+    }
+
+    public void publishTrades(List<Trade> trades) {
+        if (!trades.isEmpty()) {
+            offer(trades);
+        }
+    }
+
+    public void publishCandles(CandleUpdate update) {
+        offer(update);
+    }
+
+    private void offer(Object event) {
+        if (!queue.offer(event)) {
+            queueDropped.increment();
+        }
+    }
+
+    private void run() {
+        long nextFlush = System.nanoTime() + conflationNanos;
+        while (running || !queue.isEmpty()) {
+            try {
+                long wait = nextFlush - System.nanoTime();
+                Object event = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                if (event != null) {
+                    handle(event);
+                }
+            } catch (InterruptedException e) {
+                // stop() interrupts; the loop condition drains the rest
+            } catch (RuntimeException e) {
+                log.error("Market data publish failed", e);
+            }
+            if (conflationNanos == 0 || System.nanoTime() - nextFlush >= 0) {
+                flushDepth();
+                nextFlush = System.nanoTime() + conflationNanos;
+            }
+        }
+        flushDepth();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void handle(Object event) {
+        if (event instanceof DepthDelta delta) {
+            depthIn.increment();
+            PendingDepth depth = pending.computeIfAbsent(delta.getSymbol(), PendingDepth::new);
+            if (depth.dirty && delta.getSequence() != depth.lastSequence + 1) {
+                // Never hide a gap inside a merged update: send what we have first
+                send(depth);
+            }
+            depth.merge(delta);
+        } else if (event instanceof CandleUpdate update) {
+            pendingCandles.put(update.getSymbol(), update);
+        } else {
+            List<Trade> trades = (List<Trade>) event;
+            for (Trade trade : trades) {
+                convertAndSend("/topic/trades/" + trade.getSymbol(), trade);
+                tradesOut.increment();
+            }
+            broadcastTrades(trades);
+        }
+    }
+
+    // One frame per run of same-symbol trades
+    private void broadcastTrades(List<Trade> trades) {
+        int from = 0;
+        while (from < trades.size()) {
+            String symbol = trades.get(from).getSymbol();
+            int to = from + 1;
+            while (to < trades.size() && symbol.equals(trades.get(to).getSymbol())) {
+                to++;
+            }
+            String destination = "/topic/trades/" + symbol;
+            if (binary.hasSubscribers(destination)) {
+                long start = System.nanoTime();
+                binary.broadcast(destination, codec.trades(trades, from, to));
+                stageMetrics.record(Stage.PUBLISH, System.nanoTime() - start);
+            }
+            from = to;
+        }
+    }
+
+    private void flushDepth() {
+        for (PendingDepth depth : pending.values()) {
+            if (depth.dirty) {
+                send(depth);
+            }
+        }
+        for (CandleUpdate update : pendingCandles.values()) {
+            try {
+                convertAndSend("/topic/candles/" + update.getSymbol(), update);
+                candlesOut.increment();
+            } catch (RuntimeException e) {
+                log.error("Error publishing candles for {}", update.getSymbol(), e);
+            }
+        }
+        pendingCandles.clear();
+    }
+
+    private void send(PendingDepth depth) {
+        try {
+            String destination = "/topic/depth/" + depth.symbol;
+            convertAndSend(destination, depth.toUpdate());
+            if (binary.hasSubscribers(destination)) {
+                long start = System.nanoTime();
+                binary.broadcast(destination, depth.encode(codec));
+                stageMetrics.record(Stage.PUBLISH, System.nanoTime() - start);
+            }
+            depthOut.increment();
+        } catch (RuntimeException e) {
+            log.error("Error publishing depth for {}", depth.symbol, e);
+        }
+        depth.clear();
+    }
+
+    private void convertAndSend(String destination, Object payload) {
+        long start = System.nanoTime();
+        messagingTemplate.convertAndSend(destination, payload);
+        stageMetrics.record(Stage.PUBLISH, System.nanoTime() - start);
+    }
+
+    public Stats getStats() {
+        long in = depthIn.sum();
+        long out = depthOut.sum();
+        return new Stats(in, out, out == 0 ? 0 : (double) in / out, tradesOut.sum(), candlesOut.sum(), queue.size(),
+                queueDropped.sum(), slowConsumerGuard.getDropped(), slowConsumerGuard.getDisconnected(),
+                binary.getSessions(), binary.getFramesOut(), binary.getBytesOut());
+    }
+
+    @Value
+    public static class Stats {
+        long depthDeltasIn;
+        long depthMessagesOut;
+        // deltas received per depth message sent
+        double conflationRatio;
+        long tradesOut;
+        long candleMessagesOut;
+        int queued;
+        long queueDropped;
+        long subscriberFramesDropped;
+        long subscribersDisconnected;
+        int binarySessions;
+        long binaryFramesOut;
+        long binaryBytesOut;
+    }
+
+    /*
+     * Levels changed since the last send for one symbol, latest value wins
+     */
+    private static final class PendingDepth {
+
+        final String symbol;
+
+        TickSize tickSize;
+
+        long firstSequence;
+
+        long lastSequence;
+
+        boolean dirty;
+
+        // Keyed by price ticks; bids and asks can share a price within one window
+        final Map<Long, long[]> bids = new LinkedHashMap<>();
+
+        final Map<Long, long[]> asks = new LinkedHashMap<>();
+
+        PendingDepth(String symbol) {
+            this.symbol = symbol;
+        }
+
+        void merge(DepthDelta delta) {
+            if (!dirty) {
+                firstSequence = delta.getSequence();
+                dirty = true;
+            }
+            tickSize = delta.getTickSize();
+            lastSequence = delta.getSequence();
+            for (int i = 0; i < delta.size(); i++) {
+                Map<Long, long[]> side = delta.isBuy(i) ? bids : asks;
+                side.put(delta.priceTicks(i), new long[] {delta.quantity(i), delta.orders(i)});
+            }
+        }
+
+        DepthUpdate toUpdate() {
+            List<DepthLevel> changes = new ArrayList<>(bids.size() + asks.size());
+            bids.forEach((price, level) -> changes.add(
+                    new DepthLevel(OrderType.BUY, tickSize.toPrice(price), level[0], (int) level[1])));
+            asks.forEach((price, level) -> changes.add(
+                    new DepthLevel(OrderType.SELL, tickSize.toPrice(price), level[0], (int) level[1])));
+            return DepthUpdate.builder()
+                    .symbol(symbol)
+                    .firstSequence(firstSequence)
+                    .sequence(lastSequence)
+                    .changes(changes)
+                    .build();
+        }
+
+        byte[] encode(MarketDataCodec codec) {
+            codec.beginDepth(symbol, firstSequence, lastSequence, tickSize, bids.size() + asks.size());
+            bids.forEach((price, level) -> codec.level(true, price, level[0], (int) level[1]));
+            asks.forEach((price, level) -> codec.level(false, price, level[0], (int) level[1]));
+            return codec.finish();
+        }
+
+        void clear() {
+            bids.clear();
+            asks.clear();
+            dirty = false;
+        }
+
+    }
+
+}
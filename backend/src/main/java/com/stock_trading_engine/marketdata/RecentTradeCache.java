@@ -0,0 +1,158 @@
+package com.stock_trading_engine.marketdata;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.model.Trade;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+
+/*
+ * Newest trades per symbol, kept in a fixed-capacity ring.
+ *
+ * Filled by the trade writer as each batch leaves matching, before it is
+ * written to the database, so a trade is visible here no later than on the
+ * live feed. A ring that has only seen trades since startup is "cold": the
+ * first read tops it up from the database (deduplicated by trade id) and
+ * from then on it is complete for its capacity. Only the trade writer
+ * creates rings: a read for a symbol that has not traded since startup
+ * goes straight to the database, so arbitrary symbols cost no memory.
+ */
+@Component
+public class RecentTradeCache {
+
+    private final int capacity;
+
+    private final Map<String, Ring> rings = new ConcurrentHashMap<>();
+
+    public RecentTradeCache(EngineProperties properties) {
+        this.capacity = properties.getMarketData().getRecentTrades();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /*
+     * Trade writer thread: record one batch (oldest first)
+     */
+    public void add(List<Trade> trades) {
+        if (capacity == 0) {
+            return;
+        }
+        for (Trade trade : trades) {
+            rings.computeIfAbsent(trade.getSymbol(), s -> new Ring(capacity)).add(trade);
+        }
+    }
+
+    /*
+     * Up to limit trades, newest first. history(n) loads the newest n
+     * persisted trades; it is called the first time a cached symbol is
+     * read, and on every read of a symbol with no ring.
+     */
+    public List<Trade> recent(String symbol, int limit, IntFunction<List<Trade>> history) {
+        if (limit > capacity) {
+            throw new IllegalArgumentException("limit " + limit + " exceeds cache capacity " + capacity);
+        }
+        Ring ring = rings.get(symbol);
+        if (ring == null) {
+            return history.apply(limit);
+        }
+        return ring.recent(limit, history);
+    }
+
+    int getSymbols() {
+        return rings.size();
+    }
+
+    private static final class Ring {
+
+        private final Trade[] slots;
+
+        // Index of the next write; slots[head - 1] is the newest trade
+        private int head;
+
+        private int size;
+
+        private volatile boolean warm;
+
+        // Held only for copies; history is loaded outside it so the trade
+        // writer never waits on a database read
+        private final ReentrantLock lock = new ReentrantLock();
+
+        Ring(int capacity) {
+            this.slots = new Trade[capacity];
+        }
+
+        void add(Trade trade) {
+            lock.lock();
+            try {
+                slots[head] = trade;
+                head = (head + 1) % slots.length;
+                if (size < slots.length) {
+                    size++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        List<Trade> recent(int limit, IntFunction<List<Trade>> history) {
+            // Concurrent first reads may both load; only the first merges
+            List<Trade> persisted = warm ? null : history.apply(slots.length);
+            lock.lock();
+            try {
+                if (!warm) {
+                    warm(persisted);
+                }
+                return recent(Math.min(limit, size));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /*
+         * Trades in the ring are newer than anything already persisted
+         * before they arrived, so persisted history goes behind them. Trades
+         * added while history was loading may be in both; ids deduplicate.
+         */
+        private void warm(List<Trade> persisted) {
+            if (size < slots.length) {
+                List<Trade> newest = recent(size);
+                Set<String> seen = new HashSet<>();
+                newest.forEach(t -> seen.add(t.getId()));
+                List<Trade> merged = new ArrayList<>(newest);
+                for (Trade trade : persisted) {
+                    if (merged.size() == slots.length) {
+                        break;
+                    }
+                    if (!seen.contains(trade.getId())) {
+                        merged.add(trade);
+                    }
+                }
+                head = 0;
+                size = 0;
+                for (int i = merged.size() - 1; i >= 0; i--) {
+                    add(merged.get(i));
+                }
+            }
+            warm = true;
+        }
+
+        private List<Trade> recent(int n) {
+            List<Trade> result = new ArrayList<>(n);
+            for (int i = 1; i <= n; i++) {
+                result.add(slots[Math.floorMod(head - i, slots.length)]);
+            }
+            return result;
+        }
+
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.stock_trading_engine.marketdata;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.config.VirtualThreads;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Gives every WebSocket session its own bounded outbound queue
+ * (see BoundedSession), owns the writer threads that drain them and
+ * counts what the slow-consumer policy did.
+ */
+@Component
+public class SlowConsumerGuard {
+
+    private final EngineProperties.MarketData config;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder disconnected = new LongAdder();
+
+    // Session drains; a stuck socket holds one of these, so the pool grows on demand
+    private final ExecutorService writer;
+
+    public SlowConsumerGuard(EngineProperties properties) {
+        this(properties, VirtualThreads.PLATFORM);
+    }
+
+    @Autowired
+    public SlowConsumerGuard(EngineProperties properties, VirtualThreads threads) {
+        this.config = properties.getMarketData();
+        AtomicInteger count = new AtomicInteger();
+        this.writer = Executors.newCachedThreadPool(
+                task -> threads.newThread("ws-writer-" + count.incrementAndGet(), task));
+    }
+
+    @PreDestroy
+    public void stop() {
+        writer.shutdownNow();
+    }
+
+    /*
+     * Handler decorator that swaps in a bounded session on connect
+     */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                super.afterConnectionEstablished(new BoundedSession(session, config.getSubscriberQueue(),
+                        config.getSlowConsumerPolicy(), SlowConsumerGuard.this));
+            }
+        };
+    }
+
+    ExecutorService writer() {
+        return writer;
+    }
+
+    void dropped() {
+        dropped.increment();
+    }
+
+    void disconnected() {
+        disconnected.increment();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getDisconnected() {
+        return disconnected.sum();
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.stock_trading_engine.marketdata;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/*
+ * Rolling 24h statistics for one symbol, at one-minute resolution.
+ * lastPrice is the latest trade even if it is older than the window.
+ */
+@Value
+public class Ticker {
+    String symbol;
+    BigDecimal lastPrice;
+    BigDecimal open;
+    BigDecimal high;
+    BigDecimal low;
+    long volume;
+    long trades;
+    BigDecimal vwap;
+    long windowStart;
+}
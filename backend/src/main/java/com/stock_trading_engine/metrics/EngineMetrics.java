@@ -0,0 +1,281 @@
+package com.stock_trading_engine.metrics;
+
+import com.stock_trading_engine.admission.AdmissionControl;
+import com.stock_trading_engine.admission.AdmissionRejectedException;
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.marketdata.MarketDataPublisher;
+import com.stock_trading_engine.orderbook.OrderBook;
+import com.stock_trading_engine.orderbook.OrderBookManager;
+import com.stock_trading_engine.persistence.TradePersistencePipeline;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.ToDoubleFunction;
+
+/*
+ * Engine metrics, read side.
+ *
+ * Every sampleSeconds a "metrics-sampler" thread closes the stage latency
+ * windows and turns the books' order/fill counters into per-symbol rates.
+ * Nothing here runs on the order path: stages are recorded into
+ * StageMetrics and books only bump plain counters. Everything is exposed
+ * as Micrometer meters (Actuator /actuator/metrics) and as one snapshot
+ * for GET /api/metrics/engine.
+ */
+@Component
+@Slf4j
+public class EngineMetrics {
+
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    private final StageMetrics stageMetrics;
+
+    private final OrderBookManager orderBookManager;
+
+    private final TradePersistencePipeline tradePersistencePipeline;
+
+    private final MarketDataPublisher marketDataPublisher;
+
+    private final AdmissionControl admissionControl;
+
+    private final MeterRegistry registry;
+
+    private final int sampleSeconds;
+
+    private final Map<String, SymbolRates> symbols = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService sampler;
+
+    public EngineMetrics(StageMetrics stageMetrics, OrderBookManager orderBookManager,
+                         TradePersistencePipeline tradePersistencePipeline, MarketDataPublisher marketDataPublisher,
+                         AdmissionControl admissionControl, MeterRegistry registry, EngineProperties properties) {
+        this.stageMetrics = stageMetrics;
+        this.orderBookManager = orderBookManager;
+        this.tradePersistencePipeline = tradePersistencePipeline;
+        this.marketDataPublisher = marketDataPublisher;
+        this.admissionControl = admissionControl;
+        this.registry = registry;
+        this.sampleSeconds = properties.getMetrics().getSampleSeconds();
+    }
+
+    @PostConstruct
+    public void start() {
+        for (Stage stage : Stage.values()) {
+            for (double quantile : QUANTILES) {
+                stageGauge(stage, String.valueOf(quantile), stats -> quantile(stats, quantile));
+            }
+            stageGauge(stage, "max", StageMetrics.StageStats::getMax);
+            FunctionCounter.builder("engine.stage.count", stageMetrics, m -> m.total(stage).getCount())
+                    .tag("stage", stage.tag())
+                    .register(registry);
+        }
+        queueGauge("persistence", () -> tradePersistencePipeline.getStats().getQueuedFillBatches());
+        queueGauge("market-data", () -> marketDataPublisher.getStats().getQueued());
+        queueGauge("sequencer", orderBookManager::getBacklog);
+        FunctionCounter.builder("engine.admission.admitted", admissionControl, a -> a.getStats().getAdmitted())
+                .register(registry);
+        for (AdmissionRejectedException.Reason reason : AdmissionRejectedException.Reason.values()) {
+            FunctionCounter.builder("engine.admission.rejected", admissionControl, a -> rejected(a.getStats(), reason))
+                    .tag("reason", reason.name().toLowerCase())
+                    .register(registry);
+        }
+
+        sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(() -> {
+            try {
+                sample();
+            } catch (RuntimeException e) {
+                log.error("Metrics sampling failed", e);
+            }
+        }, sampleSeconds, sampleSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+    }
+
+    private void stageGauge(Stage stage, String quantile, ToDoubleFunction<StageMetrics.StageStats> value) {
+        Gauge.builder("engine.stage.latency", stageMetrics, m -> value.applyAsDouble(m.window(stage)))
+                .tag("stage", stage.tag())
+                .tag("quantile", quantile)
+                .baseUnit("microseconds")
+                .register(registry);
+    }
+
+    private void queueGauge(String queue, LongSupplier depth) {
+        Gauge.builder("engine.queue.depth", depth, d -> d.getAsLong())
+                .tag("queue", queue)
+                .register(registry);
+    }
+
+    private static double rejected(AdmissionControl.Stats stats, AdmissionRejectedException.Reason reason) {
+        return reason == AdmissionRejectedException.Reason.RATE_LIMITED ? stats.getRateLimited() : stats.getOverloaded();
+    }
+
+    private static double quantile(StageMetrics.StageStats stats, double quantile) {
+        return quantile == 0.5 ? stats.getP50() : quantile == 0.99 ? stats.getP99() : stats.getP999();
+    }
+
+    /*
+     * Close the latency windows and update per-symbol rates. A symbol whose
+     * book was released loses its meters; one whose book was replaced
+     * (adopted) gets them re-registered against the new book.
+     */
+    void sample() {
+        stageMetrics.sample();
+        Set<String> live = new HashSet<>();
+        for (OrderBook book : orderBookManager.getOrderBooks()) {
+            live.add(book.getSymbol());
+            SymbolRates rates = symbols.get(book.getSymbol());
+            if (rates == null || rates.book != book) {
+                if (rates != null) {
+                    unregister(rates);
+                }
+                rates = register(book);
+                symbols.put(book.getSymbol(), rates);
+            }
+            rates.sample(sampleSeconds);
+        }
+        for (Iterator<SymbolRates> it = symbols.values().iterator(); it.hasNext(); ) {
+            SymbolRates rates = it.next();
+            if (!live.contains(rates.book.getSymbol())) {
+                unregister(rates);
+                it.remove();
+            }
+        }
+    }
+
+    private SymbolRates register(OrderBook book) {
+        SymbolRates rates = new SymbolRates(book);
+        String symbol = book.getSymbol();
+        List<Meter> meters = rates.meters;
+        meters.add(FunctionCounter.builder("engine.orders", book, OrderBook::getOrdersAccepted)
+                .tag("symbol", symbol).register(registry));
+        meters.add(FunctionCounter.builder("engine.trades", book, OrderBook::getFillsExecuted)
+                .tag("symbol", symbol).register(registry));
+        meters.add(Gauge.builder("engine.orders.rate", rates, r -> r.ordersPerSecond)
+                .tag("symbol", symbol).baseUnit("per-second").register(registry));
+        meters.add(Gauge.builder("engine.trades.rate", rates, r -> r.tradesPerSecond)
+                .tag("symbol", symbol).baseUnit("per-second").register(registry));
+        meters.add(Gauge.builder("engine.book.orders", book, OrderBook::getRestingOrders)
+                .tag("symbol", symbol).register(registry));
+        meters.add(Gauge.builder("engine.book.levels", book, OrderBook::getLevelCount)
+                .tag("symbol", symbol).register(registry));
+        return rates;
+    }
+
+    private void unregister(SymbolRates rates) {
+        for (Meter meter : rates.meters) {
+            registry.remove(meter);
+        }
+    }
+
+    public Snapshot getSnapshot() {
+        Map<String, StageView> stages = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            stages.put(stage.tag(), new StageView(stageMetrics.window(stage), stageMetrics.total(stage)));
+        }
+        Map<String, Long> queues = new LinkedHashMap<>();
+        queues.put("persistence", (long) tradePersistencePipeline.getStats().getQueuedFillBatches());
+        queues.put("market-data", (long) marketDataPublisher.getStats().getQueued());
+        queues.put("sequencer", orderBookManager.getBacklog());
+        List<SymbolStats> books = new ArrayList<>();
+        for (OrderBook book : orderBookManager.getOrderBooks()) {
+            SymbolRates rates = symbols.get(book.getSymbol());
+            books.add(new SymbolStats(book.getSymbol(), book.getRestingOrders(), book.getLevelCount(),
+                    book.getOrdersAccepted(), book.getFillsExecuted(),
+                    rates == null ? 0 : rates.ordersPerSecond, rates == null ? 0 : rates.tradesPerSecond));
+        }
+        return new Snapshot(sampleSeconds, stages, queues, admissionControl.getStats(), books);
+    }
+
+    /*
+     * Counter values at the last sample, and the rates derived from them
+     */
+    private static final class SymbolRates {
+
+        final OrderBook book;
+
+        // Registered against this book; removed when it is released or replaced
+        final List<Meter> meters = new ArrayList<>();
+
+        long orders;
+
+        long fills;
+
+        volatile double ordersPerSecond;
+
+        volatile double tradesPerSecond;
+
+        SymbolRates(OrderBook book) {
+            this.book = book;
+            this.orders = book.getOrdersAccepted();
+            this.fills = book.getFillsExecuted();
+        }
+
+        void sample(int seconds) {
+            long nowOrders = book.getOrdersAccepted();
+            long nowFills = book.getFillsExecuted();
+            ordersPerSecond = (nowOrders - orders) / (double) seconds;
+            tradesPerSecond = (nowFills - fills) / (double) seconds;
+            orders = nowOrders;
+            fills = nowFills;
+        }
+
+    }
+
+    @Value
+    public static class Snapshot {
+        // Length of the latest window (latency "window" values and rates)
+        int windowSeconds;
+        Map<String, StageView> stages;
+        Map<String, Long> queues;
+        // Orders admitted and refused (429 / 503) since start
+        AdmissionControl.Stats admission;
+        List<SymbolStats> symbols;
+    }
+
+    @Value
+    public static class StageView {
+        StageMetrics.StageStats window;
+        StageMetrics.StageStats total;
+    }
+
+    @Value
+    public static class SymbolStats {
+        String symbol;
+        int restingOrders;
+        int levels;
+        long orders;
+        long trades;
+        double ordersPerSecond;
+        double tradesPerSecond;
+    }
+
+}
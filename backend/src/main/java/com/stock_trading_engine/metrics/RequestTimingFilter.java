@@ -0,0 +1,40 @@
+package com.stock_trading_engine.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/*
+ * Times order entry (POST /api/orders) in the servlet as the REQUEST stage:
+ * JSON parsing, validation, the engine call and the response body. Other
+ * requests pass straight through.
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestTimingFilter extends OncePerRequestFilter {
+
+    private final StageMetrics stageMetrics;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !"/api/orders".equals(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            stageMetrics.record(Stage.REQUEST, System.nanoTime() - start);
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.stock_trading_engine.metrics;
+
+/*
+ * Where an order's time goes, in path order
+ */
+public enum Stage {
+
+    // POST /api/orders end to end in the servlet: JSON in, controller, JSON out
+    REQUEST,
+
+    // One binary gateway message: frame decoded, engine call, reports encoded
+    GATEWAY,
+
+    // LOCK mode: waiting for a contended book lock (uncontended takes are not timed)
+    LOCK_WAIT,
+
+    // SEQUENCER mode: waiting in the shard's ring
+    QUEUE_WAIT,
+
+    // Matching, resting and depth-delta capture for one order
+    MATCH,
+
+    // One JDBC batch of trades, including retries
+    PERSIST_BATCH,
+
+    // One STOMP message handed to the broker (depth, trade or candles)
+    PUBLISH;
+
+    public String tag() {
+        return name().toLowerCase().replace('_', '-');
+    }
+
+}
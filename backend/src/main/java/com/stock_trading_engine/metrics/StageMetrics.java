@@ -0,0 +1,106 @@
+package com.stock_trading_engine.metrics;
+
+import com.stock_trading_engine.orderbook.MatchingMetrics;
+import lombok.Value;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * One HdrHistogram Recorder per stage.
+ *
+ * record() is a few array increments on a pre-sized histogram: no
+ * allocation, no lock, safe from any number of threads. The sampler
+ * periodically swaps out each recorder's interval histogram, keeps it as
+ * the latest window and adds it to the running total, so readers never
+ * touch the histograms being written.
+ */
+@Component
+public class StageMetrics implements MatchingMetrics {
+
+    // Longer values are clamped; 3 significant digits keeps each histogram small
+    private static final long MAX_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final int DIGITS = 3;
+
+    private final Recorder[] recorders = new Recorder[Stage.values().length];
+
+    // Guarded by this
+    private final Histogram[] windows = new Histogram[Stage.values().length];
+
+    private final Histogram[] totals = new Histogram[Stage.values().length];
+
+    public StageMetrics() {
+        for (Stage stage : Stage.values()) {
+            recorders[stage.ordinal()] = new Recorder(MAX_NANOS, DIGITS);
+            // Only histograms handed out by the recorder can be recycled into it
+            windows[stage.ordinal()] = recorders[stage.ordinal()].getIntervalHistogram();
+            totals[stage.ordinal()] = new Histogram(MAX_NANOS, DIGITS);
+        }
+    }
+
+    public void record(Stage stage, long nanos) {
+        recorders[stage.ordinal()].recordValue(Math.max(0, Math.min(nanos, MAX_NANOS)));
+    }
+
+    @Override
+    public void lockWait(long nanos) {
+        record(Stage.LOCK_WAIT, nanos);
+    }
+
+    @Override
+    public void queueWait(long nanos) {
+        record(Stage.QUEUE_WAIT, nanos);
+    }
+
+    @Override
+    public void matched(long nanos) {
+        record(Stage.MATCH, nanos);
+    }
+
+    /*
+     * Close the current window for every stage
+     */
+    public synchronized void sample() {
+        for (int i = 0; i < recorders.length; i++) {
+            // Recycling the previous window keeps sampling allocation-free as well
+            windows[i] = recorders[i].getIntervalHistogram(windows[i]);
+            totals[i].add(windows[i]);
+        }
+    }
+
+    public synchronized StageStats window(Stage stage) {
+        return StageStats.of(windows[stage.ordinal()]);
+    }
+
+    public synchronized StageStats total(Stage stage) {
+        return StageStats.of(totals[stage.ordinal()]);
+    }
+
+    /*
+     * Percentiles in microseconds
+     */
+    @Value
+    public static class StageStats {
+        long count;
+        double mean;
+        double p50;
+        double p90;
+        double p99;
+        double p999;
+        double max;
+
+        static StageStats of(Histogram histogram) {
+            return new StageStats(histogram.getTotalCount(),
+                    histogram.getMean() / 1_000.0,
+                    histogram.getValueAtPercentile(50) / 1_000.0,
+                    histogram.getValueAtPercentile(90) / 1_000.0,
+                    histogram.getValueAtPercentile(99) / 1_000.0,
+                    histogram.getValueAtPercentile(99.9) / 1_000.0,
+                    histogram.getMaxValue() / 1_000.0);
+        }
+    }
+
+}
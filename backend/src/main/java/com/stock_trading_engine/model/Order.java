@@ -1,10 +1,10 @@
 package com.stock_trading_engine.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Data
 @NoArgsConstructor
@@ -22,10 +22,23 @@ public class Order {
     private OrderStatus status;
     private String userId;
 
+    // Engine-internal fixed-point price, in multiples of the symbol's tick size (not part of the API)
+    @JsonIgnore
+    private long priceTicks;
+
+    // Arrival sequence assigned by the order book; defines time priority (not part of the API)
+    @JsonIgnore
+    private long sequence;
+
+    // GTC when null; DAY and GTD orders rest until expireTime (system time zone)
+    private TimeInForce timeInForce;
+
+    private LocalDateTime expireTime;
+
     public static Order createNew(String symbol, OrderType type,
                                   BigDecimal price, long quantity, String userId) {
         return Order.builder()
-                .id(UUID.randomUUID().toString())
+                .id(OrderIds.toExternal(OrderIds.next()))
                 .symbol(symbol)
                 .type(type)
                 .price(price)
@@ -34,6 +47,7 @@ public class Order {
                 .timestamp(LocalDateTime.now())
                 .status(OrderStatus.PENDING)
                 .userId(userId)
+                .timeInForce(TimeInForce.GTC)
                 .build();
     }
 
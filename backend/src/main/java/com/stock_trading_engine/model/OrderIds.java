@@ -0,0 +1,77 @@
+package com.stock_trading_engine.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Engine-assigned order ids: the map between the external String id every
+ * API, journal record and trade carries and the internal long the books
+ * index by.
+ *
+ * An internal id is a positive long, [55-bit counter][6-bit node]. The
+ * counter starts at the milliseconds since 2024-01-01 shifted left by 14
+ * and counts up per order, so ids stay unique across restarts as long as a
+ * node averages under 16384 orders per millisecond, and engines with
+ * different engine.node-id never collide. The external id is simply the
+ * decimal form, so converting either way needs no lookup table.
+ *
+ * Ids not issued here (UUIDs in older journals and checkpoints, ids chosen
+ * by tests and benchmarks) are "foreign": toInternal returns NONE and the
+ * book keeps its own alias for them.
+ */
+public final class OrderIds {
+
+    public static final long NONE = 0;
+
+    public static final int NODE_BITS = 6;
+
+    public static final int MAX_NODE = (1 << NODE_BITS) - 1;
+
+    private static final long EPOCH_MILLIS = 1_704_067_200_000L; // 2024-01-01T00:00Z
+
+    private static final AtomicLong counter = new AtomicLong((System.currentTimeMillis() - EPOCH_MILLIS) << 14);
+
+    private static volatile int node;
+
+    private OrderIds() {
+    }
+
+    /*
+     * Set once at startup (engine.node-id), before any order is created
+     */
+    public static void setNode(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE) {
+            throw new IllegalArgumentException("Node id must be 0-" + MAX_NODE + ": " + nodeId);
+        }
+        node = nodeId;
+    }
+
+    public static long next() {
+        return counter.incrementAndGet() << NODE_BITS | node;
+    }
+
+    public static String toExternal(long id) {
+        return Long.toString(id);
+    }
+
+    /*
+     * The internal id of an engine-issued external id, or NONE if the id is
+     * foreign. Only canonical decimal strings qualify (no sign, no leading
+     * zero), so toExternal(toInternal(id)) gives back the same string.
+     */
+    public static long toInternal(String id) {
+        int length = id.length();
+        if (length == 0 || length > 19 || id.charAt(0) == '0') {
+            return NONE;
+        }
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = id.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10) {
+                return NONE;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+}
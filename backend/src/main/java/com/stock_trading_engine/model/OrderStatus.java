@@ -6,6 +6,9 @@ public enum OrderStatus {
     OPEN,         // Order in the book, waiting to be matched
     PARTIALLY_FILLED, // Order partially executed
     FILLED,       // Order fully executed
-    CANCELLED     // Order cancelled
+    CANCELLED,    // Order cancelled
+    REJECTED,     // Order refused at entry (batch validation)
+    EXPIRED,      // DAY / GTD order taken out of the book at its expiry time
+    UNKNOWN       // Router lost the engine's reply (e.g. read timeout); the order may have been accepted
 
 }
@@ -0,0 +1,12 @@
+package com.stock_trading_engine.model;
+
+/*
+ * How long an order may rest in the book
+ */
+public enum TimeInForce {
+
+    GTC,    // Good till cancelled
+    DAY,    // Expires at the session close (engine.expiry.session-close)
+    GTD     // Good till date: expires at the order's expireTime
+
+}
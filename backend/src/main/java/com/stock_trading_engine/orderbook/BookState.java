@@ -0,0 +1,195 @@
+package com.stock_trading_engine.orderbook;
+
+import com.stock_trading_engine.model.OrderStatus;
+import com.stock_trading_engine.model.TimeInForce;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/*
+ * Point-in-time copy of one OrderBook, used for checkpoints.
+ *
+ * Resting orders are held column-wise in priority order (bids best first,
+ * then asks best first; FIFO within a level), so a capture is a flat copy
+ * and a restore rebuilds every level and the id index in one pass.
+ */
+@Getter
+public final class BookState {
+
+    private final String symbol;
+
+    private final TickSize tickSize;
+
+    // Book's arrival sequence counter at capture
+    private final long sequence;
+
+    // Journal sequence of the last command included in this state
+    private final long logSequence;
+
+    private int size;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private String[] ids;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private String[] userIds;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private boolean[] buys;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private long[] priceTicks;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private long[] quantities;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private long[] remaining;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private byte[] statuses;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private long[] sequences;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private long[] epochSeconds;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private int[] nanos;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private byte[] tifs;
+
+    // Epoch millis, or 0 for none
+    @Getter(lombok.AccessLevel.NONE)
+    private long[] expiries;
+
+    public BookState(String symbol, TickSize tickSize, long sequence, long logSequence, int capacity) {
+        this.symbol = symbol;
+        this.tickSize = tickSize;
+        this.sequence = sequence;
+        this.logSequence = logSequence;
+        int initial = Math.max(capacity, 1);
+        this.ids = new String[initial];
+        this.userIds = new String[initial];
+        this.buys = new boolean[initial];
+        this.priceTicks = new long[initial];
+        this.quantities = new long[initial];
+        this.remaining = new long[initial];
+        this.statuses = new byte[initial];
+        this.sequences = new long[initial];
+        this.epochSeconds = new long[initial];
+        this.nanos = new int[initial];
+        this.tifs = new byte[initial];
+        this.expiries = new long[initial];
+    }
+
+    /*
+     * The same orders stamped with another journal position, for a book
+     * adopted by an engine with its own journal (shares the columns)
+     */
+    public BookState rebase(long logSequence) {
+        BookState state = new BookState(symbol, tickSize, sequence, logSequence, 0);
+        state.size = size;
+        state.ids = ids;
+        state.userIds = userIds;
+        state.buys = buys;
+        state.priceTicks = priceTicks;
+        state.quantities = quantities;
+        state.remaining = remaining;
+        state.statuses = statuses;
+        state.sequences = sequences;
+        state.epochSeconds = epochSeconds;
+        state.nanos = nanos;
+        state.tifs = tifs;
+        state.expiries = expiries;
+        return state;
+    }
+
+    public void add(String id, String userId, boolean buy, long priceTick, long quantity, long remainingQuantity,
+                    OrderStatus status, long orderSequence, long epochSecond, int nano,
+                    TimeInForce timeInForce, long expiry) {
+        if (size == ids.length) {
+            grow();
+        }
+        ids[size] = id;
+        userIds[size] = userId;
+        buys[size] = buy;
+        priceTicks[size] = priceTick;
+        quantities[size] = quantity;
+        remaining[size] = remainingQuantity;
+        statuses[size] = (byte) status.ordinal();
+        sequences[size] = orderSequence;
+        epochSeconds[size] = epochSecond;
+        nanos[size] = nano;
+        tifs[size] = (byte) timeInForce.ordinal();
+        expiries[size] = expiry;
+        size++;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        userIds = Arrays.copyOf(userIds, capacity);
+        buys = Arrays.copyOf(buys, capacity);
+        priceTicks = Arrays.copyOf(priceTicks, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        remaining = Arrays.copyOf(remaining, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        sequences = Arrays.copyOf(sequences, capacity);
+        epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+        nanos = Arrays.copyOf(nanos, capacity);
+        tifs = Arrays.copyOf(tifs, capacity);
+        expiries = Arrays.copyOf(expiries, capacity);
+    }
+
+    public String id(int i) {
+        return ids[i];
+    }
+
+    public String userId(int i) {
+        return userIds[i];
+    }
+
+    public boolean isBuy(int i) {
+        return buys[i];
+    }
+
+    public long priceTicks(int i) {
+        return priceTicks[i];
+    }
+
+    public long quantity(int i) {
+        return quantities[i];
+    }
+
+    public long remainingQuantity(int i) {
+        return remaining[i];
+    }
+
+    public OrderStatus status(int i) {
+        return OrderStatus.values()[statuses[i]];
+    }
+
+    public long orderSequence(int i) {
+        return sequences[i];
+    }
+
+    public long epochSecond(int i) {
+        return epochSeconds[i];
+    }
+
+    public int nano(int i) {
+        return nanos[i];
+    }
+
+    public TimeInForce timeInForce(int i) {
+        return TimeInForce.values()[tifs[i]];
+    }
+
+    public long expiry(int i) {
+        return expiries[i];
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.stock_trading_engine.orderbook;
+
+import com.stock_trading_engine.model.Order;
+
+/*
+ * Receives every command an OrderBook accepts, under the book's lock (or on
+ * its shard thread) and before the command is applied, so the log order
+ * matches the order in which each book applies its commands.
+ * Each call returns the log sequence assigned to the command (0 if none).
+ */
+public interface CommandLog {
+
+    CommandLog NONE = new CommandLog() {
+        @Override
+        public long newOrder(Order order, TickSize tickSize) {
+            return 0;
+        }
+
+        @Override
+        public long cancelOrder(String symbol, String orderId) {
+            return 0;
+        }
+
+        @Override
+        public long amendOrder(String symbol, String orderId, long priceTicks, long quantity) {
+            return 0;
+        }
+    };
+
+    long newOrder(Order order, TickSize tickSize);
+
+    long cancelOrder(String symbol, String orderId);
+
+    long amendOrder(String symbol, String orderId, long priceTicks, long quantity);
+
+}
@@ -0,0 +1,128 @@
+package com.stock_trading_engine.orderbook;
+
+import com.stock_trading_engine.model.OrderType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Reusable record of the price levels changed by one command, with their
+ * new aggregate quantity and order count (0 / 0 when the level is gone).
+ * Stored column-wise like FillBuffer so the matching path does not allocate.
+ */
+public final class DepthDelta {
+
+    private String symbol;
+
+    private TickSize tickSize;
+
+    // Book depth sequence after this change
+    private long sequence;
+
+    private int size;
+
+    private boolean[] buys;
+
+    private long[] priceTicks;
+
+    private long[] quantities;
+
+    private int[] orderCounts;
+
+    public DepthDelta(int capacity) {
+        int initial = Math.max(capacity, 1);
+        this.buys = new boolean[initial];
+        this.priceTicks = new long[initial];
+        this.quantities = new long[initial];
+        this.orderCounts = new int[initial];
+    }
+
+    void reset(String symbol, TickSize tickSize, long sequence) {
+        this.symbol = symbol;
+        this.tickSize = tickSize;
+        this.sequence = sequence;
+        this.size = 0;
+    }
+
+    void add(boolean buy, long price, long quantity, int orders) {
+        if (size == priceTicks.length) {
+            int capacity = size * 2;
+            buys = Arrays.copyOf(buys, capacity);
+            priceTicks = Arrays.copyOf(priceTicks, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            orderCounts = Arrays.copyOf(orderCounts, capacity);
+        }
+        buys[size] = buy;
+        priceTicks[size] = price;
+        quantities[size] = quantity;
+        orderCounts[size] = orders;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public TickSize getTickSize() {
+        return tickSize;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public boolean isBuy(int i) {
+        return buys[i];
+    }
+
+    public long priceTicks(int i) {
+        return priceTicks[i];
+    }
+
+    public long quantity(int i) {
+        return quantities[i];
+    }
+
+    public int orders(int i) {
+        return orderCounts[i];
+    }
+
+    /*
+     * Exact-size copy that can be handed to another thread
+     */
+    public DepthDelta copy() {
+        DepthDelta copy = new DepthDelta(size);
+        copy.symbol = symbol;
+        copy.tickSize = tickSize;
+        copy.sequence = sequence;
+        copy.size = size;
+        System.arraycopy(buys, 0, copy.buys, 0, size);
+        System.arraycopy(priceTicks, 0, copy.priceTicks, 0, size);
+        System.arraycopy(quantities, 0, copy.quantities, 0, size);
+        System.arraycopy(orderCounts, 0, copy.orderCounts, 0, size);
+        return copy;
+    }
+
+    /*
+     * Build the wire message (publishing stage only)
+     */
+    public DepthUpdate toUpdate() {
+        List<DepthLevel> changes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            changes.add(new DepthLevel(buys[i] ? OrderType.BUY : OrderType.SELL,
+                    tickSize.toPrice(priceTicks[i]), quantities[i], orderCounts[i]));
+        }
+        return DepthUpdate.builder()
+                .symbol(symbol)
+                .firstSequence(sequence)
+                .sequence(sequence)
+                .changes(changes)
+                .build();
+    }
+
+}
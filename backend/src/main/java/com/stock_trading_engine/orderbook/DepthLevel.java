@@ -0,0 +1,22 @@
+package com.stock_trading_engine.orderbook;
+
+import com.stock_trading_engine.model.OrderType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/*
+ * Aggregate of one price level: total remaining quantity and order count.
+ * In a delta, quantity 0 means the level was removed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DepthLevel {
+    private OrderType side;
+    private BigDecimal price;
+    private long quantity;
+    private int orders;
+}
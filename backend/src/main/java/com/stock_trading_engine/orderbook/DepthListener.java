@@ -0,0 +1,15 @@
+package com.stock_trading_engine.orderbook;
+
+/*
+ * Receives the price levels changed by each command, under the book's lock
+ * (or on its shard thread) and after the command is applied, so deltas are
+ * delivered in book sequence order.
+ * The DepthDelta is reused by the book; copy what you need before returning.
+ */
+public interface DepthListener {
+
+    DepthListener NONE = delta -> { };
+
+    void onDepthChange(DepthDelta delta);
+
+}
@@ -0,0 +1,21 @@
+package com.stock_trading_engine.orderbook;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/*
+ * One depth-delta message: the latest state of every level changed by the
+ * commands firstSequence..sequence (one command unless conflated).
+ * Levels carry absolute values, so a client at any sequence from
+ * firstSequence - 1 up can apply it; otherwise it re-fetches the snapshot.
+ */
+@Builder
+@Data
+public class DepthUpdate {
+    private String symbol;
+    private long firstSequence;
+    private long sequence;
+    private List<DepthLevel> changes;
+}
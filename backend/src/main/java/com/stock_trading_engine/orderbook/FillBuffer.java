@@ -0,0 +1,221 @@
+package com.stock_trading_engine.orderbook;
+
+import com.stock_trading_engine.model.OrderIds;
+import com.stock_trading_engine.model.Trade;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Reusable, pre-sized record of the fills produced by one addOrder call.
+ *
+ * Fills are stored column-wise in primitive/reference arrays and read back
+ * by index (flyweight style), so the matching loop writes fills without
+ * allocating. Trade entities are only built from a copy, off the hot path.
+ *
+ * Each side's order is recorded by internal id (see OrderIds). The String
+ * id is only stored when the book already has one (the incoming order, a
+ * foreign id); otherwise it is formatted when read, off the matching path.
+ */
+public final class FillBuffer {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    // Shared result for orders that did not match
+    public static final FillBuffer EMPTY = new FillBuffer(0);
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private String symbol;
+
+    private TickSize tickSize;
+
+    // Epoch millis of the match; shared by every fill of one incoming order
+    private long timestamp;
+
+    private int size;
+
+    private long[] buyKeys;
+
+    private long[] sellKeys;
+
+    // Null where the id is formatted from the key on read
+    private String[] buyOrderIds;
+
+    private String[] sellOrderIds;
+
+    private String[] buyerIds;
+
+    private String[] sellerIds;
+
+    private long[] priceTicks;
+
+    private long[] quantities;
+
+    public FillBuffer(int capacity) {
+        int initial = Math.max(capacity, 1);
+        this.buyKeys = new long[initial];
+        this.sellKeys = new long[initial];
+        this.buyOrderIds = new String[initial];
+        this.sellOrderIds = new String[initial];
+        this.buyerIds = new String[initial];
+        this.sellerIds = new String[initial];
+        this.priceTicks = new long[initial];
+        this.quantities = new long[initial];
+    }
+
+    /*
+     * Start a new match; previous contents are discarded
+     */
+    void reset(String symbol, TickSize tickSize, long timestamp) {
+        // Drop references so filled orders' ids are not kept alive
+        Arrays.fill(buyOrderIds, 0, size, null);
+        Arrays.fill(sellOrderIds, 0, size, null);
+        Arrays.fill(buyerIds, 0, size, null);
+        Arrays.fill(sellerIds, 0, size, null);
+        this.symbol = symbol;
+        this.tickSize = tickSize;
+        this.timestamp = timestamp;
+        this.size = 0;
+    }
+
+    void add(long buyKey, String buyOrderId, String buyerId, long sellKey, String sellOrderId, String sellerId,
+             long price, long quantity) {
+        if (size == priceTicks.length) {
+            grow();
+        }
+        buyKeys[size] = buyKey;
+        sellKeys[size] = sellKey;
+        buyOrderIds[size] = buyOrderId;
+        sellOrderIds[size] = sellOrderId;
+        buyerIds[size] = buyerId;
+        sellerIds[size] = sellerId;
+        priceTicks[size] = price;
+        quantities[size] = quantity;
+        size++;
+    }
+
+    // Only happens when one order sweeps more makers than ever before
+    private void grow() {
+        int capacity = priceTicks.length * 2;
+        buyKeys = Arrays.copyOf(buyKeys, capacity);
+        sellKeys = Arrays.copyOf(sellKeys, capacity);
+        buyOrderIds = Arrays.copyOf(buyOrderIds, capacity);
+        sellOrderIds = Arrays.copyOf(sellOrderIds, capacity);
+        buyerIds = Arrays.copyOf(buyerIds, capacity);
+        sellerIds = Arrays.copyOf(sellerIds, capacity);
+        priceTicks = Arrays.copyOf(priceTicks, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public TickSize getTickSize() {
+        return tickSize;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String buyOrderId(int i) {
+        return buyOrderIds[i] != null ? buyOrderIds[i] : OrderIds.toExternal(buyKeys[i]);
+    }
+
+    public String sellOrderId(int i) {
+        return sellOrderIds[i] != null ? sellOrderIds[i] : OrderIds.toExternal(sellKeys[i]);
+    }
+
+    /*
+     * Internal ids: OrderIds.NONE for a foreign incoming order,
+     * negative for a foreign resting one
+     */
+    public long buyOrderKey(int i) {
+        return buyKeys[i];
+    }
+
+    public long sellOrderKey(int i) {
+        return sellKeys[i];
+    }
+
+    public String buyerId(int i) {
+        return buyerIds[i];
+    }
+
+    public String sellerId(int i) {
+        return sellerIds[i];
+    }
+
+    public long priceTicks(int i) {
+        return priceTicks[i];
+    }
+
+    public BigDecimal price(int i) {
+        return tickSize.toPrice(priceTicks[i]);
+    }
+
+    public long quantity(int i) {
+        return quantities[i];
+    }
+
+    /*
+     * Exact-size copy that can be handed to another thread
+     * while this buffer is reused for the next order
+     */
+    public FillBuffer copy() {
+        FillBuffer copy = new FillBuffer(size);
+        copy.symbol = symbol;
+        copy.tickSize = tickSize;
+        copy.timestamp = timestamp;
+        copy.size = size;
+        System.arraycopy(buyKeys, 0, copy.buyKeys, 0, size);
+        System.arraycopy(sellKeys, 0, copy.sellKeys, 0, size);
+        System.arraycopy(buyOrderIds, 0, copy.buyOrderIds, 0, size);
+        System.arraycopy(sellOrderIds, 0, copy.sellOrderIds, 0, size);
+        System.arraycopy(buyerIds, 0, copy.buyerIds, 0, size);
+        System.arraycopy(sellerIds, 0, copy.sellerIds, 0, size);
+        System.arraycopy(priceTicks, 0, copy.priceTicks, 0, size);
+        System.arraycopy(quantities, 0, copy.quantities, 0, size);
+        return copy;
+    }
+
+    /*
+     * Build JPA Trade entities (persistence stage only)
+     */
+    public List<Trade> toTrades() {
+        List<Trade> trades = new ArrayList<>(size);
+        if (size == 0) {
+            return trades;
+        }
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZONE);
+        for (int i = 0; i < size; i++) {
+            trades.add(Trade.builder()
+                    .symbol(symbol)
+                    .buyOrderId(buyOrderId(i))
+                    .sellOrderId(sellOrderId(i))
+                    .price(price(i))
+                    .quantity(quantities[i])
+                    .timestamp(time)
+                    .buyerId(buyerIds[i])
+                    .sellerId(sellerIds[i])
+                    .build());
+        }
+        return trades;
+    }
+
+}
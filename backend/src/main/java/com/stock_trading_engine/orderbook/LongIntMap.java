@@ -0,0 +1,109 @@
+package com.stock_trading_engine.orderbook;
+
+/*
+ * Open-addressing long -> int map (linear probing, backward-shift removal)
+ * from internal order id to store slot. Neither keys nor values are boxed,
+ * so the index costs 12 bytes per entry at full load instead of a HashMap
+ * entry, a boxed key and a String id. Key 0 marks an empty cell (internal
+ * order ids are never 0). Not thread-safe.
+ */
+final class LongIntMap {
+
+    static final int MISSING = -1;
+
+    private long[] keys;
+
+    private int[] values;
+
+    private int mask;
+
+    private int size;
+
+    LongIntMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(expected, 8) * 2 - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(long key) {
+        for (int i = index(key); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                return values[i];
+            }
+            if (k == 0) {
+                return MISSING;
+            }
+        }
+    }
+
+    void put(long key, int value) {
+        int i = index(key);
+        for (; keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    int remove(long key) {
+        for (int i = index(key); keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                int previous = values[i];
+                shiftBack(i);
+                size--;
+                return previous;
+            }
+        }
+        return MISSING;
+    }
+
+    // Close the gap at a removed cell so later probes still find their keys
+    private void shiftBack(int gap) {
+        for (int i = (gap + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            int home = index(keys[i]);
+            // Move the entry back if its home is not cyclically within (gap, i]
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap] = 0;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int j = index(oldKeys[i]);
+                while (keys[j] != 0) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private int index(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+}
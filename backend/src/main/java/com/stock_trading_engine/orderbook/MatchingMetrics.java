@@ -0,0 +1,33 @@
+package com.stock_trading_engine.orderbook;
+
+/*
+ * Timings from the matching path, in nanoseconds. Called for every order
+ * on the lock holder / shard thread, so implementations must neither
+ * allocate nor block.
+ */
+public interface MatchingMetrics {
+
+    MatchingMetrics NONE = new MatchingMetrics() {
+        @Override
+        public void lockWait(long nanos) {
+        }
+
+        @Override
+        public void queueWait(long nanos) {
+        }
+
+        @Override
+        public void matched(long nanos) {
+        }
+    };
+
+    // LOCK mode: time spent waiting for a contended book lock
+    void lockWait(long nanos);
+
+    // SEQUENCER mode: time a command waited in its shard's ring
+    void queueWait(long nanos);
+
+    // One new order applied: matching, resting and depth publishing
+    void matched(long nanos);
+
+}
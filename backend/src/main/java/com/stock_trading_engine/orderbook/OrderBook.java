@@ -1,12 +1,14 @@
 package com.stock_trading_engine.orderbook;
 
 import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderIds;
 import com.stock_trading_engine.model.OrderStatus;
 import com.stock_trading_engine.model.OrderType;
 import com.stock_trading_engine.model.Trade;
 import lombok.Builder;
 import lombok.Data;
 import lombok.Getter;
+import lombok.Value;
 import lombok.extern.slf4j.*;
 
 import java.math.BigDecimal;
@@ -15,229 +17,1028 @@ import java.util.concurrent.locks.ReentrantLock;
 
 /*
  * In-Memory Order Book for a single symbol.
- * Uses two PriorityQueues to maintain buy/sell orders sorted by price-time priority.
+ * Resting orders live in price levels (sorted map of price -> FIFO queue)
+ * as slots of a column-wise OrderStore, indexed by internal order id so
+ * cancels unlink immediately in O(1). Prices are long ticks and time
+ * priority is a per-book arrival sequence, so the matching path never
+ * touches BigDecimal or LocalDateTime. Resting orders are not kept as
+ * Order objects: snapshots materialize them, and only the incoming
+ * order's object is updated by a match. DAY and GTD orders also hang on
+ * a timing wheel, which expireOrders drains in bulk. Orders that leave
+ * the book are remembered for a while (TerminalOrders), so findOrder and
+ * ordersOf answer for them too.
 
- * CRITICAL: All operations are thread-safe using ReentrantLock.
+ * CRITICAL: All operations are thread-safe using ReentrantLock, unless the
+ * book is thread-confined to a single matching shard (sequencer mode).
  */
 @Slf4j
-@Getter
 public class OrderBook {
 
+    @Getter
     private final String symbol;
 
-    private final PriorityQueue<Order> buyOrders;
+    @Getter
+    private final TickSize tickSize;
 
-    private final PriorityQueue<Order> sellOrders;
+    // BUY levels: highest price first
+    private final NavigableMap<Long, PriceLevel> bids;
 
+    // SELL levels: lowest price first
+    private final NavigableMap<Long, PriceLevel> asks;
+
+    // Cached heads of bids/asks so best bid/ask reads are O(1)
+    private PriceLevel bestBid;
+
+    private PriceLevel bestAsk;
+
+    // Total resting quantity per side, kept with the level aggregates
+    private long bidQuantity;
+
+    private long askQuantity;
+
+    // Null when the book is confined to one sequencer thread
     private final ReentrantLock lock;
 
-    private final Map<String, Order> activeOrders;
+    // LOCK mode: fills are matched into this buffer and copied under the lock
+    // (null when thread-confined: the shard passes its own)
+    private final FillBuffer scratch;
 
-    public OrderBook(String symbol) {
-        this.symbol = symbol;
+    private final OrderStore resting;
+
+    // Pending expiries of DAY / GTD orders; created with the first one
+    private TimingWheel timers;
+
+    // timers.size(), republished after every change for the lock-free hasPendingExpiries
+    private volatile int pendingExpiries;
+
+    // Recently filled, cancelled and expired orders
+    private final TerminalOrders terminal;
+
+    // Sees which order ids this book can answer for
+    private final OrderLocator locator;
+
+    // Sees every fill and every order leaving unfilled (order gateway reports)
+    private final OrderListener orderListener;
+
+    // Last arrival sequence handed out
+    private long sequence;
+
+    // Sees each accepted command before it is applied (write-ahead journal)
+    private final CommandLog commandLog;
+
+    // Log sequence of the last command applied; lets a checkpoint skip older journal records
+    private long logSequence;
+
+    // Sees the levels each command changed (market-data delta feed)
+    private final DepthListener depthListener;
+
+    // Reused per command; null when nobody listens
+    private final DepthDelta depth;
+
+    // Last depth sequence published; a snapshot reports the same counter
+    private long depthSequence;
+
+    // Levels changed by the current command, and which side each is on
+    private PriceLevel[] touched = new PriceLevel[16];
+
+    private boolean[] touchedBuys = new boolean[16];
+
+    private int touchedCount;
+
+    // Timing hooks; NONE skips the clock reads entirely
+    private final MatchingMetrics metrics;
+
+    // Orders accepted and fills executed since start (metrics; read without the lock)
+    private long ordersAccepted;
 
-        // BUY orders: highest price first, then earliest time (FIFO)
-        this.buyOrders = new PriorityQueue<>((a, b) -> {
-            int priceCompare = b.getPrice().compareTo(a.getPrice());
-            return priceCompare != 0 ? priceCompare : a.getTimestamp().compareTo(b.getTimestamp());
-        });
+    private long fillsExecuted;
 
-        // SELL orders: lowest price first, then earliest time (FIFO)
-        this.sellOrders = new PriorityQueue<>((a, b) -> {
-            int priceCompare = a.getPrice().compareTo(b.getPrice());
-            return priceCompare != 0 ? priceCompare : a.getTimestamp().compareTo(b.getTimestamp());
-        });
+    public OrderBook(String symbol, TickSize tickSize) {
+        this(symbol, tickSize, false);
+    }
+
+    public OrderBook(String symbol, TickSize tickSize, boolean threadConfined) {
+        this(symbol, tickSize, threadConfined, CommandLog.NONE);
+    }
+
+    public OrderBook(String symbol, TickSize tickSize, boolean threadConfined, CommandLog commandLog) {
+        this(symbol, tickSize, threadConfined, commandLog, DepthListener.NONE);
+    }
+
+    public OrderBook(String symbol, TickSize tickSize, boolean threadConfined, CommandLog commandLog,
+                     DepthListener depthListener) {
+        this(symbol, tickSize, threadConfined, commandLog, depthListener, MatchingMetrics.NONE);
+    }
+
+    public OrderBook(String symbol, TickSize tickSize, boolean threadConfined, CommandLog commandLog,
+                     DepthListener depthListener, MatchingMetrics metrics) {
+        this(symbol, tickSize, threadConfined, commandLog, depthListener, metrics, OrderLocator.NONE,
+                TerminalOrders.DEFAULT_CAPACITY, TerminalOrders.DEFAULT_TTL_MILLIS);
+    }
+
+    public OrderBook(String symbol, TickSize tickSize, boolean threadConfined, CommandLog commandLog,
+                     DepthListener depthListener, MatchingMetrics metrics, OrderLocator locator,
+                     int terminalCapacity, long terminalTtlMillis) {
+        this(symbol, tickSize, threadConfined, commandLog, depthListener, metrics, locator, OrderListener.NONE,
+                terminalCapacity, terminalTtlMillis);
+    }
 
-        this.lock = new ReentrantLock(true);
-        this.activeOrders = new HashMap<>();
+    public OrderBook(String symbol, TickSize tickSize, boolean threadConfined, CommandLog commandLog,
+                     DepthListener depthListener, MatchingMetrics metrics, OrderLocator locator,
+                     OrderListener orderListener, int terminalCapacity, long terminalTtlMillis) {
+        this.symbol = symbol;
+        this.metrics = metrics;
+        this.commandLog = commandLog;
+        this.depthListener = depthListener;
+        this.depth = depthListener == DepthListener.NONE ? null : new DepthDelta(16);
+        this.tickSize = tickSize;
+        this.bids = new TreeMap<>(Comparator.reverseOrder());
+        this.asks = new TreeMap<>();
+        this.lock = threadConfined ? null : new ReentrantLock(true);
+        this.scratch = threadConfined ? null : new FillBuffer(FillBuffer.DEFAULT_CAPACITY);
+        this.resting = new OrderStore();
+        this.locator = locator;
+        this.orderListener = orderListener;
+        this.terminal = new TerminalOrders(terminalCapacity, terminalTtlMillis, locator, symbol);
         log.info("OrderBook initialized for symbol: {}", symbol);
     }
 
 
+    private void lock() {
+        if (lock != null) {
+            lock.lock();
+        }
+    }
+
+    private void unlock() {
+        if (lock != null) {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * Lock for a timed command. Only contended acquisitions pay for clock
+     * reads to time the wait. Returns when the lock was taken, or 0 if
+     * this book is not timed (no metrics, or thread-confined: the shard
+     * times its own commands).
+     */
+    private long lockTimed() {
+        if (lock == null || metrics == MatchingMetrics.NONE) {
+            lock();
+            return 0;
+        }
+        if (lock.isLocked()) {
+            long waitStart = System.nanoTime();
+            lock.lock();
+            long acquired = System.nanoTime();
+            metrics.lockWait(acquired - waitStart);
+            return acquired;
+        }
+        lock.lock();
+        return System.nanoTime();
+    }
+
     /*
      * Add a new order to the book.
      * Returns list of trades executed during matching.
      */
     public List<Trade> addOrder(Order order) {
-        lock.lock();
+        order.setPriceTicks(tickSize.toTicks(order.getPrice()));
+        FillBuffer fills = new FillBuffer(8);
+        addOrder(order, fills);
+        return fills.toTrades();
+    }
+
+    /*
+     * Add a new order whose priceTicks is already set.
+     * Fills are written into the caller's reusable buffer and the fill count
+     * is returned; nothing on this path allocates unless the order rests.
+     */
+    public int addOrder(Order order, FillBuffer fills) {
+        checkTicks(order);
+
+        long locked = lockTimed();
         try {
-            log.debug("Adding order: {} {} {} @ {} (Qty: {})",
-                    order.getId(), order.getType(), order.getSymbol(),
-                    order.getPrice(), order.getQuantity());
+            int filled = apply(order, fills);
+            publishDepth();
+            return filled;
+        }
+        finally {
+            if (locked != 0) {
+                metrics.matched(System.nanoTime() - locked);
+            }
+            unlock();
+        }
+    }
 
-            order.setStatus(OrderStatus.OPEN);
-            activeOrders.put(order.getId(), order);
+    /*
+     * LOCK mode: add an order whose priceTicks is already set, matching
+     * into the book's own buffer, and return a copy of its fills taken
+     * under the lock (EMPTY if none). Callers need no buffer of their own,
+     * so nothing per thread piles up when each request runs on its own
+     * virtual thread.
+     */
+    public FillBuffer addOrderCopy(Order order) {
+        checkScratch();
+        checkTicks(order);
 
-            // Add to appropriate queue
-            if (order.getType() == OrderType.BUY) {
-                buyOrders.offer(order);
-            } else {
-                sellOrders.offer(order);
+        long locked = lockTimed();
+        try {
+            apply(order, scratch);
+            publishDepth();
+            return scratch.isEmpty() ? FillBuffer.EMPTY : scratch.copy();
+        }
+        finally {
+            if (locked != 0) {
+                metrics.matched(System.nanoTime() - locked);
             }
+            unlock();
+        }
+    }
+
+    /*
+     * LOCK mode: addOrders with the book's own buffer
+     */
+    public List<FillBuffer> addOrders(List<Order> orders) {
+        checkScratch();
+        return addOrders(orders, scratch);
+    }
+
+    private void checkScratch() {
+        if (scratch == null) {
+            throw new IllegalStateException("Book " + symbol + " is confined to a matching shard");
+        }
+    }
 
-            return match();
+    /*
+     * Add a batch of orders (priceTicks already set) under one lock
+     * acquisition. Each order matches exactly as if it were added alone,
+     * in list order, but the levels they change go out as one depth delta.
+     * Returns each order's fills (EMPTY or an exact-size copy), in order.
+     * Timing covers the whole batch as one MATCH sample.
+     */
+    public List<FillBuffer> addOrders(List<Order> orders, FillBuffer fills) {
+        for (Order order : orders) {
+            checkTicks(order);
+        }
+        List<FillBuffer> results = new ArrayList<>(orders.size());
+
+        long locked = lockTimed();
+        try {
+            for (Order order : orders) {
+                results.add(apply(order, fills) == 0 ? FillBuffer.EMPTY : fills.copy());
+            }
+            publishDepth();
+            return results;
         }
         finally {
-            lock.unlock();
+            if (locked != 0) {
+                metrics.matched(System.nanoTime() - locked);
+            }
+            unlock();
+        }
+    }
+
+    private static void checkTicks(Order order) {
+        if (order.getPriceTicks() <= 0) {
+            throw new IllegalArgumentException("Order " + order.getId() + " has no tick price");
         }
     }
 
+    /*
+     * Sequence, journal, match and rest one order; the caller holds the
+     * lock and publishes the depth delta
+     */
+    private int apply(Order order, FillBuffer fills) {
+        if (log.isDebugEnabled()) {
+            log.debug("Adding order: {} {} {} @ {} (Qty: {})",
+                    order.getId(), order.getType(), order.getSymbol(),
+                    order.getPrice(), order.getQuantity());
+        }
+
+        order.setSequence(++sequence);
+        logSequence = commandLog.newOrder(order, tickSize);
+        locator.track(order.getId(), symbol);
+        order.setStatus(OrderStatus.OPEN);
+
+        fills.reset(symbol, tickSize, System.currentTimeMillis());
+        match(order, fills);
+
+        // Whatever is left rests at the back of its price level
+        if (order.getRemainingQuantity() > 0) {
+            rest(order);
+        } else {
+            retire(order, fills.getTimestamp());
+        }
+
+        ordersAccepted++;
+        fillsExecuted += fills.size();
+        return fills.size();
+    }
+
     /*
      * THE MATCHING ALGORITHM
      *
-     * Continuously matches buy and sell orders while:
+     * The resting book never crosses, so only the incoming order can match.
+     * It walks the opposite side from the best level while:
      * bestBuyPrice >= bestSellPrice
      *
      * This implements Price-Time Priority:
      * 1. Best price gets priority
      * 2. At same price, earliest order gets priority (FIFO)
      */
-    public List<Trade> match() {
+    private void match(Order incoming, FillBuffer fills) {
         // Lock is already held by caller (addOrder)
-        List<Trade> executedTrades = new ArrayList<>();
+        boolean isBuy = incoming.getType() == OrderType.BUY;
+        long incomingKey = OrderIds.toInternal(incoming.getId());
 
-        while (!buyOrders.isEmpty() && !sellOrders.isEmpty()) {
-            Order bestBuy = buyOrders.peek();
-            Order bestSell = sellOrders.peek();
-
-            if (!bestBuy.isActive()) {
-                buyOrders.poll();
-                continue;
-            }
-            if (!bestSell.isActive()) {
-                sellOrders.poll();
-                continue;
+        while (incoming.getRemainingQuantity() > 0) {
+            PriceLevel level = isBuy ? bestAsk : bestBid;
+            if (level == null) {
+                break;
             }
 
             // Check if prices cross (match condition)
-            if (bestBuy.getPrice().compareTo(bestSell.getPrice()) < 0) {
+            if (isBuy ? incoming.getPriceTicks() < level.getPrice()
+                      : incoming.getPriceTicks() > level.getPrice()) {
                 // No overlap: bestBuyPrice < bestSellPrice
                 break;
             }
 
             // MATCH FOUND! Execute trade
-            Trade trade = executeTrade(bestBuy, bestSell);
-            executedTrades.add(trade);
-
-            log.info("Trade executed: {} shares @ {} (Buy: {}, Sell: {})",
-                    trade.getQuantity(), trade.getPrice(),
-                    trade.getBuyOrderId(), trade.getSellOrderId());
-
-            // Remove fully filled orders from queues
-            if (bestBuy.getRemainingQuantity() == 0) {
-                buyOrders.poll();
-                bestBuy.setStatus(OrderStatus.FILLED);
-                activeOrders.remove(bestBuy.getId());
-            }
-            if (bestSell.getRemainingQuantity() == 0) {
-                sellOrders.poll();
-                bestSell.setStatus(OrderStatus.FILLED);
-                activeOrders.remove(bestSell.getId());
+            int maker = level.head();
+            long filled = executeTrade(incoming, incomingKey, maker, isBuy, fills);
+            level.reduce(filled);
+            if (isBuy) {
+                askQuantity -= filled;
+            } else {
+                bidQuantity -= filled;
             }
+            touch(level, !isBuy);
 
+            // Remove fully filled maker from its level
+            if (resting.remaining[maker] == 0) {
+                unlink(maker);
+                retire(maker, OrderStatus.FILLED, fills.getTimestamp());
+                release(maker);
+            }
         }
-
-        return executedTrades;
-
     }
 
     /*
-     * Execute a single trade between two orders.
+     * Execute a single trade between the incoming order and the resting
+     * order at the head of the best level. Returns the quantity traded.
      * Trade price is the MAKER's price (the order already in the book).
      * For sell order as maker: use sell price
      * For buy order as maker: use buy price
      */
-    private Trade executeTrade(Order buyOrder, Order sellOrder) {
-        long tradeQuantity = Math.min(buyOrder.getRemainingQuantity(),
-                                    sellOrder.getRemainingQuantity());
+    private long executeTrade(Order incoming, long incomingKey, int maker, boolean isBuy, FillBuffer fills) {
+        long tradeQuantity = Math.min(incoming.getRemainingQuantity(), resting.remaining[maker]);
         // Trade price: Use the price of the order that was in book first (maker)
         // In this implementation, we'll use the sell order price (passive side)
-        BigDecimal tradePrice = sellOrder.getPrice();
+        long tradePrice = isBuy ? resting.priceTicks[maker] : incoming.getPriceTicks();
 
-        // Update order quantities
-        buyOrder.setRemainingQuantity(buyOrder.getRemainingQuantity() - tradeQuantity);
-        sellOrder.setRemainingQuantity(sellOrder.getRemainingQuantity() - tradeQuantity);
+        // Update order quantities; the maker's status follows from its remaining quantity
+        incoming.setRemainingQuantity(incoming.getRemainingQuantity() - tradeQuantity);
+        resting.remaining[maker] -= tradeQuantity;
 
         // Update order status
-        if (buyOrder.getRemainingQuantity() > 0) {
-            buyOrder.setStatus(OrderStatus.PARTIALLY_FILLED);
+        if (incoming.getRemainingQuantity() > 0) {
+            incoming.setStatus(OrderStatus.PARTIALLY_FILLED);
+        } else {
+            incoming.setStatus(OrderStatus.FILLED);
+        }
+
+        // Record the fill; Trade entities are built later from the buffer
+        if (isBuy) {
+            fills.add(incomingKey, incoming.getId(), incoming.getUserId(),
+                    resting.key(maker), resting.foreignId(maker), resting.userId(maker), tradePrice, tradeQuantity);
+        } else {
+            fills.add(resting.key(maker), resting.foreignId(maker), resting.userId(maker),
+                    incomingKey, incoming.getId(), incoming.getUserId(), tradePrice, tradeQuantity);
+        }
+        orderListener.filled(incomingKey, tradePrice, tradeQuantity, incoming.getRemainingQuantity());
+        orderListener.filled(resting.key(maker), tradePrice, tradeQuantity, resting.remaining[maker]);
+
+        if (log.isDebugEnabled()) {
+            log.debug("Trade executed: {} shares @ {} (Incoming: {}, Resting: {})",
+                    tradeQuantity, tickSize.toPrice(tradePrice),
+                    incoming.getId(), resting.externalId(maker));
+        }
+        return tradeQuantity;
+    }
+
+    /*
+     * Put an order at the back of its price level
+     */
+    private void rest(Order order) {
+        int slot = resting.add(order.getId(), order.getUserId(), order.getType() == OrderType.BUY,
+                order.getPriceTicks(), order.getQuantity(), order.getRemainingQuantity(), order.getSequence(),
+                OrderStore.time(order.getTimestamp()), order.getTimeInForce(),
+                OrderStore.expiry(order.getExpireTime()));
+        link(slot);
+        schedule(slot);
+    }
+
+    /*
+     * Put a slot with an expiry on the timing wheel
+     */
+    private void schedule(int slot) {
+        if (resting.expiries[slot] == OrderStore.NO_EXPIRY) {
+            return;
+        }
+        if (timers == null) {
+            timers = new TimingWheel(TimingWheel.DEFAULT_BUCKETS, TimingWheel.DEFAULT_TICK_MILLIS,
+                    System.currentTimeMillis());
+        }
+        timers.schedule(resting, slot);
+        pendingExpiries = timers.size();
+    }
+
+    /*
+     * Remember a resting order that is leaving the book (before its slot is freed)
+     */
+    private void retire(int slot, OrderStatus status, long nowMillis) {
+        if (status != OrderStatus.FILLED) {
+            orderListener.done(resting.key(slot), status);
+        }
+        terminal.add(resting.key(slot), resting.foreignId(slot), resting.users[slot], resting.buys[slot],
+                resting.priceTicks[slot], resting.quantities[slot], resting.remaining[slot],
+                resting.sequences[slot], resting.times[slot], status, resting.timeInForce(slot),
+                resting.expiries[slot], nowMillis);
+    }
+
+    /*
+     * Remember an incoming order that filled completely without resting
+     */
+    private void retire(Order order, long nowMillis) {
+        long key = OrderIds.toInternal(order.getId());
+        terminal.add(key, key == OrderIds.NONE ? order.getId() : null, resting.intern(order.getUserId()),
+                order.getType() == OrderType.BUY, order.getPriceTicks(), order.getQuantity(), 0,
+                order.getSequence(), OrderStore.time(order.getTimestamp()), OrderStatus.FILLED,
+                order.getTimeInForce(), OrderStore.expiry(order.getExpireTime()), nowMillis);
+    }
+
+    /*
+     * Free an unlinked slot, taking it off the timing wheel first
+     */
+    private void release(int slot) {
+        if (resting.expiries[slot] != OrderStore.NO_EXPIRY) {
+            timers.cancel(resting, slot);
+            pendingExpiries = timers.size();
+        }
+        resting.free(slot);
+    }
+
+    /*
+     * Append a stored slot to its price level, creating the level if needed
+     */
+    private void link(int slot) {
+        boolean isBuy = resting.buys[slot];
+        NavigableMap<Long, PriceLevel> side = isBuy ? bids : asks;
+        long price = resting.priceTicks[slot];
+
+        PriceLevel level = side.get(price);
+        if (level == null) {
+            level = new PriceLevel(price);
+            side.put(level.key(), level);
+            if (isBuy) {
+                if (bestBid == null || price > bestBid.getPrice()) {
+                    bestBid = level;
+                }
+            } else {
+                if (bestAsk == null || price < bestAsk.getPrice()) {
+                    bestAsk = level;
+                }
+            }
+        }
+
+        level.append(resting, slot);
+        if (isBuy) {
+            bidQuantity += resting.remaining[slot];
         } else {
-            buyOrder.setStatus(OrderStatus.FILLED);
+            askQuantity += resting.remaining[slot];
+        }
+        touch(level, isBuy);
+    }
+
+    /*
+     * Remove a slot from its level, dropping the level once it is empty
+     */
+    private void unlink(int slot) {
+        PriceLevel level = resting.levels[slot];
+        level.remove(resting, slot);
+        if (!level.isEmpty()) {
+            return;
         }
 
-        if (sellOrder.getRemainingQuantity() > 0) {
-            sellOrder.setStatus(OrderStatus.PARTIALLY_FILLED);
+        if (resting.buys[slot]) {
+            bids.remove(level.key());
+            if (level == bestBid) {
+                // firstKey/get instead of firstEntry, which allocates an entry copy
+                bestBid = bids.isEmpty() ? null : bids.get(bids.firstKey());
+            }
         } else {
-            sellOrder.setStatus(OrderStatus.FILLED);
+            asks.remove(level.key());
+            if (level == bestAsk) {
+                bestAsk = asks.isEmpty() ? null : asks.get(asks.firstKey());
+            }
+        }
+    }
+
+    /*
+     * Remember a level changed by the current command (once per command)
+     */
+    private void touch(PriceLevel level, boolean isBuy) {
+        if (depth == null || level.touched) {
+            return;
+        }
+        if (touchedCount == touched.length) {
+            touched = Arrays.copyOf(touched, touchedCount * 2);
+            touchedBuys = Arrays.copyOf(touchedBuys, touchedCount * 2);
         }
+        level.touched = true;
+        touched[touchedCount] = level;
+        touchedBuys[touchedCount] = isBuy;
+        touchedCount++;
+    }
 
-        // Create trade record
-        return Trade.builder()
-                .symbol(symbol)
-                .buyOrderId(buyOrder.getId())
-                .sellOrderId(sellOrder.getId())
-                .price(tradePrice)
-                .quantity(tradeQuantity)
-                .timestamp(java.time.LocalDateTime.now())
-                .buyerId(buyOrder.getUserId())
-                .sellerId(sellOrder.getUserId())
-                .build();
+    /*
+     * Hand the changed levels to the depth listener as one sequenced delta.
+     * Removed levels are reported with quantity 0.
+     */
+    private void publishDepth() {
+        if (touchedCount == 0) {
+            return;
+        }
+        depth.reset(symbol, tickSize, ++depthSequence);
+        for (int i = 0; i < touchedCount; i++) {
+            PriceLevel level = touched[i];
+            depth.add(touchedBuys[i], level.getPrice(), level.getQuantity(), level.getOrderCount());
+            level.touched = false;
+            touched[i] = null;
+        }
+        touchedCount = 0;
+        try {
+            depthListener.onDepthChange(depth);
+        } catch (RuntimeException e) {
+            log.error("Depth listener failed for {}", symbol, e);
+        }
     }
 
     /*
      * Cancel an order by ID
      */
     public boolean cancelOrder(String orderId) {
-        lock.lock();
+        lock();
         try {
-            Order order = activeOrders.remove(orderId);
-            if (order != null) {
-                order.setStatus(OrderStatus.CANCELLED);
-                order.setRemainingQuantity(0);
-                // Order remains in PriorityQueue but will be skipped due to status
+            int slot = resting.find(orderId);
+            if (slot != OrderStore.NIL) {
+                cancel(slot, orderId);
+                publishDepth();
                 log.info("Order cancelled: {}", orderId);
                 return true;
             }
             return false;
         } finally {
-            lock.unlock();
+            unlock();
         }
     }
 
+    /*
+     * Mass cancel: every resting order of a user and/or side (null matches
+     * any) under one lock, in price-time order, reported as one depth delta.
+     * Returns the ids of the cancelled orders.
+     */
+    public List<String> cancelOrders(String userId, OrderType side) {
+        lock();
+        try {
+            int[] matched = new int[resting.size()];
+            int count = 0;
+            if (side != OrderType.SELL) {
+                count = select(bids, userId, matched, count);
+            }
+            if (side != OrderType.BUY) {
+                count = select(asks, userId, matched, count);
+            }
+            List<String> cancelled = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String orderId = resting.externalId(matched[i]);
+                cancelled.add(orderId);
+                cancel(matched[i], orderId);
+            }
+            publishDepth();
+            if (!cancelled.isEmpty()) {
+                log.info("Mass cancel on {}: {} orders (user {}, side {})", symbol, cancelled.size(), userId, side);
+            }
+            return cancelled;
+        } finally {
+            unlock();
+        }
+    }
+
+    private int select(NavigableMap<Long, PriceLevel> side, String userId, int[] into, int count) {
+        for (PriceLevel level : side.values()) {
+            for (int slot = level.head(); slot != OrderStore.NIL; slot = resting.next[slot]) {
+                if (userId == null || userId.equals(resting.userId(slot))) {
+                    into[count++] = slot;
+                }
+            }
+        }
+        return count;
+    }
+
+    /*
+     * Journal, unlink and free one resting order; the caller holds the lock
+     * and publishes the depth delta
+     */
+    private void cancel(int slot, String orderId) {
+        logSequence = commandLog.cancelOrder(symbol, orderId);
+        retire(slot, OrderStatus.CANCELLED, System.currentTimeMillis());
+        remove(slot);
+    }
+
+    /*
+     * Amend a resting order to a new price and total quantity (more than
+     * it has already filled) as one journaled command with one depth delta.
+     * Reducing the quantity at the same price is done in place and keeps
+     * the order's queue position. A price change or a quantity increase
+     * re-queues it, keeping its id, at the back of its (new) level as if it
+     * had just arrived, so a new price can match. Returns null if the order
+     * is not resting.
+     */
+    public Amendment amendOrder(String orderId, long priceTicks, long quantity, FillBuffer fills) {
+        if (priceTicks <= 0) {
+            throw new IllegalArgumentException("Order " + orderId + " has no tick price");
+        }
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+
+        long locked = lockTimed();
+        try {
+            int slot = resting.find(orderId);
+            if (slot == OrderStore.NIL) {
+                return null;
+            }
+            Amendment amendment = amend(slot, orderId, priceTicks, quantity, fills);
+            publishDepth();
+            return amendment;
+        }
+        finally {
+            if (locked != 0) {
+                metrics.matched(System.nanoTime() - locked);
+            }
+            unlock();
+        }
+    }
+
+    /*
+     * LOCK mode: amendOrder with the book's own buffer
+     */
+    public Amendment amendOrder(String orderId, long priceTicks, long quantity) {
+        checkScratch();
+        return amendOrder(orderId, priceTicks, quantity, scratch);
+    }
+
+    private Amendment amend(int slot, String orderId, long priceTicks, long quantity, FillBuffer fills) {
+        long filled = resting.quantities[slot] - resting.remaining[slot];
+        if (quantity <= filled) {
+            throw new IllegalArgumentException("Order " + orderId + " has already filled " + filled
+                    + ", quantity must be greater");
+        }
+        logSequence = commandLog.amendOrder(symbol, orderId, priceTicks, quantity);
+        fills.reset(symbol, tickSize, System.currentTimeMillis());
+        boolean isBuy = resting.buys[slot];
+
+        if (priceTicks == resting.priceTicks[slot] && quantity <= resting.quantities[slot]) {
+            long reduction = resting.quantities[slot] - quantity;
+            resting.quantities[slot] = quantity;
+            resting.remaining[slot] -= reduction;
+            PriceLevel level = resting.levels[slot];
+            level.reduce(reduction);
+            if (isBuy) {
+                bidQuantity -= reduction;
+            } else {
+                askQuantity -= reduction;
+            }
+            touch(level, isBuy);
+            return new Amendment(resting.toOrder(slot, symbol, tickSize), false, FillBuffer.EMPTY);
+        }
+
+        // Take the order out and apply it again as a new arrival under the same id
+        Order order = resting.toOrder(slot, symbol, tickSize);
+        remove(slot);
+        order.setPrice(tickSize.toPrice(priceTicks));
+        order.setPriceTicks(priceTicks);
+        order.setQuantity(quantity);
+        order.setRemainingQuantity(quantity - filled);
+        order.setSequence(++sequence);
+        match(order, fills);
+        if (order.getRemainingQuantity() > 0) {
+            rest(order);
+            order.setStatus(order.getRemainingQuantity() < quantity ? OrderStatus.PARTIALLY_FILLED : OrderStatus.OPEN);
+        } else {
+            retire(order, fills.getTimestamp());
+        }
+        fillsExecuted += fills.size();
+        return new Amendment(order, true, fills.isEmpty() ? FillBuffer.EMPTY : fills.copy());
+    }
+
+    /*
+     * Unlink and free one resting order; the caller journals the command
+     */
+    private void remove(int slot) {
+        boolean isBuy = resting.buys[slot];
+        if (isBuy) {
+            bidQuantity -= resting.remaining[slot];
+        } else {
+            askQuantity -= resting.remaining[slot];
+        }
+        touch(resting.levels[slot], isBuy);
+        unlink(slot);
+        release(slot);
+    }
+
+    /*
+     * Expire every resting order due at or before nowMillis (epoch millis)
+     * under one lock, with one depth delta for all of them. Each expiry is
+     * journaled as a cancel. Returns the ids of the expired orders.
+     */
+    public List<String> expireOrders(long nowMillis) {
+        lock();
+        try {
+            if (timers == null || timers.size() == 0) {
+                return List.of();
+            }
+            int count = timers.expire(resting, nowMillis);
+            pendingExpiries = timers.size();
+            List<String> expired = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int slot = timers.due(i);
+                String orderId = resting.externalId(slot);
+                expired.add(orderId);
+                logSequence = commandLog.cancelOrder(symbol, orderId);
+                retire(slot, OrderStatus.EXPIRED, nowMillis);
+                // Already off the wheel
+                resting.expiries[slot] = OrderStore.NO_EXPIRY;
+                remove(slot);
+            }
+            publishDepth();
+            if (count > 0) {
+                log.info("Expired {} orders on {}", count, symbol);
+            }
+            return expired;
+        } finally {
+            unlock();
+        }
+    }
+
+    /*
+     * Whether any DAY / GTD order is waiting to expire. Read without the
+     * lock (a volatile count, not the wheel itself), so the expiry
+     * scheduler can skip idle books cheaply from its own thread.
+     */
+    public boolean hasPendingExpiries() {
+        return pendingExpiries > 0;
+    }
+
+    /*
+     * Copy the resting orders and counters for a checkpoint.
+     * Only a flat copy happens under the lock; serialization is done elsewhere.
+     */
+    public BookState capture() {
+        lock();
+        try {
+            BookState state = new BookState(symbol, tickSize, sequence, logSequence, resting.size());
+            capture(bids, state);
+            capture(asks, state);
+            return state;
+        } finally {
+            unlock();
+        }
+    }
+
+    /*
+     * Capture the book, then cancel every resting order (journaled), under
+     * one lock: for a hand-over, so no order can fill or expire between
+     * being copied out and being cancelled here
+     */
+    public BookState release() {
+        lock();
+        try {
+            BookState state = capture();
+            cancelOrders(null, null);
+            return state;
+        } finally {
+            unlock();
+        }
+    }
+
+    private void capture(NavigableMap<Long, PriceLevel> side, BookState state) {
+        for (PriceLevel level : side.values()) {
+            for (int slot = level.head(); slot != OrderStore.NIL; slot = resting.next[slot]) {
+                state.add(resting.externalId(slot), resting.userId(slot), resting.buys[slot],
+                        resting.priceTicks[slot], resting.quantities[slot], resting.remaining[slot],
+                        resting.status(slot), resting.sequences[slot], resting.epochSecond(slot), resting.nano(slot),
+                        resting.timeInForce(slot), resting.expiries[slot]);
+            }
+        }
+    }
+
+    /*
+     * Load a captured state into this (empty) book. Every restored level is
+     * published as one depth delta (the manager drops it during recovery).
+     */
+    public void restore(BookState state) {
+        lock();
+        try {
+            if (resting.size() != 0) {
+                throw new IllegalStateException("Cannot restore into non-empty book " + symbol);
+            }
+            for (int i = 0; i < state.getSize(); i++) {
+                locator.track(state.id(i), symbol);
+                int slot = resting.add(state.id(i), state.userId(i), state.isBuy(i), state.priceTicks(i),
+                        state.quantity(i), state.remainingQuantity(i), state.orderSequence(i),
+                        OrderStore.time(state.epochSecond(i), state.nano(i)), state.timeInForce(i), state.expiry(i));
+                link(slot);
+                schedule(slot);
+            }
+            sequence = state.getSequence();
+            logSequence = state.getLogSequence();
+            publishDepth();
+        } finally {
+            unlock();
+        }
+    }
+
+    /*
+     * A resting order, or one that left the book recently (FILLED,
+     * CANCELLED or EXPIRED); null if the book does not know it
+     */
+    public Order findOrder(String orderId) {
+        lock();
+        try {
+            int slot = resting.find(orderId);
+            if (slot != OrderStore.NIL) {
+                return resting.toOrder(slot, symbol, tickSize);
+            }
+            int position = terminal.find(orderId, System.currentTimeMillis());
+            return position != OrderStore.NIL ? terminal.toOrder(position, resting, tickSize) : null;
+        } finally {
+            unlock();
+        }
+    }
+
+    /*
+     * A user's resting orders, then their recently terminal ones, each
+     * newest first. Walks only that user's orders.
+     */
+    public List<Order> ordersOf(String userId) {
+        lock();
+        try {
+            int user = resting.findUser(userId);
+            if (user == OrderStore.NIL) {
+                return List.of();
+            }
+            List<Order> orders = new ArrayList<>();
+            for (int slot = resting.userHead(user); slot != OrderStore.NIL; slot = resting.userNext[slot]) {
+                orders.add(resting.toOrder(slot, symbol, tickSize));
+            }
+            terminal.collect(user, System.currentTimeMillis(), resting, tickSize, orders);
+            return orders;
+        } finally {
+            unlock();
+        }
+    }
+
+    /*
+     * Best (highest) bid price, or null if there are no bids
+     */
+    public BigDecimal getBestBidPrice() {
+        lock();
+        try {
+            return bestBid != null ? tickSize.toPrice(bestBid.getPrice()) : null;
+        } finally {
+            unlock();
+        }
+    }
+
+    /*
+     * Best (lowest) ask price, or null if there are no asks
+     */
+    public BigDecimal getBestAskPrice() {
+        lock();
+        try {
+            return bestAsk != null ? tickSize.toPrice(bestAsk.getPrice()) : null;
+        } finally {
+            unlock();
+        }
+    }
+
+    /*
+     * Number of resting orders on both sides
+     */
+    public int getActiveOrderCount() {
+        lock();
+        try {
+            return resting.size();
+        } finally {
+            unlock();
+        }
+    }
+
+    /*
+     * Counters for metrics gauges. Read without the lock, so only
+     * approximately current, but never blocks matching.
+     */
+    public long getOrdersAccepted() {
+        return ordersAccepted;
+    }
+
+    public long getFillsExecuted() {
+        return fillsExecuted;
+    }
+
+    public int getRestingOrders() {
+        return resting.size();
+    }
+
+    public int getLevelCount() {
+        return bids.size() + asks.size();
+    }
+
     /*
      * Get current order book snapshot (for display purposes)
-     * Only returns active orders, properly sorted
+     * Levels are already in priority order, so no sorting is needed
      */
     public OrderBookSnapshot getSnapshot() {
-        lock.lock();
+        lock();
         try {
-            List<Order> activeBuys = buyOrders.stream()
-                    .filter(Order::isActive)
-                    .sorted((a, b) -> {
-                        int p = b.getPrice().compareTo(a.getPrice());
-                        return p != 0 ? p : a.getTimestamp().compareTo(b.getTimestamp());
-                    })
-                    .toList();
-
-            List<Order> activeSells = sellOrders.stream()
-                    .filter(Order::isActive)
-                    .sorted((a, b) -> {
-                        int p = a.getPrice().compareTo(b.getPrice());
-                        return p != 0 ? p : a.getTimestamp().compareTo(b.getTimestamp());
-                    })
-                    .toList();
-
             return OrderBookSnapshot.builder()
                     .symbol(symbol)
-                    .buyOrders(activeBuys)
-                    .sellOrders(activeSells)
+                    .buyOrders(collect(bids))
+                    .sellOrders(collect(asks))
                     .timestamp(java.time.LocalDateTime.now())
                     .build();
         } finally {
-            lock.unlock();
+            unlock();
         }
     }
 
+    /*
+     * Aggregated price levels, best first, stamped with the depth sequence
+     * so a client can apply later deltas on top of it
+     */
+    public DepthSnapshot getDepth() {
+        return getDepth(Integer.MAX_VALUE);
+    }
+
+    /*
+     * Top maxLevels levels per side. Levels are kept sorted and aggregated
+     * as orders change, so this is O(maxLevels): no sorting, no per-order work.
+     */
+    public DepthSnapshot getDepth(int maxLevels) {
+        lock();
+        try {
+            return DepthSnapshot.builder()
+                    .symbol(symbol)
+                    .sequence(depthSequence)
+                    .bids(levels(bids, OrderType.BUY, maxLevels))
+                    .asks(levels(asks, OrderType.SELL, maxLevels))
+                    .bidLevels(bids.size())
+                    .askLevels(asks.size())
+                    .totalBidQuantity(bidQuantity)
+                    .totalAskQuantity(askQuantity)
+                    .timestamp(java.time.LocalDateTime.now())
+                    .build();
+        } finally {
+            unlock();
+        }
+    }
+
+    private List<DepthLevel> levels(NavigableMap<Long, PriceLevel> side, OrderType type, int maxLevels) {
+        List<DepthLevel> levels = new ArrayList<>(Math.min(side.size(), maxLevels));
+        for (PriceLevel level : side.values()) {
+            if (levels.size() == maxLevels) {
+                break;
+            }
+            levels.add(new DepthLevel(type, tickSize.toPrice(level.getPrice()),
+                    level.getQuantity(), level.getOrderCount()));
+        }
+        return levels;
+    }
+
+    private List<Order> collect(NavigableMap<Long, PriceLevel> side) {
+        List<Order> orders = new ArrayList<>();
+        for (PriceLevel level : side.values()) {
+            for (int slot = level.head(); slot != OrderStore.NIL; slot = resting.next[slot]) {
+                orders.add(resting.toOrder(slot, symbol, tickSize));
+            }
+        }
+        return orders;
+    }
+
     @Builder
     @Data
     public static class OrderBookSnapshot {
@@ -247,4 +1048,31 @@ public class OrderBook {
         private java.time.LocalDateTime timestamp;
     }
 
+    /*
+     * Outcome of amendOrder: the order as it now stands (FILLED if its new
+     * price matched it completely), whether it lost its time priority, and
+     * its fills (EMPTY or a copy)
+     */
+    @Value
+    public static class Amendment {
+        Order order;
+        boolean requeued;
+        FillBuffer fills;
+    }
+
+    @Builder
+    @Data
+    public static class DepthSnapshot {
+        private String symbol;
+        private long sequence;
+        private List<DepthLevel> bids;
+        private List<DepthLevel> asks;
+        // Whole-book totals, whatever the level limit
+        private int bidLevels;
+        private int askLevels;
+        private long totalBidQuantity;
+        private long totalAskQuantity;
+        private java.time.LocalDateTime timestamp;
+    }
+
 }
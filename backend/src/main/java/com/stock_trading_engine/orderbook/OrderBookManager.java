@@ -1,16 +1,43 @@
 package com.stock_trading_engine.orderbook;
 
+import com.stock_trading_engine.checkpoint.Checkpoint;
+import com.stock_trading_engine.checkpoint.CheckpointStore;
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.journal.Journal;
 import com.stock_trading_engine.model.Order;
-import com.stock_trading_engine.model.Trade;
+import com.stock_trading_engine.model.OrderIds;
+import com.stock_trading_engine.model.OrderStatus;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.model.TimeInForce;
+import com.stock_trading_engine.sequencer.CommandType;
+import com.stock_trading_engine.sequencer.MatchingShard;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 
 /*
  * Manages OrderBooks for multiple trading symbols.
  * Thread-safe using ConcurrentHashMap.
+ *
+ * In SEQUENCER mode every symbol is owned by one MatchingShard and all
+ * commands for it are routed through that shard's ring buffer.
+ *
+ * On startup books are restored from the latest checkpoint (if any) and
+ * then the journal records after it are replayed.
  */
 @Component
 @Slf4j
@@ -18,24 +45,411 @@ public class OrderBookManager {
 
     private final ConcurrentHashMap<String, OrderBook> orderBooks;
 
-    public OrderBookManager() {
+    private final EngineProperties properties;
+
+    // Null when running without a journal (tests, benchmarks)
+    private final Journal journal;
+
+    // Null when running without checkpoints
+    private final CheckpointStore checkpointStore;
+
+    // Null in LOCK mode
+    private final MatchingShard[] shards;
+
+    // Null when nothing consumes depth deltas
+    private final DepthListener depthListener;
+
+    private final MatchingMetrics matchingMetrics;
+
+    // Order id -> symbol for every order some book can answer for
+    private final SymbolIndex symbolIndex = new SymbolIndex();
+
+    // Depth deltas and order events are not published while the journal is replayed
+    private volatile boolean recovering;
+
+    // Set by whoever reports fills per order (the order gateway)
+    private volatile OrderListener orderListener = OrderListener.NONE;
+
+    // Handed to every book, so a listener set later still sees them all
+    private final OrderListener orderEvents = new OrderListener() {
+        @Override
+        public void filled(long key, long priceTicks, long quantity, long remaining) {
+            if (!recovering) {
+                orderListener.filled(key, priceTicks, quantity, remaining);
+            }
+        }
+
+        @Override
+        public void done(long key, OrderStatus status) {
+            if (!recovering) {
+                orderListener.done(key, status);
+            }
+        }
+    };
+
+    public OrderBookManager(EngineProperties properties) {
+        this(properties, null, null);
+    }
+
+    public OrderBookManager(EngineProperties properties, Journal journal, CheckpointStore checkpointStore) {
+        this(properties, journal, checkpointStore, null);
+    }
+
+    public OrderBookManager(EngineProperties properties, Journal journal, CheckpointStore checkpointStore,
+                            DepthListener depthListener) {
+        this(properties, journal, checkpointStore, depthListener, null);
+    }
+
+    @Autowired
+    public OrderBookManager(EngineProperties properties, Journal journal, CheckpointStore checkpointStore,
+                            DepthListener depthListener, MatchingMetrics matchingMetrics) {
+        this.depthListener = depthListener;
+        this.matchingMetrics = matchingMetrics != null ? matchingMetrics : MatchingMetrics.NONE;
         this.orderBooks = new ConcurrentHashMap<>();
-        log.info("OrderBookManager initialized");
+        this.properties = properties;
+        this.journal = journal;
+        this.checkpointStore = checkpointStore;
+        OrderIds.setNode(properties.getNodeId());
+        this.shards = properties.getMode() == EngineProperties.Mode.SEQUENCER
+                ? startShards(properties.getShards(), properties.getRingSize(), this.matchingMetrics)
+                : null;
+        log.info("OrderBookManager initialized ({} mode)", properties.getMode());
+    }
+
+    private static MatchingShard[] startShards(int count, int ringSize, MatchingMetrics metrics) {
+        MatchingShard[] shards = new MatchingShard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new MatchingShard(i, ringSize, metrics);
+            shards[i].start();
+        }
+        return shards;
+    }
+
+    /*
+     * Restore the latest checkpoint, then re-apply later journal records
+     * through the normal command path (the journal does not re-record them).
+     * A record is skipped if its book's checkpoint state already includes it.
+     * Recovered books keep the tick size they were journaled or checkpointed
+     * with, whatever the configuration says now: resting prices and amend
+     * records are in those ticks. A changed tick only applies to new books.
+     */
+    @PostConstruct
+    public void recover() {
+        recovering = true;
+        try {
+            recoverBooks();
+        } finally {
+            recovering = false;
+        }
+    }
+
+    private void recoverBooks() {
+        long start = System.nanoTime();
+        Checkpoint checkpoint = checkpointStore != null ? checkpointStore.loadLatest() : null;
+        Map<String, Long> resumeAfter = new HashMap<>();
+        long fromSequence = 0;
+        if (checkpoint != null) {
+            for (BookState state : checkpoint.getBooks()) {
+                restore(state);
+                resumeAfter.put(state.getSymbol(), state.getLogSequence());
+            }
+            fromSequence = checkpoint.getJournalSequence();
+        }
+        long restored = System.nanoTime();
+
+        long records = 0;
+        if (journal != null && journal.isEnabled()) {
+            long from = fromSequence;
+            records = journal.recover(new Journal.Handler() {
+                @Override
+                public void newOrder(long sequence, Order order, TickSize tickSize) {
+                    if (sequence > resumeAfter.getOrDefault(order.getSymbol(), from)) {
+                        recoveredBook(order.getSymbol(), tickSize);
+                        addOrder(order);
+                    }
+                }
+
+                @Override
+                public void cancelOrder(long sequence, String symbol, String orderId) {
+                    if (sequence > resumeAfter.getOrDefault(symbol, from)) {
+                        OrderBookManager.this.cancelOrder(symbol, orderId);
+                    }
+                }
+
+                @Override
+                public void amendOrder(long sequence, String symbol, String orderId, long priceTicks,
+                                       long quantity) {
+                    if (sequence > resumeAfter.getOrDefault(symbol, from)) {
+                        OrderBook book = orderBooks.get(symbol);
+                        if (book != null) {
+                            amend(book, orderId, priceTicks, quantity);
+                        }
+                    }
+                }
+
+                @Override
+                public void adoptBook(long sequence, BookState state) {
+                    if (sequence > resumeAfter.getOrDefault(state.getSymbol(), from)) {
+                        replaceBook(state);
+                    }
+                }
+            }, fromSequence);
+        }
+
+        for (OrderBook book : orderBooks.values()) {
+            TickSize configured = TickSize.of(properties.tickSizeFor(book.getSymbol()));
+            if (!configured.equals(book.getTickSize())) {
+                log.warn("{} keeps its recovered tick size {} (configured: {})",
+                        book.getSymbol(), book.getTickSize(), configured);
+            }
+        }
+        if (checkpoint != null || records > 0) {
+            log.info("Recovered {} order books: checkpoint {} ms, {} journal records {} ms",
+                    orderBooks.size(), (restored - start) / 1_000_000,
+                    records, (System.nanoTime() - restored) / 1_000_000);
+        }
+    }
+
+    /*
+     * The book a journaled order replays into: created with the journaled
+     * tick, or one restored earlier, which must have the same tick
+     */
+    private OrderBook recoveredBook(String symbol, TickSize tickSize) {
+        OrderBook book = orderBooks.computeIfAbsent(symbol, s -> newBook(s, tickSize));
+        if (!book.getTickSize().equals(tickSize)) {
+            throw new IllegalStateException("Journal has " + symbol + " at tick size " + tickSize
+                    + " but its recovered book uses " + book.getTickSize());
+        }
+        return book;
+    }
+
+    private void restore(BookState state) {
+        OrderBook book = orderBooks.computeIfAbsent(state.getSymbol(),
+                k -> newBook(state.getSymbol(), state.getTickSize()));
+        if (shards == null) {
+            book.restore(state);
+        } else {
+            join(submit(CommandType.RESTORE, book, null, null, state));
+        }
+    }
+
+    /*
+     * Capture every book for a checkpoint. The journal position is read
+     * first, so every record at or below it is reflected in the capture.
+     */
+    public Checkpoint capture() {
+        long journalSequence = journal != null ? journal.getLastSequence() : 0;
+        List<CompletableFuture<BookState>> pending = new ArrayList<>();
+        List<BookState> states = new ArrayList<>();
+        for (OrderBook book : orderBooks.values()) {
+            if (shards == null) {
+                states.add(book.capture());
+            } else {
+                // All shards capture in parallel, each between two commands
+                pending.add(submit(CommandType.CHECKPOINT, book, null, null, null));
+            }
+        }
+        for (CompletableFuture<BookState> future : pending) {
+            states.add(join(future));
+        }
+        return new Checkpoint(journalSequence, System.currentTimeMillis(), states);
+    }
+
+    /*
+     * Hand a symbol over to another engine: capture its book and cancel
+     * every resting order through the normal (journaled) path in one
+     * command, so this engine does not bring them back on restart, and
+     * drop the book. The caller must have stopped sending commands for the
+     * symbol. Null if there is no book.
+     */
+    public BookState release(String symbol) {
+        OrderBook book = orderBooks.get(symbol);
+        if (book == null) {
+            return null;
+        }
+        BookState state = shards == null ? book.release() : join(submit(CommandType.RELEASE, book, null, null));
+        orderBooks.remove(symbol, book);
+        symbolIndex.forgetSymbol(symbol);
+        log.info("Released {} ({} resting orders)", symbol, state.getSize());
+        return state;
+    }
+
+    /*
+     * Take over a book released by another engine. Its orders are journaled
+     * first, so it survives a restart like any other book. Fails if the
+     * symbol already has resting orders.
+     */
+    public void adopt(BookState state) {
+        OrderBook existing = orderBooks.get(state.getSymbol());
+        if (existing != null && activeOrders(existing) > 0) {
+            throw new IllegalStateException("Book " + state.getSymbol() + " already has resting orders");
+        }
+        replaceBook(state.rebase(journal != null ? journal.adoptBook(state) : 0));
+        log.info("Adopted {} ({} resting orders)", state.getSymbol(), state.getSize());
+    }
+
+    private int activeOrders(OrderBook book) {
+        return shards == null ? book.getActiveOrderCount() : join(submit(CommandType.ORDER_COUNT, book, null, null));
+    }
+
+    /*
+     * Swap in a fresh book holding the state (live adopt and its replay)
+     */
+    private void replaceBook(BookState state) {
+        orderBooks.put(state.getSymbol(), newBook(state.getSymbol(), state.getTickSize()));
+        restore(state);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (shards != null) {
+            for (MatchingShard shard : shards) {
+                shard.stop();
+            }
+        }
+    }
+
+    public Collection<OrderBook> getOrderBooks() {
+        return orderBooks.values();
+    }
+
+    /*
+     * Commands queued on shard rings and not yet applied (0 in LOCK mode)
+     */
+    public long getBacklog() {
+        long backlog = 0;
+        if (shards != null) {
+            for (MatchingShard shard : shards) {
+                backlog += shard.backlog();
+            }
+        }
+        return backlog;
     }
 
     /*
      * Get or create an OrderBook for a symbol
      */
     public OrderBook getOrderBook(String symbol) {
-        return orderBooks.computeIfAbsent(symbol, k -> new OrderBook(symbol));
+        return orderBooks.computeIfAbsent(symbol,
+                k -> newBook(symbol, TickSize.of(properties.tickSizeFor(symbol))));
+    }
+
+    private OrderBook newBook(String symbol, TickSize tickSize) {
+        EngineProperties.OrderHistory history = properties.getOrderHistory();
+        return new OrderBook(symbol, tickSize, shards != null, journal != null ? journal : CommandLog.NONE,
+                depthListener != null ? this::publishDepth : DepthListener.NONE, matchingMetrics, symbolIndex,
+                orderEvents, history.getCapacity(), history.getTtlSeconds() * 1000);
     }
 
     /*
-     * Add order and return executed trades
+     * Tell listener about fills and unfilled exits in every book (null to stop)
      */
-    public List<Trade> addOrder(Order order) {
+    public void setOrderListener(OrderListener listener) {
+        this.orderListener = listener != null ? listener : OrderListener.NONE;
+    }
+
+    private void publishDepth(DepthDelta delta) {
+        if (!recovering) {
+            depthListener.onDepthChange(delta);
+        }
+    }
+
+    /*
+     * Check an order (see prepare), add it and return its fills.
+     * The price is converted to ticks here, on the caller's thread,
+     * so the matching path only sees long prices.
+     */
+    public FillBuffer addOrder(Order order) {
+        if (recovering) {
+            // Journaled orders were checked and resolved when first accepted
+            order.setPriceTicks(getOrderBook(order.getSymbol()).getTickSize().toTicks(order.getPrice()));
+        } else {
+            prepare(order);
+        }
+        return addPrepared(order);
+    }
+
+    /*
+     * Add an order that has already been through prepare
+     */
+    public FillBuffer addPrepared(Order order) {
         OrderBook book = getOrderBook(order.getSymbol());
-        return book.addOrder(order);
+        if (shards == null) {
+            return book.addOrderCopy(order);
+        }
+        return join(submit(CommandType.NEW_ORDER, book, order, null));
+    }
+
+    /*
+     * Check an order and convert its price to ticks ahead of addOrders or
+     * addPrepared; every entry point (single, batch, gateway) goes through it.
+     * Throws IllegalArgumentException with the reason if it cannot be accepted.
+     */
+    public void prepare(Order order) {
+        if (order.getSymbol() == null || order.getSymbol().isBlank()) {
+            throw new IllegalArgumentException("Symbol is required");
+        }
+        if (order.getType() == null) {
+            throw new IllegalArgumentException("Order type is required");
+        }
+        if (order.getQuantity() <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + order.getQuantity());
+        }
+        if (order.getPrice() == null) {
+            throw new IllegalArgumentException("Price is required");
+        }
+        resolveExpiry(order);
+        order.setPriceTicks(getOrderBook(order.getSymbol()).getTickSize().toTicks(order.getPrice()));
+    }
+
+    /*
+     * Give a DAY order the next session close as its expiry and check that
+     * a GTD order has one in the future. Journaled orders carry the
+     * resolved expiry, so replay skips this (a replayed order that is
+     * already due expires on the next scheduler tick).
+     */
+    private void resolveExpiry(Order order) {
+        TimeInForce timeInForce = order.getTimeInForce() != null ? order.getTimeInForce() : TimeInForce.GTC;
+        order.setTimeInForce(timeInForce);
+        LocalDateTime now = LocalDateTime.now();
+        switch (timeInForce) {
+            case GTC -> {
+                if (order.getExpireTime() != null) {
+                    throw new IllegalArgumentException("expireTime is only allowed on GTD orders");
+                }
+            }
+            case DAY -> {
+                LocalDateTime close = now.toLocalDate().atTime(properties.getExpiry().getSessionClose());
+                order.setExpireTime(close.isAfter(now) ? close : close.plusDays(1));
+            }
+            case GTD -> {
+                if (order.getExpireTime() == null) {
+                    throw new IllegalArgumentException("GTD orders need an expireTime");
+                }
+                if (!order.getExpireTime().isAfter(now)) {
+                    throw new IllegalArgumentException("expireTime is in the past: " + order.getExpireTime());
+                }
+                // The book keeps expiries to the millisecond
+                order.setExpireTime(order.getExpireTime().truncatedTo(ChronoUnit.MILLIS));
+            }
+        }
+    }
+
+    /*
+     * Add prepared orders for one symbol in one lock acquisition (LOCK)
+     * or one shard command (SEQUENCER). Returns each order's fills, in order.
+     */
+    public List<FillBuffer> addOrders(String symbol, List<Order> orders) {
+        for (Order order : orders) {
+            if (!symbol.equals(order.getSymbol())) {
+                throw new IllegalArgumentException("Order " + order.getId() + " is not for " + symbol);
+            }
+        }
+        OrderBook book = getOrderBook(symbol);
+        if (shards == null) {
+            return book.addOrders(orders);
+        }
+        return join(submit(CommandType.NEW_ORDERS, book, null, null, orders));
     }
 
     /*
@@ -43,7 +457,114 @@ public class OrderBookManager {
      */
     public boolean cancelOrder(String symbol, String orderId) {
         OrderBook book = orderBooks.get(symbol);
-        return book != null && book.cancelOrder(orderId);
+        if (book == null) {
+            return false;
+        }
+        if (shards == null) {
+            return book.cancelOrder(orderId);
+        }
+        return join(submit(CommandType.CANCEL_ORDER, book, null, orderId));
+    }
+
+    /*
+     * Cancel an order by id alone, its symbol found through the order index
+     */
+    public boolean cancelOrder(String orderId) {
+        String symbol = symbolIndex.symbolOf(orderId);
+        return symbol != null && cancelOrder(symbol, orderId);
+    }
+
+    /*
+     * A resting or recently terminal order by id, or null
+     */
+    public Order findOrder(String orderId) {
+        String symbol = symbolIndex.symbolOf(orderId);
+        OrderBook book = symbol != null ? orderBooks.get(symbol) : null;
+        if (book == null) {
+            return null;
+        }
+        if (shards == null) {
+            return book.findOrder(orderId);
+        }
+        return join(submit(CommandType.FIND_ORDER, book, null, orderId));
+    }
+
+    /*
+     * A user's resting and recently terminal orders across all books
+     * (one command per book, in parallel across shards)
+     */
+    public List<Order> ordersOf(String userId) {
+        List<Order> orders = new ArrayList<>();
+        List<CompletableFuture<List<Order>>> pending = new ArrayList<>();
+        for (OrderBook book : orderBooks.values()) {
+            if (shards == null) {
+                orders.addAll(book.ordersOf(userId));
+            } else {
+                pending.add(submit(CommandType.USER_ORDERS, book, null, userId));
+            }
+        }
+        for (CompletableFuture<List<Order>> future : pending) {
+            orders.addAll(join(future));
+        }
+        return orders;
+    }
+
+    /*
+     * Amend a resting order's price and total quantity (see
+     * OrderBook.amendOrder). Null if the order is not resting.
+     */
+    public OrderBook.Amendment amendOrder(String symbol, String orderId, BigDecimal price, long quantity) {
+        OrderBook book = orderBooks.get(symbol);
+        if (book == null) {
+            return null;
+        }
+        return amend(book, orderId, book.getTickSize().toTicks(price), quantity);
+    }
+
+    private OrderBook.Amendment amend(OrderBook book, String orderId, long priceTicks, long quantity) {
+        if (shards == null) {
+            return book.amendOrder(orderId, priceTicks, quantity);
+        }
+        return join(submit(CommandType.AMEND_ORDER, book, null, orderId, new long[] {priceTicks, quantity}));
+    }
+
+    /*
+     * Cancel every resting order of a user and/or side (null matches any)
+     * in one book command. Returns the ids of the cancelled orders.
+     */
+    public List<String> cancelOrders(String symbol, String userId, OrderType side) {
+        OrderBook book = orderBooks.get(symbol);
+        if (book == null) {
+            return List.of();
+        }
+        if (shards == null) {
+            return book.cancelOrders(userId, side);
+        }
+        return join(submit(CommandType.MASS_CANCEL, book, null, userId, side));
+    }
+
+    /*
+     * Expire every DAY / GTD order due at nowMillis, as one command per book
+     * that has any pending (books run in parallel across shards). Returns
+     * the number of orders expired.
+     */
+    public int expireOrders(long nowMillis) {
+        int expired = 0;
+        List<CompletableFuture<List<String>>> pending = new ArrayList<>();
+        for (OrderBook book : orderBooks.values()) {
+            if (!book.hasPendingExpiries()) {
+                continue;
+            }
+            if (shards == null) {
+                expired += book.expireOrders(nowMillis).size();
+            } else {
+                pending.add(submit(CommandType.EXPIRE, book, null, null, nowMillis));
+            }
+        }
+        for (CompletableFuture<List<String>> future : pending) {
+            expired += join(future).size();
+        }
+        return expired;
     }
 
     /*
@@ -51,7 +572,62 @@ public class OrderBookManager {
      */
     public OrderBook.OrderBookSnapshot getSnapshot(String symbol) {
         OrderBook book = orderBooks.get(symbol);
-        return book != null ? book.getSnapshot() : null;
+        if (book == null) {
+            return null;
+        }
+        if (shards == null) {
+            return book.getSnapshot();
+        }
+        return join(submit(CommandType.SNAPSHOT, book, null, null));
+    }
+
+    /*
+     * Get the top levels per side, stamped with the book's depth sequence
+     */
+    public OrderBook.DepthSnapshot getDepth(String symbol, int levels) {
+        OrderBook book = orderBooks.get(symbol);
+        if (book == null) {
+            return null;
+        }
+        if (shards == null) {
+            return book.getDepth(levels);
+        }
+        return join(submit(CommandType.DEPTH, book, null, null, levels));
+    }
+
+    /*
+     * Queue an order on its symbol's shard without waiting (SEQUENCER mode)
+     */
+    public CompletableFuture<FillBuffer> submitOrder(Order order) {
+        resolveExpiry(order);
+        OrderBook book = getOrderBook(order.getSymbol());
+        order.setPriceTicks(book.getTickSize().toTicks(order.getPrice()));
+        return submit(CommandType.NEW_ORDER, book, order, null);
+    }
+
+    private <T> CompletableFuture<T> submit(CommandType type, OrderBook book, Order order, String orderId) {
+        return submit(type, book, order, orderId, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> submit(CommandType type, OrderBook book, Order order, String orderId,
+                                            Object payload) {
+        if (shards == null) {
+            throw new IllegalStateException("Engine is not running in SEQUENCER mode");
+        }
+        MatchingShard shard = shards[Math.floorMod(book.getSymbol().hashCode(), shards.length)];
+        return (CompletableFuture<T>) (CompletableFuture<?>) shard.submit(type, book, order, orderId, payload);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
     }
 
 }
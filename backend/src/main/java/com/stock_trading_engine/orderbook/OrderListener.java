@@ -0,0 +1,30 @@
+package com.stock_trading_engine.orderbook;
+
+import com.stock_trading_engine.model.OrderStatus;
+
+/*
+ * Told what happens to orders, under the book's lock (or on its shard
+ * thread) and in book order, whichever caller caused it: every fill of
+ * either side with what that order has left, and every order that leaves
+ * the book unfilled (cancelled, mass-cancelled, released or expired).
+ * Orders are identified by internal id (see OrderIds). Called from the
+ * matching loop, so implementations must not block.
+ */
+public interface OrderListener {
+
+    OrderListener NONE = new OrderListener() {
+        @Override
+        public void filled(long key, long priceTicks, long quantity, long remaining) {
+        }
+
+        @Override
+        public void done(long key, OrderStatus status) {
+        }
+    };
+
+    void filled(long key, long priceTicks, long quantity, long remaining);
+
+    // CANCELLED or EXPIRED; a filled order's last fill has remaining 0
+    void done(long key, OrderStatus status);
+
+}
@@ -0,0 +1,29 @@
+package com.stock_trading_engine.orderbook;
+
+/*
+ * Told which order ids a book can answer for, under the book's lock (or on
+ * its shard thread): an order is tracked when the book accepts it and
+ * forgotten when its terminal record is dropped (see TerminalOrders), so
+ * an engine-wide index can find an order's symbol from its id alone.
+ */
+public interface OrderLocator {
+
+    OrderLocator NONE = new OrderLocator() {
+        @Override
+        public void track(String orderId, String symbol) {
+        }
+
+        @Override
+        public void forget(long key, String foreignId, String symbol) {
+        }
+    };
+
+    void track(String orderId, String symbol);
+
+    /*
+     * key is the internal id; foreignId is set instead for ids the engine
+     * did not issue (see OrderIds)
+     */
+    void forget(long key, String foreignId, String symbol);
+
+}
@@ -0,0 +1,383 @@
+package com.stock_trading_engine.orderbook;
+
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderIds;
+import com.stock_trading_engine.model.OrderStatus;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.model.TimeInForce;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * The resting orders of one book, struct-of-arrays style.
+ *
+ * An order is a slot: an index into parallel primitive columns that also
+ * carry its price-level links (prev/next), so a resting order costs about
+ * 100 bytes of arrays plus its index entry, instead of an Order object,
+ * its BigDecimal, LocalDateTime and id String, a link node and a HashMap
+ * entry. Freed slots are chained through next and reused; the columns only
+ * grow (doubling), so resting and matching do not allocate.
+ *
+ * Slots are found by internal order id through a primitive index. Engine
+ * ids (see OrderIds) need no table; a foreign id gets a negative alias
+ * from this book, and its String is kept with the slot while it rests.
+ * User ids are interned per book, so each distinct user is stored once,
+ * and each user's resting orders are chained through userPrev / userNext
+ * (newest first), so listing them does not scan the book.
+ * Orders with an expiry also carry their TimingWheel links (timerPrev /
+ * timerNext), so a pending expiry costs no object either.
+ *
+ * Owned by its OrderBook and only used under its lock (or shard thread).
+ */
+final class OrderStore {
+
+    static final int NIL = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    static final long NO_TIME = Long.MIN_VALUE;
+
+    static final long NO_EXPIRY = 0;
+
+    private static final TimeInForce[] TIME_IN_FORCE = TimeInForce.values();
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    // Columns, indexed by slot. Links are read and written by PriceLevel.
+    long[] ids;
+
+    long[] priceTicks;
+
+    long[] quantities;
+
+    long[] remaining;
+
+    long[] sequences;
+
+    // Epoch nanos (UTC) of the order's timestamp, or NO_TIME
+    long[] times;
+
+    int[] users;
+
+    boolean[] buys;
+
+    int[] prev;
+
+    int[] next;
+
+    PriceLevel[] levels;
+
+    // TimeInForce ordinal, and expiry in epoch millis or NO_EXPIRY
+    byte[] tifs;
+
+    long[] expiries;
+
+    // Links within the user's chain of resting orders
+    int[] userPrev;
+
+    int[] userNext;
+
+    // Links within a TimingWheel bucket
+    int[] timerPrev;
+
+    int[] timerNext;
+
+    // External id of foreign orders (null for engine ids)
+    private String[] foreignIds;
+
+    private final LongIntMap index;
+
+    private final Map<String, Long> aliases = new HashMap<>();
+
+    private long lastAlias;
+
+    private final Map<String, Integer> userIndex = new HashMap<>();
+
+    private String[] userNames = new String[16];
+
+    // Newest resting order per interned user, or NIL
+    private int[] userHeads = new int[16];
+
+    // Head of the chain of free slots, and the first never-used slot
+    private int free = NIL;
+
+    private int used;
+
+    private int size;
+
+    OrderStore() {
+        this.index = new LongIntMap(INITIAL_CAPACITY);
+        allocate(INITIAL_CAPACITY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /*
+     * Store an order (not yet linked into a level) and index it by id.
+     * Returns its slot.
+     */
+    int add(String id, String userId, boolean buy, long priceTick, long quantity, long remainingQuantity,
+            long orderSequence, long time, TimeInForce timeInForce, long expiry) {
+        long key = OrderIds.toInternal(id);
+        String foreignId = null;
+        if (key == OrderIds.NONE) {
+            key = --lastAlias;
+            aliases.put(id, key);
+            foreignId = id;
+        }
+
+        int slot = free;
+        if (slot != NIL) {
+            free = next[slot];
+        } else {
+            if (used == ids.length) {
+                allocate(used * 2);
+            }
+            slot = used++;
+        }
+        ids[slot] = key;
+        foreignIds[slot] = foreignId;
+        users[slot] = intern(userId);
+        linkUser(slot);
+        buys[slot] = buy;
+        priceTicks[slot] = priceTick;
+        quantities[slot] = quantity;
+        remaining[slot] = remainingQuantity;
+        sequences[slot] = orderSequence;
+        times[slot] = time;
+        tifs[slot] = (byte) (timeInForce == null ? TimeInForce.GTC : timeInForce).ordinal();
+        expiries[slot] = expiry;
+        index.put(key, slot);
+        size++;
+        return slot;
+    }
+
+    /*
+     * Order timestamp as stored in the times column
+     */
+    static long time(LocalDateTime timestamp) {
+        return timestamp == null ? NO_TIME : time(timestamp.toEpochSecond(ZoneOffset.UTC), timestamp.getNano());
+    }
+
+    static long time(long epochSecond, int nano) {
+        return epochSecond * NANOS_PER_SECOND + nano;
+    }
+
+    static LocalDateTime timestamp(long time) {
+        return time == NO_TIME ? null : LocalDateTime.ofEpochSecond(Math.floorDiv(time, NANOS_PER_SECOND),
+                (int) Math.floorMod(time, NANOS_PER_SECOND), ZoneOffset.UTC);
+    }
+
+    static LocalDateTime expireTime(long expiry) {
+        return expiry == NO_EXPIRY ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(expiry), ZoneId.systemDefault());
+    }
+
+    /*
+     * Order expiry as stored in the expiries column
+     */
+    static long expiry(LocalDateTime expireTime) {
+        return expireTime == null ? NO_EXPIRY : expireTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /*
+     * Slot of a resting order, or NIL
+     */
+    int find(String id) {
+        long key = OrderIds.toInternal(id);
+        if (key == OrderIds.NONE) {
+            Long alias = aliases.get(id);
+            if (alias == null) {
+                return NIL;
+            }
+            key = alias;
+        }
+        return index.get(key);
+    }
+
+    /*
+     * Forget an order that has been unlinked from its level
+     */
+    void free(int slot) {
+        unlinkUser(slot);
+        index.remove(ids[slot]);
+        if (foreignIds[slot] != null) {
+            aliases.remove(foreignIds[slot]);
+            foreignIds[slot] = null;
+        }
+        levels[slot] = null;
+        prev[slot] = NIL;
+        next[slot] = free;
+        free = slot;
+        size--;
+    }
+
+    /*
+     * Internal id: the engine id, or this book's (negative) alias
+     */
+    long key(int slot) {
+        return ids[slot];
+    }
+
+    /*
+     * The id as clients know it. Allocates for engine ids, so the
+     * matching path uses key() and foreignId() instead.
+     */
+    String externalId(int slot) {
+        return foreignIds[slot] != null ? foreignIds[slot] : OrderIds.toExternal(ids[slot]);
+    }
+
+    String foreignId(int slot) {
+        return foreignIds[slot];
+    }
+
+    String userId(int slot) {
+        return userNames[users[slot]];
+    }
+
+    String userName(int user) {
+        return userNames[user];
+    }
+
+    /*
+     * Interned index of a user id, or NIL if the book has never seen it
+     */
+    int findUser(String userId) {
+        Integer user = userIndex.get(userId);
+        return user != null ? user : NIL;
+    }
+
+    /*
+     * Newest resting order of an interned user, or NIL; older ones follow
+     * through userNext
+     */
+    int userHead(int user) {
+        return userHeads[user];
+    }
+
+    long epochSecond(int slot) {
+        return times[slot] == NO_TIME ? 0 : Math.floorDiv(times[slot], NANOS_PER_SECOND);
+    }
+
+    int nano(int slot) {
+        return times[slot] == NO_TIME ? 0 : (int) Math.floorMod(times[slot], NANOS_PER_SECOND);
+    }
+
+    TimeInForce timeInForce(int slot) {
+        return TIME_IN_FORCE[tifs[slot]];
+    }
+
+    OrderStatus status(int slot) {
+        return remaining[slot] < quantities[slot] ? OrderStatus.PARTIALLY_FILLED : OrderStatus.OPEN;
+    }
+
+    /*
+     * Materialize a resting order (snapshots and queries only)
+     */
+    Order toOrder(int slot, String symbol, TickSize tickSize) {
+        return Order.builder()
+                .id(externalId(slot))
+                .symbol(symbol)
+                .type(buys[slot] ? OrderType.BUY : OrderType.SELL)
+                .price(tickSize.toPrice(priceTicks[slot]))
+                .priceTicks(priceTicks[slot])
+                .quantity(quantities[slot])
+                .remainingQuantity(remaining[slot])
+                .timestamp(timestamp(times[slot]))
+                .status(status(slot))
+                .sequence(sequences[slot])
+                .userId(userId(slot))
+                .timeInForce(timeInForce(slot))
+                .expireTime(expireTime(expiries[slot]))
+                .build();
+    }
+
+    int intern(String userId) {
+        Integer user = userIndex.get(userId);
+        if (user != null) {
+            return user;
+        }
+        int added = userIndex.size();
+        if (added == userNames.length) {
+            userNames = Arrays.copyOf(userNames, added * 2);
+            userHeads = Arrays.copyOf(userHeads, added * 2);
+        }
+        userNames[added] = userId;
+        userHeads[added] = NIL;
+        userIndex.put(userId, added);
+        return added;
+    }
+
+    private void linkUser(int slot) {
+        int head = userHeads[users[slot]];
+        userPrev[slot] = NIL;
+        userNext[slot] = head;
+        if (head != NIL) {
+            userPrev[head] = slot;
+        }
+        userHeads[users[slot]] = slot;
+    }
+
+    private void unlinkUser(int slot) {
+        int before = userPrev[slot];
+        int after = userNext[slot];
+        if (before != NIL) {
+            userNext[before] = after;
+        } else {
+            userHeads[users[slot]] = after;
+        }
+        if (after != NIL) {
+            userPrev[after] = before;
+        }
+    }
+
+    private void allocate(int capacity) {
+        if (ids == null) {
+            ids = new long[capacity];
+            priceTicks = new long[capacity];
+            quantities = new long[capacity];
+            remaining = new long[capacity];
+            sequences = new long[capacity];
+            times = new long[capacity];
+            users = new int[capacity];
+            buys = new boolean[capacity];
+            prev = new int[capacity];
+            next = new int[capacity];
+            levels = new PriceLevel[capacity];
+            foreignIds = new String[capacity];
+            tifs = new byte[capacity];
+            expiries = new long[capacity];
+            userPrev = new int[capacity];
+            userNext = new int[capacity];
+            timerPrev = new int[capacity];
+            timerNext = new int[capacity];
+            return;
+        }
+        ids = Arrays.copyOf(ids, capacity);
+        priceTicks = Arrays.copyOf(priceTicks, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        remaining = Arrays.copyOf(remaining, capacity);
+        sequences = Arrays.copyOf(sequences, capacity);
+        times = Arrays.copyOf(times, capacity);
+        users = Arrays.copyOf(users, capacity);
+        buys = Arrays.copyOf(buys, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        next = Arrays.copyOf(next, capacity);
+        levels = Arrays.copyOf(levels, capacity);
+        foreignIds = Arrays.copyOf(foreignIds, capacity);
+        tifs = Arrays.copyOf(tifs, capacity);
+        expiries = Arrays.copyOf(expiries, capacity);
+        userPrev = Arrays.copyOf(userPrev, capacity);
+        userNext = Arrays.copyOf(userNext, capacity);
+        timerPrev = Arrays.copyOf(timerPrev, capacity);
+        timerNext = Arrays.copyOf(timerNext, capacity);
+    }
+
+}
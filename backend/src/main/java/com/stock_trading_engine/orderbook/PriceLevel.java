@@ -0,0 +1,107 @@
+package com.stock_trading_engine.orderbook;
+
+/*
+ * All resting orders at a single price, in arrival (FIFO) order.
+ * Doubly linked through the OrderStore's prev/next columns so any order
+ * can be unlinked in O(1) on cancel.
+ * Aggregate quantity and order count are kept up to date as orders
+ * rest, fill and cancel, so depth never has to walk the queue.
+ */
+final class PriceLevel {
+
+    // Price in ticks
+    private final long price;
+
+    // Boxed once so removing the level from its side map does not allocate
+    private final Long key;
+
+    // First and last slot in the OrderStore, or NIL
+    private int head = OrderStore.NIL;
+
+    private int tail = OrderStore.NIL;
+
+    private int orderCount;
+
+    // Sum of remaining quantity of the orders at this level
+    private long quantity;
+
+    // Already queued in the book's changed-level list for the current command
+    boolean touched;
+
+    PriceLevel(long price) {
+        this.price = price;
+        this.key = price;
+    }
+
+    long getPrice() {
+        return price;
+    }
+
+    Long key() {
+        return key;
+    }
+
+    int head() {
+        return head;
+    }
+
+    int getOrderCount() {
+        return orderCount;
+    }
+
+    long getQuantity() {
+        return quantity;
+    }
+
+    boolean isEmpty() {
+        return head == OrderStore.NIL;
+    }
+
+    /*
+     * Append a slot to the back of the queue (lowest time priority)
+     */
+    void append(OrderStore orders, int slot) {
+        orders.levels[slot] = this;
+        orders.prev[slot] = tail;
+        orders.next[slot] = OrderStore.NIL;
+        if (tail == OrderStore.NIL) {
+            head = slot;
+        } else {
+            orders.next[tail] = slot;
+        }
+        tail = slot;
+        orderCount++;
+        quantity += orders.remaining[slot];
+    }
+
+    /*
+     * Unlink a slot from anywhere in the queue
+     */
+    void remove(OrderStore orders, int slot) {
+        int prev = orders.prev[slot];
+        int next = orders.next[slot];
+        if (prev == OrderStore.NIL) {
+            head = next;
+        } else {
+            orders.next[prev] = next;
+        }
+        if (next == OrderStore.NIL) {
+            tail = prev;
+        } else {
+            orders.prev[next] = prev;
+        }
+        orders.prev[slot] = OrderStore.NIL;
+        orders.next[slot] = OrderStore.NIL;
+        orders.levels[slot] = null;
+        orderCount--;
+        quantity -= orders.remaining[slot];
+    }
+
+    /*
+     * A resting order at this level was (partially) filled
+     */
+    void reduce(long filled) {
+        quantity -= filled;
+    }
+
+}
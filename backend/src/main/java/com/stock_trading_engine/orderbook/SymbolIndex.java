@@ -0,0 +1,58 @@
+package com.stock_trading_engine.orderbook;
+
+import com.stock_trading_engine.model.OrderIds;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Engine-wide order id -> symbol index, fed by every book as an
+ * OrderLocator. Covers resting orders and the terminal orders the books
+ * still remember, so it stays bounded by what the books hold.
+ */
+final class SymbolIndex implements OrderLocator {
+
+    private final ConcurrentHashMap<Long, String> engineIds = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, String> foreignIds = new ConcurrentHashMap<>();
+
+    @Override
+    public void track(String orderId, String symbol) {
+        long key = OrderIds.toInternal(orderId);
+        if (key == OrderIds.NONE) {
+            foreignIds.put(orderId, symbol);
+        } else {
+            engineIds.put(key, symbol);
+        }
+    }
+
+    @Override
+    public void forget(long key, String foreignId, String symbol) {
+        // Only if still pointing at this book: a reused foreign id may have moved on
+        if (foreignId != null) {
+            foreignIds.remove(foreignId, symbol);
+        } else {
+            engineIds.remove(key, symbol);
+        }
+    }
+
+    /*
+     * Symbol of a known order, or null
+     */
+    String symbolOf(String orderId) {
+        long key = OrderIds.toInternal(orderId);
+        return key == OrderIds.NONE ? foreignIds.get(orderId) : engineIds.get(key);
+    }
+
+    /*
+     * Drop every id of a symbol whose book has left this engine
+     */
+    void forgetSymbol(String symbol) {
+        engineIds.values().removeIf(symbol::equals);
+        foreignIds.values().removeIf(symbol::equals);
+    }
+
+    int size() {
+        return engineIds.size() + foreignIds.size();
+    }
+
+}
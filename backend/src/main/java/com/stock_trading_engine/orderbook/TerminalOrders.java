@@ -0,0 +1,254 @@
+package com.stock_trading_engine.orderbook;
+
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderIds;
+import com.stock_trading_engine.model.OrderStatus;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.model.TimeInForce;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * The book's most recent filled, cancelled and expired orders, so order
+ * status queries still find an order after it has left the book.
+ *
+ * A ring of at most capacity records in primitive columns: when it is
+ * full the oldest record is overwritten (and the OrderLocator told), and
+ * records older than the TTL are skipped by queries. Records are indexed
+ * by internal id and chained per user (newest first) like OrderStore, and
+ * writing one does not allocate once the ring has grown to capacity.
+ *
+ * Owned by its OrderBook and only used under its lock (or shard thread).
+ */
+final class TerminalOrders {
+
+    static final int DEFAULT_CAPACITY = 10_000;
+
+    static final long DEFAULT_TTL_MILLIS = 3_600_000;
+
+    private static final int NIL = OrderStore.NIL;
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private static final TimeInForce[] TIME_IN_FORCE = TimeInForce.values();
+
+    private final int capacity;
+
+    private final long ttlMillis;
+
+    private final OrderLocator locator;
+
+    private final String symbol;
+
+    private long[] keys = new long[0];
+
+    private String[] foreignIds = new String[0];
+
+    // Interned in the book's OrderStore
+    private int[] users = new int[0];
+
+    private boolean[] buys = new boolean[0];
+
+    private long[] priceTicks = new long[0];
+
+    private long[] quantities = new long[0];
+
+    private long[] remaining = new long[0];
+
+    private long[] sequences = new long[0];
+
+    private long[] times = new long[0];
+
+    private byte[] statuses = new byte[0];
+
+    private byte[] tifs = new byte[0];
+
+    private long[] expiries = new long[0];
+
+    // When the order left the book (epoch millis)
+    private long[] doneAt = new long[0];
+
+    private int[] userPrev = new int[0];
+
+    private int[] userNext = new int[0];
+
+    private int[] userHeads = new int[0];
+
+    private final LongIntMap index = new LongIntMap(16);
+
+    private final Map<String, Integer> foreignIndex = new HashMap<>();
+
+    // Records held, and the oldest one once the ring is full
+    private int size;
+
+    private int oldest;
+
+    TerminalOrders(int capacity, long ttlMillis, OrderLocator locator, String symbol) {
+        this.capacity = capacity;
+        this.ttlMillis = ttlMillis;
+        this.locator = locator;
+        this.symbol = symbol;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /*
+     * Remember an order that just left the book
+     */
+    void add(long key, String foreignId, int user, boolean buy, long priceTick, long quantity,
+             long remainingQuantity, long sequence, long time, OrderStatus status, TimeInForce timeInForce,
+             long expiry, long nowMillis) {
+        if (capacity == 0) {
+            locator.forget(key, foreignId, symbol);
+            return;
+        }
+        int position;
+        if (size < capacity) {
+            position = size++;
+            if (position == keys.length) {
+                allocate(Math.min(Math.max(16, position * 2), capacity));
+            }
+        } else {
+            position = oldest;
+            evict(position);
+            oldest = (oldest + 1) % capacity;
+        }
+
+        keys[position] = key;
+        foreignIds[position] = foreignId;
+        users[position] = user;
+        buys[position] = buy;
+        priceTicks[position] = priceTick;
+        quantities[position] = quantity;
+        remaining[position] = remainingQuantity;
+        sequences[position] = sequence;
+        times[position] = time;
+        statuses[position] = (byte) status.ordinal();
+        tifs[position] = (byte) (timeInForce == null ? TimeInForce.GTC : timeInForce).ordinal();
+        expiries[position] = expiry;
+        doneAt[position] = nowMillis;
+        if (foreignId != null) {
+            foreignIndex.put(foreignId, position);
+        } else {
+            index.put(key, position);
+        }
+        linkUser(position);
+    }
+
+    /*
+     * Record of an order that left the book within the TTL, or NIL
+     */
+    int find(String orderId, long nowMillis) {
+        int position;
+        long key = OrderIds.toInternal(orderId);
+        if (key == OrderIds.NONE) {
+            Integer found = foreignIndex.get(orderId);
+            position = found != null ? found : NIL;
+        } else {
+            position = index.get(key);
+        }
+        return position != NIL && isLive(position, nowMillis) ? position : NIL;
+    }
+
+    /*
+     * A user's records within the TTL, newest first
+     */
+    void collect(int user, long nowMillis, OrderStore orders, TickSize tickSize, List<Order> into) {
+        if (user >= userHeads.length) {
+            return;
+        }
+        for (int position = userHeads[user]; position != NIL; position = userNext[position]) {
+            if (!isLive(position, nowMillis)) {
+                // Older records of this user are older still
+                break;
+            }
+            into.add(toOrder(position, orders, tickSize));
+        }
+    }
+
+    Order toOrder(int position, OrderStore orders, TickSize tickSize) {
+        return Order.builder()
+                .id(foreignIds[position] != null ? foreignIds[position] : OrderIds.toExternal(keys[position]))
+                .symbol(symbol)
+                .type(buys[position] ? OrderType.BUY : OrderType.SELL)
+                .price(tickSize.toPrice(priceTicks[position]))
+                .priceTicks(priceTicks[position])
+                .quantity(quantities[position])
+                .remainingQuantity(remaining[position])
+                .timestamp(OrderStore.timestamp(times[position]))
+                .status(STATUSES[statuses[position]])
+                .sequence(sequences[position])
+                .userId(orders.userName(users[position]))
+                .timeInForce(TIME_IN_FORCE[tifs[position]])
+                .expireTime(OrderStore.expireTime(expiries[position]))
+                .build();
+    }
+
+    private boolean isLive(int position, long nowMillis) {
+        return nowMillis - doneAt[position] <= ttlMillis;
+    }
+
+    // Drop the record at a position about to be overwritten
+    private void evict(int position) {
+        if (foreignIds[position] != null) {
+            foreignIndex.remove(foreignIds[position], position);
+        } else if (index.get(keys[position]) == position) {
+            index.remove(keys[position]);
+        }
+        unlinkUser(position);
+        locator.forget(keys[position], foreignIds[position], symbol);
+    }
+
+    private void linkUser(int position) {
+        int user = users[position];
+        if (user >= userHeads.length) {
+            int grown = userHeads.length;
+            userHeads = Arrays.copyOf(userHeads, Math.max(16, user * 2));
+            Arrays.fill(userHeads, grown, userHeads.length, NIL);
+        }
+        int head = userHeads[user];
+        userPrev[position] = NIL;
+        userNext[position] = head;
+        if (head != NIL) {
+            userPrev[head] = position;
+        }
+        userHeads[user] = position;
+    }
+
+    private void unlinkUser(int position) {
+        int before = userPrev[position];
+        int after = userNext[position];
+        if (before != NIL) {
+            userNext[before] = after;
+        } else {
+            userHeads[users[position]] = after;
+        }
+        if (after != NIL) {
+            userPrev[after] = before;
+        }
+    }
+
+    private void allocate(int length) {
+        keys = Arrays.copyOf(keys, length);
+        foreignIds = Arrays.copyOf(foreignIds, length);
+        users = Arrays.copyOf(users, length);
+        buys = Arrays.copyOf(buys, length);
+        priceTicks = Arrays.copyOf(priceTicks, length);
+        quantities = Arrays.copyOf(quantities, length);
+        remaining = Arrays.copyOf(remaining, length);
+        sequences = Arrays.copyOf(sequences, length);
+        times = Arrays.copyOf(times, length);
+        statuses = Arrays.copyOf(statuses, length);
+        tifs = Arrays.copyOf(tifs, length);
+        expiries = Arrays.copyOf(expiries, length);
+        doneAt = Arrays.copyOf(doneAt, length);
+        userPrev = Arrays.copyOf(userPrev, length);
+        userNext = Arrays.copyOf(userNext, length);
+    }
+
+}
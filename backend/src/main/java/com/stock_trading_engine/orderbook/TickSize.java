@@ -0,0 +1,94 @@
+package com.stock_trading_engine.orderbook;
+
+import java.math.BigDecimal;
+
+/*
+ * Minimum price increment for a symbol.
+ * The engine stores prices as long multiples of the tick; BigDecimal is
+ * only used when a price enters (order) or leaves (trade, snapshot) the book.
+ */
+public final class TickSize {
+
+    private final BigDecimal tick;
+
+    // tick == unscaledTick * 10^-scale
+    private final long unscaledTick;
+
+    private final int scale;
+
+    private TickSize(BigDecimal tick) {
+        if (tick == null || tick.signum() <= 0) {
+            throw new IllegalArgumentException("Tick size must be positive: " + tick);
+        }
+        BigDecimal normalized = tick.stripTrailingZeros();
+        this.tick = normalized.scale() < 0 ? normalized.setScale(0) : normalized;
+        this.unscaledTick = this.tick.unscaledValue().longValueExact();
+        this.scale = this.tick.scale();
+    }
+
+    public static TickSize of(BigDecimal tick) {
+        return new TickSize(tick);
+    }
+
+    public static TickSize of(String tick) {
+        return new TickSize(new BigDecimal(tick));
+    }
+
+    public BigDecimal getTick() {
+        return tick;
+    }
+
+    public long getUnscaledTick() {
+        return unscaledTick;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    /*
+     * Rebuild a tick size from getUnscaledTick()/getScale()
+     */
+    public static TickSize of(long unscaledTick, int scale) {
+        return new TickSize(BigDecimal.valueOf(unscaledTick, scale));
+    }
+
+    /*
+     * Convert a price to ticks, rejecting prices that are not on the tick grid
+     */
+    public long toTicks(BigDecimal price) {
+        if (price == null || price.signum() <= 0) {
+            throw new IllegalArgumentException("Price must be positive: " + price);
+        }
+        BigDecimal[] qr = price.divideAndRemainder(tick);
+        if (qr[1].signum() != 0) {
+            throw new IllegalArgumentException(
+                    "Price " + price.toPlainString() + " is not a multiple of tick size " + tick.toPlainString());
+        }
+        return qr[0].longValueExact();
+    }
+
+    /*
+     * Convert ticks back to a price with the tick's scale
+     */
+    public BigDecimal toPrice(long ticks) {
+        return BigDecimal.valueOf(Math.multiplyExact(ticks, unscaledTick), scale);
+    }
+
+    // Normalized on construction, so 0.01 and 0.010 are equal
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof TickSize that && unscaledTick == that.unscaledTick && scale == that.scale;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(unscaledTick) * 31 + scale;
+    }
+
+    @Override
+    public String toString() {
+        return tick.toPlainString();
+    }
+
+}
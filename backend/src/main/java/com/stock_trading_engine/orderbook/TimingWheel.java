@@ -0,0 +1,192 @@
+package com.stock_trading_engine.orderbook;
+
+import java.util.Arrays;
+
+/*
+ * Two-level hashed timing wheel over the expiring slots of one OrderStore.
+ *
+ * Time is cut into ticks, and ticks into rounds of one revolution. A slot
+ * due in the current round hangs in the near bucket of its tick; one due
+ * in one of the next buckets - 1 rounds hangs in the far bucket of its
+ * round; anything later waits in an overflow list. Lists are doubly linked
+ * through the store's timerPrev/timerNext columns; a list head's timerPrev
+ * holds headOf(list) instead of a slot. Scheduling and cancelling are O(1)
+ * with no allocation, however many orders are pending.
+ *
+ * expire walks only the near buckets whose ticks have passed. Entering a
+ * round moves that round's far bucket into the near buckets, and every
+ * buckets rounds the overflow list is sorted back into the wheel, so a
+ * slot due days out (a DAY order, say) is touched a handful of times in
+ * all rather than once per revolution.
+ *
+ * Owned by its OrderBook and only used under its lock (or shard thread).
+ */
+final class TimingWheel {
+
+    static final int DEFAULT_BUCKETS = 1024;
+
+    static final long DEFAULT_TICK_MILLIS = 100;
+
+    private final long tickMillis;
+
+    // log2(buckets): tick >> shift is the tick's round
+    private final int shift;
+
+    private final int mask;
+
+    // First slot per list, or NIL: near buckets, then far buckets, then overflow
+    private final int[] heads;
+
+    private final int overflow;
+
+    // Last tick walked by expire; its bucket is walked again next time
+    private long currentTick;
+
+    private int size;
+
+    // Slots in the near buckets
+    private int near;
+
+    // Slots found due by the last expire
+    private int[] due = new int[16];
+
+    TimingWheel(int buckets, long tickMillis, long nowMillis) {
+        if (Integer.bitCount(buckets) != 1) {
+            throw new IllegalArgumentException("Bucket count must be a power of two: " + buckets);
+        }
+        this.tickMillis = tickMillis;
+        this.shift = Integer.numberOfTrailingZeros(buckets);
+        this.mask = buckets - 1;
+        this.overflow = 2 * buckets;
+        this.heads = new int[overflow + 1];
+        Arrays.fill(heads, OrderStore.NIL);
+        this.currentTick = Math.floorDiv(nowMillis, tickMillis);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int nearSize() {
+        return near;
+    }
+
+    /*
+     * Add a slot by its expiry column. An expiry already behind the wheel
+     * goes into the current bucket, so the next expire picks it up.
+     */
+    void schedule(OrderStore orders, int slot) {
+        place(orders, slot);
+        size++;
+    }
+
+    void cancel(OrderStore orders, int slot) {
+        unlink(orders, slot);
+        // Entering a round empties its far bucket, so a slot is near iff due by the end of this round
+        if (tick(orders, slot) >> shift <= currentTick >> shift) {
+            near--;
+        }
+        size--;
+    }
+
+    /*
+     * Take every slot whose expiry is at or before nowMillis off the wheel.
+     * Returns how many; they are due(0) .. due(count - 1), in no particular
+     * order. Walks the near buckets only while any slot is in them.
+     */
+    int expire(OrderStore orders, long nowMillis) {
+        long target = Math.floorDiv(nowMillis, tickMillis);
+        int count = 0;
+        while (size > 0) {
+            long roundEnd = currentTick | mask;
+            long last = Math.min(target, roundEnd);
+            for (long tick = currentTick; tick <= last && near > 0; tick++) {
+                int slot = heads[(int) (tick & mask)];
+                while (slot != OrderStore.NIL) {
+                    int next = orders.timerNext[slot];
+                    if (orders.expiries[slot] <= nowMillis) {
+                        cancel(orders, slot);
+                        if (count == due.length) {
+                            due = Arrays.copyOf(due, count * 2);
+                        }
+                        due[count++] = slot;
+                    }
+                    slot = next;
+                }
+            }
+            if (target <= roundEnd) {
+                break;
+            }
+            // Every near slot was due; enter the next round
+            currentTick = roundEnd + 1;
+            long round = currentTick >> shift;
+            if ((round & mask) == 0) {
+                replace(orders, overflow);
+            }
+            replace(orders, mask + 1 + (int) (round & mask));
+        }
+        currentTick = Math.max(currentTick, target);
+        return count;
+    }
+
+    int due(int i) {
+        return due[i];
+    }
+
+    private long tick(OrderStore orders, int slot) {
+        return Math.max(Math.floorDiv(orders.expiries[slot], tickMillis), currentTick);
+    }
+
+    private void place(OrderStore orders, int slot) {
+        long tick = tick(orders, slot);
+        long rounds = (tick >> shift) - (currentTick >> shift);
+        int list;
+        if (rounds == 0) {
+            list = (int) (tick & mask);
+            near++;
+        } else if (rounds <= mask) {
+            list = mask + 1 + (int) ((tick >> shift) & mask);
+        } else {
+            list = overflow;
+        }
+        int head = heads[list];
+        orders.timerPrev[slot] = headOf(list);
+        orders.timerNext[slot] = head;
+        if (head != OrderStore.NIL) {
+            orders.timerPrev[head] = slot;
+        }
+        heads[list] = slot;
+    }
+
+    /*
+     * Empty a far bucket or the overflow list back into the wheel
+     */
+    private void replace(OrderStore orders, int list) {
+        int slot = heads[list];
+        heads[list] = OrderStore.NIL;
+        while (slot != OrderStore.NIL) {
+            int next = orders.timerNext[slot];
+            place(orders, slot);
+            slot = next;
+        }
+    }
+
+    private void unlink(OrderStore orders, int slot) {
+        int prev = orders.timerPrev[slot];
+        int next = orders.timerNext[slot];
+        if (prev >= 0) {
+            orders.timerNext[prev] = next;
+        } else {
+            heads[headOf(prev)] = next;
+        }
+        if (next != OrderStore.NIL) {
+            orders.timerPrev[next] = prev;
+        }
+    }
+
+    // List <-> the negative timerPrev of its head slot (never NIL); self-inverse
+    private static int headOf(int listOrPrev) {
+        return -2 - listOrPrev;
+    }
+
+}
@@ -0,0 +1,402 @@
+package com.stock_trading_engine.persistence;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.config.VirtualThreads;
+import com.stock_trading_engine.marketdata.CandleAggregator;
+import com.stock_trading_engine.marketdata.MarketDataPublisher;
+import com.stock_trading_engine.marketdata.RecentTradeCache;
+import com.stock_trading_engine.metrics.Stage;
+import com.stock_trading_engine.metrics.StageMetrics;
+import com.stock_trading_engine.model.Trade;
+import com.stock_trading_engine.orderbook.FillBuffer;
+import com.stock_trading_engine.repo.TradeBatchWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/*
+ * Dedicated trade persistence stage.
+ *
+ * Fills are queued in a bounded queue; when it is full submit() blocks, so
+ * a slow database pushes back on order entry instead of losing trades.
+ * A single "trade-writer" thread groups fills into batches of up to
+ * batchSize trades (or whatever arrived within maxDelayMillis), hands them
+ * to the recent-trades cache, the candle aggregator and the market-data
+ * publisher, and writes each batch in one JDBC batch transaction. Failed
+ * batches are retried with backoff until they succeed; the whole write,
+ * retries included, is timed as the PERSIST_BATCH stage. Once stopping,
+ * a batch gets a few attempts and is then spilled to a file, as is anything
+ * still queued; the next start writes spilled files before new trades, so
+ * a fill is never dropped (journal replay does not re-create trades). A failing cache,
+ * aggregator or publisher is logged and skipped: nothing may stop the
+ * writer, or submit() would block order entry for good.
+ */
+@Component
+@Slf4j
+public class TradePersistencePipeline {
+
+    // Attempts per batch once stopping, so shutdown cannot hang on a dead database
+    private static final int SHUTDOWN_ATTEMPTS = 3;
+
+    private static final String SPILL_SUFFIX = ".bin";
+
+    private final TradeBatchWriter writer;
+
+    private final MarketDataPublisher marketDataPublisher;
+
+    private final RecentTradeCache recentTradeCache;
+
+    private final CandleAggregator candleAggregator;
+
+    private final StageMetrics stageMetrics;
+
+    private final EngineProperties.Persistence config;
+
+    private final VirtualThreads threads;
+
+    private final BlockingQueue<FillBuffer> queue;
+
+    private final LongAdder persisted = new LongAdder();
+
+    private final LongAdder batches = new LongAdder();
+
+    private final LongAdder retries = new LongAdder();
+
+    private final LongAdder blockedSubmits = new LongAdder();
+
+    private final Path spillDirectory;
+
+    private int spills;
+
+    private volatile boolean running;
+
+    private Thread thread;
+
+    public TradePersistencePipeline(TradeBatchWriter writer, MarketDataPublisher marketDataPublisher,
+                                    RecentTradeCache recentTradeCache, CandleAggregator candleAggregator,
+                                    EngineProperties properties) {
+        this(writer, marketDataPublisher, recentTradeCache, candleAggregator, properties, new StageMetrics(),
+                VirtualThreads.PLATFORM);
+    }
+
+    @Autowired
+    public TradePersistencePipeline(TradeBatchWriter writer, MarketDataPublisher marketDataPublisher,
+                                    RecentTradeCache recentTradeCache, CandleAggregator candleAggregator,
+                                    EngineProperties properties, StageMetrics stageMetrics,
+                                    VirtualThreads threads) {
+        this.writer = writer;
+        this.marketDataPublisher = marketDataPublisher;
+        this.recentTradeCache = recentTradeCache;
+        this.candleAggregator = candleAggregator;
+        this.stageMetrics = stageMetrics;
+        this.config = properties.getPersistence();
+        this.threads = threads;
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        this.spillDirectory = Paths.get(config.getSpillDirectory());
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        thread = threads.newThread("trade-writer", this::run);
+        thread.start();
+    }
+
+    /*
+     * Write everything already queued, then stop
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join(30_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!queue.isEmpty()) {
+            List<FillBuffer> unwritten = new ArrayList<>();
+            queue.drainTo(unwritten);
+            List<Trade> batch = new ArrayList<>();
+            unwritten.forEach(fills -> add(fills, batch));
+            log.error("Trade writer stopped with {} fill batches unwritten, spilling them", unwritten.size());
+            spill(batch);
+        }
+    }
+
+    /*
+     * Queue one order's fills (an immutable copy). Blocks while the queue is
+     * full; an interrupt does not drop the fills, it is re-asserted afterwards.
+     */
+    public void submit(FillBuffer fills) {
+        if (queue.offer(fills)) {
+            return;
+        }
+        blockedSubmits.increment();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(fills);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            writeSpilled();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(config.getMaxDelayMillis());
+        while (running || !queue.isEmpty()) {
+            try {
+                FillBuffer first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<Trade> batch = new ArrayList<>(config.getBatchSize());
+                add(first, batch);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < config.getBatchSize()) {
+                    FillBuffer next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    add(next, batch);
+                }
+                // Cache, candles and live feed do not wait for the database
+                try {
+                    recentTradeCache.add(batch);
+                } catch (RuntimeException e) {
+                    log.error("Recent-trades cache update failed for {} trades", batch.size(), e);
+                }
+                try {
+                    candleAggregator.onTrades(batch);
+                } catch (RuntimeException e) {
+                    log.error("Candle update failed for {} trades", batch.size(), e);
+                }
+                try {
+                    marketDataPublisher.publishTrades(batch);
+                } catch (RuntimeException e) {
+                    log.error("Trade publish failed for {} trades", batch.size(), e);
+                }
+                long start = System.nanoTime();
+                if (!write(batch)) {
+                    spill(batch);
+                }
+                stageMetrics.record(Stage.PERSIST_BATCH, System.nanoTime() - start);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Trade writer iteration failed", e);
+            }
+        }
+    }
+
+    private static void add(FillBuffer fills, List<Trade> batch) {
+        List<Trade> trades;
+        try {
+            trades = fills.toTrades();
+        } catch (RuntimeException e) {
+            // One unreadable fill buffer must not take the rest of the batch with it
+            log.error("Dropping unreadable fill buffer", e);
+            return;
+        }
+        for (Trade trade : trades) {
+            trade.setId(UUID.randomUUID().toString());
+            batch.add(trade);
+        }
+    }
+
+    /*
+     * False if the batch was given up on at shutdown
+     */
+    private boolean write(List<Trade> batch) throws InterruptedException {
+        long backoff = config.getRetryBackoffMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                writer.write(batch);
+                break;
+            } catch (DuplicateKeyException e) {
+                // Ids are fresh UUIDs, so an earlier attempt committed but its acknowledgement was lost
+                log.warn("Trade batch of {} already written (attempt {})", batch.size(), attempt);
+                break;
+            } catch (RuntimeException e) {
+                retries.increment();
+                if (!running && attempt >= SHUTDOWN_ATTEMPTS) {
+                    log.error("Giving up on writing {} trades at shutdown", batch.size(), e);
+                    return false;
+                }
+                log.warn("Trade batch of {} failed (attempt {}), retrying in {} ms: {}",
+                        batch.size(), attempt, backoff, e.getMessage());
+                TimeUnit.MILLISECONDS.sleep(backoff);
+                backoff = Math.min(backoff * 2, config.getMaxRetryBackoffMillis());
+            }
+        }
+        persisted.add(batch.size());
+        batches.increment();
+        log.debug("Persisted {} trades", batch.size());
+        return true;
+    }
+
+    // ---- spill files ----
+
+    /*
+     * Save a batch for the next start: written to a temporary file, forced
+     * to disk, then renamed, so a half-written spill is never read back.
+     * Layout: [int count] then per trade id, symbol, buyOrderId, sellOrderId,
+     * price (plain string), quantity, timestamp (UTC epoch second, nano),
+     * buyerId, sellerId; strings are a present flag then modified UTF-8.
+     */
+    private void spill(List<Trade> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            Files.createDirectories(spillDirectory);
+            String name = String.format("trades-%d-%d", System.currentTimeMillis(), spills++);
+            Path temporary = spillDirectory.resolve(name + ".tmp");
+            try (FileOutputStream file = new FileOutputStream(temporary.toFile());
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+                out.writeInt(batch.size());
+                for (Trade trade : batch) {
+                    writeString(out, trade.getId());
+                    writeString(out, trade.getSymbol());
+                    writeString(out, trade.getBuyOrderId());
+                    writeString(out, trade.getSellOrderId());
+                    writeString(out, trade.getPrice().toPlainString());
+                    out.writeLong(trade.getQuantity());
+                    out.writeLong(trade.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+                    out.writeInt(trade.getTimestamp().getNano());
+                    writeString(out, trade.getBuyerId());
+                    writeString(out, trade.getSellerId());
+                }
+                out.flush();
+                file.getFD().sync();
+            }
+            Path spilled = Files.move(temporary, spillDirectory.resolve(name + SPILL_SUFFIX),
+                    StandardCopyOption.ATOMIC_MOVE);
+            log.warn("Spilled {} unwritten trades to {}", batch.size(), spilled);
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not spill {} unwritten trades to {}; they are lost", batch.size(), spillDirectory, e);
+        }
+    }
+
+    /*
+     * Writer thread, before anything new: write every spilled batch, oldest
+     * first, and delete its file once the database has it
+     */
+    private void writeSpilled() throws InterruptedException {
+        List<Path> files;
+        try (Stream<Path> list = Files.isDirectory(spillDirectory) ? Files.list(spillDirectory) : Stream.empty()) {
+            files = list.filter(f -> f.getFileName().toString().endsWith(SPILL_SUFFIX)).sorted().toList();
+        } catch (IOException e) {
+            log.error("Could not list trade spills in {}", spillDirectory, e);
+            return;
+        }
+        for (Path file : files) {
+            List<Trade> batch;
+            try {
+                batch = readSpill(file);
+            } catch (IOException e) {
+                log.error("Unreadable trade spill {} left in place", file, e);
+                continue;
+            }
+            if (!write(batch)) {
+                // Stopping again before the database came back; the file stays
+                return;
+            }
+            try {
+                Files.delete(file);
+            } catch (IOException e) {
+                log.warn("Could not delete written trade spill {}", file, e);
+            }
+            log.info("Wrote {} spilled trades from {}", batch.size(), file);
+        }
+    }
+
+    private static List<Trade> readSpill(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int count = in.readInt();
+            List<Trade> batch = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                batch.add(Trade.builder()
+                        .id(readString(in))
+                        .symbol(readString(in))
+                        .buyOrderId(readString(in))
+                        .sellOrderId(readString(in))
+                        .price(new BigDecimal(readString(in)))
+                        .quantity(in.readLong())
+                        .timestamp(LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC))
+                        .buyerId(readString(in))
+                        .sellerId(readString(in))
+                        .build());
+            }
+            return batch;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    public Stats getStats() {
+        long written = batches.sum();
+        return new Stats(persisted.sum(), written, written == 0 ? 0 : (double) persisted.sum() / written,
+                queue.size(), retries.sum(), blockedSubmits.sum());
+    }
+
+    @Value
+    public static class Stats {
+        long tradesPersisted;
+        long batches;
+        double averageBatchSize;
+        int queuedFillBatches;
+        long retries;
+        // submits that had to wait for queue space (backpressure)
+        long blockedSubmits;
+    }
+
+}
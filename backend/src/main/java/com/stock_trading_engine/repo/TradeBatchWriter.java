@@ -0,0 +1,52 @@
+package com.stock_trading_engine.repo;
+
+import com.stock_trading_engine.model.Trade;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/*
+ * Writes trades with plain JDBC batch inserts, one transaction per batch,
+ * bypassing the JPA persistence context (no per-entity merge or id lookup).
+ * Ids are assigned by the caller so a retried batch can be recognised.
+ */
+@Repository
+public class TradeBatchWriter {
+
+    // "timestamp" is quoted: it is a keyword in some databases
+    private static final String INSERT = "INSERT INTO trades "
+            + "(id, symbol, buy_order_id, sell_order_id, price, quantity, \"timestamp\", buyer_id, seller_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public TradeBatchWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /*
+     * Insert all trades atomically
+     */
+    public void write(List<Trade> trades) {
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT, trades, trades.size(), (ps, trade) -> {
+                    ps.setString(1, trade.getId());
+                    ps.setString(2, trade.getSymbol());
+                    ps.setString(3, trade.getBuyOrderId());
+                    ps.setString(4, trade.getSellOrderId());
+                    ps.setBigDecimal(5, trade.getPrice());
+                    ps.setLong(6, trade.getQuantity());
+                    ps.setTimestamp(7, Timestamp.valueOf(trade.getTimestamp()));
+                    ps.setString(8, trade.getBuyerId());
+                    ps.setString(9, trade.getSellerId());
+                }));
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.stock_trading_engine.repo;
+
+import com.stock_trading_engine.model.Trade;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/*
+ * Streams persisted trades in time order with plain JDBC. Rows are read
+ * with a bounded fetch size inside a read-only transaction (Postgres only
+ * uses a cursor when autocommit is off), so history of any length is
+ * replayed without loading it into memory.
+ */
+@Repository
+public class TradeHistoryReader {
+
+    private static final String SELECT_SINCE = "SELECT symbol, price, quantity, \"timestamp\" FROM trades "
+            + "WHERE \"timestamp\" >= ? ORDER BY \"timestamp\"";
+
+    private static final int FETCH_SIZE = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public TradeHistoryReader(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /*
+     * Hand every trade at or after since to the consumer (symbol, price,
+     * quantity and timestamp only); returns the number of trades read
+     */
+    public long forEachSince(LocalDateTime since, Consumer<Trade> consumer) {
+        long[] count = new long[1];
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement ps = connection.prepareStatement(SELECT_SINCE);
+                    ps.setFetchSize(FETCH_SIZE);
+                    ps.setTimestamp(1, Timestamp.valueOf(since));
+                    return ps;
+                }, rs -> {
+                    consumer.accept(Trade.builder()
+                            .symbol(rs.getString(1))
+                            .price(rs.getBigDecimal(2))
+                            .quantity(rs.getLong(3))
+                            .timestamp(rs.getTimestamp(4).toLocalDateTime())
+                            .build());
+                    count[0]++;
+                }));
+        return count[0];
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.stock_trading_engine.router;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+ * Consistent hashing of symbols onto engine instances.
+ *
+ * Each instance owns virtualNodes points on a 64-bit ring; a symbol belongs
+ * to the first point at or after its hash (wrapping around), so adding or
+ * removing an instance only moves the symbols between it and its
+ * neighbours. Immutable.
+ */
+public final class ConsistentHashRing {
+
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+
+    private final List<String> instances;
+
+    public ConsistentHashRing(List<String> instances, int virtualNodes) {
+        if (instances.isEmpty()) {
+            throw new IllegalArgumentException("At least one instance is required");
+        }
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes must be positive: " + virtualNodes);
+        }
+        this.instances = List.copyOf(instances);
+        for (String instance : this.instances) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.putIfAbsent(hash(instance + "#" + i), instance);
+            }
+        }
+    }
+
+    public String ownerOf(String symbol) {
+        Map.Entry<Long, String> point = ring.ceilingEntry(hash(symbol));
+        return point != null ? point.getValue() : ring.firstEntry().getValue();
+    }
+
+    public List<String> getInstances() {
+        return instances;
+    }
+
+    // FNV-1a over the UTF-8 bytes, then the murmur3 finalizer to spread short keys
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+}
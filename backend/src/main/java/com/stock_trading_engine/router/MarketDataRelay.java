@@ -0,0 +1,163 @@
+package com.stock_trading_engine.router;
+
+import com.stock_trading_engine.config.EngineProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.websocket.ContainerProvider;
+import jakarta.websocket.WebSocketContainer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Merges the engines' market data into the router's own WebSocket view.
+ *
+ * The router subscribes to /topic/** on every instance and re-publishes
+ * each frame, bytes untouched, to the same destination on its broker, so
+ * clients connect to the router exactly as they would to one engine. Each
+ * symbol is published by one instance, so per-symbol ordering and depth
+ * sequence numbers carry over; after a move the new owner's sequence
+ * restarts, which clients see as a gap and re-sync from a snapshot.
+ * Lost connections are retried every second.
+ */
+@Component
+@ConditionalOnProperty(prefix = "engine.router", name = "enabled", havingValue = "true")
+@Slf4j
+public class MarketDataRelay {
+
+    private static final long RECONNECT_SECONDS = 1;
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final List<String> instances;
+
+    private final WebSocketStompClient stompClient;
+
+    private final ScheduledExecutorService reconnects = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "market-data-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Instances with a reconnect already scheduled
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder relayed = new LongAdder();
+
+    private volatile boolean running;
+
+    public MarketDataRelay(SimpMessagingTemplate messagingTemplate, SymbolRouter router,
+                           EngineProperties properties) {
+        this.messagingTemplate = messagingTemplate;
+        this.instances = router.getInstances();
+        int frameBytes = properties.getRouter().getRelayFrameBytes();
+        WebSocketContainer container = ContainerProvider.getWebSocketContainer();
+        container.setDefaultMaxTextMessageBufferSize(frameBytes);
+        container.setDefaultMaxBinaryMessageBufferSize(frameBytes);
+        this.stompClient = new WebSocketStompClient(new StandardWebSocketClient(container));
+        this.stompClient.setInboundMessageSizeLimit(frameBytes);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        instances.forEach(this::connect);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        reconnects.shutdownNow();
+        stompClient.stop();
+    }
+
+    public long getRelayed() {
+        return relayed.sum();
+    }
+
+    private void connect(String instance) {
+        if (!running) {
+            return;
+        }
+        // The engines' /ws endpoint is SockJS; /websocket is its raw WebSocket transport
+        String url = instance.replaceFirst("^http", "ws") + "/ws/websocket";
+        stompClient.connectAsync(url, new Relay(instance)).whenComplete((session, e) -> {
+            if (e != null) {
+                retry(instance, e);
+            }
+        });
+    }
+
+    private void retry(String instance, Throwable cause) {
+        if (running && pending.add(instance)) {
+            log.warn("Market data from {} unavailable ({}), retrying", instance, cause.getMessage());
+            reconnects.schedule(() -> {
+                pending.remove(instance);
+                connect(instance);
+            }, RECONNECT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private void relay(String destination, byte[] payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        messagingTemplate.send(destination, MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+        relayed.increment();
+    }
+
+    private class Relay extends StompSessionHandlerAdapter {
+
+        private final String instance;
+
+        Relay(String instance) {
+            this.instance = instance;
+        }
+
+        @Override
+        public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+            session.subscribe("/topic/**", this);
+            log.info("Relaying market data from {}", instance);
+        }
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return byte[].class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            if (headers.getDestination() != null) {
+                relay(headers.getDestination(), (byte[]) payload);
+            }
+        }
+
+        @Override
+        public void handleTransportError(StompSession session, Throwable exception) {
+            if (!session.isConnected()) {
+                retry(instance, exception);
+            }
+        }
+
+    }
+
+}
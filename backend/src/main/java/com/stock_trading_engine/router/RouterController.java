@@ -0,0 +1,226 @@
+package com.stock_trading_engine.router;
+
+import com.stock_trading_engine.controller.OrderController;
+import com.stock_trading_engine.model.OrderStatus;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestClientException;
+
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * The order and market-data API of the engine, served by the router: each
+ * call is forwarded to the instance owning its symbol and the response is
+ * passed through. Replaces OrderController and CandleController when
+ * engine.router.enabled is set.
+ */
+@RestController
+@RequestMapping("/api")
+@ConditionalOnProperty(prefix = "engine.router", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class RouterController {
+
+    // Same limit as the engines' POST /api/orders/batch
+    private static final int MAX_BATCH = 1_000;
+
+    private final SymbolRouter router;
+
+    @PostMapping("/orders")
+    public ResponseEntity<byte[]> submitOrder(@RequestBody OrderController.OrderRequest request,
+                                              HttpServletRequest http) {
+        requireSymbol(request.getSymbol());
+        return router.forward(request.getSymbol(), HttpMethod.POST, pathAndQuery(http), request);
+    }
+
+    /*
+     * Split by symbol, forward each part to its owner, and return the
+     * per-order results in request order. A part whose owner cannot be
+     * reached comes back as REJECTED orders; one whose reply was lost after
+     * sending (a read timeout, say) as UNKNOWN, since the owner may have
+     * accepted it.
+     */
+    @PostMapping("/orders/batch")
+    public ResponseEntity<List<Object>> submitOrders(@RequestBody List<OrderController.OrderRequest> requests) {
+        if (requests.isEmpty() || requests.size() > MAX_BATCH) {
+            throw new IllegalArgumentException("A batch must have 1 to " + MAX_BATCH + " orders");
+        }
+        Map<String, List<Integer>> bySymbol = new LinkedHashMap<>();
+        Object[] results = new Object[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            String symbol = requests.get(i).getSymbol();
+            if (symbol == null || symbol.isBlank()) {
+                results[i] = failed(requests.get(i), OrderStatus.REJECTED, "Symbol is required");
+            } else {
+                bySymbol.computeIfAbsent(symbol, k -> new ArrayList<>()).add(i);
+            }
+        }
+        bySymbol.forEach((symbol, indexes) -> {
+            List<OrderController.OrderRequest> part = new ArrayList<>(indexes.size());
+            for (int index : indexes) {
+                part.add(requests.get(index));
+            }
+            List<Map<String, Object>> partResults;
+            boolean unknown = false;
+            try {
+                partResults = router.forwardBatch(symbol, part);
+            } catch (RestClientException e) {
+                log.warn("Batch part for {} failed: {}", symbol, e.getMessage());
+                partResults = List.of();
+                unknown = !neverDelivered(e);
+            }
+            for (int j = 0; j < indexes.size(); j++) {
+                if (j < partResults.size()) {
+                    results[indexes.get(j)] = partResults.get(j);
+                } else if (unknown) {
+                    results[indexes.get(j)] = failed(part.get(j), OrderStatus.UNKNOWN,
+                            "No reply from the engine for " + symbol + "; check the order's status");
+                } else {
+                    results[indexes.get(j)] = failed(part.get(j), OrderStatus.REJECTED,
+                            "Engine unavailable for " + symbol);
+                }
+            }
+        });
+        return ResponseEntity.ok(Arrays.asList(results));
+    }
+
+    @DeleteMapping("/orders/{symbol}/{orderId}")
+    public ResponseEntity<byte[]> cancelOrder(@PathVariable String symbol, HttpServletRequest http) {
+        return router.forward(symbol, HttpMethod.DELETE, pathAndQuery(http), null);
+    }
+
+    @PutMapping("/orders/{symbol}/{orderId}")
+    public ResponseEntity<byte[]> amendOrder(@PathVariable String symbol,
+                                             @RequestBody OrderController.AmendRequest request,
+                                             HttpServletRequest http) {
+        return router.forward(symbol, HttpMethod.PUT, pathAndQuery(http), request);
+    }
+
+    @DeleteMapping(value = "/orders/{orderId}", params = {"!userId", "!side"})
+    public ResponseEntity<byte[]> cancelOrderById(HttpServletRequest http) {
+        return router.forwardToAny(HttpMethod.DELETE, pathAndQuery(http));
+    }
+
+    @GetMapping("/orders/{orderId}")
+    public ResponseEntity<byte[]> getOrder(HttpServletRequest http) {
+        return router.forwardToAny(HttpMethod.GET, pathAndQuery(http));
+    }
+
+    /*
+     * A user's orders from every instance
+     */
+    @GetMapping("/orders")
+    public ResponseEntity<List<Object>> getUserOrders(@RequestParam String userId, HttpServletRequest http) {
+        return ResponseEntity.ok(router.gather(pathAndQuery(http)));
+    }
+
+    @DeleteMapping("/orders/{symbol}")
+    public ResponseEntity<byte[]> cancelOrders(@PathVariable String symbol, HttpServletRequest http) {
+        return router.forward(symbol, HttpMethod.DELETE, pathAndQuery(http), null);
+    }
+
+    @GetMapping({"/orderbook/{symbol}", "/depth/{symbol}", "/trades/{symbol}", "/candles/{symbol}"})
+    public ResponseEntity<byte[]> query(@PathVariable String symbol, HttpServletRequest http) {
+        return router.forward(symbol, HttpMethod.GET, pathAndQuery(http), null);
+    }
+
+    /*
+     * Instance owning a symbol
+     * GET /api/router/owner/{symbol}
+     */
+    @GetMapping("/router/owner/{symbol}")
+    public ResponseEntity<Map<String, String>> owner(@PathVariable String symbol) {
+        return ResponseEntity.ok(Map.of("symbol", symbol, "instance", router.ownerOf(symbol)));
+    }
+
+    @GetMapping("/router/instances")
+    public ResponseEntity<List<String>> instances() {
+        return ResponseEntity.ok(router.getInstances());
+    }
+
+    /*
+     * Drain a symbol and transfer its book to another instance
+     * POST /api/router/move/{symbol}?to=http://localhost:8082
+     */
+    @PostMapping("/router/move/{symbol}")
+    public ResponseEntity<SymbolRouter.Move> move(@PathVariable String symbol, @RequestParam String to) {
+        return ResponseEntity.ok(router.move(symbol, to));
+    }
+
+    private static String pathAndQuery(HttpServletRequest http) {
+        String query = http.getQueryString();
+        return query != null ? http.getRequestURI() + "?" + query : http.getRequestURI();
+    }
+
+    private static void requireSymbol(String symbol) {
+        if (symbol == null || symbol.isBlank()) {
+            throw new IllegalArgumentException("Symbol is required");
+        }
+    }
+
+    private static OrderController.OrderResponse failed(OrderController.OrderRequest request, OrderStatus status,
+                                                        String message) {
+        return OrderController.OrderResponse.builder()
+                .status(status)
+                .remainingQuantity(request.getQuantity())
+                .message(message)
+                .build();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleInvalidRequest(IllegalArgumentException e) {
+        log.warn("Rejected request: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<String> handleConflict(IllegalStateException e) {
+        log.warn("Move failed: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    /*
+     * Whether the request certainly never reached the owner (connection
+     * refused, unknown host), as opposed to a reply that was lost or timed
+     * out after the owner may have acted on it
+     */
+    private static boolean neverDelivered(RestClientException e) {
+        if (e instanceof HttpStatusCodeException status) {
+            return status.getStatusCode().is4xxClientError();
+        }
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof UnknownHostException
+                    || cause instanceof HttpConnectTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Owner unreachable (502), or no reply in time, so the outcome is
+     * unknown (504)
+     */
+    @ExceptionHandler(RestClientException.class)
+    public ResponseEntity<String> handleEngineUnavailable(RestClientException e) {
+        log.warn("Engine call failed: {}", e.getMessage());
+        HttpStatus status = neverDelivered(e) ? HttpStatus.BAD_GATEWAY : HttpStatus.GATEWAY_TIMEOUT;
+        return ResponseEntity.status(status).body(e.getMessage());
+    }
+
+}
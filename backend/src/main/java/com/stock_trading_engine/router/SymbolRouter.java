@@ -0,0 +1,299 @@
+package com.stock_trading_engine.router;
+
+import com.stock_trading_engine.config.EngineProperties;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * Routing front-end for a sharded deployment.
+ *
+ * Every symbol is owned by exactly one engine instance: the one the
+ * consistent-hash ring picks, unless it is pinned (engine.router.assignments)
+ * or has been moved. Calls for a symbol are forwarded to its owner while
+ * holding the symbol's drain lock for reading; a move holds it for writing,
+ * so it waits for in-flight calls, holds back new ones, then transfers the
+ * book (release on the old owner, adopt on the new) and re-points the symbol.
+ * Between release and adopt the book exists nowhere else, so it is first
+ * saved to the handover directory and deleted once an engine has it.
+ * Moves live in memory only: add them to assignments to survive a restart.
+ */
+@Component
+@ConditionalOnProperty(prefix = "engine.router", name = "enabled", havingValue = "true")
+@Slf4j
+public class SymbolRouter {
+
+    private final ConsistentHashRing ring;
+
+    // Pinned and moved symbols; everything else follows the ring
+    private final ConcurrentHashMap<String, String> assignments = new ConcurrentHashMap<>();
+
+    // Read-held while a call is forwarded, write-held while the symbol moves
+    private final ConcurrentHashMap<String, ReentrantReadWriteLock> drains = new ConcurrentHashMap<>();
+
+    private final RestClient client;
+
+    private final Path handoverDirectory;
+
+    public SymbolRouter(EngineProperties properties) {
+        EngineProperties.Router config = properties.getRouter();
+        List<String> instances = config.getInstances().stream().map(SymbolRouter::normalize).toList();
+        this.ring = new ConsistentHashRing(instances, config.getVirtualNodes());
+        config.getAssignments().forEach((symbol, instance) -> assignments.put(symbol, checkInstance(instance)));
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(config.getConnectTimeoutMillis()))
+                .build();
+        JdkClientHttpRequestFactory requests = new JdkClientHttpRequestFactory(http);
+        requests.setReadTimeout(Duration.ofMillis(config.getRequestTimeoutMillis()));
+        this.client = RestClient.builder().requestFactory(requests).build();
+        this.handoverDirectory = Paths.get(config.getHandoverDirectory());
+        log.info("Routing symbols across {} engine instances", instances.size());
+    }
+
+    public List<String> getInstances() {
+        return ring.getInstances();
+    }
+
+    public String ownerOf(String symbol) {
+        String assigned = assignments.get(symbol);
+        return assigned != null ? assigned : ring.ownerOf(symbol);
+    }
+
+    /*
+     * Forward one call for a symbol and pass the owner's response through
+     * unchanged. pathAndQuery starts with "/api"; body is sent as JSON if not null.
+     */
+    public ResponseEntity<byte[]> forward(String symbol, HttpMethod method, String pathAndQuery, Object body) {
+        ReentrantReadWriteLock drain = drainOf(symbol);
+        drain.readLock().lock();
+        try {
+            // Already encoded by the caller's request, so not a template
+            RestClient.RequestBodySpec request = client.method(method)
+                    .uri(URI.create(ownerOf(symbol) + pathAndQuery));
+            if (body != null) {
+                request.contentType(MediaType.APPLICATION_JSON).body(body);
+            }
+            return passThrough(request);
+        } finally {
+            drain.readLock().unlock();
+        }
+    }
+
+    /*
+     * Calls about an order id alone, whose symbol the router cannot know:
+     * ask each instance in turn and pass through the first response that
+     * is not 404 (or the last 404)
+     */
+    public ResponseEntity<byte[]> forwardToAny(HttpMethod method, String pathAndQuery) {
+        ResponseEntity<byte[]> response = ResponseEntity.notFound().build();
+        for (String instance : getInstances()) {
+            response = passThrough(client.method(method).uri(URI.create(instance + pathAndQuery)));
+            if (response.getStatusCode() != HttpStatus.NOT_FOUND) {
+                return response;
+            }
+        }
+        return response;
+    }
+
+    private static ResponseEntity<byte[]> passThrough(RestClient.RequestHeadersSpec<?> request) {
+        return request.exchange((req, response) -> {
+            HttpHeaders headers = new HttpHeaders();
+            if (response.getHeaders().getContentType() != null) {
+                headers.setContentType(response.getHeaders().getContentType());
+            }
+            return new ResponseEntity<>(response.getBody().readAllBytes(), headers, response.getStatusCode());
+        });
+    }
+
+    /*
+     * GET a JSON array from every instance and concatenate them
+     */
+    public List<Object> gather(String pathAndQuery) {
+        List<Object> all = new ArrayList<>();
+        for (String instance : getInstances()) {
+            List<Object> part = client.get()
+                    .uri(URI.create(instance + pathAndQuery))
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<List<Object>>() {
+                    });
+            if (part != null) {
+                all.addAll(part);
+            }
+        }
+        return all;
+    }
+
+    /*
+     * POST one symbol's part of a batch to its owner; the per-order results
+     * come back as generic JSON objects, in order
+     */
+    public List<Map<String, Object>> forwardBatch(String symbol, List<?> orders) {
+        ReentrantReadWriteLock drain = drainOf(symbol);
+        drain.readLock().lock();
+        try {
+            List<Map<String, Object>> results = client.post()
+                    .uri(ownerOf(symbol) + "/api/orders/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(orders)
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<List<Map<String, Object>>>() {
+                    });
+            return results != null ? results : new ArrayList<>();
+        } finally {
+            drain.readLock().unlock();
+        }
+    }
+
+    /*
+     * Drain the symbol, move its book to target and route it there from now on.
+     * If the new owner refuses the book it is handed back to the old one; if
+     * that fails too, the saved handover file is kept for an operator.
+     */
+    public Move move(String symbol, String target) {
+        String to = checkInstance(target);
+        ReentrantReadWriteLock drain = drainOf(symbol);
+        long start = System.nanoTime();
+        drain.writeLock().lock();
+        try {
+            String from = ownerOf(symbol);
+            if (from.equals(to)) {
+                return new Move(symbol, from, to, 0, 0);
+            }
+            byte[] state = client.post()
+                    .uri(from + "/api/admin/books/{symbol}/release", symbol)
+                    .exchange((req, response) -> {
+                        if (response.getStatusCode().value() == HttpStatus.NOT_FOUND.value()) {
+                            return null;
+                        }
+                        if (!response.getStatusCode().is2xxSuccessful()) {
+                            throw new IllegalStateException("Release of " + symbol + " on " + from
+                                    + " failed: " + response.getStatusCode());
+                        }
+                        return response.getBody().readAllBytes();
+                    });
+            int orders = 0;
+            if (state != null) {
+                Path saved = save(symbol, state);
+                try {
+                    orders = adopt(to, state);
+                } catch (RuntimeException e) {
+                    log.error("Adopt of {} on {} failed, returning the book to {}", symbol, to, from, e);
+                    try {
+                        adopt(from, state);
+                    } catch (RuntimeException back) {
+                        e.addSuppressed(back);
+                        throw new IllegalStateException("Neither " + to + " nor " + from + " adopted " + symbol
+                                + "; its released book is in " + saved + ", POST it to /api/admin/books/adopt", e);
+                    }
+                    delete(saved);
+                    throw e;
+                }
+                delete(saved);
+            }
+            if (to.equals(ring.ownerOf(symbol))) {
+                assignments.remove(symbol);
+            } else {
+                assignments.put(symbol, to);
+            }
+            Move move = new Move(symbol, from, to, orders, (System.nanoTime() - start) / 1_000_000);
+            log.info("Moved {}", move);
+            return move;
+        } finally {
+            drain.writeLock().unlock();
+        }
+    }
+
+    /*
+     * Write a released book to the handover directory and force it to disk.
+     * Null (and an error logged) if that fails: the move goes on with the
+     * copy in memory rather than leave the symbol without a book.
+     */
+    private Path save(String symbol, byte[] state) {
+        try {
+            Files.createDirectories(handoverDirectory);
+            Path file = handoverDirectory.resolve("handover-" + symbol + "-" + System.currentTimeMillis() + ".bin");
+            try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                out.write(ByteBuffer.wrap(state));
+                out.force(true);
+            }
+            return file;
+        } catch (IOException e) {
+            log.error("Could not save the released book of {} to {}", symbol, handoverDirectory, e);
+            return null;
+        }
+    }
+
+    private static void delete(Path saved) {
+        if (saved == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(saved);
+        } catch (IOException e) {
+            log.warn("Could not delete adopted handover file {}", saved, e);
+        }
+    }
+
+    private int adopt(String instance, byte[] state) {
+        Integer orders = client.post()
+                .uri(instance + "/api/admin/books/adopt")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(state)
+                .retrieve()
+                .body(Integer.class);
+        return orders != null ? orders : 0;
+    }
+
+    private ReentrantReadWriteLock drainOf(String symbol) {
+        return drains.computeIfAbsent(symbol, k -> new ReentrantReadWriteLock());
+    }
+
+    private String checkInstance(String instance) {
+        String normalized = normalize(instance);
+        if (!ring.getInstances().contains(normalized)) {
+            throw new IllegalArgumentException("Unknown engine instance: " + instance);
+        }
+        return normalized;
+    }
+
+    private static String normalize(String instance) {
+        return instance.endsWith("/") ? instance.substring(0, instance.length() - 1) : instance;
+    }
+
+    @Value
+    public static class Move {
+        String symbol;
+        String from;
+        String to;
+        int orders;
+        long millis;
+    }
+
+}
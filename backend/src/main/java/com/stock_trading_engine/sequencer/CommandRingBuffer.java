@@ -0,0 +1,88 @@
+package com.stock_trading_engine.sequencer;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Bounded multi-producer / single-consumer ring of pre-allocated commands.
+ *
+ * Producers claim a sequence with one atomic increment, wait only if
+ * the ring is full, fill the slot in place and publish it by writing the
+ * sequence into the slot's availability marker. The single consumer reads
+ * slots strictly in sequence order, so commands are applied in claim order.
+ */
+final class CommandRingBuffer {
+
+    private final EngineCommand[] slots;
+
+    private final int mask;
+
+    // Sequence last published into each slot (-1 = never)
+    private final AtomicLongArray available;
+
+    // Last sequence claimed by any producer
+    private final AtomicLong claimed = new AtomicLong(-1);
+
+    // Last sequence fully processed by the consumer
+    private volatile long consumed = -1;
+
+    CommandRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring size must be a power of two: " + capacity);
+        }
+        this.slots = new EngineCommand[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new EngineCommand();
+        }
+        this.mask = capacity - 1;
+        this.available = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            available.set(i, -1);
+        }
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    /*
+     * Claim the next sequence, waiting while the ring is full
+     */
+    long claim() {
+        long seq = claimed.incrementAndGet();
+        while (seq - slots.length > consumed) {
+            LockSupport.parkNanos(1_000);
+        }
+        return seq;
+    }
+
+    EngineCommand slot(long seq) {
+        return slots[(int) (seq & mask)];
+    }
+
+    void publish(long seq) {
+        available.lazySet((int) (seq & mask), seq);
+    }
+
+    /*
+     * Slot for the given sequence if it has been published, else null
+     */
+    EngineCommand poll(long seq) {
+        int index = (int) (seq & mask);
+        return available.get(index) == seq ? slots[index] : null;
+    }
+
+    void markConsumed(long seq) {
+        consumed = seq;
+    }
+
+    long claimedSequence() {
+        return claimed.get();
+    }
+
+    long consumedSequence() {
+        return consumed;
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.stock_trading_engine.sequencer;
+
+public enum CommandType {
+
+    NEW_ORDER,
+    // Batch of orders for one book (payload: List<Order>)
+    NEW_ORDERS,
+    CANCEL_ORDER,
+    // Amend a resting order (payload: long[] {priceTicks, quantity})
+    AMEND_ORDER,
+    // Mass cancel (orderId: user id or null, payload: OrderType or null)
+    MASS_CANCEL,
+    // Expire due DAY / GTD orders (payload: Long epoch millis)
+    EXPIRE,
+    SNAPSHOT,
+    // Look up one order (orderId), or a user's orders (orderId: user id)
+    FIND_ORDER,
+    USER_ORDERS,
+    DEPTH,
+    CHECKPOINT,
+    RESTORE,
+    // Capture the book and cancel every resting order, as one command
+    RELEASE,
+    ORDER_COUNT
+
+}
@@ -0,0 +1,39 @@
+package com.stock_trading_engine.sequencer;
+
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.orderbook.OrderBook;
+
+import java.util.concurrent.CompletableFuture;
+
+/*
+ * A pre-allocated ring buffer slot.
+ * Producers fill the fields in place; the shard thread reads and clears them.
+ */
+final class EngineCommand {
+
+    CommandType type;
+
+    OrderBook book;
+
+    Order order;
+
+    String orderId;
+
+    // Command-specific argument (e.g. the BookState to restore)
+    Object payload;
+
+    CompletableFuture<Object> result;
+
+    // System.nanoTime() at submit, when the shard is timed
+    long enqueuedNanos;
+
+    void clear() {
+        type = null;
+        book = null;
+        order = null;
+        orderId = null;
+        payload = null;
+        result = null;
+    }
+
+}
@@ -0,0 +1,198 @@
+package com.stock_trading_engine.sequencer;
+
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.orderbook.BookState;
+import com.stock_trading_engine.orderbook.FillBuffer;
+import com.stock_trading_engine.orderbook.MatchingMetrics;
+import com.stock_trading_engine.orderbook.OrderBook;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Single-writer matching thread for a group of symbols.
+ *
+ * Every command for the shard's books goes through one ring buffer and is
+ * applied by one dedicated thread, so books owned by a shard are never
+ * touched concurrently and need no lock. Callers get results through futures.
+ *
+ * Stopping: a submitter counts itself in before it checks running and out
+ * once its command is published, and the thread only exits when running is
+ * off, nobody is counted in and everything claimed has been applied. So a
+ * command is either refused up front or executed, never left in the ring
+ * with a future nobody completes (or a producer parked on a full ring).
+ */
+@Slf4j
+public class MatchingShard {
+
+    private static final int SPIN_TRIES = 200;
+
+    private static final int YIELD_TRIES = 100;
+
+    private static final long PARK_NANOS = 50_000;
+
+    private final int id;
+
+    private final CommandRingBuffer ring;
+
+    private final Thread thread;
+
+    // Reused for every order; only a copy leaves the shard thread
+    private final FillBuffer fills = new FillBuffer(FillBuffer.DEFAULT_CAPACITY);
+
+    private final MatchingMetrics metrics;
+
+    // Books are thread-confined here, so the shard times ring wait and matching itself
+    private final boolean timed;
+
+    private volatile boolean running = true;
+
+    // Submitters between their running check and publish
+    private final AtomicInteger submitting = new AtomicInteger();
+
+    public MatchingShard(int id, int ringSize) {
+        this(id, ringSize, MatchingMetrics.NONE);
+    }
+
+    public MatchingShard(int id, int ringSize, MatchingMetrics metrics) {
+        this.id = id;
+        this.metrics = metrics;
+        this.timed = metrics != MatchingMetrics.NONE;
+        this.ring = new CommandRingBuffer(ringSize);
+        this.thread = new Thread(this::run, "matching-shard-" + id);
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+        log.info("Matching shard {} started (ring size {})", id, ring.capacity());
+    }
+
+    public CompletableFuture<Object> submit(CommandType type, OrderBook book, Order order, String orderId) {
+        return submit(type, book, order, orderId, null);
+    }
+
+    public CompletableFuture<Object> submit(CommandType type, OrderBook book, Order order, String orderId,
+                                            Object payload) {
+        submitting.incrementAndGet();
+        try {
+            if (!running) {
+                return CompletableFuture.failedFuture(
+                        new IllegalStateException("Matching shard " + id + " is stopped"));
+            }
+            CompletableFuture<Object> result = new CompletableFuture<>();
+            long seq = ring.claim();
+            EngineCommand command = ring.slot(seq);
+            command.type = type;
+            command.book = book;
+            command.order = order;
+            command.orderId = orderId;
+            command.payload = payload;
+            command.result = result;
+            command.enqueuedNanos = timed ? System.nanoTime() : 0;
+            ring.publish(seq);
+            return result;
+        } finally {
+            submitting.decrementAndGet();
+        }
+    }
+
+    /*
+     * Commands claimed but not yet applied
+     */
+    public long backlog() {
+        return ring.claimedSequence() - ring.consumedSequence();
+    }
+
+    /*
+     * Stop accepting commands, drain what is already queued, then exit
+     */
+    public void stop() {
+        running = false;
+        try {
+            thread.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Matching shard {} stopped", id);
+    }
+
+    private void run() {
+        long next = 0;
+        int idle = 0;
+        while (running || submitting.get() > 0 || next <= ring.claimedSequence()) {
+            EngineCommand command = ring.poll(next);
+            if (command == null) {
+                idle = idle(idle);
+                continue;
+            }
+            idle = 0;
+            if (timed) {
+                long dequeued = System.nanoTime();
+                metrics.queueWait(dequeued - command.enqueuedNanos);
+                execute(command);
+                if (command.type == CommandType.NEW_ORDER || command.type == CommandType.NEW_ORDERS
+                        || command.type == CommandType.AMEND_ORDER) {
+                    metrics.matched(System.nanoTime() - dequeued);
+                }
+            } else {
+                execute(command);
+            }
+            command.clear();
+            ring.markConsumed(next);
+            next++;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void execute(EngineCommand command) {
+        CompletableFuture<Object> result = command.result;
+        try {
+            Object value = switch (command.type) {
+                case NEW_ORDER -> command.book.addOrder(command.order, fills) == 0 ? FillBuffer.EMPTY : fills.copy();
+                case NEW_ORDERS -> command.book.addOrders((List<Order>) command.payload, fills);
+                case CANCEL_ORDER -> command.book.cancelOrder(command.orderId);
+                case AMEND_ORDER -> {
+                    long[] amend = (long[]) command.payload;
+                    yield command.book.amendOrder(command.orderId, amend[0], amend[1], fills);
+                }
+                case MASS_CANCEL -> command.book.cancelOrders(command.orderId, (OrderType) command.payload);
+                case EXPIRE -> command.book.expireOrders((Long) command.payload);
+                case SNAPSHOT -> command.book.getSnapshot();
+                case FIND_ORDER -> command.book.findOrder(command.orderId);
+                case USER_ORDERS -> command.book.ordersOf(command.orderId);
+                case DEPTH -> command.book.getDepth((Integer) command.payload);
+                case CHECKPOINT -> command.book.capture();
+                case RELEASE -> command.book.release();
+                case ORDER_COUNT -> command.book.getActiveOrderCount();
+                case RESTORE -> {
+                    command.book.restore((BookState) command.payload);
+                    yield Boolean.TRUE;
+                }
+            };
+            result.complete(value);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    /*
+     * Spin, then yield, then park briefly so an idle shard does not burn a core
+     */
+    private int idle(int count) {
+        if (count < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (count < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+            return count;
+        }
+        return count + 1;
+    }
+
+}
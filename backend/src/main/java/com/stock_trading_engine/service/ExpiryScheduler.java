@@ -0,0 +1,59 @@
+package com.stock_trading_engine.service;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.orderbook.OrderBookManager;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Expires DAY / GTD orders. One thread ticks every interval and asks each
+ * book with pending expiries to drain its timing wheel, so the cost is a
+ * command per busy book per tick, not a timer or task per order.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ExpiryScheduler {
+
+    private final OrderBookManager orderBookManager;
+    private final EngineProperties properties;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        EngineProperties.Expiry config = properties.getExpiry();
+        if (!config.isEnabled() || config.getIntervalMillis() <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "order-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                orderBookManager.expireOrders(System.currentTimeMillis());
+            } catch (Exception e) {
+                log.error("Order expiry failed", e);
+            }
+        }, config.getIntervalMillis(), config.getIntervalMillis(), TimeUnit.MILLISECONDS);
+        log.info("Order expiry every {} ms, DAY orders close at {}", config.getIntervalMillis(),
+                config.getSessionClose());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+}
@@ -1,16 +1,27 @@
 package com.stock_trading_engine.service;
 
 
+import com.stock_trading_engine.admission.AdmissionControl;
+import com.stock_trading_engine.admission.AdmissionRejectedException;
 import com.stock_trading_engine.model.Order;
-import com.stock_trading_engine.model.Trade;
+import com.stock_trading_engine.model.OrderStatus;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.orderbook.FillBuffer;
 import com.stock_trading_engine.orderbook.OrderBook;
 import com.stock_trading_engine.orderbook.OrderBookManager;
-import lombok.RequiredArgsConstructor;
+import com.stock_trading_engine.orderbook.OrderListener;
+import com.stock_trading_engine.persistence.TradePersistencePipeline;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 
 /*
@@ -18,57 +29,187 @@ import java.util.List;
  * Handles async operations and WebSocket notifications.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class MatchingEngineService {
 
     private final OrderBookManager orderBookManager;
-    private final TradeAsyncService tradeAsyncService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final TradePersistencePipeline tradePersistencePipeline;
+    private final AdmissionControl admissionControl;
+
+    public MatchingEngineService(OrderBookManager orderBookManager,
+                                 TradePersistencePipeline tradePersistencePipeline) {
+        this(orderBookManager, tradePersistencePipeline, AdmissionControl.NONE);
+    }
+
+    @Autowired
+    public MatchingEngineService(OrderBookManager orderBookManager,
+                                 TradePersistencePipeline tradePersistencePipeline,
+                                 AdmissionControl admissionControl) {
+        this.orderBookManager = orderBookManager;
+        this.tradePersistencePipeline = tradePersistencePipeline;
+        this.admissionControl = admissionControl;
+    }
 
     /*
      * Process a new order submission
-     * This method is the entry point for all orders
+     * This method is the entry point for all orders.
+     * Throws IllegalArgumentException if the order is invalid, and
+     * AdmissionRejectedException, before anything is matched, if the
+     * user is over their rate limit or the symbol's intake is full.
      */
-    public List<Trade> processOrder(Order order) {
+    public FillBuffer processOrder(Order order) {
         log.info("Processing order: {} {} {} @ {}",
                 order.getType(), order.getQuantity(),
                 order.getSymbol(), order.getPrice());
 
-        // Add order to the book and get executed trades
-        List<Trade> trades = orderBookManager.addOrder(order);
+        // Same check as the batch path, before the order takes an intake place
+        orderBookManager.prepare(order);
+        admissionControl.admit(order.getSymbol(), order.getUserId());
 
-        if (!trades.isEmpty()) {
-            tradeAsyncService.processTradesAsync(trades);
+        // Add order to the book and get its fills
+        FillBuffer fills;
+        try {
+            fills = orderBookManager.addPrepared(order);
+        } finally {
+            admissionControl.leave(order.getSymbol());
         }
 
-        // Broadcast order book update via WebSocket
-        broadcastOrderBookUpdate(order.getSymbol());
+        // Persisted and broadcast by the trade writer; blocks only if it is far behind
+        if (!fills.isEmpty()) {
+            tradePersistencePipeline.submit(fills);
+        }
 
-        return trades;
+        // Book changes reach WebSocket clients as depth deltas (DepthFeed)
+        return fills;
     }
 
     /*
-     * Broadcast order book snapshot update
+     * Process a batch of orders. Invalid or rate-limited orders are
+     * rejected one by one; the rest are applied per symbol in one book
+     * command each (one intake place per symbol; if there is none, that
+     * symbol's orders are rejected), so every symbol gets one depth delta
+     * for the whole batch. If a symbol's command fails (shard stopped,
+     * journal I/O) its orders come back UNKNOWN, since some may have been
+     * applied, and the other symbols are unaffected. Results are in
+     * request order.
      */
-    private void broadcastOrderBookUpdate(String symbol) {
-        try {
-            OrderBook.OrderBookSnapshot snapshot = orderBookManager.getSnapshot(symbol);
-            messagingTemplate.convertAndSend("/topic/orderbook/" + symbol, snapshot);
-        } catch (Exception e) {
-            log.error("Error broadcasting order book update", e);
+    public List<OrderResult> processOrders(List<Order> orders) {
+        log.info("Processing batch of {} orders", orders.size());
+
+        OrderResult[] results = new OrderResult[orders.size()];
+        Map<String, List<Integer>> bySymbol = new LinkedHashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            try {
+                orderBookManager.prepare(order);
+                admissionControl.takeToken(order.getUserId());
+                bySymbol.computeIfAbsent(order.getSymbol(), k -> new ArrayList<>()).add(i);
+            } catch (IllegalArgumentException | AdmissionRejectedException e) {
+                order.setStatus(OrderStatus.REJECTED);
+                results[i] = new OrderResult(order, FillBuffer.EMPTY, e.getMessage());
+            }
         }
+
+        for (Map.Entry<String, List<Integer>> group : bySymbol.entrySet()) {
+            List<Order> batch = new ArrayList<>(group.getValue().size());
+            for (int i : group.getValue()) {
+                batch.add(orders.get(i));
+            }
+            List<FillBuffer> fills;
+            try {
+                admissionControl.enter(group.getKey());
+            } catch (AdmissionRejectedException e) {
+                for (int i : group.getValue()) {
+                    orders.get(i).setStatus(OrderStatus.REJECTED);
+                    results[i] = new OrderResult(orders.get(i), FillBuffer.EMPTY, e.getMessage());
+                }
+                continue;
+            }
+            try {
+                fills = orderBookManager.addOrders(group.getKey(), batch);
+            } catch (RuntimeException e) {
+                log.error("Batch orders for {} failed", group.getKey(), e);
+                for (int i : group.getValue()) {
+                    orders.get(i).setStatus(OrderStatus.UNKNOWN);
+                    results[i] = new OrderResult(orders.get(i), FillBuffer.EMPTY,
+                            "Engine error for " + group.getKey() + "; check the order's status");
+                }
+                continue;
+            } finally {
+                admissionControl.leave(group.getKey());
+            }
+            for (int j = 0; j < batch.size(); j++) {
+                FillBuffer orderFills = fills.get(j);
+                if (!orderFills.isEmpty()) {
+                    tradePersistencePipeline.submit(orderFills);
+                }
+                results[group.getValue().get(j)] = new OrderResult(batch.get(j), orderFills, null);
+            }
+        }
+        return Arrays.asList(results);
     }
 
     /*
-     * Cancel an existing order
+     * Cancel an existing order. Cancels skip admission control: they only
+     * ever shrink the book, so they are never queued behind the intake
+     * limit or rate limited.
      */
     public boolean cancelOrder(String symbol, String orderId) {
-        boolean cancelled = orderBookManager.cancelOrder(symbol, orderId);
-        if (cancelled) {
-            broadcastOrderBookUpdate(symbol);
+        return orderBookManager.cancelOrder(symbol, orderId);
+    }
+
+    /*
+     * Cancel an order by id alone; false if no book knows it or it is no longer resting
+     */
+    public boolean cancelOrder(String orderId) {
+        return orderBookManager.cancelOrder(orderId);
+    }
+
+    /*
+     * A resting or recently filled / cancelled / expired order; null if unknown
+     */
+    public Order getOrder(String orderId) {
+        return orderBookManager.findOrder(orderId);
+    }
+
+    /*
+     * A user's resting and recently terminal orders on every symbol
+     */
+    public List<Order> getUserOrders(String userId) {
+        return orderBookManager.ordersOf(userId);
+    }
+
+    /*
+     * Amend a resting order's price and total quantity; null if it is not resting.
+     * It may match, so it takes a place in the symbol's intake like a new order.
+     */
+    public OrderBook.Amendment amendOrder(String symbol, String orderId, BigDecimal price, long quantity) {
+        admissionControl.enter(symbol);
+        OrderBook.Amendment amendment;
+        try {
+            amendment = orderBookManager.amendOrder(symbol, orderId, price, quantity);
+        } finally {
+            admissionControl.leave(symbol);
+        }
+        if (amendment != null && !amendment.getFills().isEmpty()) {
+            tradePersistencePipeline.submit(amendment.getFills());
         }
-        return cancelled;
+        return amendment;
+    }
+
+    /*
+     * Cancel all resting orders of a user and/or side on one symbol
+     */
+    public List<String> cancelOrders(String symbol, String userId, OrderType side) {
+        return orderBookManager.cancelOrders(symbol, userId, side);
+    }
+
+    /*
+     * Be told of every fill and every order leaving a book unfilled, whatever
+     * caused it (see OrderListener); null to stop
+     */
+    public void setOrderListener(OrderListener listener) {
+        orderBookManager.setOrderListener(listener);
     }
 
     /*
@@ -78,4 +219,22 @@ public class MatchingEngineService {
         return orderBookManager.getSnapshot(symbol);
     }
 
+    /*
+     * Get aggregated depth (top levels per side) with its depth sequence
+     */
+    public OrderBook.DepthSnapshot getDepth(String symbol, int levels) {
+        return orderBookManager.getDepth(symbol, levels);
+    }
+
+    /*
+     * Outcome of one order in a batch; error is set (and fills empty) when it
+     * was rejected, or its outcome is UNKNOWN
+     */
+    @Value
+    public static class OrderResult {
+        Order order;
+        FillBuffer fills;
+        String error;
+    }
+
 }
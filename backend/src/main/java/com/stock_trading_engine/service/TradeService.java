@@ -1,11 +1,12 @@
 package com.stock_trading_engine.service;
 
+import com.stock_trading_engine.marketdata.RecentTradeCache;
 import com.stock_trading_engine.model.Trade;
 import com.stock_trading_engine.repo.TradeRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -16,15 +17,21 @@ public class TradeService {
 
     private final TradeRepository tradeRepository;
 
-    @Transactional
-    public void saveTrades(List<Trade> trades) {
-        tradeRepository.saveAll(trades);
-        log.info("Saved {} trades to database", trades.size());
-    }
+    private final RecentTradeCache recentTradeCache;
 
+    /*
+     * Served from the in-memory ring; only requests for more trades than
+     * it holds go to the database
+     */
     public List<Trade> getRecentTrades(String symbol, int limit) {
-        return tradeRepository.findBySymbolOrderByTimestampDesc(symbol,
-                org.springframework.data.domain.PageRequest.of(0, limit));
+        if (limit <= recentTradeCache.getCapacity()) {
+            return recentTradeCache.recent(symbol, limit, n -> findRecent(symbol, n));
+        }
+        return findRecent(symbol, limit);
+    }
+
+    private List<Trade> findRecent(String symbol, int limit) {
+        return tradeRepository.findBySymbolOrderByTimestampDesc(symbol, PageRequest.of(0, limit));
     }
 
 }
@@ -0,0 +1,105 @@
+package com.stock_trading_engine.admission;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.orderbook.OrderBookManager;
+import com.stock_trading_engine.service.MatchingEngineService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(5));
+
+    private AdmissionControl admission(int symbolQueue, double userRate, int userBurst) {
+        EngineProperties.Admission config = new EngineProperties.Admission();
+        config.setSymbolQueue(symbolQueue);
+        config.setUserRate(userRate);
+        config.setUserBurst(userBurst);
+        return new AdmissionControl(config, clock::get);
+    }
+
+    private static AdmissionRejectedException.Reason rejection(Runnable call) {
+        return assertThrows(AdmissionRejectedException.class, call::run).getReason();
+    }
+
+    @Test
+    void userGetsTheBurstThenTheRefillRate() {
+        AdmissionControl admission = admission(100, 10, 3);
+
+        for (int i = 0; i < 3; i++) {
+            admission.takeToken("alice");
+        }
+        AdmissionRejectedException rejected =
+                assertThrows(AdmissionRejectedException.class, () -> admission.takeToken("alice"));
+        assertEquals(AdmissionRejectedException.Reason.RATE_LIMITED, rejected.getReason());
+        assertEquals(100, rejected.getRetryAfterMillis());
+        // Buckets are per user
+        admission.takeToken("bob");
+
+        // One token back every 100 ms
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        admission.takeToken("alice");
+        assertEquals(AdmissionRejectedException.Reason.RATE_LIMITED, rejection(() -> admission.takeToken("alice")));
+
+        // An idle bucket refills to the burst, no further
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        for (int i = 0; i < 3; i++) {
+            admission.takeToken("alice");
+        }
+        assertEquals(AdmissionRejectedException.Reason.RATE_LIMITED, rejection(() -> admission.takeToken("alice")));
+        assertEquals(3, admission.getStats().getRateLimited());
+    }
+
+    @Test
+    void symbolIntakeIsBoundedUntilOrdersLeave() {
+        AdmissionControl admission = admission(2, 0, 0);
+
+        admission.admit("AAPL", "alice");
+        admission.admit("AAPL", "alice");
+        assertEquals(AdmissionRejectedException.Reason.OVERLOADED, rejection(() -> admission.admit("AAPL", "bob")));
+        // Other symbols have their own intake
+        admission.admit("MSFT", "bob");
+
+        admission.leave("AAPL");
+        admission.admit("AAPL", "bob");
+        assertEquals(2, admission.inFlight("AAPL"));
+
+        AdmissionControl.Stats stats = admission.getStats();
+        assertEquals(4, stats.getAdmitted());
+        assertEquals(1, stats.getOverloaded());
+        assertEquals(0, stats.getRateLimited());
+    }
+
+    @Test
+    void cancelsPassWhileNewOrdersAreShed() {
+        EngineProperties properties = new EngineProperties();
+        OrderBookManager manager = new OrderBookManager(properties);
+        AdmissionControl admission = admission(1, 0, 0);
+        // Nothing here crosses, so no trades reach the (absent) persistence pipeline
+        MatchingEngineService engine = new MatchingEngineService(manager, null, admission);
+        try {
+            Order resting = Order.createNew("AAPL", OrderType.BUY, new BigDecimal("99.00"), 10, "alice");
+            engine.processOrder(resting);
+            assertEquals(0, admission.inFlight("AAPL"));
+
+            // Another order holds the symbol's only place
+            admission.enter("AAPL");
+            Order shed = Order.createNew("AAPL", OrderType.BUY, new BigDecimal("98.00"), 10, "bob");
+            assertEquals(AdmissionRejectedException.Reason.OVERLOADED, rejection(() -> engine.processOrder(shed)));
+            assertNull(manager.findOrder(shed.getId()));
+
+            assertTrue(engine.cancelOrder("AAPL", resting.getId()));
+            assertEquals(0, manager.getOrderBook("AAPL").getActiveOrderCount());
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+}
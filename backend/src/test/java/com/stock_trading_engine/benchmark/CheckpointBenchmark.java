@@ -0,0 +1,103 @@
+package com.stock_trading_engine.benchmark;
+
+import com.stock_trading_engine.checkpoint.CheckpointService;
+import com.stock_trading_engine.checkpoint.CheckpointStore;
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.journal.Journal;
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.orderbook.OrderBookManager;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/*
+ * Startup time for one book holding 1M resting orders: full journal replay
+ * versus checkpoint restore (plus the empty journal tail). Not part of the
+ * default test run:
+ *
+ *   mvn test -Dtest=CheckpointBenchmark
+ */
+class CheckpointBenchmark {
+
+    private static final int ORDERS = 1_000_000;
+
+    @Test
+    void startupTime() throws IOException {
+        Path dir = Files.createTempDirectory("checkpoint-bench");
+        EngineProperties properties = new EngineProperties();
+        properties.getJournal().setEnabled(true);
+        properties.getJournal().setDirectory(dir.resolve("journal").toString());
+        properties.getJournal().setFsyncPolicy(EngineProperties.FsyncPolicy.OS);
+        properties.getCheckpoint().setDirectory(dir.resolve("checkpoints").toString());
+        properties.getCheckpoint().setIntervalSeconds(0);
+
+        // Build the book; bids and asks never cross so every order rests
+        Journal journal = new Journal(properties);
+        OrderBookManager manager = new OrderBookManager(properties, journal, null);
+        manager.recover();
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < ORDERS; i++) {
+            boolean buy = random.nextBoolean();
+            long ticks = buy ? 9_000 + random.nextInt(1_000) : 10_001 + random.nextInt(1_000);
+            manager.addOrder(Order.createNew("BENCH", buy ? OrderType.BUY : OrderType.SELL,
+                    BigDecimal.valueOf(ticks, 2), 1 + random.nextInt(100), "user-" + random.nextInt(1_000)));
+        }
+        manager.shutdown();
+        journal.close();
+        manager = null;
+
+        // Full replay, no checkpoint
+        System.gc();
+        long start = System.nanoTime();
+        journal = new Journal(properties);
+        manager = new OrderBookManager(properties, journal, null);
+        manager.recover();
+        long replayMillis = (System.nanoTime() - start) / 1_000_000;
+        long journalBytes = size(dir.resolve("journal"));
+
+        // Checkpoint the replayed book, purging the covered journal
+        properties.getCheckpoint().setEnabled(true);
+        CheckpointStore store = new CheckpointStore(properties);
+        CheckpointService service = new CheckpointService(manager, store, journal, properties);
+        CheckpointService.Result result = service.checkpoint();
+        service.stop();
+        manager.shutdown();
+        journal.close();
+        manager = null;
+
+        // Restart from the checkpoint
+        System.gc();
+        start = System.nanoTime();
+        journal = new Journal(properties);
+        manager = new OrderBookManager(properties, journal, new CheckpointStore(properties));
+        manager.recover();
+        long restoreMillis = (System.nanoTime() - start) / 1_000_000;
+        int resting = manager.getOrderBook("BENCH").getActiveOrderCount();
+        manager.shutdown();
+        journal.close();
+
+        System.out.printf("resting orders     %,d%n", resting);
+        System.out.printf("journal replay     %,6d ms  (%,d bytes of segments)%n", replayMillis, journalBytes);
+        System.out.printf("checkpoint capture %,6d ms%n", result.getCaptureMillis());
+        System.out.printf("checkpoint write   %,6d ms  (%,d bytes)%n", result.getWriteMillis(), result.getBytes());
+        System.out.printf("checkpoint restore %,6d ms%n", restoreMillis);
+
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private static long size(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.mapToLong(p -> p.toFile().length()).sum();
+        }
+    }
+
+}
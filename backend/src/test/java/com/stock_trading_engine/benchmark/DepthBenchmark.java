@@ -0,0 +1,58 @@
+package com.stock_trading_engine.benchmark;
+
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.orderbook.OrderBook;
+import com.stock_trading_engine.orderbook.TickSize;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/*
+ * Full per-order snapshot vs top-N aggregated depth for a book with 100k
+ * resting orders: build time and JSON response size. Not part of the
+ * default test run:
+ *
+ *   mvn test -Dtest=DepthBenchmark
+ */
+class DepthBenchmark {
+
+    private static final int ORDERS = 100_000;
+
+    private static final int ROUNDS = 50;
+
+    @Test
+    void snapshotVersusDepth() {
+        OrderBook book = new OrderBook("BENCH", TickSize.of("0.01"));
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < ORDERS; i++) {
+            boolean buy = random.nextBoolean();
+            long ticks = buy ? 9_000 + random.nextInt(1_000) : 10_001 + random.nextInt(1_000);
+            book.addOrder(Order.createNew("BENCH", buy ? OrderType.BUY : OrderType.SELL,
+                    BigDecimal.valueOf(ticks, 2), 1 + random.nextInt(100), "user-" + random.nextInt(1_000)));
+        }
+        JsonMapper mapper = JsonMapper.builder().build();
+
+        report("full snapshot", mapper, book::getSnapshot);
+        report("depth all levels", mapper, book::getDepth);
+        report("depth levels=10", mapper, () -> book.getDepth(10));
+    }
+
+    private static void report(String name, JsonMapper mapper, Supplier<Object> call) {
+        // Warm up
+        for (int i = 0; i < ROUNDS; i++) {
+            mapper.writeValueAsBytes(call.get());
+        }
+        long start = System.nanoTime();
+        int bytes = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            bytes = mapper.writeValueAsBytes(call.get()).length;
+        }
+        double micros = (System.nanoTime() - start) / 1_000.0 / ROUNDS;
+        System.out.printf("%-18s %,12.0f us/request %,12d bytes%n", name, micros, bytes);
+    }
+
+}
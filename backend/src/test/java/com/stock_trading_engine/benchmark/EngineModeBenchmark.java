@@ -0,0 +1,73 @@
+package com.stock_trading_engine.benchmark;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.orderbook.OrderBookManager;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * Orders/sec on one hot symbol, LOCK vs SEQUENCER mode, at 1, 8 and 64
+ * concurrent submitters. Not part of the default test run:
+ *
+ *   mvn test -Dtest=EngineModeBenchmark
+ */
+class EngineModeBenchmark {
+
+    private static final int ORDERS = 400_000;
+
+    private static final int[] SUBMITTERS = {1, 8, 64};
+
+    @Test
+    void compareModes() throws InterruptedException {
+        for (EngineProperties.Mode mode : EngineProperties.Mode.values()) {
+            run(mode, 8, ORDERS / 4); // warm-up
+            for (int submitters : SUBMITTERS) {
+                double rate = run(mode, submitters, ORDERS);
+                System.out.printf("%-9s submitters=%-3d %,12.0f orders/sec%n", mode, submitters, rate);
+            }
+        }
+    }
+
+    private static double run(EngineProperties.Mode mode, int submitters, int orders) throws InterruptedException {
+        EngineProperties properties = new EngineProperties();
+        properties.setMode(mode);
+        OrderBookManager manager = new OrderBookManager(properties);
+        try {
+            int perThread = orders / submitters;
+            CountDownLatch start = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(submitters);
+            for (int t = 0; t < submitters; t++) {
+                Thread thread = new Thread(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    try {
+                        start.await();
+                        for (int i = 0; i < perThread; i++) {
+                            OrderType type = random.nextBoolean() ? OrderType.BUY : OrderType.SELL;
+                            // Prices within +/- 50 ticks of 100.00 so roughly half the flow crosses
+                            BigDecimal price = BigDecimal.valueOf(10_000 + random.nextInt(-50, 51), 2);
+                            manager.addOrder(Order.createNew("HOT", type, price, 1 + random.nextInt(100), "bench"));
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+                thread.start();
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            done.await();
+            long elapsed = System.nanoTime() - begin;
+            return perThread * (double) submitters / (elapsed / 1e9);
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.stock_trading_engine.benchmark;
+
+import com.stock_trading_engine.gateway.GatewayClient;
+import com.stock_trading_engine.gateway.GatewayProtocol;
+import com.stock_trading_engine.gateway.OrderGateway;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Order-entry round trip, one client, one order in flight: the binary
+ * gateway (NEW_ORDER until its ACK) vs REST (POST /api/orders until the
+ * 200). Orders rest without crossing, so both paths do the same engine
+ * work. Not part of the default test run:
+ *
+ *   mvn test -Dtest=GatewayBenchmark
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"engine.gateway.enabled=true", "engine.gateway.port=0",
+                "engine.admission.enabled=false", "logging.level.com.stock_trading_engine=WARN"})
+class GatewayBenchmark {
+
+    private static final int WARMUP = 20_000;
+
+    private static final int ORDERS = 50_000;
+
+    @Value("${local.server.port}")
+    private int httpPort;
+
+    @Autowired
+    private OrderGateway gateway;
+
+    @Test
+    void gatewayVersusRest() throws Exception {
+        report("rest", rest());
+        report("gateway", gateway());
+    }
+
+    private Histogram gateway() throws Exception {
+        Histogram histogram = new Histogram(TimeUnit.SECONDS.toNanos(1), 3);
+        GatewayClient.Report report = new GatewayClient.Report();
+        try (GatewayClient client = new GatewayClient("localhost", gateway.getPort(), "bench")) {
+            for (int i = 0; i < WARMUP + ORDERS; i++) {
+                long start = System.nanoTime();
+                client.newOrder(i, side(i), "GWBENCH", price(i) * 100, 1);
+                client.next(report);
+                if (report.type != GatewayProtocol.ACK) {
+                    throw new IllegalStateException("Unexpected report " + report);
+                }
+                if (i >= WARMUP) {
+                    histogram.recordValue(Math.min(System.nanoTime() - start, histogram.getHighestTrackableValue()));
+                }
+            }
+        }
+        return histogram;
+    }
+
+    private Histogram rest() throws Exception {
+        Histogram histogram = new Histogram(TimeUnit.SECONDS.toNanos(1), 3);
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        URI uri = URI.create("http://localhost:" + httpPort + "/api/orders");
+        for (int i = 0; i < WARMUP + ORDERS; i++) {
+            String body = String.format("{\"symbol\":\"RSBENCH\",\"type\":\"%s\",\"price\":%d.%02d,"
+                            + "\"quantity\":1,\"userId\":\"bench\"}",
+                    side(i) == GatewayProtocol.BUY ? "BUY" : "SELL", price(i) / 100, price(i) % 100);
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            long start = System.nanoTime();
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("POST /api/orders returned " + response.statusCode());
+            }
+            if (i >= WARMUP) {
+                histogram.recordValue(Math.min(System.nanoTime() - start, histogram.getHighestTrackableValue()));
+            }
+        }
+        return histogram;
+    }
+
+    private static byte side(int i) {
+        return i % 2 == 0 ? GatewayProtocol.BUY : GatewayProtocol.SELL;
+    }
+
+    // Price in cents: bids 90.00-99.99, asks 101.00-110.99, so nothing crosses
+    private static long price(int i) {
+        return side(i) == GatewayProtocol.BUY ? 9_000 + i % 1_000 : 10_100 + i % 1_000;
+    }
+
+    private static void report(String path, Histogram histogram) {
+        System.out.printf("%-8s p50 %7.1f  p90 %7.1f  p99 %7.1f  p99.9 %7.1f  max %8.1f µs%n", path,
+                histogram.getValueAtPercentile(50) / 1e3, histogram.getValueAtPercentile(90) / 1e3,
+                histogram.getValueAtPercentile(99) / 1e3, histogram.getValueAtPercentile(99.9) / 1e3,
+                histogram.getMaxValue() / 1e3);
+    }
+
+}
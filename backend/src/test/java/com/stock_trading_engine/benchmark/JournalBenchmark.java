@@ -0,0 +1,89 @@
+package com.stock_trading_engine.benchmark;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.journal.Journal;
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.orderbook.OrderBookManager;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/*
+ * Journaling overhead per order for each fsync policy, single submitter,
+ * LOCK mode. Not part of the default test run:
+ *
+ *   mvn test -Dtest=JournalBenchmark
+ */
+class JournalBenchmark {
+
+    private static final int ORDERS = 200_000;
+
+    // msync per command is orders of magnitude slower; keep its run short
+    private static final int PER_COMMAND_ORDERS = 20_000;
+
+    @Test
+    void journalOverhead() throws IOException {
+        // Warm up the matching and journaling code paths
+        run(null, ORDERS);
+        run(EngineProperties.FsyncPolicy.OS, ORDERS);
+
+        double baseline = best(null, ORDERS);
+        System.out.printf("%-12s %8.0f ns/order%n", "no journal", baseline);
+
+        for (EngineProperties.FsyncPolicy policy : EngineProperties.FsyncPolicy.values()) {
+            int orders = policy == EngineProperties.FsyncPolicy.PER_COMMAND ? PER_COMMAND_ORDERS : ORDERS;
+            double nanos = best(policy, orders);
+            System.out.printf("%-12s %8.0f ns/order (%+.0f ns)%n", policy, nanos, nanos - baseline);
+        }
+    }
+
+    private static double best(EngineProperties.FsyncPolicy policy, int orders) throws IOException {
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            best = Math.min(best, run(policy, orders));
+        }
+        return best;
+    }
+
+    private static double run(EngineProperties.FsyncPolicy policy, int orders) throws IOException {
+        Path dir = Files.createTempDirectory("journal-bench");
+        EngineProperties properties = new EngineProperties();
+        properties.getJournal().setEnabled(policy != null);
+        properties.getJournal().setDirectory(dir.toString());
+        if (policy != null) {
+            properties.getJournal().setFsyncPolicy(policy);
+        }
+        Journal journal = new Journal(properties);
+        OrderBookManager manager = new OrderBookManager(properties, journal, null);
+        manager.recover();
+
+        SplittableRandom random = new SplittableRandom(42);
+        Order[] flow = new Order[orders];
+        for (int i = 0; i < orders; i++) {
+            OrderType side = random.nextBoolean() ? OrderType.BUY : OrderType.SELL;
+            BigDecimal price = BigDecimal.valueOf(10_000 + random.nextInt(-50, 51), 2);
+            flow[i] = Order.createNew("BENCH", side, price, 1 + random.nextInt(100), "user-" + random.nextInt(100));
+        }
+
+        long start = System.nanoTime();
+        for (Order order : flow) {
+            manager.addOrder(order);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        manager.shutdown();
+        journal.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+        return elapsed / (double) orders;
+    }
+
+}
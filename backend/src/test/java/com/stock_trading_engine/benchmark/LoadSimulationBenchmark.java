@@ -0,0 +1,45 @@
+package com.stock_trading_engine.benchmark;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.loadtest.HttpTarget;
+import com.stock_trading_engine.loadtest.InProcessTarget;
+import com.stock_trading_engine.loadtest.LoadHarness;
+import com.stock_trading_engine.loadtest.LoadProfile;
+import com.stock_trading_engine.loadtest.LoadReport;
+import com.stock_trading_engine.loadtest.LoadTarget;
+import org.junit.jupiter.api.Test;
+
+/*
+ * Seeded multi-symbol order flow (see LoadProfile for the -Dload.*
+ * settings) against the engine in-process, LOCK then SEQUENCER, or against
+ * a running instance when load.url is set. Prints throughput, latency
+ * percentiles, trades and the book checksum; the same seed must give the
+ * same trades and checksum on every target. Against a long-running
+ * instance use a fresh load.prefix, so the books start empty:
+ *
+ *   mvn test -Dtest=LoadSimulationBenchmark -Dload.rate=50000 -Dload.orders=100000
+ *   mvn test -Dtest=LoadSimulationBenchmark -Dload.url=http://localhost:8080 -Dload.prefix=RUN7
+ */
+class LoadSimulationBenchmark {
+
+    @Test
+    void simulate() throws Exception {
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        String url = System.getProperty("load.url");
+        if (url != null && !url.isBlank()) {
+            run(profile, new HttpTarget(url));
+            return;
+        }
+        for (EngineProperties.Mode mode : EngineProperties.Mode.values()) {
+            run(profile, new InProcessTarget(mode));
+        }
+    }
+
+    private static void run(LoadProfile profile, LoadTarget target) throws Exception {
+        try (target) {
+            LoadReport report = LoadHarness.run(profile, target);
+            System.out.println(report.summary());
+        }
+    }
+
+}
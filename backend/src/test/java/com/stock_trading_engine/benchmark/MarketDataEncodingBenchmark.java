@@ -0,0 +1,125 @@
+package com.stock_trading_engine.benchmark;
+
+import com.stock_trading_engine.marketdata.MarketDataCodec;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.model.Trade;
+import com.stock_trading_engine.orderbook.DepthLevel;
+import com.stock_trading_engine.orderbook.DepthUpdate;
+import com.stock_trading_engine.orderbook.TickSize;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/*
+ * Bytes per message and server encode time for the depth and trade topics:
+ * Jackson JSON (what the STOMP endpoint sends, plus the STOMP MESSAGE frame
+ * around it; SockJS adds its own quoting on top) vs MarketDataCodec binary
+ * frames. Not part of the default test run:
+ *
+ *   mvn test -Dtest=MarketDataEncodingBenchmark
+ */
+class MarketDataEncodingBenchmark {
+
+    private static final int ROUNDS = 200_000;
+
+    private static final TickSize TICK = TickSize.of("0.01");
+
+    @Test
+    void jsonVersusBinary() {
+        JsonMapper mapper = JsonMapper.builder().build();
+        MarketDataCodec codec = new MarketDataCodec();
+        SplittableRandom random = new SplittableRandom(42);
+
+        for (int levels : new int[]{1, 10, 50}) {
+            long[] ticks = new long[levels];
+            long[] quantities = new long[levels];
+            int[] orders = new int[levels];
+            List<DepthLevel> changes = new ArrayList<>();
+            for (int i = 0; i < levels; i++) {
+                ticks[i] = 18_700 + random.nextInt(-100, 101);
+                quantities[i] = random.nextInt(50_000);
+                orders[i] = 1 + random.nextInt(40);
+                changes.add(new DepthLevel(i % 2 == 0 ? OrderType.BUY : OrderType.SELL, TICK.toPrice(ticks[i]),
+                        quantities[i], orders[i]));
+            }
+            DepthUpdate update = DepthUpdate.builder().symbol("AAPL").firstSequence(1_234_567)
+                    .sequence(1_234_570).changes(changes).build();
+            String name = "depth, " + levels + (levels == 1 ? " level" : " levels");
+            report(name, "json", () -> mapper.writeValueAsBytes(update), "/topic/depth/AAPL");
+            report(name, "binary", () -> {
+                codec.beginDepth("AAPL", 1_234_567, 1_234_570, TICK, levels);
+                for (int i = 0; i < levels; i++) {
+                    codec.level(i % 2 == 0, ticks[i], quantities[i], orders[i]);
+                }
+                return codec.finish();
+            }, null);
+        }
+
+        List<Trade> trades = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 10; i++) {
+            trades.add(Trade.builder().id(UUID.randomUUID().toString()).symbol("AAPL")
+                    .buyOrderId(String.valueOf(900_000 + i)).sellOrderId(String.valueOf(800_000 + i))
+                    .price(new BigDecimal("187.25")).quantity(1 + random.nextInt(1_000))
+                    .timestamp(now.plusNanos(i * 1_000L)).buyerId("user-" + random.nextInt(1_000))
+                    .sellerId("user-" + random.nextInt(1_000)).build());
+        }
+        Trade trade = trades.get(0);
+        report("trades, 1 fill", "json", () -> mapper.writeValueAsBytes(trade), "/topic/trades/AAPL");
+        report("trades, 1 fill", "binary", () -> codec.trades(trades, 0, 1), null);
+        // JSON sends one message per trade; binary one frame per batch
+        report("trades, 10 fills", "json", () -> {
+            int bytes = 0;
+            for (Trade t : trades) {
+                bytes += mapper.writeValueAsBytes(t).length;
+            }
+            // Only the total size is reported
+            return new byte[bytes];
+        }, null);
+        report("trades, 10 fills", "binary", () -> codec.trades(trades, 0, trades.size()), null);
+    }
+
+    /*
+     * destination, if given, also reports the size of the STOMP frame
+     * carrying the payload to one subscriber
+     */
+    private static void report(String name, String format, Supplier<byte[]> encode, String destination) {
+        // Warm up
+        for (int i = 0; i < ROUNDS; i++) {
+            encode.get();
+        }
+        long start = System.nanoTime();
+        int bytes = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            bytes = encode.get().length;
+        }
+        double nanos = (System.nanoTime() - start) / (double) ROUNDS;
+        String frame = "";
+        if (destination != null) {
+            frame = String.format("  (%,d as a STOMP frame)", stompFrame(destination, encode.get()));
+        }
+        System.out.printf("%-18s %-7s %,8.0f ns/encode %,7d bytes%s%n", name, format, nanos, bytes, frame);
+    }
+
+    private static int stompFrame(String destination, byte[] payload) {
+        StompHeaderAccessor headers = StompHeaderAccessor.create(StompCommand.MESSAGE);
+        headers.setDestination(destination);
+        headers.setSubscriptionId("sub-0");
+        headers.setMessageId(UUID.randomUUID().toString());
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        return new StompEncoder().encode(MessageBuilder.createMessage(payload, headers.getMessageHeaders())).length;
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.stock_trading_engine.benchmark;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.marketdata.CandleAggregator;
+import com.stock_trading_engine.marketdata.MarketDataPublisher;
+import com.stock_trading_engine.marketdata.RecentTradeCache;
+import com.stock_trading_engine.marketdata.SlowConsumerGuard;
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.orderbook.FillBuffer;
+import com.stock_trading_engine.orderbook.OrderBook;
+import com.stock_trading_engine.orderbook.TickSize;
+import com.stock_trading_engine.persistence.TradePersistencePipeline;
+import com.stock_trading_engine.repo.TradeBatchWriter;
+import com.stock_trading_engine.repo.TradeHistoryReader;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/*
+ * Trades/sec persisted through the trade writer at batch sizes 1, 100 and
+ * 1000, against file-backed H2 in PostgreSQL mode (embedded stand-in; absolute
+ * numbers on a real Postgres will differ). Not part of the default test run:
+ *
+ *   mvn test -Dtest=PersistenceBenchmark
+ */
+class PersistenceBenchmark {
+
+    private static final int TRADES = 50_000;
+
+    @Test
+    void tradesPerSecondByBatchSize() throws IOException {
+        List<FillBuffer> fills = fills(TRADES);
+        run(100, fills.subList(0, 10_000));
+        for (int batchSize : new int[] {1, 100, 1000}) {
+            double rate = run(batchSize, batchSize == 1 ? fills.subList(0, 10_000) : fills);
+            System.out.printf("batch %5d %,12.0f trades/s%n", batchSize, rate);
+        }
+    }
+
+    private static double run(int batchSize, List<FillBuffer> fills) throws IOException {
+        Path dir = Files.createTempDirectory("persistence-bench");
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:file:" + dir.resolve("db") + ";MODE=PostgreSQL", "sa", "", true);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE trades (id VARCHAR(36) PRIMARY KEY, symbol VARCHAR(16) NOT NULL, "
+                + "buy_order_id VARCHAR(64) NOT NULL, sell_order_id VARCHAR(64) NOT NULL, "
+                + "price NUMERIC(19, 4) NOT NULL, quantity BIGINT NOT NULL, \"timestamp\" TIMESTAMP NOT NULL, "
+                + "buyer_id VARCHAR(64), seller_id VARCHAR(64))");
+
+        EngineProperties properties = new EngineProperties();
+        properties.getPersistence().setBatchSize(batchSize);
+        properties.getPersistence().setQueueCapacity(fills.size());
+        MarketDataPublisher publisher = new MarketDataPublisher(
+                new SimpMessagingTemplate((message, timeout) -> true), new SlowConsumerGuard(properties), properties);
+        DataSourceTransactionManager transactions = new DataSourceTransactionManager(dataSource);
+        TradePersistencePipeline pipeline = new TradePersistencePipeline(new TradeBatchWriter(jdbc, transactions),
+                publisher, new RecentTradeCache(properties),
+                new CandleAggregator(publisher, new TradeHistoryReader(jdbc, transactions)), properties);
+
+        long start = System.nanoTime();
+        pipeline.start();
+        fills.forEach(pipeline::submit);
+        pipeline.stop();
+        long elapsed = System.nanoTime() - start;
+
+        long rows = jdbc.queryForObject("SELECT COUNT(*) FROM trades", Long.class);
+        if (rows != fills.size()) {
+            throw new IllegalStateException("persisted " + rows + " of " + fills.size());
+        }
+        jdbc.execute("SHUTDOWN");
+        dataSource.destroy();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+        return rows / (elapsed / 1e9);
+    }
+
+    // One fill per order pair
+    private static List<FillBuffer> fills(int count) {
+        OrderBook book = new OrderBook("BENCH", TickSize.of("0.01"));
+        FillBuffer buffer = new FillBuffer(4);
+        List<FillBuffer> fills = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            book.addOrder(Order.createNew("BENCH", OrderType.SELL, new BigDecimal("100.00"), 10, "seller"));
+            Order buy = Order.createNew("BENCH", OrderType.BUY, new BigDecimal("100.00"), 10, "buyer");
+            buy.setPriceTicks(book.getTickSize().toTicks(buy.getPrice()));
+            book.addOrder(buy, buffer);
+            fills.add(buffer.copy());
+        }
+        return fills;
+    }
+
+}
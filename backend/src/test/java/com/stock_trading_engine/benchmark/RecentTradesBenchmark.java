@@ -0,0 +1,88 @@
+package com.stock_trading_engine.benchmark;
+
+import com.stock_trading_engine.controller.OrderController;
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.marketdata.RecentTradeCache;
+import com.stock_trading_engine.model.Trade;
+import com.stock_trading_engine.repo.TradeBatchWriter;
+import com.stock_trading_engine.repo.TradeRepository;
+import com.stock_trading_engine.service.TradeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+ * Requests/sec for GET /api/trades/{symbol}?limit=50 with 100k trades in
+ * the table (embedded H2; Postgres round trips make the uncached path
+ * slower still), served from the recent-trades ring vs straight from the
+ * repository. Not part of the default test run:
+ *
+ *   mvn test -Dtest=RecentTradesBenchmark
+ */
+@SpringBootTest
+class RecentTradesBenchmark {
+
+    private static final int TRADES = 100_000;
+
+    private static final long SECONDS = 3;
+
+    @Autowired
+    private TradeBatchWriter writer;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private EngineProperties properties;
+
+    @Test
+    void cachedVersusRepository() throws Exception {
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        List<Trade> batch = new ArrayList<>();
+        for (int i = 0; i < TRADES; i++) {
+            batch.add(Trade.builder().id(UUID.randomUUID().toString()).symbol(i % 10 == 0 ? "BENCH" : "OTHER" + i % 10)
+                    .buyOrderId("b" + i).sellOrderId("s" + i).price(new BigDecimal("100.00")).quantity(1)
+                    .timestamp(start.plusNanos(i * 1_000L)).buyerId("u1").sellerId("u2").build());
+            if (batch.size() == 1_000) {
+                writer.write(batch);
+                batch.clear();
+            }
+        }
+
+        EngineProperties uncached = new EngineProperties();
+        uncached.getMarketData().setRecentTrades(0);
+        report("repository", endpoint(new TradeService(tradeRepository, new RecentTradeCache(uncached))));
+        report("ring cache", endpoint(new TradeService(tradeRepository, new RecentTradeCache(properties))));
+    }
+
+    private static MockMvc endpoint(TradeService tradeService) {
+        return MockMvcBuilders.standaloneSetup(new OrderController(null, tradeService)).build();
+    }
+
+    private static void report(String name, MockMvc mvc) throws Exception {
+        // Warm up (and, for the cache, the one-time load from the database)
+        for (int i = 0; i < 2_000; i++) {
+            mvc.perform(get("/api/trades/BENCH").param("limit", "50")).andExpect(status().isOk());
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SECONDS);
+        long requests = 0;
+        while (System.nanoTime() < deadline) {
+            mvc.perform(get("/api/trades/BENCH").param("limit", "50")).andExpect(status().isOk());
+            requests++;
+        }
+        System.out.printf("%-12s %,10.0f requests/sec%n", name, requests / (double) SECONDS);
+    }
+
+}
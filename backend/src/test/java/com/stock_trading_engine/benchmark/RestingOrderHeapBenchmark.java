@@ -0,0 +1,87 @@
+package com.stock_trading_engine.benchmark;
+
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.orderbook.OrderBook;
+import com.stock_trading_engine.orderbook.TickSize;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*
+ * Retained heap per resting order. "before" keeps what the book used to
+ * hold for each order: the Order object (UUID id, BigDecimal price,
+ * LocalDateTime), a link node and a HashMap entry keyed by the id. "after"
+ * is an OrderBook holding the same orders in its OrderStore. Measured as
+ * used heap after GC, so run with a fixed heap and no other load:
+ *
+ *   mvn test -Dtest=RestingOrderHeapBenchmark -DargLine="-Xms2g -Xmx2g"
+ */
+class RestingOrderHeapBenchmark {
+
+    private static final int ORDERS = 1_000_000;
+
+    private static final TickSize TICK = TickSize.of("0.01");
+
+    // What each resting order used to be linked through
+    private static final class Node {
+        final Order order;
+        Object level;
+        Node prev;
+        Node next;
+
+        Node(Order order) {
+            this.order = order;
+        }
+    }
+
+    @Test
+    void heapPerRestingOrder() {
+        long empty = usedHeap();
+        Map<String, Node> before = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = order(random);
+            order.setId(UUID.randomUUID().toString());
+            before.put(order.getId(), new Node(order));
+        }
+        long beforeBytes = (usedHeap() - empty) / ORDERS;
+        assertEquals(ORDERS, before.size());
+        before = null;
+
+        empty = usedHeap();
+        OrderBook after = new OrderBook("HEAP", TICK);
+        random = new SplittableRandom(42);
+        for (int i = 0; i < ORDERS; i++) {
+            after.addOrder(order(random));
+        }
+        long afterBytes = (usedHeap() - empty) / ORDERS;
+        assertEquals(ORDERS, after.getActiveOrderCount());
+
+        System.out.printf("resting orders=%,d  before %d bytes/order  after %d bytes/order%n",
+                ORDERS, beforeBytes, afterBytes);
+    }
+
+    // Bids and asks never cross, so every order rests
+    private static Order order(SplittableRandom random) {
+        boolean buy = random.nextBoolean();
+        long ticks = buy ? 9_000 + random.nextInt(1_000) : 10_001 + random.nextInt(1_000);
+        return Order.createNew("HEAP", buy ? OrderType.BUY : OrderType.SELL, BigDecimal.valueOf(ticks, 2),
+                1 + random.nextInt(100), "user-" + random.nextInt(1_000));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
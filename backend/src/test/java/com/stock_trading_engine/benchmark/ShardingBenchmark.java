@@ -0,0 +1,199 @@
+package com.stock_trading_engine.benchmark;
+
+import com.stock_trading_engine.StockTradingEngineApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * Sharded deployment on localhost: 1 to 4 engine instances behind one
+ * router, each in its own Spring context and H2 database. Closed-loop REST
+ * clients spread orders over 32 symbols through the router; prints the
+ * aggregate orders/sec per shard count. moveUnderLoad moves a symbol
+ * between two engines while orders keep arriving and checks that no
+ * resting order is lost. Not part of the default test run:
+ *
+ *   mvn test -Dtest=ShardingBenchmark
+ */
+class ShardingBenchmark {
+
+    private static final int CLIENTS = 64;
+
+    private static final int SYMBOLS = 32;
+
+    private static final long WARMUP_SECONDS = 5;
+
+    private static final long RUN_SECONDS = 15;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    void throughputScalesWithShards() throws Exception {
+        for (int shards = 1; shards <= 4; shards++) {
+            List<ConfigurableApplicationContext> engines = new ArrayList<>();
+            try {
+                for (int i = 0; i < shards; i++) {
+                    engines.add(engine("shard" + shards + "-" + i));
+                }
+                try (ConfigurableApplicationContext router = router(engines)) {
+                    String base = baseUrl(router);
+                    run(base, WARMUP_SECONDS);
+                    double rate = run(base, RUN_SECONDS);
+                    System.out.printf("shards=%d clients=%d %,10.0f orders/sec%n", shards, CLIENTS, rate);
+                }
+            } finally {
+                engines.forEach(ConfigurableApplicationContext::close);
+            }
+        }
+    }
+
+    @Test
+    void moveUnderLoad() throws Exception {
+        try (ConfigurableApplicationContext a = engine("move-a");
+             ConfigurableApplicationContext b = engine("move-b");
+             ConfigurableApplicationContext router = router(List.of(a, b))) {
+            String base = baseUrl(router);
+            String symbol = "MOVE";
+            String from = send(HttpRequest.newBuilder(URI.create(base + "/api/router/owner/" + symbol)).GET());
+            String to = from.contains(baseUrl(a)) ? baseUrl(b) : baseUrl(a);
+
+            // Resting bids only (never crossing), so the book size is known
+            AtomicLong accepted = new AtomicLong();
+            CountDownLatch done = new CountDownLatch(8);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+            for (int c = 0; c < 8; c++) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        while (System.nanoTime() < deadline) {
+                            send(order(base, symbol, "BUY", 9_000 + ThreadLocalRandom.current().nextInt(500)));
+                            accepted.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+                thread.setDaemon(true);
+                thread.start();
+            }
+            Thread.sleep(1_000);
+            String move = send(HttpRequest.newBuilder(URI.create(base + "/api/router/move/" + symbol + "?to=" + to))
+                    .POST(HttpRequest.BodyPublishers.noBody()));
+            System.out.println("move " + move);
+            done.await();
+
+            String owner = send(HttpRequest.newBuilder(URI.create(base + "/api/router/owner/" + symbol)).GET());
+            assertTrue(owner.contains(to), owner);
+            String depth = send(HttpRequest.newBuilder(URI.create(to + "/api/depth/" + symbol)).GET());
+            // Every order is for quantity 1
+            int at = depth.indexOf("\"totalBidQuantity\":") + "\"totalBidQuantity\":".length();
+            int end = at;
+            while (Character.isDigit(depth.charAt(end))) {
+                end++;
+            }
+            long resting = Long.parseLong(depth.substring(at, end));
+            assertEquals(accepted.get(), resting, "every accepted order rests on the new owner");
+        }
+    }
+
+    private double run(String base, long seconds) throws InterruptedException {
+        LongAdder orders = new LongAdder();
+        LongAdder failed = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        CountDownLatch done = new CountDownLatch(CLIENTS);
+        long start = System.nanoTime();
+        for (int c = 0; c < CLIENTS; c++) {
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    while (System.nanoTime() < deadline) {
+                        // Prices within +/- 50 ticks of 100.00 so roughly half the flow crosses
+                        int cents = 10_000 + random.nextInt(-50, 51);
+                        try {
+                            send(order(base, "SYM" + random.nextInt(SYMBOLS),
+                                    random.nextBoolean() ? "BUY" : "SELL", cents));
+                            orders.increment();
+                        } catch (Exception e) {
+                            failed.increment();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+        if (failed.sum() > 0) {
+            System.out.println("failed requests: " + failed.sum());
+        }
+        return orders.sum() / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static HttpRequest.Builder order(String base, String symbol, String side, int cents) {
+        String body = String.format("{\"symbol\":\"%s\",\"type\":\"%s\",\"price\":%d.%02d,"
+                + "\"quantity\":1,\"userId\":\"bench\"}", symbol, side, cents / 100, cents % 100);
+        return HttpRequest.newBuilder(URI.create(base + "/api/orders"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private String send(HttpRequest.Builder request) throws Exception {
+        HttpResponse<String> response = http.send(request.timeout(Duration.ofSeconds(10)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(response.statusCode() + " " + response.body());
+        }
+        return response.body();
+    }
+
+    private static ConfigurableApplicationContext engine(String name) {
+        return start(name);
+    }
+
+    private static ConfigurableApplicationContext router(List<ConfigurableApplicationContext> engines) {
+        List<String> properties = new ArrayList<>(List.of("engine.router.enabled=true"));
+        for (int i = 0; i < engines.size(); i++) {
+            properties.add("engine.router.instances[" + i + "]=" + baseUrl(engines.get(i)));
+        }
+        return start("router-" + System.nanoTime(), properties.toArray(String[]::new));
+    }
+
+    private static ConfigurableApplicationContext start(String name, String... extra) {
+        List<String> properties = new ArrayList<>(List.of("server.port=0",
+                "spring.datasource.url=jdbc:h2:mem:" + name + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+                "logging.level.com.stock_trading_engine=WARN",
+                "logging.level.org.springframework.messaging=WARN",
+                "engine.admission.enabled=false"));
+        properties.addAll(List.of(extra));
+        return new SpringApplicationBuilder(StockTradingEngineApplication.class)
+                .properties(properties.toArray(String[]::new))
+                .run();
+    }
+
+    private static String baseUrl(ConfigurableApplicationContext context) {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+}
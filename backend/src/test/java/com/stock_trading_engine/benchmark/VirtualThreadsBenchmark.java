@@ -0,0 +1,144 @@
+package com.stock_trading_engine.benchmark;
+
+import com.stock_trading_engine.StockTradingEngineApplication;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * REST load test, platform vs virtual request threads: closed-loop clients
+ * (one request in flight each) at 50, 200 and 800 concurrent connections,
+ * against Tomcat's default 200 worker threads. Nine in ten requests are
+ * crossing POST /api/orders (so the trade writer and publisher are busy),
+ * one in ten GET /api/trades. Prints throughput, p50-p99.9 and requests
+ * that failed or timed out. The virtual run needs Java 21+; on an older
+ * JVM it is skipped. Not part of the default test run:
+ *
+ *   mvn test -Dtest=VirtualThreadsBenchmark
+ */
+class VirtualThreadsBenchmark {
+
+    private static final int[] CLIENTS = {50, 200, 800};
+
+    private static final long WARMUP_SECONDS = 5;
+
+    private static final long RUN_SECONDS = 15;
+
+    @Test
+    void platformVersusVirtual() throws Exception {
+        for (boolean virtual : new boolean[]{false, true}) {
+            if (virtual && Runtime.version().feature() < 21) {
+                System.out.println("virtual  skipped: needs Java 21+, running on " + Runtime.version());
+                continue;
+            }
+            try (ConfigurableApplicationContext context = start(virtual)) {
+                String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                run(base, CLIENTS[1], WARMUP_SECONDS);
+                for (int clients : CLIENTS) {
+                    Result result = run(base, clients, RUN_SECONDS);
+                    report(virtual ? "virtual" : "platform", clients, result);
+                }
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtual) {
+        return new SpringApplicationBuilder(StockTradingEngineApplication.class)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "logging.level.com.stock_trading_engine=WARN",
+                        "logging.level.org.springframework.messaging=WARN",
+                        "engine.admission.enabled=false")
+                .run();
+    }
+
+    private static Result run(String base, int clients, long seconds) throws InterruptedException {
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        List<Histogram> histograms = new ArrayList<>();
+        AtomicLong failed = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int c = 0; c < clients; c++) {
+            Histogram histogram = new Histogram(TimeUnit.SECONDS.toNanos(10), 3);
+            histograms.add(histogram);
+            String userId = "load-" + c;
+            Thread thread = new Thread(() -> {
+                try {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (long i = 0; System.nanoTime() < deadline; i++) {
+                        HttpRequest request = i % 10 == 9 ? trades(base) : order(base, userId, random);
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                failed.incrementAndGet();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            failed.incrementAndGet();
+                            continue;
+                        }
+                        histogram.recordValue(Math.min(System.nanoTime() - start,
+                                histogram.getHighestTrackableValue()));
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-client-" + c);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+        Histogram total = new Histogram(TimeUnit.SECONDS.toNanos(10), 3);
+        histograms.forEach(total::add);
+        return new Result(total, failed.get(), seconds);
+    }
+
+    private static HttpRequest order(String base, String userId, ThreadLocalRandom random) {
+        // Prices within +/- 50 ticks of 100.00 so roughly half the flow crosses
+        int cents = 10_000 + random.nextInt(-50, 51);
+        String body = String.format("{\"symbol\":\"LOAD\",\"type\":\"%s\",\"price\":%d.%02d,"
+                        + "\"quantity\":%d,\"userId\":\"%s\"}",
+                random.nextBoolean() ? "BUY" : "SELL", cents / 100, cents % 100, 1 + random.nextInt(100), userId);
+        return HttpRequest.newBuilder(URI.create(base + "/api/orders"))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static HttpRequest trades(String base) {
+        return HttpRequest.newBuilder(URI.create(base + "/api/trades/LOAD"))
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+    }
+
+    private static void report(String mode, int clients, Result result) {
+        Histogram h = result.histogram;
+        System.out.printf("%-8s clients=%-4d %,9.0f req/s  p50 %8.2f  p99 %8.2f  p99.9 %8.2f  max %9.2f ms"
+                        + "  failed %d%n", mode, clients, h.getTotalCount() / (double) result.seconds,
+                h.getValueAtPercentile(50) / 1e6, h.getValueAtPercentile(99) / 1e6,
+                h.getValueAtPercentile(99.9) / 1e6, h.getMaxValue() / 1e6, result.failed);
+    }
+
+    private record Result(Histogram histogram, long failed, long seconds) {
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.stock_trading_engine.checkpoint;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.journal.Journal;
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.model.TimeInForce;
+import com.stock_trading_engine.orderbook.OrderBook;
+import com.stock_trading_engine.orderbook.OrderBookManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckpointTest {
+
+    @TempDir
+    Path dir;
+
+    private EngineProperties properties(EngineProperties.Mode mode) {
+        EngineProperties properties = new EngineProperties();
+        properties.setMode(mode);
+        properties.getJournal().setEnabled(true);
+        properties.getJournal().setDirectory(dir.resolve("journal").toString());
+        properties.getJournal().setSegmentSize(4096);
+        properties.getJournal().setFsyncPolicy(EngineProperties.FsyncPolicy.OS);
+        properties.getCheckpoint().setEnabled(true);
+        properties.getCheckpoint().setDirectory(dir.resolve("checkpoints").toString());
+        properties.getCheckpoint().setIntervalSeconds(0);
+        return properties;
+    }
+
+    private static void trade(OrderBookManager manager, int from, int to) {
+        for (int i = from; i < to; i++) {
+            OrderType side = i % 2 == 0 ? OrderType.BUY : OrderType.SELL;
+            BigDecimal price = BigDecimal.valueOf(5_000 + (i * 31 % 17) - 8, 2);
+            Order order = Order.createNew(i % 3 == 0 ? "MSFT" : "AAPL", side, price, 1 + i % 9, "u" + i % 4);
+            if (i % 4 == 1) {
+                order.setTimeInForce(i % 8 == 1 ? TimeInForce.DAY : TimeInForce.GTD);
+                order.setExpireTime(LocalDateTime.now().plusDays(1).plusSeconds(i));
+            }
+            manager.addOrder(order);
+            if (i % 5 == 0) {
+                manager.cancelOrder(order.getSymbol(), order.getId());
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(EngineProperties.Mode.class)
+    void restartFromCheckpointPlusJournalTail(EngineProperties.Mode mode) throws IOException {
+        EngineProperties properties = properties(mode);
+        Journal journal = new Journal(properties);
+        CheckpointStore store = new CheckpointStore(properties);
+        OrderBookManager manager = new OrderBookManager(properties, journal, store);
+        CheckpointService service = new CheckpointService(manager, store, journal, properties);
+        List<OrderBook.OrderBookSnapshot> live;
+        try {
+            manager.recover();
+            trade(manager, 0, 300);
+            CheckpointService.Result result = service.checkpoint();
+            assertEquals(2, result.getBooks());
+            assertTrue(result.getOrders() > 0);
+
+            // Commands after the checkpoint must come back from the journal
+            trade(manager, 300, 400);
+            live = List.of(manager.getSnapshot("AAPL"), manager.getSnapshot("MSFT"));
+        } finally {
+            service.stop();
+            manager.shutdown();
+            journal.close();
+        }
+
+        // Segments fully covered by the checkpoint were purged
+        try (Stream<Path> segments = Files.list(dir.resolve("journal"))) {
+            assertTrue(segments.count() < 10);
+        }
+
+        for (int restart = 0; restart < 2; restart++) {
+            journal = new Journal(properties);
+            manager = new OrderBookManager(properties, journal, new CheckpointStore(properties));
+            try {
+                manager.recover();
+                assertEquals(live.get(0).getBuyOrders(), manager.getSnapshot("AAPL").getBuyOrders());
+                assertEquals(live.get(0).getSellOrders(), manager.getSnapshot("AAPL").getSellOrders());
+                assertEquals(live.get(1).getBuyOrders(), manager.getSnapshot("MSFT").getBuyOrders());
+                assertEquals(live.get(1).getSellOrders(), manager.getSnapshot("MSFT").getSellOrders());
+            } finally {
+                manager.shutdown();
+                journal.close();
+            }
+        }
+    }
+
+    @Test
+    void unreadableNewestCheckpointFallsBackWithoutLosingOrders() throws IOException {
+        EngineProperties properties = properties(EngineProperties.Mode.LOCK);
+        Journal journal = new Journal(properties);
+        CheckpointStore store = new CheckpointStore(properties);
+        OrderBookManager manager = new OrderBookManager(properties, journal, store);
+        CheckpointService service = new CheckpointService(manager, store, journal, properties);
+        List<OrderBook.OrderBookSnapshot> live;
+        try {
+            manager.recover();
+            trade(manager, 0, 300);
+            service.checkpoint();
+            // Between the two checkpoints: only the journal has these once the newest is lost
+            trade(manager, 300, 600);
+            service.checkpoint();
+            trade(manager, 600, 650);
+            live = List.of(manager.getSnapshot("AAPL"), manager.getSnapshot("MSFT"));
+        } finally {
+            service.stop();
+            manager.shutdown();
+            journal.close();
+        }
+
+        List<Path> checkpoints;
+        try (Stream<Path> files = Files.list(dir.resolve("checkpoints"))) {
+            checkpoints = files.sorted().toList();
+        }
+        assertEquals(2, checkpoints.size());
+        Files.write(checkpoints.get(1), new byte[] {1, 2, 3});
+
+        journal = new Journal(properties);
+        manager = new OrderBookManager(properties, journal, new CheckpointStore(properties));
+        try {
+            manager.recover();
+            assertEquals(live.get(0).getBuyOrders(), manager.getSnapshot("AAPL").getBuyOrders());
+            assertEquals(live.get(0).getSellOrders(), manager.getSnapshot("AAPL").getSellOrders());
+            assertEquals(live.get(1).getBuyOrders(), manager.getSnapshot("MSFT").getBuyOrders());
+            assertEquals(live.get(1).getSellOrders(), manager.getSnapshot("MSFT").getSellOrders());
+        } finally {
+            manager.shutdown();
+            journal.close();
+        }
+
+        // With nothing readable the purged journal cannot rebuild the books: refuse
+        Files.write(checkpoints.get(0), new byte[] {1, 2, 3});
+        assertThrows(IllegalStateException.class, () -> new CheckpointStore(properties).loadLatest());
+    }
+
+}
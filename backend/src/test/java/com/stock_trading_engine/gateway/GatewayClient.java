@@ -0,0 +1,137 @@
+package com.stock_trading_engine.gateway;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/*
+ * Minimal blocking client for the order gateway, for tests and benchmarks.
+ * Requests are sent one frame per write; reports are read into a
+ * caller-supplied Report, so a client loop does not allocate either.
+ * Not thread-safe.
+ */
+public class GatewayClient implements AutoCloseable {
+
+    private final SocketChannel channel;
+
+    private final ByteBuffer out = ByteBuffer.allocateDirect(64);
+
+    private final ByteBuffer in = ByteBuffer.allocateDirect(64 * 1024);
+
+    public GatewayClient(String host, int port, String userId) throws IOException {
+        this.channel = SocketChannel.open(new InetSocketAddress(host, port));
+        this.channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        this.in.flip();
+        out.clear();
+        GatewayProtocol.putLogon(out, userId);
+        send();
+    }
+
+    /*
+     * price in 1/10^PRICE_SCALE units
+     */
+    public void newOrder(long clOrdId, byte side, String symbol, long price, long quantity) throws IOException {
+        out.clear();
+        GatewayProtocol.putNewOrder(out, clOrdId, side, symbol, price, quantity);
+        send();
+    }
+
+    public void cancel(long clOrdId) throws IOException {
+        out.clear();
+        GatewayProtocol.putCancel(out, clOrdId);
+        send();
+    }
+
+    public void replace(long origClOrdId, long clOrdId, long price, long quantity) throws IOException {
+        out.clear();
+        GatewayProtocol.putReplace(out, origClOrdId, clOrdId, price, quantity);
+        send();
+    }
+
+    /*
+     * Block until the next report arrives and decode it into report
+     */
+    public Report next(Report report) throws IOException {
+        while (in.remaining() < GatewayProtocol.HEADER
+                || in.remaining() < (in.getShort(in.position()) & 0xFFFF)) {
+            in.compact();
+            int read = channel.read(in);
+            in.flip();
+            if (read < 0) {
+                throw new EOFException("Gateway closed the connection");
+            }
+        }
+        int pos = in.position();
+        int length = in.getShort(pos) & 0xFFFF;
+        byte type = in.get(pos + 2);
+        if (length != GatewayProtocol.lengthOf(type)) {
+            throw new IOException("Malformed report (type " + type + ", length " + length + ")");
+        }
+        int body = pos + GatewayProtocol.HEADER;
+        report.type = type;
+        report.clOrdId = in.getLong(body);
+        report.status = 0;
+        report.reason = 0;
+        report.price = 0;
+        report.quantity = 0;
+        report.leavesQuantity = 0;
+        switch (type) {
+            case GatewayProtocol.ACK -> {
+                report.status = in.get(body + 8);
+                report.leavesQuantity = in.getLong(body + 9);
+            }
+            case GatewayProtocol.FILL -> {
+                report.price = in.getLong(body + 8);
+                report.quantity = in.getLong(body + 16);
+                report.leavesQuantity = in.getLong(body + 24);
+            }
+            case GatewayProtocol.REJECT -> report.reason = in.get(body + 8);
+            default -> throw new IOException("Unexpected report type " + type);
+        }
+        in.position(pos + length);
+        return report;
+    }
+
+    private void send() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /*
+     * One execution report; fields not carried by the type are 0
+     */
+    public static class Report {
+
+        public byte type;
+
+        public long clOrdId;
+
+        public byte status;
+
+        public byte reason;
+
+        public long price;
+
+        public long quantity;
+
+        public long leavesQuantity;
+
+        @Override
+        public String toString() {
+            return (char) type + " clOrdId=" + clOrdId + " status=" + status + " reason=" + reason
+                    + " price=" + price + " quantity=" + quantity + " leaves=" + leavesQuantity;
+        }
+
+    }
+
+}
@@ -0,0 +1,233 @@
+package com.stock_trading_engine.gateway;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.marketdata.CandleAggregator;
+import com.stock_trading_engine.marketdata.MarketDataPublisher;
+import com.stock_trading_engine.marketdata.RecentTradeCache;
+import com.stock_trading_engine.marketdata.SlowConsumerGuard;
+import com.stock_trading_engine.metrics.StageMetrics;
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.model.Trade;
+import com.stock_trading_engine.orderbook.OrderBookManager;
+import com.stock_trading_engine.persistence.TradePersistencePipeline;
+import com.stock_trading_engine.repo.TradeBatchWriter;
+import com.stock_trading_engine.service.MatchingEngineService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.stock_trading_engine.gateway.GatewayProtocol.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderGatewayTest {
+
+    private static final long PRICE_100 = 1_000_000;
+
+    private OrderBookManager manager;
+
+    private MarketDataPublisher publisher;
+
+    private TradePersistencePipeline pipeline;
+
+    private OrderGateway gateway;
+
+    private final GatewayClient.Report report = new GatewayClient.Report();
+
+    @BeforeEach
+    void startGateway() {
+        EngineProperties properties = new EngineProperties();
+        properties.getGateway().setEnabled(true);
+        properties.getGateway().setPort(0);
+        manager = new OrderBookManager(properties);
+        publisher = new MarketDataPublisher(new SimpMessagingTemplate((message, timeout) -> true),
+                new SlowConsumerGuard(properties), properties);
+        TradeBatchWriter writer = new TradeBatchWriter(null, null) {
+            @Override
+            public void write(List<Trade> trades) {
+            }
+        };
+        pipeline = new TradePersistencePipeline(writer, publisher, new RecentTradeCache(properties),
+                new CandleAggregator(publisher, null), properties);
+        publisher.start();
+        pipeline.start();
+        gateway = new OrderGateway(new MatchingEngineService(manager, pipeline), properties, new StageMetrics());
+        gateway.start();
+    }
+
+    @AfterEach
+    void stopGateway() {
+        gateway.stop();
+        pipeline.stop();
+        publisher.stop();
+        manager.shutdown();
+    }
+
+    private GatewayClient connect(String userId) throws Exception {
+        return new GatewayClient("localhost", gateway.getPort(), userId);
+    }
+
+    @Test
+    void fillIsReportedToBothSessions() throws Exception {
+        try (GatewayClient maker = connect("maker"); GatewayClient taker = connect("taker")) {
+            maker.newOrder(1, SELL, "AAPL", PRICE_100, 10);
+            assertReport(maker.next(report), ACK, 1, STATUS_OPEN, 10);
+
+            taker.newOrder(7, BUY, "AAPL", PRICE_100 + 500, 4);
+            assertReport(taker.next(report), ACK, 7, STATUS_OPEN, 4);
+            taker.next(report);
+            assertEquals(FILL, report.type);
+            assertEquals(7, report.clOrdId);
+            assertEquals(PRICE_100, report.price, "fills at the maker's price");
+            assertEquals(4, report.quantity);
+            assertEquals(0, report.leavesQuantity);
+
+            maker.next(report);
+            assertEquals(FILL, report.type);
+            assertEquals(1, report.clOrdId);
+            assertEquals(4, report.quantity);
+            assertEquals(6, report.leavesQuantity);
+        }
+    }
+
+    @Test
+    void cancelAndReplaceUseClientOrderIds() throws Exception {
+        try (GatewayClient client = connect("mm")) {
+            client.newOrder(1, BUY, "MSFT", PRICE_100, 5);
+            client.next(report);
+
+            client.replace(1, 2, PRICE_100 - 100, 8);
+            assertReport(client.next(report), ACK, 2, STATUS_OPEN, 8);
+            assertEquals(1, manager.getOrderBook("MSFT").getActiveOrderCount());
+            assertEquals(0, manager.getOrderBook("MSFT").getBestBidPrice().compareTo(new BigDecimal("99.99")));
+
+            client.cancel(1);
+            assertReject(client.next(report), 1, UNKNOWN_ORDER);
+
+            // The replacement may keep the original's clOrdId
+            client.replace(2, 2, PRICE_100 - 200, 6);
+            assertReport(client.next(report), ACK, 2, STATUS_OPEN, 6);
+            assertEquals(1, manager.getOrderBook("MSFT").getActiveOrderCount());
+            assertEquals(0, manager.getOrderBook("MSFT").getBestBidPrice().compareTo(new BigDecimal("99.98")));
+
+            client.cancel(2);
+            assertReport(client.next(report), ACK, 2, STATUS_CANCELLED, 0);
+            assertEquals(0, manager.getOrderBook("MSFT").getActiveOrderCount());
+        }
+    }
+
+    @Test
+    void invalidOrdersAreRejected() throws Exception {
+        try (GatewayClient client = connect("mm")) {
+            client.newOrder(1, BUY, "AAPL", PRICE_100 + 1, 5);
+            assertReject(client.next(report), 1, INVALID_PRICE);
+            client.newOrder(2, BUY, "AAPL", PRICE_100, 0);
+            assertReject(client.next(report), 2, INVALID_QUANTITY);
+            client.newOrder(3, (byte) 9, "AAPL", PRICE_100, 5);
+            assertReject(client.next(report), 3, INVALID_SIDE);
+            client.newOrder(4, BUY, "AAPL", PRICE_100, 5);
+            client.next(report);
+            client.newOrder(4, BUY, "AAPL", PRICE_100, 5);
+            assertReject(client.next(report), 4, DUPLICATE_ORDER);
+        }
+    }
+
+    @Test
+    void openOrdersAreCancelledOnDisconnect() throws Exception {
+        try (GatewayClient client = connect("mm")) {
+            client.newOrder(1, BUY, "IBM", PRICE_100, 5);
+            client.newOrder(2, SELL, "IBM", PRICE_100 + 100, 5);
+            client.next(report);
+            client.next(report);
+            assertEquals(2, manager.getOrderBook("IBM").getActiveOrderCount());
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (manager.getOrderBook("IBM").getActiveOrderCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, manager.getOrderBook("IBM").getActiveOrderCount());
+    }
+
+    @Test
+    void fillsFromOtherCallersAreReported() throws Exception {
+        try (GatewayClient maker = connect("maker")) {
+            maker.newOrder(1, SELL, "AAPL", PRICE_100, 10);
+            maker.next(report);
+
+            // A REST order, then an amend that crosses
+            manager.addOrder(Order.createNew("AAPL", OrderType.BUY, new BigDecimal("100.00"), 4, "rest"));
+            maker.next(report);
+            assertEquals(FILL, report.type, report.toString());
+            assertEquals(1, report.clOrdId);
+            assertEquals(4, report.quantity);
+            assertEquals(6, report.leavesQuantity);
+
+            Order bid = Order.createNew("AAPL", OrderType.BUY, new BigDecimal("99.00"), 6, "rest");
+            manager.addOrder(bid);
+            manager.amendOrder("AAPL", bid.getId(), new BigDecimal("100.00"), 6);
+            maker.next(report);
+            assertEquals(FILL, report.type, report.toString());
+            assertEquals(6, report.quantity);
+            assertEquals(0, report.leavesQuantity);
+
+            // Filled, so its clOrdId is free again
+            maker.newOrder(1, SELL, "AAPL", PRICE_100, 3);
+            assertReport(maker.next(report), ACK, 1, STATUS_OPEN, 3);
+        }
+    }
+
+    @Test
+    void exitsFromOtherCallersAreReportedAsCancelled() throws Exception {
+        try (GatewayClient client = connect("mm")) {
+            client.newOrder(1, BUY, "IBM", PRICE_100, 5);
+            client.newOrder(2, SELL, "MSFT", PRICE_100, 5);
+            client.next(report);
+            client.next(report);
+
+            manager.cancelOrders("IBM", "mm", null);
+            assertReport(client.next(report), ACK, 1, STATUS_CANCELLED, 0);
+            manager.release("MSFT");
+            assertReport(client.next(report), ACK, 2, STATUS_CANCELLED, 0);
+
+            client.newOrder(1, BUY, "IBM", PRICE_100, 5);
+            assertReport(client.next(report), ACK, 1, STATUS_OPEN, 5);
+            client.cancel(2);
+            assertReject(client.next(report), 2, UNKNOWN_ORDER);
+        }
+    }
+
+    @Test
+    void longMapSurvivesRemovalInsideProbeChains() {
+        LongMap<Long> map = new LongMap<>(8);
+        for (long key = 0; key < 1_000; key++) {
+            map.put(key * 16, key);
+        }
+        for (long key = 0; key < 1_000; key += 2) {
+            assertEquals(key, map.remove(key * 16));
+        }
+        assertEquals(500, map.size());
+        for (long key = 0; key < 1_000; key++) {
+            assertEquals(key % 2 == 0 ? null : key, map.get(key * 16));
+        }
+    }
+
+    private static void assertReport(GatewayClient.Report report, byte type, long clOrdId, byte status,
+                                     long leaves) {
+        assertEquals(type, report.type, report.toString());
+        assertEquals(clOrdId, report.clOrdId, report.toString());
+        assertEquals(status, report.status, report.toString());
+        assertEquals(leaves, report.leavesQuantity, report.toString());
+    }
+
+    private static void assertReject(GatewayClient.Report report, long clOrdId, byte reason) {
+        assertEquals(REJECT, report.type, report.toString());
+        assertEquals(clOrdId, report.clOrdId, report.toString());
+        assertEquals(reason, report.reason, report.toString());
+    }
+
+}
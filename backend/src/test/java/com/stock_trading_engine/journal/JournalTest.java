@@ -0,0 +1,211 @@
+package com.stock_trading_engine.journal;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.model.TimeInForce;
+import com.stock_trading_engine.orderbook.BookState;
+import com.stock_trading_engine.orderbook.OrderBook;
+import com.stock_trading_engine.orderbook.OrderBookManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalTest {
+
+    @TempDir
+    Path dir;
+
+    private EngineProperties properties(EngineProperties.Mode mode) {
+        EngineProperties properties = new EngineProperties();
+        properties.setMode(mode);
+        properties.getJournal().setEnabled(true);
+        properties.getJournal().setDirectory(dir.toString());
+        // Small segments so the test rolls over several files
+        properties.getJournal().setSegmentSize(4096);
+        properties.getJournal().setFsyncPolicy(EngineProperties.FsyncPolicy.PER_COMMAND);
+        return properties;
+    }
+
+    private static Order order(String symbol, OrderType type, String price, long qty, String user) {
+        return Order.createNew(symbol, type, new BigDecimal(price), qty, user);
+    }
+
+    @Test
+    void replayRebuildsBooksExactly() throws IOException {
+        List<OrderBook.OrderBookSnapshot> live = new ArrayList<>();
+        run(EngineProperties.Mode.LOCK, manager -> {
+            for (int i = 0; i < 200; i++) {
+                OrderType side = i % 2 == 0 ? OrderType.BUY : OrderType.SELL;
+                String price = BigDecimal.valueOf(10_000 + (i * 37 % 21) - 10, 2).toPlainString();
+                Order o = order(i % 3 == 0 ? "GOOG" : "AAPL", side, price, 1 + i % 7, "user-" + i % 5);
+                // Resolved expiries are journaled with the order
+                if (i % 6 == 2) {
+                    o.setTimeInForce(TimeInForce.DAY);
+                } else if (i % 6 == 5) {
+                    o.setTimeInForce(TimeInForce.GTD);
+                    o.setExpireTime(LocalDateTime.now().plusHours(1 + i));
+                }
+                manager.addOrder(o);
+                if (i % 4 == 0) {
+                    manager.cancelOrder(o.getSymbol(), o.getId());
+                } else if (i % 5 == 1 && o.getRemainingQuantity() == o.getQuantity()) {
+                    // Shrink in place, or re-price (which may cross)
+                    BigDecimal amended = i % 2 == 0 ? o.getPrice() : o.getPrice().add(new BigDecimal("0.05"));
+                    manager.amendOrder(o.getSymbol(), o.getId(), amended, Math.max(1, o.getQuantity() - 1));
+                }
+            }
+            live.add(manager.getSnapshot("AAPL"));
+            live.add(manager.getSnapshot("GOOG"));
+        });
+        try (Stream<Path> files = Files.list(dir)) {
+            assertTrue(files.count() > 1, "expected the journal to roll segments");
+        }
+
+        List<OrderBook.OrderBookSnapshot> replayed =
+                snapshots(properties(EngineProperties.Mode.LOCK), "AAPL", "GOOG");
+
+        for (int i = 0; i < live.size(); i++) {
+            assertFalse(live.get(i).getBuyOrders().isEmpty() && live.get(i).getSellOrders().isEmpty());
+            assertEquals(live.get(i).getBuyOrders(), replayed.get(i).getBuyOrders());
+            assertEquals(live.get(i).getSellOrders(), replayed.get(i).getSellOrders());
+        }
+    }
+
+    @Test
+    void sequencerModeReplaysToo() {
+        run(EngineProperties.Mode.SEQUENCER, manager -> {
+            manager.addOrder(order("AAPL", OrderType.SELL, "10.00", 5, "a"));
+            manager.addOrder(order("AAPL", OrderType.BUY, "10.00", 2, "b"));
+        });
+        List<OrderBook.OrderBookSnapshot> books =
+                snapshots(properties(EngineProperties.Mode.SEQUENCER), "AAPL");
+        assertEquals(3, books.get(0).getSellOrders().get(0).getRemainingQuantity());
+    }
+
+    @Test
+    void replayKeepsTheJournaledTickWhenTheConfigChanges() {
+        List<OrderBook.OrderBookSnapshot> live = new ArrayList<>();
+        run(EngineProperties.Mode.LOCK, manager -> {
+            manager.addOrder(order("AAPL", OrderType.BUY, "10.01", 5, "a"));
+            Order amended = order("AAPL", OrderType.BUY, "10.03", 5, "b");
+            manager.addOrder(amended);
+            manager.amendOrder("AAPL", amended.getId(), new BigDecimal("10.07"), 4);
+            manager.addOrder(order("AAPL", OrderType.SELL, "10.13", 3, "c"));
+            live.add(manager.getSnapshot("AAPL"));
+        });
+
+        // Coarser (10.01 is off the new grid) and finer (ticks would change meaning)
+        for (String tick : new String[] {"0.10", "0.001"}) {
+            EngineProperties properties = properties(EngineProperties.Mode.LOCK);
+            properties.setDefaultTickSize(new BigDecimal(tick));
+            OrderBook.OrderBookSnapshot replayed = snapshots(properties, "AAPL").get(0);
+            assertEquals(live.get(0).getBuyOrders(), replayed.getBuyOrders());
+            assertEquals(live.get(0).getSellOrders(), replayed.getSellOrders());
+            assertEquals(new BigDecimal("10.07"), replayed.getBuyOrders().get(0).getPrice());
+        }
+    }
+
+    @Test
+    void adoptedAndReleasedBooksReplayWithoutACheckpoint() {
+        // The book another engine hands over, with enough orders to span segments
+        OrderBookManager source = new OrderBookManager(new EngineProperties());
+        for (int i = 0; i < 60; i++) {
+            Order o = order("IBM", i % 2 == 0 ? OrderType.BUY : OrderType.SELL, i % 2 == 0 ? "99.00" : "101.00",
+                    1 + i, "user-" + i % 3);
+            if (i % 10 == 3) {
+                o.setTimeInForce(TimeInForce.GTD);
+                o.setExpireTime(LocalDateTime.now().plusHours(1));
+            }
+            source.addOrder(o);
+        }
+        source.addOrder(order("IBM", OrderType.BUY, "101.00", 4, "taker"));
+        BookState handedOver = source.release("IBM");
+        source.shutdown();
+
+        List<OrderBook.OrderBookSnapshot> live = new ArrayList<>();
+        run(EngineProperties.Mode.SEQUENCER, manager -> {
+            manager.addOrder(order("AAPL", OrderType.SELL, "10.00", 5, "a"));
+            manager.addOrder(order("IBM", OrderType.SELL, "100.00", 5, "a"));
+            manager.cancelOrder("IBM", manager.getSnapshot("IBM").getSellOrders().get(0).getId());
+            manager.adopt(handedOver);
+            manager.addOrder(order("IBM", OrderType.BUY, "101.00", 7, "b"));
+            manager.release("AAPL");
+            live.add(manager.getSnapshot("IBM"));
+        });
+
+        List<OrderBook.OrderBookSnapshot> replayed =
+                snapshots(properties(EngineProperties.Mode.SEQUENCER), "IBM", "AAPL");
+        assertEquals(30, live.get(0).getBuyOrders().size());
+        assertEquals(live.get(0).getBuyOrders(), replayed.get(0).getBuyOrders());
+        assertEquals(live.get(0).getSellOrders(), replayed.get(0).getSellOrders());
+        assertTrue(replayed.get(1).getSellOrders().isEmpty(), "released orders stay cancelled");
+    }
+
+    @Test
+    void tornTailIsIgnored() throws IOException {
+        run(EngineProperties.Mode.LOCK, manager -> {
+            manager.addOrder(order("AAPL", OrderType.SELL, "10.00", 5, "a"));
+            manager.addOrder(order("AAPL", OrderType.SELL, "11.00", 5, "a"));
+        });
+        // Corrupt the payload of the second record
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.sorted().findFirst().orElseThrow();
+        }
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer len = ByteBuffer.allocate(4);
+            ch.read(len, 0);
+            int second = 8 + len.flip().getInt();
+            ch.write(ByteBuffer.wrap(new byte[] {0x7f}), second + 20);
+        }
+
+        List<OrderBook.OrderBookSnapshot> books = snapshots(properties(EngineProperties.Mode.LOCK), "AAPL");
+        assertEquals(1, books.get(0).getSellOrders().size());
+    }
+
+    private interface Session {
+        void accept(OrderBookManager manager) throws IOException;
+    }
+
+    private void run(EngineProperties.Mode mode, Session session) {
+        EngineProperties properties = properties(mode);
+        Journal journal = new Journal(properties);
+        OrderBookManager manager = new OrderBookManager(properties, journal, null);
+        try {
+            manager.recover();
+            session.accept(manager);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        } finally {
+            manager.shutdown();
+            journal.close();
+        }
+    }
+
+    private List<OrderBook.OrderBookSnapshot> snapshots(EngineProperties properties, String... symbols) {
+        Journal journal = new Journal(properties);
+        OrderBookManager manager = new OrderBookManager(properties, journal, null);
+        try {
+            manager.recover();
+            return Stream.of(symbols).map(manager::getSnapshot).toList();
+        } finally {
+            manager.shutdown();
+            journal.close();
+        }
+    }
+
+}
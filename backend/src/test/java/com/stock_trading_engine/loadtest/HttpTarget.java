@@ -0,0 +1,94 @@
+package com.stock_trading_engine.loadtest;
+
+import com.stock_trading_engine.model.Order;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.zip.CRC32;
+
+/*
+ * Drives a running instance through its REST API: POST /api/orders,
+ * DELETE /api/orders/{symbol}/{orderId} and GET /api/depth/{symbol}. Trades
+ * are counted from each order's response (executedTrades), the same
+ * fills the instance publishes on its trade topic. Orders shed by its
+ * admission control (429 / 503) are counted, not retried.
+ */
+public class HttpTarget implements LoadTarget {
+
+    private final String baseUrl;
+
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    public HttpTarget(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    @Override
+    public int submit(Order order) throws Exception {
+        String body = mapper.writeValueAsString(mapper.createObjectNode()
+                .put("symbol", order.getSymbol())
+                .put("type", order.getType().name())
+                .put("price", order.getPrice())
+                .put("quantity", order.getQuantity())
+                .put("userId", order.getUserId()));
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/orders"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)));
+        if (response.statusCode() == 429 || response.statusCode() == 503) {
+            return REJECTED;
+        }
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("POST /api/orders returned " + response.statusCode()
+                    + ": " + response.body());
+        }
+        JsonNode result = mapper.readTree(response.body());
+        order.setId(result.get("orderId").asString());
+        return result.get("executedTrades").asInt();
+    }
+
+    @Override
+    public boolean cancel(String symbol, String orderId) throws Exception {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/orders/" + symbol + "/" + orderId))
+                .DELETE());
+        if (response.statusCode() != 200 && response.statusCode() != 404) {
+            throw new IllegalStateException("DELETE /api/orders returned " + response.statusCode());
+        }
+        return response.statusCode() == 200;
+    }
+
+    @Override
+    public long checksum(String symbol) throws Exception {
+        CRC32 crc = new CRC32();
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/depth/" + symbol)).GET());
+        if (response.statusCode() == 200) {
+            JsonNode depth = mapper.readTree(response.body());
+            for (String side : new String[]{"bids", "asks"}) {
+                for (JsonNode level : depth.get(side)) {
+                    LoadTarget.update(crc, level.get("side").asString(), level.get("price").decimalValue(),
+                            level.get("quantity").asLong(), level.get("orders").asInt());
+                }
+            }
+        }
+        return crc.getValue();
+    }
+
+    @Override
+    public String describe() {
+        return "http " + baseUrl;
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+}
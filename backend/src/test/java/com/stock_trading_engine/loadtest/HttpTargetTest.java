@@ -0,0 +1,40 @@
+package com.stock_trading_engine.loadtest;
+
+import com.stock_trading_engine.config.EngineProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "logging.level.com.stock_trading_engine=WARN")
+class HttpTargetTest {
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Test
+    void flowOverHttpMatchesTheEngineInProcess() throws Exception {
+        LoadProfile profile = LoadProfile.builder()
+                .symbolPrefix("HTTP")
+                .symbols(2)
+                .ordersPerSymbol(300)
+                .ratePerSecond(0)
+                .build();
+
+        LoadReport http;
+        try (HttpTarget target = new HttpTarget("http://localhost:" + port)) {
+            http = LoadHarness.run(profile, target);
+        }
+        LoadReport local;
+        try (InProcessTarget target = new InProcessTarget(EngineProperties.Mode.LOCK)) {
+            local = LoadHarness.run(profile, target);
+        }
+
+        assertEquals(local.getTrades(), http.getTrades());
+        assertEquals(local.getCancelled(), http.getCancelled());
+        assertEquals(local.getChecksums(), http.getChecksums());
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.stock_trading_engine.loadtest;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.orderbook.OrderBook;
+import com.stock_trading_engine.orderbook.OrderBookManager;
+
+import java.util.zip.CRC32;
+
+/*
+ * Drives an OrderBookManager directly: the matching engine alone, without
+ * HTTP, persistence or market data
+ */
+public class InProcessTarget implements LoadTarget {
+
+    private final EngineProperties.Mode mode;
+
+    private final OrderBookManager manager;
+
+    public InProcessTarget(EngineProperties.Mode mode) {
+        EngineProperties properties = new EngineProperties();
+        properties.setMode(mode);
+        this.mode = mode;
+        this.manager = new OrderBookManager(properties);
+    }
+
+    @Override
+    public int submit(Order order) {
+        return manager.addOrder(order).size();
+    }
+
+    @Override
+    public boolean cancel(String symbol, String orderId) {
+        return manager.cancelOrder(symbol, orderId);
+    }
+
+    @Override
+    public long checksum(String symbol) {
+        CRC32 crc = new CRC32();
+        OrderBook.DepthSnapshot depth = manager.getDepth(symbol, Integer.MAX_VALUE);
+        if (depth != null) {
+            LoadTarget.update(crc, depth.getBids());
+            LoadTarget.update(crc, depth.getAsks());
+        }
+        return crc.getValue();
+    }
+
+    @Override
+    public String describe() {
+        return "in-process " + mode;
+    }
+
+    @Override
+    public void close() {
+        manager.shutdown();
+    }
+
+}
@@ -0,0 +1,172 @@
+package com.stock_trading_engine.loadtest;
+
+import com.stock_trading_engine.model.Order;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Open-loop load: one thread per symbol replays that symbol's OrderFlow
+ * against a LoadTarget, each event sent when its Poisson arrival time
+ * comes up rather than when the previous one was answered. A lane that
+ * falls behind sends as fast as it can until it catches up, and the wait
+ * counts towards its latency.
+ *
+ * Symbols are independent and each is replayed in order, so for a given
+ * profile the trades and final books are the same on every run and every
+ * target (as long as admission control sheds no order): compare checksums
+ * to check an engine change is deterministic, and throughput / latency to
+ * see what it costs.
+ */
+public final class LoadHarness {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private LoadHarness() {
+    }
+
+    public static LoadReport run(LoadProfile profile, LoadTarget target) throws Exception {
+        Lane[] lanes = new Lane[profile.getSymbols()];
+        Thread[] threads = new Thread[lanes.length];
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+        for (int i = 0; i < lanes.length; i++) {
+            Lane lane = new Lane(profile, i, target);
+            lanes[i] = lane;
+            threads[i] = new Thread(() -> {
+                try {
+                    lane.run(start);
+                } catch (Exception e) {
+                    failure.compareAndSet(null, e);
+                }
+            }, "load-" + profile.symbol(i));
+            threads[i].start();
+        }
+
+        Histogram latency = new Histogram(MAX_LATENCY_NANOS, 3);
+        long orders = 0;
+        long cancels = 0;
+        long cancelled = 0;
+        long rejected = 0;
+        long trades = 0;
+        long end = start;
+        for (int i = 0; i < lanes.length; i++) {
+            threads[i].join();
+            Lane lane = lanes[i];
+            latency.add(lane.latency);
+            orders += lane.orders;
+            cancels += lane.cancels;
+            cancelled += lane.cancelled;
+            rejected += lane.rejected;
+            trades += lane.trades;
+            end = Math.max(end, lane.end);
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+
+        Map<String, Long> checksums = new LinkedHashMap<>();
+        for (int i = 0; i < lanes.length; i++) {
+            checksums.put(profile.symbol(i), target.checksum(profile.symbol(i)));
+        }
+        return new LoadReport(target.describe(), profile, orders, cancels, cancelled, rejected, trades,
+                end - start, latency, checksums);
+    }
+
+    private static final class Lane {
+
+        private final LoadProfile profile;
+
+        private final String symbol;
+
+        private final OrderFlow flow;
+
+        private final LoadTarget target;
+
+        private final Histogram latency = new Histogram(MAX_LATENCY_NANOS, 3);
+
+        // Flow id -> target id for the orders cancels can pick
+        private final Map<String, String> ids = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > OrderFlow.RECENT;
+            }
+        };
+
+        private long orders;
+
+        private long cancels;
+
+        private long cancelled;
+
+        private long rejected;
+
+        private long trades;
+
+        private long end;
+
+        Lane(LoadProfile profile, int index, LoadTarget target) {
+            this.profile = profile;
+            this.symbol = profile.symbol(index);
+            this.flow = profile.flow(index);
+            this.target = target;
+        }
+
+        void run(long start) throws Exception {
+            double rate = profile.getRatePerSecond() / profile.getSymbols();
+            long due = start;
+            for (int n = 0; n < profile.getOrdersPerSymbol(); n++) {
+                // Drawn whether paced or not, so pacing never changes the flow
+                due += flow.nextGapNanos(rate > 0 ? rate : 1);
+                OrderFlow.Event event = flow.nextEvent();
+                Order order = null;
+                String cancel = null;
+                switch (event) {
+                    case PASSIVE -> order = flow.passive();
+                    case MARKETABLE -> order = flow.marketable();
+                    case CANCEL -> cancel = flow.cancelTarget();
+                }
+                if (order == null && cancel == null) {
+                    // A cancel before the first order
+                    continue;
+                }
+
+                long intended;
+                if (rate > 0) {
+                    long wait;
+                    while ((wait = due - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    intended = due;
+                } else {
+                    intended = System.nanoTime();
+                }
+
+                if (order != null) {
+                    String flowId = order.getId();
+                    int result = target.submit(order);
+                    if (result == LoadTarget.REJECTED) {
+                        rejected++;
+                    } else {
+                        trades += result;
+                        ids.put(flowId, order.getId());
+                    }
+                    orders++;
+                } else {
+                    if (target.cancel(symbol, ids.getOrDefault(cancel, cancel))) {
+                        cancelled++;
+                    }
+                    cancels++;
+                }
+                latency.recordValue(Math.min(System.nanoTime() - intended, MAX_LATENCY_NANOS));
+            }
+            end = System.nanoTime();
+        }
+
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.stock_trading_engine.loadtest;
+
+import com.stock_trading_engine.config.EngineProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadHarnessTest {
+
+    private static LoadProfile profile(long seed, double rate) {
+        return LoadProfile.builder()
+                .seed(seed)
+                .symbols(4)
+                .ordersPerSymbol(2_000)
+                .ratePerSecond(rate)
+                .build();
+    }
+
+    private static LoadReport run(LoadProfile profile, EngineProperties.Mode mode) throws Exception {
+        try (InProcessTarget target = new InProcessTarget(mode)) {
+            return LoadHarness.run(profile, target);
+        }
+    }
+
+    @Test
+    void sameSeedGivesTheSameTradesAndBooksInEitherMode() throws Exception {
+        LoadReport first = run(profile(7, 0), EngineProperties.Mode.LOCK);
+        LoadReport again = run(profile(7, 0), EngineProperties.Mode.LOCK);
+        LoadReport sequenced = run(profile(7, 0), EngineProperties.Mode.SEQUENCER);
+
+        assertTrue(first.getTrades() > 0);
+        assertTrue(first.getCancelled() > 0);
+        assertEquals(first.getLatency().getTotalCount(), first.requests());
+        for (LoadReport other : new LoadReport[]{again, sequenced}) {
+            assertEquals(first.getOrders(), other.getOrders());
+            assertEquals(first.getCancelled(), other.getCancelled());
+            assertEquals(first.getTrades(), other.getTrades());
+            assertEquals(first.getChecksums(), other.getChecksums());
+        }
+
+        assertNotEquals(first.checksum(), run(profile(8, 0), EngineProperties.Mode.LOCK).checksum());
+    }
+
+    @Test
+    void pacingDoesNotChangeTheFlow() throws Exception {
+        LoadProfile paced = LoadProfile.builder()
+                .seed(7)
+                .symbols(2)
+                .ordersPerSymbol(500)
+                .ratePerSecond(20_000)
+                .build();
+        LoadProfile unpaced = paced.toBuilder().ratePerSecond(0).build();
+
+        LoadReport report = run(paced, EngineProperties.Mode.LOCK);
+
+        // 1,000 events at 20,000/s cannot finish much sooner than 50 ms
+        assertTrue(report.getElapsedNanos() > 40_000_000L);
+        assertEquals(run(unpaced, EngineProperties.Mode.LOCK).getChecksums(), report.getChecksums());
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.stock_trading_engine.loadtest;
+
+import lombok.Builder;
+import lombok.Value;
+
+/*
+ * What the load harness sends: symbols x ordersPerSymbol events from
+ * seeded OrderFlows, arriving open-loop at ratePerSecond in aggregate
+ * (0 = each symbol as fast as its target answers). The event mix is
+ * passive / marketable / cancel by the given ratios.
+ */
+@Value
+@Builder(toBuilder = true)
+public class LoadProfile {
+
+    @Builder.Default
+    long seed = 42;
+
+    @Builder.Default
+    String symbolPrefix = "SIM";
+
+    @Builder.Default
+    int symbols = 8;
+
+    @Builder.Default
+    int ordersPerSymbol = 10_000;
+
+    @Builder.Default
+    double ratePerSecond = 20_000;
+
+    @Builder.Default
+    double marketableRatio = 0.30;
+
+    @Builder.Default
+    double cancelRatio = 0.15;
+
+    @Builder.Default
+    long midTicks = 10_000;
+
+    /*
+     * Defaults overridden by -Dload.seed, load.prefix, load.symbols,
+     * load.orders (per symbol), load.rate, load.marketable and load.cancels
+     */
+    public static LoadProfile fromSystemProperties() {
+        LoadProfile defaults = LoadProfile.builder().build();
+        return LoadProfile.builder()
+                .seed(Long.getLong("load.seed", defaults.seed))
+                .symbolPrefix(System.getProperty("load.prefix", defaults.symbolPrefix))
+                .symbols(Integer.getInteger("load.symbols", defaults.symbols))
+                .ordersPerSymbol(Integer.getInteger("load.orders", defaults.ordersPerSymbol))
+                .ratePerSecond(doubleProperty("load.rate", defaults.ratePerSecond))
+                .marketableRatio(doubleProperty("load.marketable", defaults.marketableRatio))
+                .cancelRatio(doubleProperty("load.cancels", defaults.cancelRatio))
+                .build();
+    }
+
+    public String symbol(int i) {
+        return symbolPrefix + i;
+    }
+
+    /*
+     * The flow of symbol i: its own seed, so symbols do not depend on each other
+     */
+    public OrderFlow flow(int i) {
+        double passiveRatio = 1 - marketableRatio - cancelRatio;
+        if (passiveRatio < 0) {
+            throw new IllegalArgumentException("marketable + cancel ratios exceed 1");
+        }
+        return new OrderFlow(seed * 31 + i, symbol(i), midTicks, passiveRatio, marketableRatio, cancelRatio,
+                0.7, 50);
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.isBlank() ? defaultValue : Double.parseDouble(value);
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.stock_trading_engine.loadtest;
+
+import lombok.Value;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/*
+ * Outcome of one load run. Latency is measured from when each request was
+ * due to be sent, not when it was, so a stalled target shows up in the
+ * percentiles instead of just slowing the arrivals down.
+ */
+@Value
+public class LoadReport {
+
+    String target;
+
+    LoadProfile profile;
+
+    long orders;
+
+    long cancels;
+
+    // Cancels that found their order still resting
+    long cancelled;
+
+    // Orders refused by admission control (included in orders)
+    long rejected;
+
+    long trades;
+
+    long elapsedNanos;
+
+    Histogram latency;
+
+    // Per symbol, in symbol order
+    Map<String, Long> checksums;
+
+    public long requests() {
+        return orders + cancels;
+    }
+
+    public double throughput() {
+        return requests() * 1e9 / elapsedNanos;
+    }
+
+    /*
+     * One value over every book, to compare runs at a glance
+     */
+    public long checksum() {
+        CRC32 crc = new CRC32();
+        for (long value : checksums.values()) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                crc.update((int) (value >>> shift));
+            }
+        }
+        return crc.getValue();
+    }
+
+    public String summary() {
+        return String.format("%s  seed=%d symbols=%d rate=%,.0f/s%n"
+                        + "  requests %,d (orders %,d, %,d rejected, cancels %,d, %,d hit)  trades %,d%n"
+                        + "  throughput %,.0f req/s over %.2f s%n"
+                        + "  latency p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f µs%n"
+                        + "  checksum %08x",
+                target, profile.getSeed(), profile.getSymbols(), profile.getRatePerSecond(),
+                requests(), orders, rejected, cancels, cancelled, trades,
+                throughput(), elapsedNanos / 1e9,
+                latency.getValueAtPercentile(50) / 1e3, latency.getValueAtPercentile(90) / 1e3,
+                latency.getValueAtPercentile(99) / 1e3, latency.getValueAtPercentile(99.9) / 1e3,
+                latency.getMaxValue() / 1e3, checksum());
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.stock_trading_engine.loadtest;
+
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.orderbook.DepthLevel;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/*
+ * Where the load harness sends its orders. Each symbol's orders come from
+ * one thread, in order, so implementations only need to be safe across
+ * symbols.
+ */
+public interface LoadTarget extends AutoCloseable {
+
+    // submit's result for an order refused by admission control (429 / 503)
+    int REJECTED = -1;
+
+    /*
+     * Submit an order; returns how many trades it executed, or REJECTED.
+     * The id the target gave the order is left in the order (it may
+     * differ from the flow's).
+     */
+    int submit(Order order) throws Exception;
+
+    boolean cancel(String symbol, String orderId) throws Exception;
+
+    /*
+     * Checksum of a book's aggregated levels (both sides, best first), so
+     * the same flow gives the same value whatever the target
+     */
+    long checksum(String symbol) throws Exception;
+
+    String describe();
+
+    @Override
+    default void close() throws Exception {
+    }
+
+    /*
+     * Level by level: side, price (trailing zeros stripped, so 100.5 and
+     * 100.50 agree), quantity and order count
+     */
+    static void update(CRC32 crc, List<DepthLevel> levels) {
+        for (DepthLevel level : levels) {
+            update(crc, level.getSide().name(), level.getPrice(), level.getQuantity(), level.getOrders());
+        }
+    }
+
+    static void update(CRC32 crc, String side, BigDecimal price, long quantity, int orders) {
+        String line = side + ' ' + price.stripTrailingZeros().toPlainString() + ' ' + quantity + ' ' + orders + '\n';
+        crc.update(line.getBytes(StandardCharsets.US_ASCII));
+    }
+
+}
@@ -0,0 +1,166 @@
+package com.stock_trading_engine.loadtest;
+
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderStatus;
+import com.stock_trading_engine.model.OrderType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/*
+ * Synthetic order flow for the benchmarks and the load harness. Seeded,
+ * so the same seed always produces the same orders in the same order.
+ *
+ * Arrivals are three independent Poisson streams (passive limit orders,
+ * marketable orders and cancels); the next event is whichever stream fires
+ * first, i.e. each type with probability rate / total rate, and the gap to
+ * it is exponential. Passive prices sit a geometric number of ticks behind
+ * the mid, so most liquidity clusters at the touch and thins out with
+ * distance; the mid itself drifts by a random walk. Quantities are
+ * exponential around meanQuantity.
+ *
+ * Ids are a per-flow prefix plus a counter so that generating an order
+ * costs an allocation, not a SecureRandom UUID. Cancels target one of the
+ * flow's recent orders, which may already have filled.
+ */
+public final class OrderFlow {
+
+    public enum Event { PASSIVE, MARKETABLE, CANCEL }
+
+    // How many of the latest orders cancels choose from
+    public static final int RECENT = 1_024;
+
+    private final SplittableRandom random;
+
+    private final String symbol;
+
+    private final String idPrefix;
+
+    private final LocalDateTime timestamp = LocalDateTime.now();
+
+    private final double passiveRate;
+
+    private final double marketableRate;
+
+    private final double totalRate;
+
+    // Probability a passive order is one more tick away from the mid
+    private final double depthDecay;
+
+    private final double meanQuantity;
+
+    private long midTicks;
+
+    private long sequence;
+
+    private final String[] recentIds = new String[RECENT];
+
+    public OrderFlow(long seed, String symbol, long midTicks) {
+        this(seed, symbol, midTicks, 0.55, 0.30, 0.15, 0.7, 50);
+    }
+
+    public OrderFlow(long seed, String symbol, long midTicks, double passiveRate, double marketableRate,
+                     double cancelRate, double depthDecay, double meanQuantity) {
+        this.random = new SplittableRandom(seed);
+        this.symbol = symbol;
+        this.idPrefix = symbol + "-" + seed + "-";
+        this.midTicks = midTicks;
+        this.passiveRate = passiveRate;
+        this.marketableRate = marketableRate;
+        this.totalRate = passiveRate + marketableRate + cancelRate;
+        this.depthDecay = depthDecay;
+        this.meanQuantity = meanQuantity;
+    }
+
+    public Event nextEvent() {
+        double u = random.nextDouble() * totalRate;
+        if (random.nextInt(16) == 0) {
+            midTicks += random.nextBoolean() ? 1 : -1;
+        }
+        if (u < passiveRate) {
+            return Event.PASSIVE;
+        }
+        return u < passiveRate + marketableRate ? Event.MARKETABLE : Event.CANCEL;
+    }
+
+    /*
+     * Exponential gap to the next event for an aggregate rate in events/sec
+     */
+    public long nextGapNanos(double eventsPerSecond) {
+        return (long) (-Math.log(1 - random.nextDouble()) / eventsPerSecond * 1e9);
+    }
+
+    public Order passive() {
+        return passive(random.nextBoolean() ? OrderType.BUY : OrderType.SELL);
+    }
+
+    /*
+     * Rests without crossing: at least one tick behind the mid on its own side
+     */
+    public Order passive(OrderType side) {
+        long distance = 1;
+        while (random.nextDouble() < depthDecay && distance < 1_000) {
+            distance++;
+        }
+        long ticks = side == OrderType.BUY ? midTicks - distance : midTicks + distance;
+        return order(side, ticks, quantity());
+    }
+
+    public Order marketable() {
+        return marketable(random.nextBoolean() ? OrderType.BUY : OrderType.SELL, quantity());
+    }
+
+    /*
+     * Priced far enough through the mid to reach resting liquidity
+     */
+    public Order marketable(OrderType side, long quantity) {
+        long ticks = side == OrderType.BUY ? midTicks + 1_000 : midTicks - 1_000;
+        return order(side, ticks, quantity);
+    }
+
+    public long quantity() {
+        return 1 + (long) (-Math.log(1 - random.nextDouble()) * meanQuantity);
+    }
+
+    /*
+     * Id of a recent order from this flow to cancel, or null before the first order
+     */
+    public String cancelTarget() {
+        if (sequence == 0) {
+            return null;
+        }
+        return recentIds[random.nextInt((int) Math.min(sequence, recentIds.length))];
+    }
+
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public long getMidTicks() {
+        return midTicks;
+    }
+
+    public Order order(OrderType side, long ticks, long quantity) {
+        String id = idPrefix + sequence;
+        recentIds[(int) (sequence++ % recentIds.length)] = id;
+        Order order = Order.builder()
+                .id(id)
+                .symbol(symbol)
+                .type(side)
+                .price(BigDecimal.valueOf(ticks, 2))
+                .quantity(quantity)
+                .remainingQuantity(quantity)
+                .timestamp(timestamp)
+                .status(OrderStatus.PENDING)
+                .userId("bench")
+                .build();
+        order.setPriceTicks(ticks);
+        return order;
+    }
+
+}
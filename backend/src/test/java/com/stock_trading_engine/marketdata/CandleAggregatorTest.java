@@ -0,0 +1,133 @@
+package com.stock_trading_engine.marketdata;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.model.Trade;
+import com.stock_trading_engine.repo.TradeBatchWriter;
+import com.stock_trading_engine.repo.TradeHistoryReader;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandleAggregatorTest {
+
+    private final JdbcTemplate jdbc;
+
+    private final DataSourceTransactionManager transactions;
+
+    CandleAggregatorTest() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        transactions = new DataSourceTransactionManager(dataSource);
+        jdbc.execute("CREATE TABLE trades (id VARCHAR(36) PRIMARY KEY, symbol VARCHAR(16) NOT NULL, "
+                + "buy_order_id VARCHAR(64) NOT NULL, sell_order_id VARCHAR(64) NOT NULL, "
+                + "price NUMERIC(19, 4) NOT NULL, quantity BIGINT NOT NULL, \"timestamp\" TIMESTAMP NOT NULL, "
+                + "buyer_id VARCHAR(64), seller_id VARCHAR(64))");
+    }
+
+    private CandleAggregator aggregator() {
+        EngineProperties properties = new EngineProperties();
+        MarketDataPublisher publisher = new MarketDataPublisher(new SimpMessagingTemplate((message, timeout) -> true),
+                new SlowConsumerGuard(properties), properties);
+        return new CandleAggregator(publisher, new TradeHistoryReader(jdbc, transactions));
+    }
+
+    private static Trade trade(LocalDateTime time, String price, long quantity) {
+        return Trade.builder().id(UUID.randomUUID().toString()).symbol("AAPL").buyOrderId("b").sellOrderId("s")
+                .price(new BigDecimal(price)).quantity(quantity).timestamp(time).build();
+    }
+
+    @Test
+    void barsFollowTradeTimeEvenOutOfOrder() {
+        CandleAggregator aggregator = aggregator();
+        LocalDateTime minute = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).minusMinutes(5);
+        aggregator.onTrades(List.of(
+                trade(minute.plusSeconds(10), "101.00", 10),
+                trade(minute.plusSeconds(50), "99.00", 30),
+                // arrives late but is the bar's first trade
+                trade(minute.plusSeconds(1), "100.00", 20),
+                trade(minute.plusMinutes(1).plusSeconds(5), "102.00", 5)));
+
+        Candles candles = aggregator.getCandles("AAPL", CandleInterval.MINUTE_1, 10);
+        assertEquals(2, candles.getBars().size());
+        Candle first = candles.getBars().get(0);
+        assertEquals(new BigDecimal("100.00"), first.getOpen());
+        assertEquals(new BigDecimal("101.00"), first.getHigh());
+        assertEquals(new BigDecimal("99.00"), first.getLow());
+        assertEquals(new BigDecimal("99.00"), first.getClose());
+        assertEquals(60, first.getVolume());
+        assertEquals(3, first.getTrades());
+        // (101*10 + 99*30 + 100*20) / 60
+        assertEquals(new BigDecimal("99.6667"), first.getVwap());
+
+        Ticker ticker = candles.getTicker();
+        assertEquals(new BigDecimal("102.00"), ticker.getLastPrice());
+        assertEquals(new BigDecimal("100.00"), ticker.getOpen());
+        assertEquals(new BigDecimal("102.00"), ticker.getHigh());
+        assertEquals(65, ticker.getVolume());
+        assertEquals(4, ticker.getTrades());
+
+        assertEquals(1, aggregator.getCandles("AAPL", CandleInterval.HOUR_1, 10).getBars().size());
+        assertEquals(List.of(), aggregator.getCandles("MSFT", CandleInterval.MINUTE_1, 10).getBars());
+    }
+
+    @Test
+    void ringKeepsOnlyRetainedBarsAndTickerOnlyTheLastDay() {
+        CandleAggregator aggregator = aggregator();
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusHours(30);
+        List<Trade> trades = new ArrayList<>();
+        for (int i = 0; i < 30 * 60; i++) {
+            trades.add(trade(start.plusMinutes(i), "100.00", 1));
+        }
+        aggregator.onTrades(trades);
+
+        assertEquals(CandleInterval.MINUTE_1.getBars(),
+                aggregator.getCandles("AAPL", CandleInterval.MINUTE_1, 5_000).getBars().size());
+        // 1s bars cover the last 300 seconds: one trade a minute leaves 5
+        assertEquals(5, aggregator.getCandles("AAPL", CandleInterval.SECOND_1, 5_000).getBars().size());
+        long volume = aggregator.getCandles("AAPL", CandleInterval.MINUTE_1, 1).getTicker().getVolume();
+        assertTrue(volume >= 23 * 60 && volume <= 24 * 60, "24h volume " + volume);
+    }
+
+    @Test
+    void rebuildFromHistoryMatchesLiveAggregation() {
+        CandleAggregator live = aggregator();
+        SplittableRandom random = new SplittableRandom(3);
+        LocalDateTime start = LocalDateTime.now().minusHours(3);
+        List<Trade> trades = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            trades.add(trade(start.plusNanos(i * 2_000_000_000L), BigDecimal.valueOf(9_900 + random.nextInt(200), 2)
+                    .toPlainString(), 1 + random.nextInt(100)));
+        }
+        live.onTrades(trades);
+        new TradeBatchWriter(jdbc, transactions).write(trades);
+
+        CandleAggregator rebuilt = aggregator();
+        rebuilt.rebuild();
+
+        for (CandleInterval interval : CandleInterval.values()) {
+            List<Candle> expected = live.getCandles("AAPL", interval, 1_000).getBars();
+            List<Candle> actual = rebuilt.getCandles("AAPL", interval, 1_000).getBars();
+            assertEquals(expected.size(), actual.size(), interval.getLabel());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getVolume(), actual.get(i).getVolume());
+                assertEquals(0, expected.get(i).getHigh().compareTo(actual.get(i).getHigh()));
+                assertEquals(0, expected.get(i).getClose().compareTo(actual.get(i).getClose()));
+                assertEquals(0, expected.get(i).getVwap().compareTo(actual.get(i).getVwap()));
+            }
+        }
+    }
+
+}
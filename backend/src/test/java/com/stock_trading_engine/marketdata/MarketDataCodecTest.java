@@ -0,0 +1,123 @@
+package com.stock_trading_engine.marketdata;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.config.VirtualThreads;
+import com.stock_trading_engine.metrics.StageMetrics;
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.model.Trade;
+import com.stock_trading_engine.orderbook.CommandLog;
+import com.stock_trading_engine.orderbook.DepthUpdate;
+import com.stock_trading_engine.orderbook.OrderBook;
+import com.stock_trading_engine.orderbook.TickSize;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MarketDataCodecTest {
+
+    private static WebSocketSession subscriber(BinaryMarketDataHandler handler, String id, List<ByteBuffer> frames,
+                                               String... destinations) throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        doAnswer(call -> frames.add(((BinaryMessage) call.getArgument(0)).getPayload())).when(session).sendMessage(any());
+        handler.afterConnectionEstablished(session);
+        for (String destination : destinations) {
+            handler.handleMessage(session, new TextMessage("SUBSCRIBE " + destination));
+        }
+        return session;
+    }
+
+    private static byte[] bytes(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.duplicate().get(bytes);
+        return bytes;
+    }
+
+    @Test
+    void binaryDepthMatchesJsonAndIsEncodedOnce() throws Exception {
+        List<DepthUpdate> json = new CopyOnWriteArrayList<>();
+        SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> {
+            if (message.getPayload() instanceof DepthUpdate update) {
+                json.add(update);
+            }
+            return true;
+        });
+        BinaryMarketDataHandler handler = new BinaryMarketDataHandler();
+        List<ByteBuffer> first = new CopyOnWriteArrayList<>();
+        List<ByteBuffer> second = new CopyOnWriteArrayList<>();
+        subscriber(handler, "s1", first, "/topic/depth/AAPL");
+        subscriber(handler, "s2", second, "/topic/depth/AAPL", "/topic/trades/AAPL");
+        assertFalse(handler.hasSubscribers("/topic/depth/MSFT"));
+
+        EngineProperties properties = new EngineProperties();
+        properties.getMarketData().setConflationMillis(5);
+        MarketDataPublisher publisher = new MarketDataPublisher(template, new SlowConsumerGuard(properties),
+                properties, new StageMetrics(), VirtualThreads.PLATFORM, handler);
+        OrderBook book = new OrderBook("AAPL", TickSize.of("0.05"), false, CommandLog.NONE, publisher);
+        publisher.start();
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < 2_000; i++) {
+            OrderType side = random.nextBoolean() ? OrderType.BUY : OrderType.SELL;
+            book.addOrder(Order.createNew("AAPL", side, BigDecimal.valueOf(20_000 + 5 * random.nextInt(-20, 21), 2),
+                    1 + random.nextInt(500), "u1"));
+        }
+        publisher.stop();
+
+        assertEquals(json.size(), first.size());
+        assertEquals(json.size(), second.size());
+        for (int i = 0; i < json.size(); i++) {
+            // Same bytes for every subscriber, each with its own buffer view
+            assertSame(first.get(i).array(), second.get(i).array());
+            assertNotSame(first.get(i), second.get(i));
+            DepthUpdate decoded = (DepthUpdate) MarketDataCodec.decode(bytes(first.get(i)));
+            DepthUpdate expected = json.get(i);
+            assertEquals(expected.getSymbol(), decoded.getSymbol());
+            assertEquals(expected.getFirstSequence(), decoded.getFirstSequence());
+            assertEquals(expected.getSequence(), decoded.getSequence());
+            assertEquals(expected.getChanges(), decoded.getChanges());
+        }
+        assertEquals(json.size() * 2L, publisher.getStats().getBinaryFramesOut());
+    }
+
+    @Test
+    void tradesRoundTripAndClosedSessionsAreForgotten() throws Exception {
+        BinaryMarketDataHandler handler = new BinaryMarketDataHandler();
+        List<ByteBuffer> frames = new CopyOnWriteArrayList<>();
+        WebSocketSession session = subscriber(handler, "s1", frames, "/topic/trades/AAPL");
+
+        LocalDateTime now = LocalDateTime.of(2024, 3, 1, 14, 30, 15, 123_000_000);
+        List<Trade> trades = List.of(
+                Trade.builder().id(UUID.randomUUID().toString()).symbol("AAPL").buyOrderId("12").sellOrderId("9")
+                        .price(new BigDecimal("187.25")).quantity(300).timestamp(now).buyerId("alice")
+                        .sellerId(null).build(),
+                Trade.builder().id(UUID.randomUUID().toString()).symbol("AAPL").buyOrderId("12")
+                        .sellOrderId("foreign-1").price(new BigDecimal("187.2500")).quantity(5_000_000_000L)
+                        .timestamp(now.plusNanos(1_000_000)).buyerId("alice").sellerId("bob").build());
+        byte[] frame = new MarketDataCodec().trades(trades, 0, trades.size());
+        assertEquals(trades, MarketDataCodec.decode(frame));
+
+        handler.broadcast("/topic/trades/AAPL", frame);
+        assertEquals(1, frames.size());
+        assertArrayEquals(frame, bytes(frames.get(0)));
+
+        handler.afterConnectionClosed(session, null);
+        assertFalse(handler.hasSubscribers("/topic/trades/AAPL"));
+        assertEquals(0, handler.getSessions());
+    }
+
+}
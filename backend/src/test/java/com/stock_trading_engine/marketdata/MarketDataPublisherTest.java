@@ -0,0 +1,153 @@
+package com.stock_trading_engine.marketdata;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.orderbook.CommandLog;
+import com.stock_trading_engine.orderbook.DepthLevel;
+import com.stock_trading_engine.orderbook.DepthUpdate;
+import com.stock_trading_engine.orderbook.OrderBook;
+import com.stock_trading_engine.orderbook.TickSize;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MarketDataPublisherTest {
+
+    @Test
+    void conflatedDepthRebuildsTheBook() {
+        List<DepthUpdate> sent = new CopyOnWriteArrayList<>();
+        SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> {
+            if (message.getPayload() instanceof DepthUpdate update) {
+                sent.add(update);
+            }
+            return true;
+        });
+        EngineProperties properties = new EngineProperties();
+        properties.getMarketData().setConflationMillis(20);
+        MarketDataPublisher publisher = new MarketDataPublisher(template, new SlowConsumerGuard(properties), properties);
+        OrderBook book = new OrderBook("AAPL", TickSize.of("0.01"), false, CommandLog.NONE, publisher);
+        publisher.start();
+
+        OrderBook.DepthSnapshot start = book.getDepth();
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 5_000; i++) {
+            OrderType side = random.nextBoolean() ? OrderType.BUY : OrderType.SELL;
+            Order order = Order.createNew("AAPL", side, BigDecimal.valueOf(10_000 + random.nextInt(-20, 21), 2),
+                    1 + random.nextInt(50), "u1");
+            book.addOrder(order);
+            if (random.nextInt(4) == 0) {
+                book.cancelOrder(order.getId());
+            }
+        }
+        publisher.stop();
+
+        Map<String, DepthLevel> levels = new TreeMap<>();
+        long sequence = start.getSequence();
+        for (DepthUpdate update : sent) {
+            assertTrue(update.getFirstSequence() <= sequence + 1, "gap before " + update.getFirstSequence());
+            for (DepthLevel change : update.getChanges()) {
+                String key = change.getSide() + "@" + change.getPrice();
+                if (change.getQuantity() == 0) {
+                    levels.remove(key);
+                } else {
+                    levels.put(key, change);
+                }
+            }
+            sequence = update.getSequence();
+        }
+
+        OrderBook.DepthSnapshot end = book.getDepth();
+        Map<String, DepthLevel> expected = new TreeMap<>();
+        end.getBids().forEach(l -> expected.put(l.getSide() + "@" + l.getPrice(), l));
+        end.getAsks().forEach(l -> expected.put(l.getSide() + "@" + l.getPrice(), l));
+        assertEquals(end.getSequence(), sequence);
+        assertEquals(expected, levels);
+
+        MarketDataPublisher.Stats stats = publisher.getStats();
+        assertEquals(end.getSequence(), stats.getDepthDeltasIn());
+        assertEquals(sent.size(), stats.getDepthMessagesOut());
+        assertTrue(stats.getConflationRatio() > 1, "expected conflation, got " + stats);
+    }
+
+    @Test
+    void slowSessionDropsOldestFramesWithoutBlockingSenders() throws Exception {
+        EngineProperties properties = new EngineProperties();
+        SlowConsumerGuard guard = new SlowConsumerGuard(properties);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        WebSocketSession socket = mock(WebSocketSession.class);
+        doAnswer(call -> {
+            TextMessage message = call.getArgument(0);
+            if (delivered.isEmpty()) {
+                writing.countDown();
+                release.await();
+            }
+            delivered.add(message.getPayload());
+            return null;
+        }).when(socket).sendMessage(any());
+
+        BoundedSession session = new BoundedSession(socket, 2, EngineProperties.SlowConsumerPolicy.DROP_OLDEST, guard);
+        // Returns at once: the write happens on a writer thread
+        session.sendMessage(new TextMessage("0"));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        // The socket is stuck on frame 0: these only queue, keeping the newest two
+        for (int i = 1; i <= 5; i++) {
+            session.sendMessage(new TextMessage(String.valueOf(i)));
+        }
+        assertEquals(3, guard.getDropped());
+
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (delivered.size() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(List.of("0", "4", "5"), delivered);
+        guard.stop();
+    }
+
+    @Test
+    void slowSessionIsClosedUnderDisconnectPolicy() throws Exception {
+        SlowConsumerGuard guard = new SlowConsumerGuard(new EngineProperties());
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        WebSocketSession socket = mock(WebSocketSession.class);
+        doAnswer(call -> {
+            writing.countDown();
+            release.await();
+            return null;
+        }).when(socket).sendMessage(any());
+
+        BoundedSession session = new BoundedSession(socket, 1, EngineProperties.SlowConsumerPolicy.DISCONNECT, guard);
+        session.sendMessage(new TextMessage("0"));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        session.sendMessage(new TextMessage("1"));
+        session.sendMessage(new TextMessage("2"));
+        session.sendMessage(new TextMessage("3"));
+
+        verify(socket).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(1, guard.getDisconnected());
+        release.countDown();
+        guard.stop();
+        verify(socket, times(1)).sendMessage(any());
+    }
+
+}
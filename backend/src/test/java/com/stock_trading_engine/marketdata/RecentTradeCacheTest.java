@@ -0,0 +1,96 @@
+package com.stock_trading_engine.marketdata;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.model.Trade;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecentTradeCacheTest {
+
+    private static RecentTradeCache cache(int capacity) {
+        EngineProperties properties = new EngineProperties();
+        properties.getMarketData().setRecentTrades(capacity);
+        return new RecentTradeCache(properties);
+    }
+
+    private static Trade trade(String id) {
+        return Trade.builder().id(id).symbol("AAPL").buyOrderId("b").sellOrderId("s")
+                .price(new BigDecimal("100.00")).quantity(1).timestamp(LocalDateTime.now()).build();
+    }
+
+    private static List<String> ids(List<Trade> trades) {
+        return trades.stream().map(Trade::getId).toList();
+    }
+
+    @Test
+    void ringKeepsNewestTradesNewestFirst() {
+        RecentTradeCache cache = cache(3);
+        cache.add(List.of(trade("t1"), trade("t2")));
+        cache.add(List.of(trade("t3"), trade("t4"), trade("t5")));
+
+        IntFunction<List<Trade>> none = n -> List.of();
+        assertEquals(List.of("t5", "t4", "t3"), ids(cache.recent("AAPL", 3, none)));
+        assertEquals(List.of("t5", "t4"), ids(cache.recent("AAPL", 2, none)));
+        assertEquals(List.of(), cache.recent("MSFT", 3, none));
+        assertThrows(IllegalArgumentException.class, () -> cache.recent("AAPL", 4, none));
+    }
+
+    @Test
+    void coldRingIsToppedUpFromHistoryOnce() {
+        RecentTradeCache cache = cache(4);
+        // t3 was written before the first read, t4 is still in flight
+        cache.add(List.of(trade("t3"), trade("t4")));
+        AtomicInteger loads = new AtomicInteger();
+        IntFunction<List<Trade>> history = n -> {
+            loads.incrementAndGet();
+            return List.of(trade("t3"), trade("t2"), trade("t1"), trade("t0"));
+        };
+
+        assertEquals(List.of("t4", "t3", "t2", "t1"), ids(cache.recent("AAPL", 4, history)));
+        cache.add(List.of(trade("t5")));
+        assertEquals(List.of("t5", "t4", "t3"), ids(cache.recent("AAPL", 3, history)));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void readsOfUncachedSymbolsGoToHistoryWithoutCreatingRings() {
+        RecentTradeCache cache = cache(4);
+        AtomicInteger loads = new AtomicInteger();
+        IntFunction<List<Trade>> history = n -> {
+            loads.incrementAndGet();
+            return List.of(trade("t1"));
+        };
+        for (int i = 0; i < 100; i++) {
+            assertEquals(List.of("t1"), ids(cache.recent("SYM" + i, 4, history)));
+        }
+        assertEquals(100, loads.get());
+        assertEquals(0, cache.getSymbols());
+    }
+
+    @Test
+    void writerIsNotBlockedWhileHistoryLoads() {
+        RecentTradeCache cache = cache(4);
+        cache.add(List.of(trade("t2")));
+        IntFunction<List<Trade>> history = n -> {
+            // The trade writer adds while the first read is in the database
+            Thread writer = new Thread(() -> cache.add(List.of(trade("t3"))));
+            writer.start();
+            try {
+                writer.join(5_000);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            assertFalse(writer.isAlive(), "add() waited for the history load");
+            return List.of(trade("t3"), trade("t2"), trade("t1"));
+        };
+        assertEquals(List.of("t3", "t2", "t1"), ids(cache.recent("AAPL", 4, history)));
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.stock_trading_engine.metrics;
+
+import com.stock_trading_engine.admission.AdmissionControl;
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.orderbook.BookState;
+import com.stock_trading_engine.orderbook.OrderBookManager;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineMetricsTest {
+
+    @Test
+    void symbolMetersFollowReleasedAndAdoptedBooks() {
+        EngineProperties properties = new EngineProperties();
+        OrderBookManager manager = new OrderBookManager(properties);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        // The sampler only reads stages and books
+        EngineMetrics metrics = new EngineMetrics(new StageMetrics(), manager, null, null, AdmissionControl.NONE,
+                registry, properties);
+
+        manager.addOrder(Order.createNew("AAPL", OrderType.BUY, new BigDecimal("99.00"), 10, "u1"));
+        manager.addOrder(Order.createNew("AAPL", OrderType.SELL, new BigDecimal("101.00"), 10, "u1"));
+        metrics.sample();
+        assertEquals(2, restingOrders(registry));
+
+        BookState released = manager.release("AAPL");
+        metrics.sample();
+        assertNull(registry.find("engine.book.orders").tag("symbol", "AAPL").gauge());
+        assertNull(registry.find("engine.orders").tag("symbol", "AAPL").functionCounter());
+
+        manager.adopt(released);
+        manager.addOrder(Order.createNew("AAPL", OrderType.BUY, new BigDecimal("98.00"), 10, "u1"));
+        metrics.sample();
+        assertEquals(3, restingOrders(registry), "meters read the adopted book");
+        FunctionCounter orders = registry.find("engine.orders").tag("symbol", "AAPL").functionCounter();
+        assertEquals(manager.getOrderBook("AAPL").getOrdersAccepted(), (long) orders.count());
+        manager.shutdown();
+    }
+
+    private static double restingOrders(SimpleMeterRegistry registry) {
+        Gauge gauge = registry.find("engine.book.orders").tag("symbol", "AAPL").gauge();
+        assertNotNull(gauge);
+        return gauge.value();
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.stock_trading_engine.metrics;
+
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.orderbook.CommandLog;
+import com.stock_trading_engine.orderbook.DepthListener;
+import com.stock_trading_engine.orderbook.OrderBook;
+import com.stock_trading_engine.orderbook.TickSize;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StageMetricsTest {
+
+    private final StageMetrics metrics = new StageMetrics();
+
+    @Test
+    void sampleClosesTheWindowAndKeepsTheTotal() {
+        for (int i = 1; i <= 1_000; i++) {
+            metrics.record(Stage.MATCH, i * 1_000L);
+        }
+        assertEquals(0, metrics.window(Stage.MATCH).getCount());
+
+        metrics.sample();
+        StageMetrics.StageStats window = metrics.window(Stage.MATCH);
+        assertEquals(1_000, window.getCount());
+        assertEquals(500, window.getP50(), 1);
+        assertEquals(990, window.getP99(), 1);
+        assertEquals(1_000, window.getMax(), 1);
+
+        metrics.record(Stage.MATCH, 5_000);
+        metrics.sample();
+        assertEquals(1, metrics.window(Stage.MATCH).getCount());
+        assertEquals(1_001, metrics.total(Stage.MATCH).getCount());
+        assertEquals(0, metrics.total(Stage.PUBLISH).getCount());
+    }
+
+    @Test
+    void bookRecordsMatchingAndCountsOrdersAndFills() {
+        OrderBook book = new OrderBook("AAPL", TickSize.of("0.01"), false, CommandLog.NONE,
+                DepthListener.NONE, metrics);
+        book.addOrder(Order.createNew("AAPL", OrderType.SELL, new BigDecimal("100.00"), 5, "u1"));
+        book.addOrder(Order.createNew("AAPL", OrderType.SELL, new BigDecimal("100.01"), 5, "u1"));
+        book.addOrder(Order.createNew("AAPL", OrderType.BUY, new BigDecimal("100.01"), 7, "u2"));
+
+        assertEquals(3, book.getOrdersAccepted());
+        assertEquals(2, book.getFillsExecuted());
+        assertEquals(1, book.getRestingOrders());
+        assertEquals(1, book.getLevelCount());
+
+        metrics.sample();
+        assertEquals(3, metrics.window(Stage.MATCH).getCount());
+        // Never contended here
+        assertEquals(0, metrics.window(Stage.LOCK_WAIT).getCount());
+    }
+
+}
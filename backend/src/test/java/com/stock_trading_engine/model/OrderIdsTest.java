@@ -0,0 +1,36 @@
+package com.stock_trading_engine.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderIdsTest {
+
+    @Test
+    void engineIdsRoundTripAndIncrease() {
+        long first = OrderIds.next();
+        long second = OrderIds.next();
+
+        assertTrue(first > 0 && second > first);
+        assertEquals(first, OrderIds.toInternal(OrderIds.toExternal(first)));
+        assertEquals(Long.toString(second), OrderIds.toExternal(second));
+    }
+
+    @Test
+    void foreignIdsHaveNoInternalForm() {
+        assertEquals(OrderIds.NONE, OrderIds.toInternal("3f2a6c1e-0b7d-4c55-9a4e-2d1b8f0c7e91"));
+        assertEquals(OrderIds.NONE, OrderIds.toInternal(""));
+        assertEquals(OrderIds.NONE, OrderIds.toInternal("0"));
+        assertEquals(OrderIds.NONE, OrderIds.toInternal("042"));
+        assertEquals(OrderIds.NONE, OrderIds.toInternal("-42"));
+        assertEquals(OrderIds.NONE, OrderIds.toInternal("9223372036854775808"));
+        assertEquals(Long.MAX_VALUE, OrderIds.toInternal("9223372036854775807"));
+    }
+
+    @Test
+    void rejectsNodeOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> OrderIds.setNode(OrderIds.MAX_NODE + 1));
+        assertThrows(IllegalArgumentException.class, () -> OrderIds.setNode(-1));
+    }
+
+}
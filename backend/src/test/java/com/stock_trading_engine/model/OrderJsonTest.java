@@ -0,0 +1,24 @@
+package com.stock_trading_engine.model;
+
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderJsonTest {
+
+    @Test
+    void engineInternalFieldsStayOutOfJson() {
+        Order order = Order.createNew("AAPL", OrderType.BUY, new BigDecimal("187.25"), 10, "u1");
+        order.setPriceTicks(18_725);
+        order.setSequence(42);
+
+        String json = JsonMapper.builder().build().writeValueAsString(order);
+        assertFalse(json.contains("priceTicks"), json);
+        assertFalse(json.contains("sequence"), json);
+        assertTrue(json.contains("\"price\":187.25"), json);
+    }
+
+}
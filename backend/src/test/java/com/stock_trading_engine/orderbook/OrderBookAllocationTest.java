@@ -0,0 +1,88 @@
+package com.stock_trading_engine.orderbook;
+
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderType;
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/*
+ * The matching path must not allocate: aggressive orders that fully fill
+ * against resting liquidity should cost (close to) zero heap bytes each.
+ */
+class OrderBookAllocationTest {
+
+    private static final int ORDERS = 20_000;
+
+    private static final int MAKERS_PER_ORDER = 3;
+
+    private static final int ORDERS_PER_LEVEL = 60;
+
+    private static final TickSize TICK = TickSize.of("0.01");
+
+    @Test
+    void matchingDoesNotAllocate() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeAllocationTracking(threads);
+
+        // Warm up so the loop is JIT-compiled before it is measured
+        run(threads);
+        long bytesPerOrder = run(threads);
+
+        assertTrue(bytesPerOrder <= 8, "matching allocated " + bytesPerOrder + " bytes per order");
+    }
+
+    private static void assumeAllocationTracking(ThreadMXBean threads) {
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /*
+     * Returns bytes allocated per aggressive order
+     */
+    private static long run(ThreadMXBean threads) {
+        OrderBook book = new OrderBook("ALLOC", TICK);
+        FillBuffer fills = new FillBuffer(FillBuffer.DEFAULT_CAPACITY);
+
+        // Resting sells spread over many levels so sweeps also remove levels
+        int makers = ORDERS * MAKERS_PER_ORDER;
+        for (int i = 0; i < makers; i++) {
+            book.addOrder(order(OrderType.SELL, 10_000 + i / ORDERS_PER_LEVEL, 10), fills);
+        }
+
+        // Fill the terminal-order ring first: it only allocates while growing to capacity
+        for (int i = 0; i < TerminalOrders.DEFAULT_CAPACITY; i++) {
+            Order order = order(OrderType.BUY, 1, 1);
+            book.addOrder(order, fills);
+            book.cancelOrder(order.getId());
+        }
+
+        // Pre-build the aggressive orders so their creation is not measured
+        Order[] buys = new Order[ORDERS];
+        for (int i = 0; i < ORDERS; i++) {
+            buys[i] = order(OrderType.BUY, 10_000 + makers, 10L * MAKERS_PER_ORDER);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (Order buy : buys) {
+            book.addOrder(buy, fills);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(0, book.getActiveOrderCount());
+        return allocated / ORDERS;
+    }
+
+    private static Order order(OrderType type, long priceTicks, long quantity) {
+        Order order = Order.createNew("ALLOC", type, TICK.toPrice(priceTicks), quantity, "u1");
+        order.setPriceTicks(priceTicks);
+        return order;
+    }
+
+}
@@ -0,0 +1,175 @@
+package com.stock_trading_engine.orderbook;
+
+import com.stock_trading_engine.checkpoint.CheckpointStore;
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderStatus;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.model.TimeInForce;
+import com.stock_trading_engine.model.Trade;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderBookManagerTest {
+
+    private OrderBookManager manager;
+
+    @AfterEach
+    void tearDown() {
+        manager.shutdown();
+    }
+
+    private static OrderBookManager sequencer() {
+        EngineProperties properties = new EngineProperties();
+        properties.setMode(EngineProperties.Mode.SEQUENCER);
+        properties.setShards(2);
+        properties.setRingSize(64);
+        return new OrderBookManager(properties);
+    }
+
+    private static Order order(String symbol, OrderType type, String price, long qty) {
+        return Order.createNew(symbol, type, new BigDecimal(price), qty, "u1");
+    }
+
+    @Test
+    void sequencerModeMatchesAndCancels() {
+        manager = sequencer();
+        Order sell = order("AAPL", OrderType.SELL, "100.00", 10);
+        Order resting = order("AAPL", OrderType.BUY, "99.00", 10);
+        manager.addOrder(sell);
+        manager.addOrder(resting);
+
+        FillBuffer fills = manager.addOrder(order("AAPL", OrderType.BUY, "100.00", 4));
+        assertEquals(1, fills.size());
+        assertEquals(sell.getId(), fills.sellOrderId(0));
+
+        assertTrue(manager.cancelOrder("AAPL", resting.getId()));
+        OrderBook.OrderBookSnapshot snapshot = manager.getSnapshot("AAPL");
+        assertTrue(snapshot.getBuyOrders().isEmpty());
+        assertEquals(6, snapshot.getSellOrders().get(0).getRemainingQuantity());
+    }
+
+    @Test
+    void sequencerModeAppliesQueuedOrdersInSubmissionOrder() {
+        manager = sequencer();
+        List<CompletableFuture<FillBuffer>> futures = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            futures.add(manager.submitOrder(order("GOOG", OrderType.SELL, "50.00", 1)));
+        }
+        futures.forEach(CompletableFuture::join);
+
+        FillBuffer fills = manager.addOrder(order("GOOG", OrderType.BUY, "50.00", 500));
+        assertEquals(500, fills.size());
+        List<Trade> trades = fills.toTrades();
+        for (int i = 1; i < trades.size(); i++) {
+            assertNotEquals(trades.get(i - 1).getSellOrderId(), trades.get(i).getSellOrderId());
+        }
+        assertTrue(manager.getSnapshot("GOOG").getSellOrders().isEmpty());
+    }
+
+    @Test
+    void sequencerModeSurfacesRejections() {
+        manager = sequencer();
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.addOrder(order("AAPL", OrderType.BUY, "1.001", 1)));
+    }
+
+    @Test
+    void sequencerModeAppliesBatchesAndMassCancelsInOneCommand() {
+        manager = sequencer();
+        List<Order> quotes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            quotes.add(order("MSFT", OrderType.BUY, "99.0" + i, 10));
+            quotes.add(order("MSFT", OrderType.SELL, "101.0" + i, 10));
+        }
+        quotes.add(order("MSFT", OrderType.BUY, "101.00", 4));
+        quotes.forEach(manager::prepare);
+
+        List<FillBuffer> fills = manager.addOrders("MSFT", quotes);
+        assertEquals(quotes.size(), fills.size());
+        assertEquals(1, fills.get(quotes.size() - 1).size());
+        assertEquals(quotes.get(1).getId(), fills.get(quotes.size() - 1).sellOrderId(0));
+
+        List<String> cancelled = manager.cancelOrders("MSFT", "u1", OrderType.SELL);
+        assertEquals(5, cancelled.size());
+        assertTrue(manager.getSnapshot("MSFT").getSellOrders().isEmpty());
+        assertEquals(5, manager.getSnapshot("MSFT").getBuyOrders().size());
+    }
+
+    @Test
+    void releasedBookIsAdoptedByAnotherEngineInPriorityOrder() {
+        manager = sequencer();
+        Order first = order("IBM", OrderType.SELL, "100.00", 5);
+        Order second = order("IBM", OrderType.SELL, "100.00", 5);
+        manager.addOrder(first);
+        manager.addOrder(second);
+        manager.addOrder(order("IBM", OrderType.BUY, "99.00", 3));
+
+        BookState state = CheckpointStore.decode(CheckpointStore.encode(manager.release("IBM")));
+        assertNull(manager.getSnapshot("IBM"), "the released book is dropped");
+        assertNull(manager.release("IBM"));
+
+        OrderBookManager target = new OrderBookManager(new EngineProperties());
+        try {
+            target.adopt(state);
+            assertEquals(3, target.getOrderBook("IBM").getActiveOrderCount());
+            FillBuffer fills = target.addOrder(order("IBM", OrderType.BUY, "100.00", 6));
+            assertEquals(first.getId(), fills.sellOrderId(0), "time priority survives the move");
+            assertEquals(second.getId(), fills.sellOrderId(1));
+            assertThrows(IllegalStateException.class, () -> target.adopt(state));
+        } finally {
+            target.shutdown();
+        }
+    }
+
+    @Test
+    void dayAndGtdOrdersGetAnExpiryAndExpireOnTheirShard() {
+        manager = sequencer();
+        Order day = order("AAPL", OrderType.BUY, "99.00", 1);
+        day.setTimeInForce(TimeInForce.DAY);
+        Order gtd = order("MSFT", OrderType.SELL, "101.00", 1);
+        gtd.setTimeInForce(TimeInForce.GTD);
+        gtd.setExpireTime(LocalDateTime.now().plusSeconds(1));
+        manager.addOrder(day);
+        manager.addOrder(gtd);
+
+        assertTrue(day.getExpireTime().isAfter(LocalDateTime.now()));
+        assertFalse(day.getExpireTime().isAfter(LocalDateTime.now().plusDays(1)));
+        assertEquals(1, manager.expireOrders(System.currentTimeMillis() + 2_000));
+        assertTrue(manager.getSnapshot("MSFT").getSellOrders().isEmpty());
+        assertEquals(1, manager.getSnapshot("AAPL").getBuyOrders().size());
+
+        Order missing = order("AAPL", OrderType.BUY, "99.00", 1);
+        missing.setTimeInForce(TimeInForce.GTD);
+        assertThrows(IllegalArgumentException.class, () -> manager.addOrder(missing));
+        missing.setExpireTime(LocalDateTime.now().minusSeconds(1));
+        assertThrows(IllegalArgumentException.class, () -> manager.addOrder(missing));
+    }
+
+    @Test
+    void ordersAreFoundAndCancelledByIdAlone() {
+        manager = sequencer();
+        Order aapl = order("AAPL", OrderType.BUY, "99.00", 1);
+        Order msft = order("MSFT", OrderType.SELL, "101.00", 2);
+        manager.addOrder(aapl);
+        manager.addOrder(msft);
+        manager.addOrder(order("MSFT", OrderType.BUY, "101.00", 2));
+
+        assertEquals("AAPL", manager.findOrder(aapl.getId()).getSymbol());
+        assertEquals(OrderStatus.FILLED, manager.findOrder(msft.getId()).getStatus());
+        assertTrue(manager.cancelOrder(aapl.getId()));
+        assertFalse(manager.cancelOrder(aapl.getId()));
+        assertEquals(OrderStatus.CANCELLED, manager.findOrder(aapl.getId()).getStatus());
+        assertEquals(3, manager.ordersOf("u1").size());
+        assertNull(manager.findOrder("missing"));
+    }
+
+}
@@ -0,0 +1,481 @@
+package com.stock_trading_engine.orderbook;
+
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderStatus;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.model.TimeInForce;
+import com.stock_trading_engine.model.Trade;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderBookTest {
+
+    private final OrderBook book = new OrderBook("AAPL", TickSize.of("0.01"));
+
+    private static Order order(OrderType type, String price, long qty) {
+        return Order.createNew("AAPL", type, new BigDecimal(price), qty, "u1");
+    }
+
+    @Test
+    void restsWhenPricesDoNotCross() {
+        book.addOrder(order(OrderType.BUY, "99.00", 10));
+        book.addOrder(order(OrderType.SELL, "101.00", 10));
+
+        assertEquals(0, new BigDecimal("99.00").compareTo(book.getBestBidPrice()));
+        assertEquals(0, new BigDecimal("101.00").compareTo(book.getBestAskPrice()));
+        assertEquals(2, book.getActiveOrderCount());
+    }
+
+    @Test
+    void matchesAtBestPriceThenTimePriority() {
+        Order first = order(OrderType.SELL, "100.00", 5);
+        Order second = order(OrderType.SELL, "100.00", 5);
+        Order worse = order(OrderType.SELL, "100.50", 5);
+        book.addOrder(worse);
+        book.addOrder(first);
+        book.addOrder(second);
+
+        List<Trade> trades = book.addOrder(order(OrderType.BUY, "101.00", 8));
+
+        assertEquals(2, trades.size());
+        assertEquals(first.getId(), trades.get(0).getSellOrderId());
+        assertEquals(second.getId(), trades.get(1).getSellOrderId());
+        assertEquals(3, trades.get(1).getQuantity());
+        // Resting orders are reported from the book, not from the submitted objects
+        List<Order> sells = book.getSnapshot().getSellOrders();
+        assertEquals(List.of(second.getId(), worse.getId()), sells.stream().map(Order::getId).toList());
+        assertEquals(OrderStatus.PARTIALLY_FILLED, sells.get(0).getStatus());
+        assertEquals(2, sells.get(0).getRemainingQuantity());
+        assertEquals(0, new BigDecimal("100.00").compareTo(book.getBestAskPrice()));
+    }
+
+    @Test
+    void cancelUnlinksImmediatelyAndPromotesNextLevel() {
+        Order best = order(OrderType.BUY, "100.00", 5);
+        book.addOrder(best);
+        book.addOrder(order(OrderType.BUY, "99.00", 5));
+
+        assertTrue(book.cancelOrder(best.getId()));
+        assertFalse(book.cancelOrder(best.getId()));
+
+        assertEquals(0, new BigDecimal("99.00").compareTo(book.getBestBidPrice()));
+        assertEquals(1, book.getActiveOrderCount());
+        assertEquals(1, book.getSnapshot().getBuyOrders().size());
+    }
+
+    @Test
+    void snapshotIsInPriceTimeOrder() {
+        Order a = order(OrderType.SELL, "101.00", 1);
+        Order b = order(OrderType.SELL, "100.00", 1);
+        Order c = order(OrderType.SELL, "100.00", 1);
+        book.addOrder(a);
+        book.addOrder(b);
+        book.addOrder(c);
+
+        List<Order> sells = book.getSnapshot().getSellOrders();
+        assertEquals(List.of(b, c, a), sells);
+    }
+
+    @Test
+    void equalPricesAtDifferentScalesShareALevel() {
+        Order first = order(OrderType.SELL, "100.5", 1);
+        Order second = order(OrderType.SELL, "100.50", 1);
+        book.addOrder(first);
+        book.addOrder(second);
+
+        assertTrue(first.getSequence() < second.getSequence());
+        List<Trade> trades = book.addOrder(order(OrderType.BUY, "100.50", 1));
+        assertEquals(first.getId(), trades.get(0).getSellOrderId());
+        assertEquals(new BigDecimal("100.50"), trades.get(0).getPrice());
+    }
+
+    @Test
+    void depthDeltasAppliedToSnapshotTrackTheBook() {
+        List<DepthUpdate> updates = new ArrayList<>();
+        OrderBook feed = new OrderBook("AAPL", TickSize.of("0.01"), false, CommandLog.NONE,
+                delta -> updates.add(delta.toUpdate()));
+        Order resting = order(OrderType.BUY, "99.00", 4);
+        feed.addOrder(resting);
+        OrderBook.DepthSnapshot start = feed.getDepth();
+
+        feed.addOrder(order(OrderType.SELL, "100.00", 5));
+        feed.addOrder(order(OrderType.SELL, "100.00", 5));
+        feed.addOrder(order(OrderType.BUY, "100.00", 7));
+        Order crossing = order(OrderType.SELL, "98.00", 6);
+        feed.addOrder(crossing);
+        feed.cancelOrder(crossing.getId());
+
+        // Client side: start from the snapshot and apply contiguous deltas
+        Map<String, DepthLevel> levels = new TreeMap<>();
+        start.getBids().forEach(l -> levels.put(l.getSide() + "@" + l.getPrice(), l));
+        long sequence = start.getSequence();
+        for (DepthUpdate update : updates.subList(1, updates.size())) {
+            assertEquals(++sequence, update.getSequence());
+            for (DepthLevel change : update.getChanges()) {
+                String key = change.getSide() + "@" + change.getPrice();
+                if (change.getQuantity() == 0) {
+                    levels.remove(key);
+                } else {
+                    levels.put(key, change);
+                }
+            }
+        }
+
+        OrderBook.DepthSnapshot end = feed.getDepth();
+        assertEquals(sequence, end.getSequence());
+        Map<String, DepthLevel> expected = new TreeMap<>();
+        end.getBids().forEach(l -> expected.put(l.getSide() + "@" + l.getPrice(), l));
+        end.getAsks().forEach(l -> expected.put(l.getSide() + "@" + l.getPrice(), l));
+        assertEquals(expected, levels);
+        assertEquals(List.of(new DepthLevel(OrderType.SELL, new BigDecimal("100.00"), 3, 1)), end.getAsks());
+        assertEquals(List.of(new DepthLevel(OrderType.SELL, new BigDecimal("98.00"), 0, 0)),
+                updates.get(updates.size() - 1).getChanges());
+    }
+
+    @Test
+    void depthReturnsTopLevelsWithWholeBookTotals() {
+        book.addOrder(order(OrderType.BUY, "99.00", 4));
+        book.addOrder(order(OrderType.BUY, "99.00", 6));
+        book.addOrder(order(OrderType.BUY, "98.00", 5));
+        book.addOrder(order(OrderType.BUY, "97.00", 1));
+        Order ask = order(OrderType.SELL, "101.00", 8);
+        book.addOrder(ask);
+        book.addOrder(order(OrderType.SELL, "99.00", 3));
+        book.cancelOrder(ask.getId());
+
+        OrderBook.DepthSnapshot depth = book.getDepth(2);
+
+        assertEquals(List.of(new DepthLevel(OrderType.BUY, new BigDecimal("99.00"), 7, 2),
+                new DepthLevel(OrderType.BUY, new BigDecimal("98.00"), 5, 1)), depth.getBids());
+        assertEquals(List.of(), depth.getAsks());
+        assertEquals(3, depth.getBidLevels());
+        assertEquals(0, depth.getAskLevels());
+        assertEquals(13, depth.getTotalBidQuantity());
+        assertEquals(0, depth.getTotalAskQuantity());
+    }
+
+    @Test
+    void rejectsPriceOffTickGrid() {
+        assertThrows(IllegalArgumentException.class,
+                () -> book.addOrder(order(OrderType.BUY, "100.005", 1)));
+        assertEquals(0, book.getActiveOrderCount());
+    }
+
+    @Test
+    void batchMatchesLikeSingleOrdersButPublishesOneDelta() {
+        List<DepthUpdate> updates = new ArrayList<>();
+        OrderBook feed = new OrderBook("AAPL", TickSize.of("0.01"), false, CommandLog.NONE,
+                delta -> updates.add(delta.toUpdate()));
+        feed.addOrder(order(OrderType.SELL, "100.00", 5));
+        updates.clear();
+
+        List<Order> batch = List.of(
+                order(OrderType.BUY, "99.00", 3),
+                order(OrderType.BUY, "100.00", 5),
+                order(OrderType.SELL, "100.00", 2),
+                order(OrderType.SELL, "101.00", 1));
+        batch.forEach(o -> o.setPriceTicks(feed.getTickSize().toTicks(o.getPrice())));
+        List<FillBuffer> fills = feed.addOrders(batch, new FillBuffer(4));
+
+        assertEquals(List.of(0, 1, 0, 0), fills.stream().map(FillBuffer::size).toList());
+        assertEquals(OrderStatus.FILLED, batch.get(1).getStatus());
+        assertEquals(1, updates.size());
+        // 100.00 ask was emptied then re-created by a later order in the batch
+        OrderBook.DepthSnapshot depth = feed.getDepth();
+        assertEquals(updates.get(0).getSequence(), depth.getSequence());
+        assertEquals(List.of(new DepthLevel(OrderType.SELL, new BigDecimal("100.00"), 2, 1),
+                new DepthLevel(OrderType.SELL, new BigDecimal("101.00"), 1, 1)), depth.getAsks());
+        DepthLevel last100 = null;
+        for (DepthLevel change : updates.get(0).getChanges()) {
+            if (change.getSide() == OrderType.SELL && change.getPrice().compareTo(new BigDecimal("100.00")) == 0) {
+                last100 = change;
+            }
+        }
+        assertEquals(2, last100.getQuantity());
+    }
+
+    @Test
+    void massCancelFiltersByUserAndSide() {
+        Order mine = order(OrderType.BUY, "99.00", 4);
+        book.addOrder(mine);
+        book.addOrder(order(OrderType.SELL, "101.00", 4));
+        book.addOrder(Order.createNew("AAPL", OrderType.BUY, new BigDecimal("98.00"), 2, "u2"));
+
+        assertEquals(List.of(mine.getId()), book.cancelOrders("u1", OrderType.BUY));
+        assertFalse(book.cancelOrder(mine.getId()));
+        assertEquals(2, book.getActiveOrderCount());
+        assertEquals(2, book.cancelOrders(null, null).size());
+        assertEquals(0, book.getActiveOrderCount());
+    }
+
+    @Test
+    void engineAndForeignIdsAreIndexedAndReportedUnchanged() {
+        Order engine = order(OrderType.SELL, "100.00", 1);
+        Order foreign = order(OrderType.SELL, "100.00", 1);
+        foreign.setId("client-7");
+        book.addOrder(engine);
+        book.addOrder(foreign);
+        Order other = order(OrderType.SELL, "101.00", 1);
+        other.setId("client-8");
+        book.addOrder(other);
+
+        assertTrue(book.cancelOrder("client-8"));
+        assertFalse(book.cancelOrder("client-8"));
+        assertFalse(book.cancelOrder(engine.getId() + "0"));
+        Order taker = order(OrderType.BUY, "100.00", 2);
+        taker.setPriceTicks(book.getTickSize().toTicks(taker.getPrice()));
+        FillBuffer fills = book.addOrderCopy(taker);
+
+        assertEquals(engine.getId(), fills.sellOrderId(0));
+        assertEquals(Long.parseLong(engine.getId()), fills.sellOrderKey(0));
+        assertEquals("client-7", fills.sellOrderId(1));
+        assertTrue(fills.sellOrderKey(1) < 0, "foreign ids get a book-local alias");
+        assertEquals(taker.getId(), fills.buyOrderId(1));
+        assertEquals(0, book.getActiveOrderCount());
+    }
+
+    @Test
+    void freedSlotsAreReusedInPriorityOrder() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Order order = order(OrderType.BUY, i % 2 == 0 ? "99.00" : "98.00", 1);
+            book.addOrder(order);
+            orders.add(order);
+        }
+        for (int i = 0; i < 200; i += 3) {
+            assertTrue(book.cancelOrder(orders.get(i).getId()));
+        }
+        Order late = order(OrderType.BUY, "99.00", 1);
+        book.addOrder(late);
+
+        List<String> expected = new ArrayList<>();
+        for (int price = 0; price < 2; price++) {
+            for (int i = price; i < 200; i += 2) {
+                if (i % 3 != 0) {
+                    expected.add(orders.get(i).getId());
+                }
+            }
+            if (price == 0) {
+                expected.add(late.getId());
+            }
+        }
+        assertEquals(expected, book.getSnapshot().getBuyOrders().stream().map(Order::getId).toList());
+    }
+
+    @Test
+    void amendDownInPlaceKeepsQueuePosition() {
+        List<DepthUpdate> updates = new ArrayList<>();
+        OrderBook feed = new OrderBook("AAPL", TickSize.of("0.01"), false, CommandLog.NONE,
+                delta -> updates.add(delta.toUpdate()));
+        Order first = order(OrderType.SELL, "100.00", 10);
+        Order second = order(OrderType.SELL, "100.00", 5);
+        feed.addOrder(first);
+        feed.addOrder(second);
+        updates.clear();
+
+        OrderBook.Amendment amendment = feed.amendOrder(first.getId(), 10_000, 4);
+
+        assertFalse(amendment.isRequeued());
+        assertEquals(4, amendment.getOrder().getRemainingQuantity());
+        assertEquals(List.of(new DepthLevel(OrderType.SELL, new BigDecimal("100.00"), 9, 2)),
+                updates.get(0).getChanges());
+        List<Trade> trades = feed.addOrder(order(OrderType.BUY, "100.00", 4));
+        assertEquals(first.getId(), trades.get(0).getSellOrderId(), "still first in the queue");
+        assertEquals(2, updates.size(), "one delta for the amend, one for the buy");
+    }
+
+    @Test
+    void amendUpOrRepriceRequeuesAndCanMatch() {
+        Order first = order(OrderType.SELL, "100.00", 5);
+        Order second = order(OrderType.SELL, "100.00", 5);
+        Order bid = order(OrderType.BUY, "99.00", 3);
+        book.addOrder(first);
+        book.addOrder(second);
+        book.addOrder(bid);
+
+        OrderBook.Amendment bigger = book.amendOrder(first.getId(), 10_000, 6);
+        assertTrue(bigger.isRequeued());
+        assertEquals(List.of(second.getId(), first.getId()),
+                book.getSnapshot().getSellOrders().stream().map(Order::getId).toList());
+
+        OrderBook.Amendment crossing = book.amendOrder(bid.getId(), 10_000, 8);
+        assertTrue(crossing.isRequeued());
+        assertEquals(2, crossing.getFills().size());
+        assertEquals(second.getId(), crossing.getFills().sellOrderId(0));
+        assertEquals(first.getId(), crossing.getFills().sellOrderId(1));
+        assertEquals(OrderStatus.FILLED, crossing.getOrder().getStatus());
+        assertEquals(bid.getId(), crossing.getOrder().getId());
+        List<Order> sells = book.getSnapshot().getSellOrders();
+        assertEquals(1, sells.size());
+        assertEquals(3, sells.get(0).getRemainingQuantity());
+    }
+
+    @Test
+    void amendCannotGoBelowTheFilledQuantity() {
+        Order ask = order(OrderType.SELL, "100.00", 10);
+        book.addOrder(ask);
+        book.addOrder(order(OrderType.BUY, "100.00", 6));
+
+        assertThrows(IllegalArgumentException.class, () -> book.amendOrder(ask.getId(), 10_000, 6));
+        OrderBook.Amendment amendment = book.amendOrder(ask.getId(), 10_000, 7);
+        assertEquals(1, amendment.getOrder().getRemainingQuantity());
+        assertEquals(OrderStatus.PARTIALLY_FILLED, amendment.getOrder().getStatus());
+        assertNull(book.amendOrder("missing", 10_000, 7));
+    }
+
+    @Test
+    void dueOrdersExpireTogetherInOneDelta() {
+        List<DepthUpdate> updates = new ArrayList<>();
+        OrderBook feed = new OrderBook("AAPL", TickSize.of("0.01"), false, CommandLog.NONE,
+                delta -> updates.add(delta.toUpdate()));
+        long now = System.currentTimeMillis();
+        Order soon = gtd(order(OrderType.BUY, "99.00", 5), now + 1_000);
+        Order alsoSoon = gtd(order(OrderType.SELL, "101.00", 5), now + 1_500);
+        Order filled = gtd(order(OrderType.SELL, "100.50", 5), now + 1_000);
+        // More than one wheel revolution out
+        Order later = gtd(order(OrderType.BUY, "98.00", 5), now + 3_600_000);
+        Order gtc = order(OrderType.BUY, "99.00", 5);
+        for (Order o : List.of(soon, alsoSoon, filled, later, gtc)) {
+            feed.addOrder(o);
+        }
+        feed.addOrder(order(OrderType.BUY, "100.50", 5));
+        assertEquals(4, feed.getActiveOrderCount(), "the filled GTD order left the book");
+        updates.clear();
+
+        assertEquals(List.of(), feed.expireOrders(now + 999));
+        List<String> expired = feed.expireOrders(now + 2_000);
+
+        assertEquals(2, expired.size());
+        assertTrue(expired.containsAll(List.of(soon.getId(), alsoSoon.getId())));
+        assertEquals(1, updates.size(), "one delta for the whole tick");
+        assertEquals(List.of(gtc.getId(), later.getId()),
+                feed.getSnapshot().getBuyOrders().stream().map(Order::getId).toList());
+        assertTrue(feed.getSnapshot().getSellOrders().isEmpty());
+        assertEquals(List.of(), feed.expireOrders(now + 60_000), "not yet due after a full revolution");
+        assertTrue(feed.hasPendingExpiries());
+
+        assertEquals(List.of(later.getId()), feed.expireOrders(now + 3_600_000));
+        assertFalse(feed.hasPendingExpiries());
+    }
+
+    @Test
+    void amendKeepsTheExpiryAndCancelDropsIt() {
+        long now = System.currentTimeMillis();
+        Order ask = gtd(order(OrderType.SELL, "100.00", 10), now + 1_000);
+        Order other = gtd(order(OrderType.SELL, "100.00", 10), now + 1_000);
+        book.addOrder(ask);
+        book.addOrder(other);
+
+        book.amendOrder(ask.getId(), 10_000, 8);
+        OrderBook.Amendment requeued = book.amendOrder(other.getId(), 10_100, 10);
+        assertEquals(TimeInForce.GTD, requeued.getOrder().getTimeInForce());
+        assertEquals(other.getExpireTime(), requeued.getOrder().getExpireTime());
+        assertTrue(book.cancelOrder(ask.getId()));
+
+        assertEquals(List.of(other.getId()), book.expireOrders(now + 1_000));
+        assertEquals(0, book.getActiveOrderCount());
+    }
+
+    @Test
+    void ordersAreFoundByIdAndUserAfterLeavingTheBook() {
+        Order maker = order(OrderType.SELL, "100.00", 5);
+        Order partial = order(OrderType.SELL, "100.00", 5);
+        Order cancelled = Order.createNew("AAPL", OrderType.BUY, new BigDecimal("98.00"), 5, "u2");
+        book.addOrder(maker);
+        book.addOrder(partial);
+        book.addOrder(cancelled);
+        Order taker = Order.createNew("AAPL", OrderType.BUY, new BigDecimal("100.00"), 7, "u2");
+        book.addOrder(taker);
+        book.cancelOrder(cancelled.getId());
+
+        assertEquals(OrderStatus.FILLED, book.findOrder(maker.getId()).getStatus());
+        assertEquals(OrderStatus.FILLED, book.findOrder(taker.getId()).getStatus());
+        assertEquals(OrderStatus.PARTIALLY_FILLED, book.findOrder(partial.getId()).getStatus());
+        Order found = book.findOrder(cancelled.getId());
+        assertEquals(OrderStatus.CANCELLED, found.getStatus());
+        assertEquals(5, found.getRemainingQuantity());
+        assertEquals("u2", found.getUserId());
+        assertNull(book.findOrder("missing"));
+
+        // Resting first, then terminal, newest first
+        assertEquals(List.of(partial.getId(), maker.getId()),
+                book.ordersOf("u1").stream().map(Order::getId).toList());
+        assertEquals(List.of(cancelled.getId(), taker.getId()),
+                book.ordersOf("u2").stream().map(Order::getId).toList());
+        assertEquals(List.of(), book.ordersOf("nobody"));
+    }
+
+    @Test
+    void terminalOrdersAreBoundedAndForgottenWithTheLocator() {
+        List<String> forgotten = new ArrayList<>();
+        OrderLocator locator = new OrderLocator() {
+            @Override
+            public void track(String orderId, String symbol) {
+            }
+
+            @Override
+            public void forget(long key, String foreignId, String symbol) {
+                forgotten.add(foreignId != null ? foreignId : Long.toString(key));
+            }
+        };
+        OrderBook small = new OrderBook("AAPL", TickSize.of("0.01"), false, CommandLog.NONE,
+                DepthListener.NONE, MatchingMetrics.NONE, locator, 2, 60_000);
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Order o = order(OrderType.BUY, "99.00", 1);
+            orders.add(o);
+            small.addOrder(o);
+            small.cancelOrder(o.getId());
+        }
+
+        assertNull(small.findOrder(orders.get(0).getId()));
+        assertEquals(List.of(orders.get(0).getId()), forgotten);
+        assertEquals(List.of(orders.get(2).getId(), orders.get(1).getId()),
+                small.ordersOf("u1").stream().map(Order::getId).toList());
+
+        OrderBook expired = new OrderBook("AAPL", TickSize.of("0.01"), false, CommandLog.NONE,
+                DepthListener.NONE, MatchingMetrics.NONE, OrderLocator.NONE, 2, -1);
+        Order o = order(OrderType.BUY, "99.00", 1);
+        expired.addOrder(o);
+        expired.cancelOrder(o.getId());
+        assertNull(expired.findOrder(o.getId()), "past its TTL");
+    }
+
+    private static Order gtd(Order order, long expiresAtMillis) {
+        order.setTimeInForce(TimeInForce.GTD);
+        order.setExpireTime(LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAtMillis),
+                ZoneId.systemDefault()));
+        return order;
+    }
+
+    @Test
+    void lockModeCopiesFillsOutOfTheBooksBuffer() {
+        book.addOrder(order(OrderType.SELL, "100.00", 5));
+        Order taker = order(OrderType.BUY, "100.00", 3);
+        taker.setPriceTicks(book.getTickSize().toTicks(taker.getPrice()));
+
+        FillBuffer fills = book.addOrderCopy(taker);
+        Order next = order(OrderType.BUY, "100.00", 2);
+        next.setPriceTicks(book.getTickSize().toTicks(next.getPrice()));
+        book.addOrderCopy(next);
+
+        assertEquals(1, fills.size(), "a later order must not overwrite the copy");
+        assertEquals(3, fills.quantity(0));
+        Order resting = order(OrderType.BUY, "99.00", 1);
+        resting.setPriceTicks(book.getTickSize().toTicks(resting.getPrice()));
+        assertSame(FillBuffer.EMPTY, book.addOrderCopy(resting));
+        assertThrows(IllegalStateException.class,
+                () -> new OrderBook("AAPL", TickSize.of("0.01"), true).addOrderCopy(resting));
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.stock_trading_engine.orderbook;
+
+import com.stock_trading_engine.model.TimeInForce;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    // 8 buckets of 10 ms: a round is 80 ms, the far level reaches 640 ms
+    private static final long START = 1_000_000;
+
+    private final OrderStore orders = new OrderStore();
+
+    private final TimingWheel wheel = new TimingWheel(8, 10, START);
+
+    private int slot(long expiry) {
+        int slot = orders.add(String.valueOf(orders.size() + 1), "u", true, 100, 1, 1, orders.size(), 0,
+                TimeInForce.GTD, expiry);
+        wheel.schedule(orders, slot);
+        return slot;
+    }
+
+    private List<Integer> expire(long nowMillis) {
+        int count = wheel.expire(orders, nowMillis);
+        List<Integer> due = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            due.add(wheel.due(i));
+        }
+        return due;
+    }
+
+    @Test
+    void farSlotsStayOutOfTheNearBucketsUntilTheirRound() {
+        int soon = slot(START + 25);
+        int nextRound = slot(START + 100);
+        int farLevel = slot(START + 500);
+        int overflow = slot(START + 5_000);
+        assertEquals(4, wheel.size());
+        assertEquals(1, wheel.nearSize(), "only the slot due this round is walked");
+
+        assertEquals(List.of(), expire(START + 24));
+        assertEquals(List.of(soon), expire(START + 25));
+        assertEquals(List.of(), expire(START + 99));
+        assertEquals(List.of(nextRound), expire(START + 100));
+        assertEquals(0, wheel.nearSize());
+        assertEquals(List.of(), expire(START + 499));
+        assertEquals(1, wheel.nearSize(), "moved in as its round began");
+        assertEquals(List.of(farLevel), expire(START + 505));
+        assertEquals(List.of(), expire(START + 4_999));
+        assertEquals(List.of(overflow), expire(START + 5_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void slotsCancelFromEveryLevel() {
+        int near = slot(START + 5);
+        int far = slot(START + 300);
+        int overflow = slot(START + 3_000);
+        int kept = slot(START + 3_001);
+
+        wheel.cancel(orders, far);
+        wheel.cancel(orders, overflow);
+        wheel.cancel(orders, near);
+        assertEquals(1, wheel.size());
+        assertEquals(0, wheel.nearSize());
+
+        assertEquals(List.of(kept), expire(START + 10_000), "one call catches up many rounds");
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void everySlotExpiresOnceAndOnTime() {
+        List<Long> expiries = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            long expiry = START + (i * 7919L) % 4_000;
+            slot(expiry);
+            expiries.add(expiry);
+        }
+        List<Integer> seen = new ArrayList<>();
+        for (long now = START; now <= START + 4_000; now += 3) {
+            for (int slot : expire(now)) {
+                long expiry = expiries.get(slot);
+                assertTrue(expiry <= now && expiry > now - 3, "slot " + slot + " due " + expiry + " at " + now);
+                seen.add(slot);
+            }
+        }
+        assertEquals(500, seen.size());
+        assertEquals(500, seen.stream().distinct().count());
+        assertEquals(0, wheel.size());
+    }
+
+}
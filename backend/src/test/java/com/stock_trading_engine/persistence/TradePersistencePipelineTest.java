@@ -0,0 +1,231 @@
+package com.stock_trading_engine.persistence;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.marketdata.CandleAggregator;
+import com.stock_trading_engine.marketdata.MarketDataPublisher;
+import com.stock_trading_engine.marketdata.RecentTradeCache;
+import com.stock_trading_engine.marketdata.SlowConsumerGuard;
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.model.Trade;
+import com.stock_trading_engine.orderbook.FillBuffer;
+import com.stock_trading_engine.orderbook.OrderBook;
+import com.stock_trading_engine.orderbook.TickSize;
+import com.stock_trading_engine.repo.TradeBatchWriter;
+import com.stock_trading_engine.repo.TradeHistoryReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradePersistencePipelineTest {
+
+    private JdbcTemplate jdbc;
+
+    private DataSourceTransactionManager transactions;
+
+    private final OrderBook book = new OrderBook("AAPL", TickSize.of("0.01"));
+
+    @TempDir
+    Path spillDirectory;
+
+    @BeforeEach
+    void createTable() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        transactions = new DataSourceTransactionManager(dataSource);
+        jdbc.execute("CREATE TABLE trades (id VARCHAR(36) PRIMARY KEY, symbol VARCHAR(16) NOT NULL, "
+                + "buy_order_id VARCHAR(64) NOT NULL, sell_order_id VARCHAR(64) NOT NULL, "
+                + "price NUMERIC(19, 4) NOT NULL, quantity BIGINT NOT NULL, \"timestamp\" TIMESTAMP NOT NULL, "
+                + "buyer_id VARCHAR(64), seller_id VARCHAR(64))");
+    }
+
+    @AfterEach
+    void dropTable() {
+        jdbc.execute("SHUTDOWN");
+    }
+
+    private EngineProperties properties() {
+        EngineProperties properties = new EngineProperties();
+        properties.getPersistence().setRetryBackoffMillis(1);
+        properties.getPersistence().setMaxDelayMillis(20);
+        properties.getPersistence().setSpillDirectory(spillDirectory.toString());
+        return properties;
+    }
+
+    private static MarketDataPublisher publisher(EngineProperties properties) {
+        return new MarketDataPublisher(new SimpMessagingTemplate((message, timeout) -> true),
+                new SlowConsumerGuard(properties), properties);
+    }
+
+    private TradePersistencePipeline pipeline(TradeBatchWriter writer, EngineProperties properties) {
+        MarketDataPublisher publisher = publisher(properties);
+        return new TradePersistencePipeline(writer, publisher, new RecentTradeCache(properties),
+                new CandleAggregator(publisher, new TradeHistoryReader(jdbc, transactions)), properties);
+    }
+
+    private FillBuffer trade(long quantity) {
+        book.addOrder(Order.createNew("AAPL", OrderType.SELL, new BigDecimal("100.00"), quantity, "s"));
+        Order buy = Order.createNew("AAPL", OrderType.BUY, new BigDecimal("100.00"), quantity, "b");
+        buy.setPriceTicks(book.getTickSize().toTicks(buy.getPrice()));
+        FillBuffer fills = new FillBuffer(4);
+        book.addOrder(buy, fills);
+        return fills.copy();
+    }
+
+    @Test
+    void everyFillIsWrittenOnceThroughTransientFailures() {
+        AtomicInteger failures = new AtomicInteger(2);
+        TradeBatchWriter flaky = new TradeBatchWriter(jdbc, transactions) {
+            @Override
+            public void write(List<Trade> trades) {
+                if (failures.getAndDecrement() > 0) {
+                    throw new DataAccessResourceFailureException("database unavailable");
+                }
+                super.write(trades);
+            }
+        };
+        EngineProperties properties = properties();
+        TradePersistencePipeline pipeline = pipeline(flaky, properties);
+        pipeline.start();
+
+        for (int i = 1; i <= 300; i++) {
+            pipeline.submit(trade(i));
+        }
+        pipeline.stop();
+
+        assertEquals(300, jdbc.queryForObject("SELECT COUNT(DISTINCT id) FROM trades", Long.class));
+        assertEquals(300 * 301 / 2, jdbc.queryForObject("SELECT SUM(quantity) FROM trades", Long.class));
+        TradePersistencePipeline.Stats stats = pipeline.getStats();
+        assertEquals(300, stats.getTradesPersisted());
+        assertEquals(2, stats.getRetries());
+        assertTrue(stats.getBatches() < 300, "expected batching, got " + stats);
+    }
+
+    @Test
+    void failingCacheAndCandlesDoNotStopTheWriter() {
+        EngineProperties properties = properties();
+        properties.getPersistence().setBatchSize(1);
+        MarketDataPublisher publisher = publisher(properties);
+        AtomicInteger cacheCalls = new AtomicInteger();
+        RecentTradeCache brokenCache = new RecentTradeCache(properties) {
+            @Override
+            public void add(List<Trade> trades) {
+                cacheCalls.incrementAndGet();
+                throw new IllegalStateException("cache broken");
+            }
+        };
+        CandleAggregator brokenCandles = new CandleAggregator(publisher, new TradeHistoryReader(jdbc, transactions)) {
+            @Override
+            public void onTrades(List<Trade> trades) {
+                throw new IllegalStateException("aggregator broken");
+            }
+        };
+        TradePersistencePipeline pipeline = new TradePersistencePipeline(new TradeBatchWriter(jdbc, transactions),
+                publisher, brokenCache, brokenCandles, properties);
+        pipeline.start();
+
+        for (int i = 1; i <= 20; i++) {
+            pipeline.submit(trade(i));
+        }
+        pipeline.stop();
+
+        assertEquals(20, jdbc.queryForObject("SELECT COUNT(*) FROM trades", Long.class));
+        assertEquals(20, pipeline.getStats().getTradesPersisted());
+        assertEquals(20, cacheCalls.get());
+    }
+
+    @Test
+    void fullQueueBlocksSubmitterInsteadOfDropping() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        TradeBatchWriter stalled = new TradeBatchWriter(jdbc, transactions) {
+            @Override
+            public void write(List<Trade> trades) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.write(trades);
+            }
+        };
+        EngineProperties properties = properties();
+        properties.getPersistence().setQueueCapacity(1);
+        properties.getPersistence().setBatchSize(1);
+        TradePersistencePipeline pipeline = pipeline(stalled, properties);
+        pipeline.start();
+
+        List<FillBuffer> fills = List.of(trade(1), trade(2), trade(3), trade(4));
+        Thread submitter = new Thread(() -> fills.forEach(pipeline::submit));
+        submitter.start();
+
+        // One batch is stuck in the writer, one fills the queue, the next submit waits
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (submitter.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(Thread.State.WAITING, submitter.getState());
+        assertTrue(pipeline.getStats().getBlockedSubmits() >= 1);
+
+        release.countDown();
+        submitter.join(5_000);
+        pipeline.stop();
+        assertEquals(4, jdbc.queryForObject("SELECT COUNT(*) FROM trades", Long.class));
+    }
+
+    @Test
+    void batchesUnwrittenAtShutdownAreWrittenOnTheNextStart() throws IOException {
+        TradeBatchWriter down = new TradeBatchWriter(jdbc, transactions) {
+            @Override
+            public void write(List<Trade> trades) {
+                throw new DataAccessResourceFailureException("database unavailable");
+            }
+        };
+        EngineProperties properties = properties();
+        TradePersistencePipeline first = pipeline(down, properties);
+        first.start();
+        for (int i = 1; i <= 50; i++) {
+            first.submit(trade(i));
+        }
+        first.stop();
+
+        assertEquals(0, first.getStats().getTradesPersisted());
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM trades", Long.class));
+        assertFalse(spills().isEmpty(), "expected the unwritten trades on disk");
+
+        TradePersistencePipeline second = pipeline(new TradeBatchWriter(jdbc, transactions), properties);
+        second.start();
+        second.stop();
+
+        assertEquals(50, jdbc.queryForObject("SELECT COUNT(DISTINCT id) FROM trades", Long.class));
+        assertEquals(50 * 51 / 2, jdbc.queryForObject("SELECT SUM(quantity) FROM trades", Long.class));
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM trades WHERE price <> 100", Long.class));
+        assertTrue(spills().isEmpty(), "written spills are deleted");
+    }
+
+    private List<Path> spills() throws IOException {
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            return files.toList();
+        }
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.stock_trading_engine.router;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    private static final List<String> FOUR = List.of("http://a:8080", "http://b:8080", "http://c:8080",
+            "http://d:8080");
+
+    @Test
+    void symbolsSpreadEvenlyAndDeterministically() {
+        ConsistentHashRing ring = new ConsistentHashRing(FOUR, 128);
+        ConsistentHashRing same = new ConsistentHashRing(FOUR, 128);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            String symbol = "SYM" + i;
+            assertEquals(ring.ownerOf(symbol), same.ownerOf(symbol));
+            counts.merge(ring.ownerOf(symbol), 1, Integer::sum);
+        }
+        assertEquals(4, counts.size());
+        counts.values().forEach(count -> assertTrue(count > 3_500 && count < 6_500, counts.toString()));
+    }
+
+    @Test
+    void addingAnInstanceOnlyMovesSymbolsToIt() {
+        ConsistentHashRing before = new ConsistentHashRing(FOUR, 128);
+        String added = "http://e:8080";
+        ConsistentHashRing after = new ConsistentHashRing(
+                List.of(FOUR.get(0), FOUR.get(1), FOUR.get(2), FOUR.get(3), added), 128);
+        int moved = 0;
+        for (int i = 0; i < 20_000; i++) {
+            String symbol = "SYM" + i;
+            if (!before.ownerOf(symbol).equals(after.ownerOf(symbol))) {
+                assertEquals(added, after.ownerOf(symbol));
+                moved++;
+            }
+        }
+        assertTrue(moved > 2_500 && moved < 5_500, "about a fifth should move, moved " + moved);
+    }
+
+}
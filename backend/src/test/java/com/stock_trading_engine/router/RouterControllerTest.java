@@ -0,0 +1,67 @@
+package com.stock_trading_engine.router;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.controller.OrderController;
+import com.stock_trading_engine.model.OrderStatus;
+import com.stock_trading_engine.model.OrderType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouterControllerTest {
+
+    private static RouterController controller(int port) {
+        EngineProperties properties = new EngineProperties();
+        properties.getRouter().setInstances(List.of("http://127.0.0.1:" + port));
+        properties.getRouter().setRequestTimeoutMillis(300);
+        return new RouterController(new SymbolRouter(properties));
+    }
+
+    private static List<OrderController.OrderRequest> batch() {
+        OrderController.OrderRequest request = new OrderController.OrderRequest();
+        request.setSymbol("AAPL");
+        request.setType(OrderType.BUY);
+        request.setPrice(new BigDecimal("100.00"));
+        request.setQuantity(5);
+        request.setUserId("u1");
+        return List.of(request);
+    }
+
+    private static OrderStatus status(Object result) {
+        return ((OrderController.OrderResponse) result).getStatus();
+    }
+
+    @Test
+    void unreachableOwnerRejectsTheBatchPart() throws Exception {
+        int port;
+        try (ServerSocket closed = new ServerSocket(0)) {
+            port = closed.getLocalPort();
+        }
+        List<Object> results = controller(port).submitOrders(batch()).getBody();
+        assertEquals(OrderStatus.REJECTED, status(results.get(0)));
+    }
+
+    @Test
+    void lostReplyIsReportedAsUnknownNotRejected() throws Exception {
+        // Accepts the connection and reads the request, but never answers
+        try (ServerSocket silent = new ServerSocket(0)) {
+            Thread acceptor = new Thread(() -> {
+                try (Socket socket = silent.accept()) {
+                    socket.getInputStream().read(new byte[8192]);
+                    Thread.sleep(5_000);
+                } catch (Exception ignored) {
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+            List<Object> results = controller(silent.getLocalPort()).submitOrders(batch()).getBody();
+            assertEquals(OrderStatus.UNKNOWN, status(results.get(0)));
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.stock_trading_engine.router;
+
+import com.stock_trading_engine.config.EngineProperties;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolRouterTest {
+
+    private static final byte[] BOOK = {1, 2, 3, 4};
+
+    @TempDir
+    Path dir;
+
+    private final List<HttpServer> engines = new ArrayList<>();
+
+    @AfterEach
+    void stopEngines() {
+        engines.forEach(engine -> engine.stop(0));
+    }
+
+    /*
+     * A stand-in engine: release answers BOOK, adopt answers adoptStatus
+     */
+    private String engine(int adoptStatus) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/admin/books/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            byte[] body = exchange.getRequestURI().getPath().endsWith("/release") ? BOOK
+                    : adoptStatus == 200 ? "1".getBytes() : new byte[0];
+            int status = exchange.getRequestURI().getPath().endsWith("/release") ? 200 : adoptStatus;
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                exchange.getResponseBody().write(body);
+            }
+            exchange.close();
+        });
+        server.start();
+        engines.add(server);
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private SymbolRouter router(String from, String to) {
+        EngineProperties properties = new EngineProperties();
+        properties.getRouter().setInstances(List.of(from, to));
+        properties.getRouter().setAssignments(Map.of("IBM", from));
+        properties.getRouter().setHandoverDirectory(dir.toString());
+        return new SymbolRouter(properties);
+    }
+
+    private List<Path> handoverFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.toList();
+        }
+    }
+
+    @Test
+    void adoptedHandoverIsDeleted() throws IOException {
+        String to = engine(200);
+        SymbolRouter router = router(engine(200), to);
+        assertEquals(1, router.move("IBM", to).getOrders());
+        assertEquals(to, router.ownerOf("IBM"));
+        assertTrue(handoverFiles().isEmpty());
+    }
+
+    @Test
+    void bookRefusedByBothEnginesStaysOnDisk() throws IOException {
+        String to = engine(500);
+        String from = engine(500);
+        SymbolRouter router = router(from, to);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> router.move("IBM", to));
+        List<Path> files = handoverFiles();
+        assertEquals(1, files.size());
+        assertTrue(e.getMessage().contains(files.get(0).toString()), e.getMessage());
+        assertArrayEquals(BOOK, Files.readAllBytes(files.get(0)));
+        assertEquals(from, router.ownerOf("IBM"));
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.stock_trading_engine.sequencer;
+
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.orderbook.OrderBook;
+import com.stock_trading_engine.orderbook.TickSize;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchingShardTest {
+
+    @Test
+    void stopWhileSubmittingLeavesNoFutureHanging() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            // A tiny ring so some submitters are parked on a full ring when stop lands
+            MatchingShard shard = new MatchingShard(round, 8);
+            OrderBook book = new OrderBook("AAPL", TickSize.of("0.01"));
+            shard.start();
+            List<CompletableFuture<Object>> futures = new CopyOnWriteArrayList<>();
+            CountDownLatch started = new CountDownLatch(4);
+            Thread[] submitters = new Thread[4];
+            for (int t = 0; t < submitters.length; t++) {
+                int user = t;
+                submitters[t] = new Thread(() -> {
+                    started.countDown();
+                    for (int i = 0; i < 2_000; i++) {
+                        Order order = Order.createNew("AAPL", OrderType.BUY, new BigDecimal("99.00"), 1, "u" + user);
+                        order.setPriceTicks(9_900);
+                        futures.add(shard.submit(CommandType.NEW_ORDER, book, order, null));
+                    }
+                });
+                submitters[t].start();
+            }
+            started.await();
+            shard.stop();
+            for (Thread submitter : submitters) {
+                submitter.join(5_000);
+                assertFalse(submitter.isAlive(), "submitter stuck on a stopped shard");
+            }
+
+            long executed = 0;
+            for (CompletableFuture<Object> future : futures) {
+                try {
+                    future.get(5, TimeUnit.SECONDS);
+                    executed++;
+                } catch (ExecutionException e) {
+                    assertInstanceOf(IllegalStateException.class, e.getCause());
+                }
+            }
+            // Every order that was accepted is on the book, and only those
+            assertEquals(executed, book.getActiveOrderCount());
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.stock_trading_engine.service;
+
+import com.stock_trading_engine.admission.AdmissionControl;
+import com.stock_trading_engine.config.EngineProperties;
+import com.stock_trading_engine.model.Order;
+import com.stock_trading_engine.model.OrderStatus;
+import com.stock_trading_engine.model.OrderType;
+import com.stock_trading_engine.orderbook.FillBuffer;
+import com.stock_trading_engine.orderbook.OrderBookManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchingEngineServiceTest {
+
+    private OrderBookManager manager;
+
+    @AfterEach
+    void tearDown() {
+        manager.shutdown();
+    }
+
+    private static Order order(String symbol, OrderType type, String price, long qty) {
+        return Order.createNew(symbol, type, new BigDecimal(price), qty, "u1");
+    }
+
+    private static AdmissionControl admission() {
+        EngineProperties properties = new EngineProperties();
+        properties.getAdmission().setSymbolQueue(10);
+        return new AdmissionControl(properties);
+    }
+
+    @Test
+    void singleOrdersAreCheckedLikeBatchOrders() {
+        manager = new OrderBookManager(new EngineProperties());
+        AdmissionControl admission = admission();
+        // Nothing here crosses, so no trades reach the (absent) persistence pipeline
+        MatchingEngineService engine = new MatchingEngineService(manager, null, admission);
+
+        for (Order invalid : List.of(order("AAPL", OrderType.BUY, "99.00", 0),
+                order("AAPL", OrderType.BUY, "99.00", -5),
+                order("AAPL", null, "99.00", 10),
+                order(null, OrderType.BUY, "99.00", 10))) {
+            assertThrows(IllegalArgumentException.class, () -> engine.processOrder(invalid));
+            assertNull(manager.findOrder(invalid.getId()));
+        }
+        assertEquals(0, manager.getOrderBook("AAPL").getActiveOrderCount());
+        assertEquals(0, admission.getStats().getAdmitted());
+
+        engine.processOrder(order("AAPL", OrderType.BUY, "99.00", 10));
+        assertEquals(1, manager.getOrderBook("AAPL").getActiveOrderCount());
+    }
+
+    @Test
+    void aFailingSymbolInABatchDoesNotHideTheOthers() {
+        manager = new OrderBookManager(new EngineProperties()) {
+            @Override
+            public List<FillBuffer> addOrders(String symbol, List<Order> orders) {
+                if (symbol.equals("MSFT")) {
+                    throw new IllegalStateException("Engine is stopping");
+                }
+                return super.addOrders(symbol, orders);
+            }
+        };
+        AdmissionControl admission = admission();
+        MatchingEngineService engine = new MatchingEngineService(manager, null, admission);
+
+        List<MatchingEngineService.OrderResult> results = engine.processOrders(List.of(
+                order("AAPL", OrderType.BUY, "99.00", 10),
+                order("MSFT", OrderType.BUY, "50.00", 10),
+                order("AAPL", OrderType.SELL, "101.00", 10)));
+
+        assertNull(results.get(0).getError());
+        assertNull(results.get(2).getError());
+        assertEquals(2, manager.getOrderBook("AAPL").getActiveOrderCount());
+        assertEquals(OrderStatus.UNKNOWN, results.get(1).getOrder().getStatus());
+        assertNotNull(results.get(1).getError());
+        assertEquals(0, admission.inFlight("MSFT"));
+    }
+
+}
@@ -7,6 +7,8 @@ import TradeHistory from './components/TradeHistory';
 import DepthChart from './components/DepthChart';
 import MyOrders from './components/MyOrders';
 import { orderAPI } from './services/api';
+import { useOrderBook } from './hooks/useOrderBook';
+import { useCandles } from './hooks/useCandles';
 
 function App() {
   const [symbols, setSymbols] = useState(['AAPL', 'GOOG']);
@@ -16,6 +18,10 @@ function App() {
   const [userId] = useState('user-' + Math.random().toString(36).substr(2, 9));
   const [symbolData, setSymbolData] = useState({});
   const [myOrders, setMyOrders] = useState([]);
+  // Aggregated levels for the active symbol, kept live by the depth feed
+  const { orderBook: depth } = useOrderBook(activeSymbol);
+  // Server-side 24h ticker (last price, high/low, volume, VWAP)
+  const { ticker } = useCandles(activeSymbol);
 
   const addSymbol = () => {
     const sym = newSymbol.toUpperCase().trim();
@@ -44,13 +50,9 @@ function App() {
       try {
         const dataPromises = symbols.map(async (symbol) => {
           try {
-            const [bookData, trades] = await Promise.all([
-              orderAPI.getOrderBook(symbol),
-              orderAPI.getRecentTrades(symbol, 50)
-            ]);
+            const trades = await orderAPI.getRecentTrades(symbol, 50);
             return {
               symbol,
-              orderBook: bookData || { symbol, buyOrders: [], sellOrders: [] },
               trades: trades || [],
               stats: trades && trades.length > 0 ? {
                 lastPrice: parseFloat(trades[0].price),
@@ -62,7 +64,6 @@ function App() {
           catch {
             return {
               symbol,
-              orderBook: { symbol, buyOrders: [], sellOrders: [] },
               trades: [],
               stats: { lastPrice: 0, totalTrades: 0, volume: 0 }
             };
@@ -72,6 +73,11 @@ function App() {
         const newData = {};
         results.forEach(r => { newData[r.symbol] = r; });
         setSymbolData(newData);
+        // The server's view of this user's orders replaces the local one
+        const orders = await orderAPI.getUserOrders(userId).catch(() => null);
+        if (orders) {
+          setMyOrders(orders.sort((a, b) => new Date(b.timestamp) - new Date(a.timestamp)));
+        }
         setRestConnected(true);
       } catch (error) {
         console.log('Backend not available:', error);
@@ -109,7 +115,6 @@ function App() {
   };
 
   const currentData = symbolData[activeSymbol] || {
-    orderBook: { symbol: activeSymbol, buyOrders: [], sellOrders: [] },
     trades: [],
     stats: { lastPrice: 0, totalTrades: 0, volume: 0 }
   };
@@ -174,17 +179,17 @@ function App() {
           </div>
         </div>
 
-        <StatsBar symbol={activeSymbol} lastPrice={currentData.stats.lastPrice} totalTrades={currentData.stats.totalTrades} volume={currentData.stats.volume} />
+        <StatsBar symbol={activeSymbol} ticker={ticker} lastPrice={currentData.stats.lastPrice} totalTrades={currentData.stats.totalTrades} volume={currentData.stats.volume} />
 
         <div className="grid grid-cols-1 xl:grid-cols-4 gap-6 mb-6">
           <div className="xl:col-span-1">
             <OrderForm symbol={activeSymbol} userId={userId} lastPrice={currentData.stats.lastPrice} onOrderSubmitted={handleOrderSubmitted} />
           </div>
           <div className="xl:col-span-1">
-            <OrderBook orderBook={currentData.orderBook} />
+            <OrderBook depth={depth} />
           </div>
           <div className="xl:col-span-1">
-            <DepthChart orderBook={currentData.orderBook} />
+            <DepthChart depth={depth} />
           </div>
           <div className="xl:col-span-1">
             <TradeHistory trades={currentData.trades} />
@@ -6,63 +6,42 @@ import { BarChart3 } from 'lucide-react';
  * Visualizes the cumulative buy/sell volume at each price level
  * This is how traders see market liquidity - the "walls" of orders
  */
-const DepthChart = ({ orderBook = {} }) => {
-  const sellOrders = orderBook.sellOrders || [];
-  const buyOrders = orderBook.buyOrders || [];
+const DepthChart = ({ depth = {} }) => {
+  const buyLevels = depth.bids || [];   // Highest first
+  const sellLevels = depth.asks || [];  // Lowest first
 
-  // Aggregate orders by price level and calculate cumulative depth
+  // Levels are already aggregated and sorted; only the cumulative sum is left
   const depthData = useMemo(() => {
-    // Aggregate buy orders (bids) - sorted high to low
-    const buyLevels = {};
-    buyOrders.forEach(order => {
-      const price = parseFloat(order.price).toFixed(2);
-      buyLevels[price] = (buyLevels[price] || 0) + (order.remainingQuantity || 0);
-    });
-
-    // Aggregate sell orders (asks) - sorted low to high  
-    const sellLevels = {};
-    sellOrders.forEach(order => {
-      const price = parseFloat(order.price).toFixed(2);
-      sellLevels[price] = (sellLevels[price] || 0) + (order.remainingQuantity || 0);
-    });
-
-    // Convert to arrays and sort
-    const buys = Object.entries(buyLevels)
-      .map(([price, qty]) => ({ price: parseFloat(price), quantity: qty }))
-      .sort((a, b) => b.price - a.price); // Highest first
-
-    const sells = Object.entries(sellLevels)
-      .map(([price, qty]) => ({ price: parseFloat(price), quantity: qty }))
-      .sort((a, b) => a.price - b.price); // Lowest first
-
-    // Calculate cumulative depth
     let cumBuy = 0;
-    const cumulativeBuys = buys.map(level => {
+    const cumulativeBuys = buyLevels.slice(0, 10).map(level => {
       cumBuy += level.quantity;
       return { ...level, cumulative: cumBuy };
     });
 
     let cumSell = 0;
-    const cumulativeSells = sells.map(level => {
+    const cumulativeSells = sellLevels.slice(0, 10).map(level => {
       cumSell += level.quantity;
       return { ...level, cumulative: cumSell };
     });
 
+    const totalBuyDepth = depth.totalBidQuantity || 0;
+    const totalSellDepth = depth.totalAskQuantity || 0;
+
     // Find max cumulative for scaling
     const maxCumulative = Math.max(
-      cumBuy,
-      cumSell,
+      totalBuyDepth,
+      totalSellDepth,
       1 // Prevent division by zero
     );
 
     return {
-      buys: cumulativeBuys.slice(0, 10),
-      sells: cumulativeSells.slice(0, 10),
+      buys: cumulativeBuys,
+      sells: cumulativeSells,
       maxCumulative,
-      totalBuyDepth: cumBuy,
-      totalSellDepth: cumSell
+      totalBuyDepth,
+      totalSellDepth
     };
-  }, [buyOrders, sellOrders]);
+  }, [buyLevels, sellLevels, depth.totalBidQuantity, depth.totalAskQuantity]);
 
   // Calculate spread
   const bestBid = depthData.buys[0]?.price || 0;
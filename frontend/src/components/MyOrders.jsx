@@ -4,7 +4,7 @@ import { ClipboardList, X, Clock, CheckCircle, XCircle, AlertCircle } from 'luci
 /**
  * MyOrders Component
  * Shows the user's own orders with status tracking and cancellation ability
- * Matches backend Order status: PENDING, PARTIALLY_FILLED, FILLED, CANCELLED
+ * Matches backend Order status: PENDING, OPEN, PARTIALLY_FILLED, FILLED, CANCELLED, EXPIRED
  */
 const MyOrders = ({ orders = [], onCancelOrder }) => {
   
@@ -13,6 +13,7 @@ const MyOrders = ({ orders = [], onCancelOrder }) => {
       case 'FILLED':
         return <CheckCircle className="w-4 h-4 text-emerald-400" />;
       case 'CANCELLED':
+      case 'EXPIRED':
         return <XCircle className="w-4 h-4 text-red-400" />;
       case 'PARTIALLY_FILLED':
         return <AlertCircle className="w-4 h-4 text-yellow-400" />;
@@ -26,13 +27,14 @@ const MyOrders = ({ orders = [], onCancelOrder }) => {
       PENDING: 'bg-blue-900/50 text-blue-300 border-blue-700',
       PARTIALLY_FILLED: 'bg-yellow-900/50 text-yellow-300 border-yellow-700',
       FILLED: 'bg-emerald-900/50 text-emerald-300 border-emerald-700',
-      CANCELLED: 'bg-red-900/50 text-red-300 border-red-700'
+      CANCELLED: 'bg-red-900/50 text-red-300 border-red-700',
+      EXPIRED: 'bg-red-900/50 text-red-300 border-red-700'
     };
     return styles[status] || styles.PENDING;
   };
 
   const canCancel = (status) => {
-    return status === 'PENDING' || status === 'PARTIALLY_FILLED';
+    return status === 'PENDING' || status === 'OPEN' || status === 'PARTIALLY_FILLED';
   };
 
   if (orders.length === 0) {
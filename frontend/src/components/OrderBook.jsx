@@ -3,50 +3,21 @@ import { BookOpen } from 'lucide-react';
 
 /**
  * OrderBook Component
- * Displays the limit order book with buy (bid) and sell (ask) orders
- * Uses PriorityQueue data from backend:
- * - buyOrders: Max-Heap (highest price first)
- * - sellOrders: Min-Heap (lowest price first)
+ * Displays the limit order book as aggregated price levels.
+ * Levels arrive already aggregated and sorted by the backend:
+ * - bids: highest price first
+ * - asks: lowest price first
  */
-const OrderBook = ({ orderBook = {} }) => {
-  const sellOrders = orderBook.sellOrders || [];
-  const buyOrders = orderBook.buyOrders || [];
+const OrderBook = ({ depth = {} }) => {
+  const sells = depth.asks || [];
+  const buys = depth.bids || [];
 
-  // Aggregate orders by price level for cleaner display
-  const aggregatedData = useMemo(() => {
-    // Aggregate sells by price
-    const sellLevels = {};
-    sellOrders.forEach(order => {
-      const price = parseFloat(order.price).toFixed(2);
-      if (!sellLevels[price]) {
-        sellLevels[price] = { price: parseFloat(price), quantity: 0, orders: 0 };
-      }
-      sellLevels[price].quantity += order.remainingQuantity || 0;
-      sellLevels[price].orders += 1;
-    });
-
-    // Aggregate buys by price
-    const buyLevels = {};
-    buyOrders.forEach(order => {
-      const price = parseFloat(order.price).toFixed(2);
-      if (!buyLevels[price]) {
-        buyLevels[price] = { price: parseFloat(price), quantity: 0, orders: 0 };
-      }
-      buyLevels[price].quantity += order.remainingQuantity || 0;
-      buyLevels[price].orders += 1;
-    });
-
-    const sells = Object.values(sellLevels).sort((a, b) => a.price - b.price);
-    const buys = Object.values(buyLevels).sort((a, b) => b.price - a.price);
-
-    // Find max quantity for bar scaling
-    const allQuantities = [...sells, ...buys].map(l => l.quantity);
-    const maxQuantity = Math.max(...allQuantities, 1);
-
-    return { sells, buys, maxQuantity };
-  }, [sellOrders, buyOrders]);
-
-  const { sells, buys, maxQuantity } = aggregatedData;
+  // Find max quantity among the displayed levels for bar scaling
+  const maxQuantity = useMemo(() => Math.max(
+    ...sells.slice(0, 10).map(l => l.quantity),
+    ...buys.slice(0, 10).map(l => l.quantity),
+    1
+  ), [sells, buys]);
 
   // Calculate spread
   const bestAsk = sells[0]?.price;
@@ -54,16 +25,16 @@ const OrderBook = ({ orderBook = {} }) => {
   const spread = bestAsk && bestBid ? (bestAsk - bestBid).toFixed(2) : '0.00';
   const midPrice = bestAsk && bestBid ? ((bestAsk + bestBid) / 2).toFixed(2) : '0.00';
 
-  // Calculate total depth
-  const totalBidDepth = buys.reduce((sum, l) => sum + l.quantity, 0);
-  const totalAskDepth = sells.reduce((sum, l) => sum + l.quantity, 0);
+  // Whole-book depth per side
+  const totalBidDepth = depth.totalBidQuantity || 0;
+  const totalAskDepth = depth.totalAskQuantity || 0;
 
   return (
     <div className="bg-slate-800 border border-slate-700 rounded-lg p-4 h-full">
       <h2 className="text-lg font-bold mb-3 flex items-center gap-2">
         <BookOpen className="w-5 h-5 text-blue-400" />
         Order Book
-        <span className="text-xs font-normal text-slate-500">({orderBook.symbol || 'N/A'})</span>
+        <span className="text-xs font-normal text-slate-500">({depth.symbol || 'N/A'})</span>
       </h2>
 
       {/* Header */}
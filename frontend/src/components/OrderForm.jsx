@@ -72,7 +72,9 @@ const OrderForm = ({ symbol, userId, lastPrice = 0, onOrderSubmitted }) => {
       console.error('Order error:', error);
       setMessage({
         type: 'error',
-        text: error.response?.data?.message || error.message || 'Failed to submit order'
+        // Rejections (400, and 429 / 503 from admission control) carry a plain-text reason
+        text: (typeof error.response?.data === 'string' && error.response.data)
+          || error.response?.data?.message || error.message || 'Failed to submit order'
       });
     } finally {
       setLoading(false);
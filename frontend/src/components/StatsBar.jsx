@@ -1,11 +1,18 @@
 import React from 'react';
 import { DollarSign, Activity, TrendingUp, Zap } from 'lucide-react';
 
+const price = (value) => (value != null ? `$${parseFloat(value).toFixed(2)}` : '—');
+
 /**
  * StatsBar Component
- * Displays key trading statistics for the current symbol
+ * Displays key trading statistics for the current symbol.
+ * ticker is the server's rolling 24h aggregate (see useCandles); the
+ * other props are the fallback while it has not loaded yet.
  */
-const StatsBar = ({ symbol, lastPrice = 0, totalTrades = 0, volume = 0 }) => {
+const StatsBar = ({ symbol, ticker, lastPrice = 0, totalTrades = 0, volume = 0 }) => {
+  const last = ticker?.lastPrice != null ? parseFloat(ticker.lastPrice) : lastPrice;
+  const trades = ticker ? ticker.trades : totalTrades;
+  const tradedVolume = ticker ? ticker.volume : volume;
   return (
     <div className="grid grid-cols-2 md:grid-cols-4 gap-4 mb-6">
       {/* Symbol */}
@@ -26,18 +33,23 @@ const StatsBar = ({ symbol, lastPrice = 0, totalTrades = 0, volume = 0 }) => {
           <span className="text-slate-400 text-sm">Last Price</span>
         </div>
         <div className="text-2xl font-bold text-emerald-400 font-mono">
-          {lastPrice > 0 ? `$${lastPrice.toFixed(2)}` : '—'}
+          {last > 0 ? `$${last.toFixed(2)}` : '—'}
         </div>
+        {ticker && ticker.trades > 0 && (
+          <div className="text-xs text-slate-400 font-mono mt-1">
+            H {price(ticker.high)} · L {price(ticker.low)} · VWAP {price(ticker.vwap)}
+          </div>
+        )}
       </div>
       
       {/* Total Trades */}
       <div className="bg-slate-800 border border-slate-700 rounded-lg p-4">
         <div className="flex items-center gap-2 mb-1">
           <Activity className="w-4 h-4 text-blue-400" />
-          <span className="text-slate-400 text-sm">Total Trades</span>
+          <span className="text-slate-400 text-sm">{ticker ? '24h Trades' : 'Total Trades'}</span>
         </div>
         <div className="text-2xl font-bold text-white">
-          {totalTrades.toLocaleString()}
+          {trades.toLocaleString()}
         </div>
       </div>
       
@@ -45,10 +57,10 @@ const StatsBar = ({ symbol, lastPrice = 0, totalTrades = 0, volume = 0 }) => {
       <div className="bg-slate-800 border border-slate-700 rounded-lg p-4">
         <div className="flex items-center gap-2 mb-1">
           <TrendingUp className="w-4 h-4 text-purple-400" />
-          <span className="text-slate-400 text-sm">Volume</span>
+          <span className="text-slate-400 text-sm">{ticker ? '24h Volume' : 'Volume'}</span>
         </div>
         <div className="text-2xl font-bold text-white">
-          {volume.toLocaleString()}
+          {tradedVolume.toLocaleString()}
         </div>
       </div>
     </div>
@@ -0,0 +1,64 @@
+import { useState, useEffect } from 'react';
+import { orderAPI } from '../services/api';
+import wsService from '../services/websocket';
+
+/*
+ * OHLCV bars for one interval plus the rolling 24h ticker, computed on the
+ * server. Loads the recent bars once, then applies /topic/candles updates:
+ * each carries the current bar per interval, which either replaces the last
+ * bar (same openTime) or starts a new one.
+ */
+export const useCandles = (symbol, interval = '1m', limit = 100) => {
+  const [bars, setBars] = useState([]);
+  const [ticker, setTicker] = useState(null);
+
+  useEffect(() => {
+    let active = true;
+    let subscription = null;
+
+    const load = async () => {
+      try {
+        const candles = await orderAPI.getCandles(symbol, interval, limit);
+        if (!active) return;
+        setBars(candles.bars);
+        setTicker(candles.ticker);
+      } catch (err) {
+        console.error('Error fetching candles:', err);
+      }
+    };
+
+    const onUpdate = (update) => {
+      setTicker(update.ticker);
+      const bar = update.bars[interval];
+      if (!bar) return;
+      setBars(prev => {
+        const last = prev[prev.length - 1];
+        if (last && last.openTime === bar.openTime) return [...prev.slice(0, -1), bar];
+        if (last && last.openTime > bar.openTime) return prev;
+        return [...prev, bar].slice(-limit);
+      });
+    };
+
+    const removeListener = wsService.connect(() => {
+      if (!active) return;
+      if (subscription) subscription.unsubscribe();
+      subscription = wsService.subscribeToCandles(symbol, onUpdate);
+      load();
+    });
+
+    // Fallback if WebSocket is unavailable
+    const poll = setInterval(() => {
+      if (!wsService.isConnected()) load();
+    }, 5000);
+    if (!wsService.isConnected()) load();
+
+    return () => {
+      active = false;
+      removeListener();
+      clearInterval(poll);
+      if (subscription) subscription.unsubscribe();
+    };
+  }, [symbol, interval, limit]);
+
+  return { bars, ticker };
+};
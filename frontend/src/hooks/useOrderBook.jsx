@@ -1,33 +1,143 @@
 import { useState, useEffect } from 'react';
 import { orderAPI } from '../services/api';
+import wsService from '../services/websocket';
 
+const EMPTY_BOOK = { symbol: null, sequence: 0, bids: [], asks: [], totalBidQuantity: 0, totalAskQuantity: 0 };
+
+const toLevels = (levels, descending) =>
+  Array.from(levels.values()).sort((a, b) => (descending ? b.price - a.price : a.price - b.price));
+
+const total = (levels) => levels.reduce((sum, l) => sum + l.quantity, 0);
+
+/*
+ * Aggregated order book kept in sync from the depth-delta feed.
+ * Loads a sequence-stamped snapshot once, then applies /topic/depth deltas
+ * ({ side, price, quantity, orders }; quantity 0 removes the level).
+ * The server may conflate several book changes into one update covering
+ * firstSequence..sequence; levels are absolute, so it applies as long as
+ * firstSequence is not past our sequence + 1.
+ * Deltas that arrive while the snapshot is loading are buffered; a gap in
+ * sequence numbers triggers a fresh snapshot.
+ */
 export const useOrderBook = (symbol) => {
-  const [orderBook, setOrderBook] = useState({ buyOrders: [], sellOrders: [] });
+  const [orderBook, setOrderBook] = useState(EMPTY_BOOK);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
 
   useEffect(() => {
-    const fetchOrderBook = async () => {
+    let active = true;
+    let subscription = null;
+    let pending = [];       // deltas received before the snapshot arrived
+    let syncing = false;
+    let sequence = 0;
+    const bids = new Map(); // price -> { side, price, quantity, orders }
+    const asks = new Map();
+
+    const publish = () => {
+      const bidLevels = toLevels(bids, true);
+      const askLevels = toLevels(asks, false);
+      setOrderBook({
+        symbol,
+        sequence,
+        bids: bidLevels,
+        asks: askLevels,
+        totalBidQuantity: total(bidLevels),
+        totalAskQuantity: total(askLevels),
+      });
+    };
+
+    const applyChanges = (changes) => {
+      changes.forEach(change => {
+        const price = parseFloat(change.price);
+        const side = change.side === 'BUY' ? bids : asks;
+        if (change.quantity === 0) {
+          side.delete(price);
+        } else {
+          side.set(price, { ...change, price });
+        }
+      });
+    };
+
+    // Returns false on a sequence gap
+    const apply = (update) => {
+      if (update.sequence <= sequence) return true;
+      if ((update.firstSequence ?? update.sequence) > sequence + 1) return false;
+      applyChanges(update.changes);
+      sequence = update.sequence;
+      return true;
+    };
+
+    const resync = async () => {
+      syncing = true;
       try {
         setLoading(true);
-        const data = await orderAPI.getOrderBook(symbol);
-        setOrderBook(data);
+        const snapshot = await orderAPI.getDepth(symbol);
+        if (!active) return;
+        bids.clear();
+        asks.clear();
+        applyChanges([...snapshot.bids, ...snapshot.asks]);
+        sequence = snapshot.sequence;
+        syncing = false;
+        const buffered = pending;
+        pending = [];
+        if (!buffered.every(apply)) {
+          resync();
+          return;
+        }
+        publish();
         setError(null);
       } catch (err) {
-        setError(err.message);
-        console.error('Error fetching order book:', err);
+        syncing = false;
+        if (!active) return;
+        if (err.response?.status === 404) {
+          // No book yet for this symbol
+          bids.clear();
+          asks.clear();
+          sequence = 0;
+          publish();
+          setError(null);
+        } else {
+          setError(err.message);
+          console.error('Error fetching order book depth:', err);
+        }
       } finally {
-        setLoading(false);
+        if (active) setLoading(false);
+      }
+    };
+
+    const onDelta = (update) => {
+      if (syncing) {
+        pending.push(update);
+      } else if (apply(update)) {
+        publish();
+      } else {
+        console.warn(`Depth gap for ${symbol}: had ${sequence}, got ${update.sequence}; resyncing`);
+        pending.push(update);
+        resync();
       }
     };
 
-    fetchOrderBook();
-    
-    // Refresh every 5 seconds as fallback if WebSocket fails
-    const interval = setInterval(fetchOrderBook, 5000);
-    
-    return () => clearInterval(interval);
+    // Subscribe first so no delta between snapshot and subscription is lost
+    const removeListener = wsService.connect(() => {
+      if (!active) return;
+      if (subscription) subscription.unsubscribe();
+      subscription = wsService.subscribeToDepth(symbol, onDelta);
+      resync();
+    });
+
+    // Fallback if WebSocket is unavailable: poll the snapshot
+    const interval = setInterval(() => {
+      if (!wsService.isConnected() && !syncing) resync();
+    }, 5000);
+    if (!wsService.isConnected()) resync();
+
+    return () => {
+      active = false;
+      removeListener();
+      clearInterval(interval);
+      if (subscription) subscription.unsubscribe();
+    };
   }, [symbol]);
 
   return { orderBook, loading, error };
-};
\ No newline at end of file
+};
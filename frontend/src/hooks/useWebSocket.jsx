@@ -1,28 +1,22 @@
 import { useEffect, useRef, useState } from 'react';
 import wsService from '../services/websocket';
 
+// Live trades; order book depth comes from useOrderBook (delta feed)
 export const useWebSocket = (symbol) => {
   const [connected, setConnected] = useState(false);
   const [trades, setTrades] = useState([]);
-  const [orderBook, setOrderBook] = useState({ buyOrders: [], sellOrders: [] });
   const tradesSubscription = useRef(null);
-  const orderBookSubscription = useRef(null);
 
   useEffect(() => {
     // Connect to WebSocket
-    wsService.connect(
+    const removeListener = wsService.connect(
       () => {
         setConnected(true);
-        
+
         // Subscribe to trades
         tradesSubscription.current = wsService.subscribeToTrades(symbol, (trade) => {
           setTrades(prev => [trade, ...prev.slice(0, 49)]);
         });
-
-        // Subscribe to order book updates
-        orderBookSubscription.current = wsService.subscribeToOrderBook(symbol, (book) => {
-          setOrderBook(book);
-        });
       },
       (error) => {
         console.error('WebSocket connection error:', error);
@@ -32,14 +26,12 @@ export const useWebSocket = (symbol) => {
 
     // Cleanup on unmount
     return () => {
+      removeListener();
       if (tradesSubscription.current) {
         tradesSubscription.current.unsubscribe();
       }
-      if (orderBookSubscription.current) {
-        orderBookSubscription.current.unsubscribe();
-      }
     };
   }, [symbol]);
 
-  return { connected, trades, orderBook };
+  return { connected, trades };
 };
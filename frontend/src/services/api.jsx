@@ -22,12 +22,36 @@ export const orderAPI = {
     return response.data;
   },
 
+  // A user's resting and recently filled / cancelled / expired orders, all symbols
+  getUserOrders: async (userId) => {
+    const response = await api.get('/orders', {
+      params: { userId }
+    });
+    return response.data;
+  },
+
   // Get order book snapshot
   getOrderBook: async (symbol) => {
     const response = await api.get(`/orderbook/${symbol}`);
     return response.data;
   },
 
+  // Get aggregated depth, stamped with the depth-feed sequence (levels omitted = whole book)
+  getDepth: async (symbol, levels) => {
+    const response = await api.get(`/depth/${symbol}`, {
+      params: levels ? { levels } : {}
+    });
+    return response.data;
+  },
+
+  // Get OHLCV bars (oldest first) and the 24h ticker; interval is 1s, 1m, 5m or 1h
+  getCandles: async (symbol, interval = '1m', limit = 100) => {
+    const response = await api.get(`/candles/${symbol}`, {
+      params: { interval, limit }
+    });
+    return response.data;
+  },
+
   // Get recent trades
   getRecentTrades: async (symbol, limit = 50) => {
     const response = await api.get(`/trades/${symbol}`, {
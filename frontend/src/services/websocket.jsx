@@ -1,14 +1,182 @@
 import { Client } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
 
+// Decoder for the server's binary market data frames (MarketDataCodec): varints,
+// (length + 1)-prefixed UTF-8 strings, a type byte and the symbol first
+const textDecoder = new TextDecoder();
+
+export function decodeFrame(buffer) {
+  const bytes = new Uint8Array(buffer);
+  let pos = 0;
+
+  // Multiplication, not shifts: values can exceed 32 bits
+  const varint = () => {
+    let value = 0;
+    let scale = 1;
+    let b;
+    do {
+      b = bytes[pos++];
+      value += (b & 0x7f) * scale;
+      scale *= 128;
+    } while (b & 0x80);
+    return value;
+  };
+  const string = () => {
+    const length = varint() - 1;
+    if (length < 0) return null;
+    const value = textDecoder.decode(bytes.subarray(pos, pos + length));
+    pos += length;
+    return value;
+  };
+  const uuid = () => {
+    let hex = '';
+    let zero = true;
+    for (let i = 0; i < 16; i++) {
+      if (bytes[pos] !== 0) zero = false;
+      hex += bytes[pos++].toString(16).padStart(2, '0');
+    }
+    if (zero) return null;
+    return `${hex.slice(0, 8)}-${hex.slice(8, 12)}-${hex.slice(12, 16)}-${hex.slice(16, 20)}-${hex.slice(20)}`;
+  };
+  // One division of exact integers, so it equals parseFloat of the JSON decimal
+  const decimal = (unscaled, scale) => unscaled / 10 ** scale;
+
+  const type = String.fromCharCode(bytes[pos++]);
+  const symbol = string();
+  if (type === 'D') {
+    const firstSequence = varint();
+    const sequence = firstSequence + varint();
+    const tick = varint();
+    const tickScale = bytes[pos++];
+    const changes = new Array(varint());
+    for (let i = 0; i < changes.length; i++) {
+      const price = varint();
+      changes[i] = {
+        side: price % 2 === 0 ? 'BUY' : 'SELL',
+        price: decimal(Math.floor(price / 2) * tick, tickScale),
+        quantity: varint(),
+        orders: varint(),
+      };
+    }
+    return { type: 'depth', update: { symbol, firstSequence, sequence, changes } };
+  }
+  if (type === 'T') {
+    const trades = new Array(varint());
+    for (let i = 0; i < trades.length; i++) {
+      const id = uuid();
+      const unscaled = varint();
+      const price = decimal(unscaled, bytes[pos++]);
+      trades[i] = {
+        id,
+        symbol,
+        price,
+        quantity: varint(),
+        timestamp: varint(),
+        buyOrderId: string(),
+        sellOrderId: string(),
+        buyerId: string(),
+        sellerId: string(),
+      };
+    }
+    return { type: 'trades', trades };
+  }
+  throw new Error(`Unknown market data frame type ${type}`);
+}
+
+// Raw WebSocket carrying depth and trades as binary frames (opt-in with
+// VITE_WS_BINARY_URL, server engine.market-data.binary=true). Opened on the
+// first subscription; subscriptions are re-sent after a reconnect, and the
+// depth sequence check re-syncs anything missed meanwhile.
+class BinaryMarketDataSocket {
+  constructor(url) {
+    this.url = url;
+    this.socket = null;
+    this.handlers = new Map();
+    this.closed = false;
+  }
+
+  subscribe(destination, handler) {
+    this.handlers.set(destination, handler);
+    this.send(`SUBSCRIBE ${destination}`);
+    return {
+      unsubscribe: () => {
+        if (this.handlers.get(destination) === handler) {
+          this.handlers.delete(destination);
+          this.send(`UNSUBSCRIBE ${destination}`);
+        }
+      },
+    };
+  }
+
+  send(command) {
+    this.closed = false;
+    if (!this.socket) {
+      this.open();
+    } else if (this.socket.readyState === WebSocket.OPEN) {
+      this.socket.send(command);
+    }
+    // Otherwise onopen sends every current subscription
+  }
+
+  open() {
+    const socket = new WebSocket(this.url);
+    socket.binaryType = 'arraybuffer';
+    socket.onopen = () => {
+      this.handlers.forEach((_, destination) => socket.send(`SUBSCRIBE ${destination}`));
+    };
+    socket.onmessage = (event) => {
+      if (!(event.data instanceof ArrayBuffer)) return;
+      const frame = decodeFrame(event.data);
+      if (frame.type === 'depth') {
+        const handler = this.handlers.get(`/topic/depth/${frame.update.symbol}`);
+        if (handler) handler(frame.update);
+      } else {
+        const handler = frame.trades.length && this.handlers.get(`/topic/trades/${frame.trades[0].symbol}`);
+        if (handler) frame.trades.forEach(handler);
+      }
+    };
+    socket.onclose = () => {
+      this.socket = null;
+      if (!this.closed && this.handlers.size > 0) {
+        setTimeout(() => {
+          if (!this.socket && !this.closed && this.handlers.size > 0) this.open();
+        }, 5000);
+      }
+    };
+    this.socket = socket;
+  }
+
+  close() {
+    this.closed = true;
+    this.handlers.clear();
+    if (this.socket) {
+      this.socket.close();
+      this.socket = null;
+    }
+  }
+}
+
 class WebSocketService {
   constructor() {
     this.client = null;
     this.connected = false;
     this.subscriptions = new Map();
+    this.listeners = new Set();
+    const binaryUrl = import.meta.env.VITE_WS_BINARY_URL;
+    this.binary = binaryUrl ? new BinaryMarketDataSocket(binaryUrl) : null;
   }
 
+  // Several hooks share one connection; returns a function that removes the listener
   connect(onConnect, onError) {
+    const listener = { onConnect, onError };
+    this.listeners.add(listener);
+    const remove = () => this.listeners.delete(listener);
+
+    if (this.client) {
+      if (this.connected && onConnect) onConnect();
+      return remove;
+    }
+
     const wsUrl = import.meta.env.VITE_WS_URL || 'http://localhost:8080/ws';
 
     this.client = new Client({
@@ -24,24 +192,32 @@ class WebSocketService {
     this.client.onConnect = (frame) => {
       console.log('WebSocket Connected:', frame);
       this.connected = true;
-      if (onConnect) onConnect(frame);
+      this.listeners.forEach(l => l.onConnect && l.onConnect(frame));
     };
 
     this.client.onStompError = (frame) => {
       console.error('WebSocket Error:', frame);
       this.connected = false;
-      if (onError) onError(frame);
+      this.listeners.forEach(l => l.onError && l.onError(frame));
+    };
+
+    this.client.onWebSocketClose = () => {
+      this.connected = false;
     };
 
     this.client.activate();
+    return remove;
   }
 
   disconnect() {
     if (this.client) {
       this.client.deactivate();
+      this.client = null;
       this.connected = false;
       this.subscriptions.clear();
+      this.listeners.clear();
     }
+    if (this.binary) this.binary.close();
   }
 
   subscribeToTrades(symbol, callback) {
@@ -51,25 +227,47 @@ class WebSocketService {
     }
 
     const destination = `/topic/trades/${symbol}`;
-    const subscription = this.client.subscribe(destination, (message) => {
-      const trade = JSON.parse(message.body);
-      callback(trade);
-    });
+    const subscription = this.binary
+      ? this.binary.subscribe(destination, callback)
+      : this.client.subscribe(destination, (message) => {
+        const trade = JSON.parse(message.body);
+        callback(trade);
+      });
+
+    this.subscriptions.set(destination, subscription);
+    return subscription;
+  }
+
+  // Sequenced price-level deltas: { symbol, sequence, changes: [{ side, price, quantity, orders }] }
+  subscribeToDepth(symbol, callback) {
+    if (!this.client || !this.connected) {
+      console.error('WebSocket not connected');
+      return null;
+    }
+
+    const destination = `/topic/depth/${symbol}`;
+    const subscription = this.binary
+      ? this.binary.subscribe(destination, callback)
+      : this.client.subscribe(destination, (message) => {
+        const update = JSON.parse(message.body);
+        callback(update);
+      });
 
     this.subscriptions.set(destination, subscription);
     return subscription;
   }
 
-  subscribeToOrderBook(symbol, callback) {
+  // Current bar per interval and 24h ticker: { symbol, bars: { '1m': {...}, ... }, ticker }
+  subscribeToCandles(symbol, callback) {
     if (!this.client || !this.connected) {
       console.error('WebSocket not connected');
       return null;
     }
 
-    const destination = `/topic/orderbook/${symbol}`;
+    const destination = `/topic/candles/${symbol}`;
     const subscription = this.client.subscribe(destination, (message) => {
-      const orderBook = JSON.parse(message.body);
-      callback(orderBook);
+      const update = JSON.parse(message.body);
+      callback(update);
     });
 
     this.subscriptions.set(destination, subscription);